@@ -0,0 +1,86 @@
+package com.porter.DTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AssignmentPlan {
+    private String planId;
+    private LocalDateTime createdAt;
+    private int candidateDeliveries;
+    private int availablePorters;
+    private int partitions;
+    private long solveMillis;
+    private List<ProposedAssignment> assignments = new ArrayList<>();
+    // Deliveries in the horizon that no porter could take in this run
+    private List<Long> unassigned = new ArrayList<>();
+
+    // Default constructor
+    public AssignmentPlan() {
+    }
+
+    // Getters and Setters
+    public String getPlanId() {
+        return planId;
+    }
+
+    public void setPlanId(String planId) {
+        this.planId = planId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getCandidateDeliveries() {
+        return candidateDeliveries;
+    }
+
+    public void setCandidateDeliveries(int candidateDeliveries) {
+        this.candidateDeliveries = candidateDeliveries;
+    }
+
+    public int getAvailablePorters() {
+        return availablePorters;
+    }
+
+    public void setAvailablePorters(int availablePorters) {
+        this.availablePorters = availablePorters;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public long getSolveMillis() {
+        return solveMillis;
+    }
+
+    public void setSolveMillis(long solveMillis) {
+        this.solveMillis = solveMillis;
+    }
+
+    public List<ProposedAssignment> getAssignments() {
+        return assignments;
+    }
+
+    public void setAssignments(List<ProposedAssignment> assignments) {
+        this.assignments = assignments;
+    }
+
+    public List<Long> getUnassigned() {
+        return unassigned;
+    }
+
+    public void setUnassigned(List<Long> unassigned) {
+        this.unassigned = unassigned;
+    }
+}
@@ -0,0 +1,90 @@
+package com.porter.DTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkCreateResult {
+    private int received;
+    private int created;
+    private int failed;
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    private List<Long> deliveryIds = new ArrayList<>();
+    private List<RowError> errors = new ArrayList<>();
+
+    // Default constructor
+    public BulkCreateResult() {
+    }
+
+    // Getters and Setters
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public List<Long> getDeliveryIds() {
+        return deliveryIds;
+    }
+
+    public void setDeliveryIds(List<Long> deliveryIds) {
+        this.deliveryIds = deliveryIds;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+
+    public static class RowError {
+        // 1-based position in the upload (data rows only, header excluded)
+        private int row;
+        private String reference;
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(int row, String reference, String message) {
+            this.row = row;
+            this.reference = reference;
+            this.message = message;
+        }
+
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+        public String getReference() { return reference; }
+        public void setReference(String reference) { this.reference = reference; }
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,114 @@
+package com.porter.DTO;
+
+/**
+ * One line of a bulk booking manifest. Enum and date fields are kept as text so a
+ * malformed value is reported against its row instead of rejecting the whole upload.
+ */
+public class BulkDeliveryRow {
+    // Merchant's own identifier, echoed back in row errors
+    private String reference;
+    private Double pickupLatitude;
+    private Double pickupLongitude;
+    private String pickupAddress;
+    private Double deliveryLatitude;
+    private Double deliveryLongitude;
+    private String deliveryAddress;
+    private String packageType;
+    private Double packageWeight;
+    private String description;
+    // ISO-8601 local date-time, e.g. 2024-05-01T09:30
+    private String scheduledTime;
+
+    // Default constructor
+    public BulkDeliveryRow() {
+    }
+
+    // Getters and Setters
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public Double getPickupLatitude() {
+        return pickupLatitude;
+    }
+
+    public void setPickupLatitude(Double pickupLatitude) {
+        this.pickupLatitude = pickupLatitude;
+    }
+
+    public Double getPickupLongitude() {
+        return pickupLongitude;
+    }
+
+    public void setPickupLongitude(Double pickupLongitude) {
+        this.pickupLongitude = pickupLongitude;
+    }
+
+    public String getPickupAddress() {
+        return pickupAddress;
+    }
+
+    public void setPickupAddress(String pickupAddress) {
+        this.pickupAddress = pickupAddress;
+    }
+
+    public Double getDeliveryLatitude() {
+        return deliveryLatitude;
+    }
+
+    public void setDeliveryLatitude(Double deliveryLatitude) {
+        this.deliveryLatitude = deliveryLatitude;
+    }
+
+    public Double getDeliveryLongitude() {
+        return deliveryLongitude;
+    }
+
+    public void setDeliveryLongitude(Double deliveryLongitude) {
+        this.deliveryLongitude = deliveryLongitude;
+    }
+
+    public String getDeliveryAddress() {
+        return deliveryAddress;
+    }
+
+    public void setDeliveryAddress(String deliveryAddress) {
+        this.deliveryAddress = deliveryAddress;
+    }
+
+    public String getPackageType() {
+        return packageType;
+    }
+
+    public void setPackageType(String packageType) {
+        this.packageType = packageType;
+    }
+
+    public Double getPackageWeight() {
+        return packageWeight;
+    }
+
+    public void setPackageWeight(Double packageWeight) {
+        this.packageWeight = packageWeight;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getScheduledTime() {
+        return scheduledTime;
+    }
+
+    public void setScheduledTime(String scheduledTime) {
+        this.scheduledTime = scheduledTime;
+    }
+}
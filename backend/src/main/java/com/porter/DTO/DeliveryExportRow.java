@@ -0,0 +1,111 @@
+package com.porter.DTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.porter.model.PaymentStatus;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.PackageType;
+
+/**
+ * Flat, unmanaged delivery row used by the admin export so streaming does not grow the persistence context.
+ */
+public class DeliveryExportRow {
+    private Long id;
+    private DeliveryStatus status;
+    private PaymentStatus paymentStatus;
+    private PackageType packageType;
+    private Double packageWeight;
+    private String username;
+    private String porterName;
+    private String pickupAddress;
+    private String deliveryAddress;
+    private BigDecimal deliveryFee;
+    private BigDecimal amount;
+    private Double distance;
+    private LocalDateTime scheduledTime;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public DeliveryExportRow(Long id, DeliveryStatus status, PaymentStatus paymentStatus, PackageType packageType,
+                             Double packageWeight, String username, String porterName, String pickupAddress,
+                             String deliveryAddress, BigDecimal deliveryFee, BigDecimal amount, Double distance,
+                             LocalDateTime scheduledTime, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.status = status;
+        this.paymentStatus = paymentStatus;
+        this.packageType = packageType;
+        this.packageWeight = packageWeight;
+        this.username = username;
+        this.porterName = porterName;
+        this.pickupAddress = pickupAddress;
+        this.deliveryAddress = deliveryAddress;
+        this.deliveryFee = deliveryFee;
+        this.amount = amount;
+        this.distance = distance;
+        this.scheduledTime = scheduledTime;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public DeliveryStatus getStatus() {
+        return status;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+
+    public PackageType getPackageType() {
+        return packageType;
+    }
+
+    public Double getPackageWeight() {
+        return packageWeight;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPorterName() {
+        return porterName;
+    }
+
+    public String getPickupAddress() {
+        return pickupAddress;
+    }
+
+    public String getDeliveryAddress() {
+        return deliveryAddress;
+    }
+
+    public BigDecimal getDeliveryFee() {
+        return deliveryFee;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Double getDistance() {
+        return distance;
+    }
+
+    public LocalDateTime getScheduledTime() {
+        return scheduledTime;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,87 @@
+package com.porter.DTO;
+
+import java.math.BigDecimal;
+
+public class FareQuote {
+    private double distanceKm;
+    // ROUTED when a cached road route was used, ESTIMATED for the straight-line fallback
+    private String distanceSource;
+    private BigDecimal baseFare;
+    private double packageMultiplier;
+    private BigDecimal weightSurcharge;
+    private double surgeMultiplier;
+    private BigDecimal amount;
+
+    // Default constructor
+    public FareQuote() {
+    }
+
+    // Parameterized constructor
+    public FareQuote(double distanceKm, String distanceSource, BigDecimal baseFare, double packageMultiplier,
+                     BigDecimal weightSurcharge, double surgeMultiplier, BigDecimal amount) {
+        this.distanceKm = distanceKm;
+        this.distanceSource = distanceSource;
+        this.baseFare = baseFare;
+        this.packageMultiplier = packageMultiplier;
+        this.weightSurcharge = weightSurcharge;
+        this.surgeMultiplier = surgeMultiplier;
+        this.amount = amount;
+    }
+
+    // Getters and Setters
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public String getDistanceSource() {
+        return distanceSource;
+    }
+
+    public void setDistanceSource(String distanceSource) {
+        this.distanceSource = distanceSource;
+    }
+
+    public BigDecimal getBaseFare() {
+        return baseFare;
+    }
+
+    public void setBaseFare(BigDecimal baseFare) {
+        this.baseFare = baseFare;
+    }
+
+    public double getPackageMultiplier() {
+        return packageMultiplier;
+    }
+
+    public void setPackageMultiplier(double packageMultiplier) {
+        this.packageMultiplier = packageMultiplier;
+    }
+
+    public BigDecimal getWeightSurcharge() {
+        return weightSurcharge;
+    }
+
+    public void setWeightSurcharge(BigDecimal weightSurcharge) {
+        this.weightSurcharge = weightSurcharge;
+    }
+
+    public double getSurgeMultiplier() {
+        return surgeMultiplier;
+    }
+
+    public void setSurgeMultiplier(double surgeMultiplier) {
+        this.surgeMultiplier = surgeMultiplier;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
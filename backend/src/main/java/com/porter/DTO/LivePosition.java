@@ -0,0 +1,76 @@
+package com.porter.DTO;
+
+import java.time.LocalDateTime;
+
+public class LivePosition {
+    private Long deliveryId;
+    private String porterName;
+    private double latitude;
+    private double longitude;
+    private String status;
+    private LocalDateTime timestamp;
+
+    // Default constructor
+    public LivePosition() {
+    }
+
+    // Parameterized constructor
+    public LivePosition(Long deliveryId, String porterName, double latitude, double longitude,
+                        String status, LocalDateTime timestamp) {
+        this.deliveryId = deliveryId;
+        this.porterName = porterName;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.status = status;
+        this.timestamp = timestamp;
+    }
+
+    // Getters and Setters
+    public Long getDeliveryId() {
+        return deliveryId;
+    }
+
+    public void setDeliveryId(Long deliveryId) {
+        this.deliveryId = deliveryId;
+    }
+
+    public String getPorterName() {
+        return porterName;
+    }
+
+    public void setPorterName(String porterName) {
+        this.porterName = porterName;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,64 @@
+package com.porter.DTO;
+
+// Compact live position pushed on /topic/delivery/{id}/location
+public class LocationDelta {
+    private Long deliveryId;
+    private double lat;
+    private double lng;
+    private Integer heading;
+    private long ts;
+
+    // Default constructor
+    public LocationDelta() {
+    }
+
+    // Parameterized constructor
+    public LocationDelta(Long deliveryId, double lat, double lng, Integer heading, long ts) {
+        this.deliveryId = deliveryId;
+        this.lat = lat;
+        this.lng = lng;
+        this.heading = heading;
+        this.ts = ts;
+    }
+
+    // Getters and Setters
+    public Long getDeliveryId() {
+        return deliveryId;
+    }
+
+    public void setDeliveryId(Long deliveryId) {
+        this.deliveryId = deliveryId;
+    }
+
+    public double getLat() {
+        return lat;
+    }
+
+    public void setLat(double lat) {
+        this.lat = lat;
+    }
+
+    public double getLng() {
+        return lng;
+    }
+
+    public void setLng(double lng) {
+        this.lng = lng;
+    }
+
+    public Integer getHeading() {
+        return heading;
+    }
+
+    public void setHeading(Integer heading) {
+        this.heading = heading;
+    }
+
+    public long getTs() {
+        return ts;
+    }
+
+    public void setTs(long ts) {
+        this.ts = ts;
+    }
+}
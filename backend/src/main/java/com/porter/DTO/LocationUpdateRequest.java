@@ -0,0 +1,56 @@
+package com.porter.DTO;
+
+import java.time.LocalDateTime;
+
+public class LocationUpdateRequest {
+    private Long deliveryId;
+    private Double latitude;
+    private Double longitude;
+    private Double heading;
+    private LocalDateTime timestamp;
+
+    // Default constructor
+    public LocationUpdateRequest() {
+    }
+
+    // Getters and Setters
+    public Long getDeliveryId() {
+        return deliveryId;
+    }
+
+    public void setDeliveryId(Long deliveryId) {
+        this.deliveryId = deliveryId;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public Double getHeading() {
+        return heading;
+    }
+
+    public void setHeading(Double heading) {
+        this.heading = heading;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
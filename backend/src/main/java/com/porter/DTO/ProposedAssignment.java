@@ -0,0 +1,75 @@
+package com.porter.DTO;
+
+import java.time.LocalDateTime;
+
+public class ProposedAssignment {
+    private Long deliveryId;
+    private Long porterId;
+    private String porterName;
+    private double distanceKm;
+    // Expected minutes past the scheduled time when the porter reaches the pickup
+    private double lateMinutes;
+    private LocalDateTime scheduledTime;
+    private double cost;
+
+    // Default constructor
+    public ProposedAssignment() {
+    }
+
+    // Getters and Setters
+    public Long getDeliveryId() {
+        return deliveryId;
+    }
+
+    public void setDeliveryId(Long deliveryId) {
+        this.deliveryId = deliveryId;
+    }
+
+    public Long getPorterId() {
+        return porterId;
+    }
+
+    public void setPorterId(Long porterId) {
+        this.porterId = porterId;
+    }
+
+    public String getPorterName() {
+        return porterName;
+    }
+
+    public void setPorterName(String porterName) {
+        this.porterName = porterName;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public double getLateMinutes() {
+        return lateMinutes;
+    }
+
+    public void setLateMinutes(double lateMinutes) {
+        this.lateMinutes = lateMinutes;
+    }
+
+    public LocalDateTime getScheduledTime() {
+        return scheduledTime;
+    }
+
+    public void setScheduledTime(LocalDateTime scheduledTime) {
+        this.scheduledTime = scheduledTime;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    public void setCost(double cost) {
+        this.cost = cost;
+    }
+}
@@ -0,0 +1,68 @@
+package com.porter.DTO;
+
+import java.time.LocalDateTime;
+
+import com.porter.model.enums.PackageType;
+
+public class QuoteRequest {
+    private LocationDTO pickupLocation;
+    private LocationDTO deliveryLocation;
+    private PackageType packageType;
+    private Double packageWeight;
+    private LocalDateTime scheduledTime;
+    // Distance of the route alternative the client picked, used only to choose among routed alternatives
+    private Double distance;
+
+    // Default constructor
+    public QuoteRequest() {
+    }
+
+    // Getters and Setters
+    public LocationDTO getPickupLocation() {
+        return pickupLocation;
+    }
+
+    public void setPickupLocation(LocationDTO pickupLocation) {
+        this.pickupLocation = pickupLocation;
+    }
+
+    public LocationDTO getDeliveryLocation() {
+        return deliveryLocation;
+    }
+
+    public void setDeliveryLocation(LocationDTO deliveryLocation) {
+        this.deliveryLocation = deliveryLocation;
+    }
+
+    public PackageType getPackageType() {
+        return packageType;
+    }
+
+    public void setPackageType(PackageType packageType) {
+        this.packageType = packageType;
+    }
+
+    public Double getPackageWeight() {
+        return packageWeight;
+    }
+
+    public void setPackageWeight(Double packageWeight) {
+        this.packageWeight = packageWeight;
+    }
+
+    public LocalDateTime getScheduledTime() {
+        return scheduledTime;
+    }
+
+    public void setScheduledTime(LocalDateTime scheduledTime) {
+        this.scheduledTime = scheduledTime;
+    }
+
+    public Double getDistance() {
+        return distance;
+    }
+
+    public void setDistance(Double distance) {
+        this.distance = distance;
+    }
+}
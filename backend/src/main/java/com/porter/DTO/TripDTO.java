@@ -0,0 +1,80 @@
+package com.porter.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.porter.model.Trip;
+import com.porter.model.enums.TripStatus;
+
+public class TripDTO {
+    private Long id;
+    private TripStatus status;
+    private Double plannedDistanceKm;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private List<TripStopDTO> stops;
+
+    // Default constructor
+    public TripDTO() {
+    }
+
+    public static TripDTO fromEntity(Trip trip) {
+        TripDTO dto = new TripDTO();
+        dto.setId(trip.getId());
+        dto.setStatus(trip.getStatus());
+        dto.setPlannedDistanceKm(trip.getPlannedDistanceKm());
+        dto.setCreatedAt(trip.getCreatedAt());
+        dto.setCompletedAt(trip.getCompletedAt());
+        dto.setStops(trip.getStops().stream().map(TripStopDTO::fromEntity).toList());
+        return dto;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public TripStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TripStatus status) {
+        this.status = status;
+    }
+
+    public Double getPlannedDistanceKm() {
+        return plannedDistanceKm;
+    }
+
+    public void setPlannedDistanceKm(Double plannedDistanceKm) {
+        this.plannedDistanceKm = plannedDistanceKm;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public List<TripStopDTO> getStops() {
+        return stops;
+    }
+
+    public void setStops(List<TripStopDTO> stops) {
+        this.stops = stops;
+    }
+}
@@ -0,0 +1,39 @@
+package com.porter.DTO;
+
+import java.util.List;
+
+public class TripRequest {
+    private List<Long> deliveryIds;
+    // Where the porter starts from; the last tracked position is used when omitted
+    private Double latitude;
+    private Double longitude;
+
+    // Default constructor
+    public TripRequest() {
+    }
+
+    // Getters and Setters
+    public List<Long> getDeliveryIds() {
+        return deliveryIds;
+    }
+
+    public void setDeliveryIds(List<Long> deliveryIds) {
+        this.deliveryIds = deliveryIds;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+}
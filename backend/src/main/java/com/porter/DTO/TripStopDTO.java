@@ -0,0 +1,110 @@
+package com.porter.DTO;
+
+import java.time.LocalDateTime;
+
+import com.porter.model.TripStop;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.StopType;
+
+public class TripStopDTO {
+    private Long id;
+    private Long deliveryId;
+    private StopType type;
+    private int sequence;
+    private Double latitude;
+    private Double longitude;
+    private String address;
+    private LocalDateTime completedAt;
+    private DeliveryStatus deliveryStatus;
+
+    // Default constructor
+    public TripStopDTO() {
+    }
+
+    public static TripStopDTO fromEntity(TripStop stop) {
+        TripStopDTO dto = new TripStopDTO();
+        dto.setId(stop.getId());
+        dto.setDeliveryId(stop.getDelivery().getId());
+        dto.setType(stop.getType());
+        dto.setSequence(stop.getSequence());
+        dto.setLatitude(stop.getLatitude());
+        dto.setLongitude(stop.getLongitude());
+        dto.setAddress(stop.getAddress());
+        dto.setCompletedAt(stop.getCompletedAt());
+        dto.setDeliveryStatus(stop.getDelivery().getStatus());
+        return dto;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDeliveryId() {
+        return deliveryId;
+    }
+
+    public void setDeliveryId(Long deliveryId) {
+        this.deliveryId = deliveryId;
+    }
+
+    public StopType getType() {
+        return type;
+    }
+
+    public void setType(StopType type) {
+        this.type = type;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(int sequence) {
+        this.sequence = sequence;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public DeliveryStatus getDeliveryStatus() {
+        return deliveryStatus;
+    }
+
+    public void setDeliveryStatus(DeliveryStatus deliveryStatus) {
+        this.deliveryStatus = deliveryStatus;
+    }
+}
@@ -0,0 +1,469 @@
+package com.porter.Email;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.porter.model.enums.EmailPriority;
+import com.porter.repository.EmailOutboxRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Drains the email outbox. Each lane has its own thread that claims due rows of its
+ * priorities with {@code FOR UPDATE SKIP LOCKED}, so several instances can share the
+ * table, and sends the whole batch over one SMTP connection. The critical lane carries
+ * one-time codes only, so a burst of invoices never delays a login; its rows are dropped
+ * once older than the code's lifetime. Pending rows with a newer row under the same
+ * coalesce key are marked superseded instead of sent. Failures are retried with
+ * exponential backoff until the attempt limit, then left as FAILED.
+ */
+@Component
+public class EmailDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private static final String CLAIM_SQL = "SELECT id, recipient, subject, body, coalesce_key, attempts, "
+            + "created_at, next_attempt_at FROM email_outbox WHERE status = 'PENDING' "
+            + "AND priority BETWEEN ? AND ? AND next_attempt_at <= ? "
+            + "ORDER BY priority, id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String DUE_BY_PRIORITY_SQL = "SELECT priority, COUNT(*), MIN(next_attempt_at) "
+            + "FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= ? GROUP BY priority";
+
+    private static final String NEWEST_BY_KEY_SQL = "SELECT coalesce_key, MAX(id) FROM email_outbox "
+            + "WHERE status = 'PENDING' AND coalesce_key = ANY (?) GROUP BY coalesce_key";
+
+    // Critical rows carry one-time codes and reset links, which must not outlive the send
+    private static final String BLANK_CRITICAL_BODY = "body = CASE WHEN priority = "
+            + EmailPriority.CRITICAL.ordinal() + " THEN '' ELSE body END";
+
+    private static final String SENT_SQL = "UPDATE email_outbox SET status = 'SENT', sent_at = ?, "
+            + "attempts = attempts + 1, last_error = NULL, " + BLANK_CRITICAL_BODY + " WHERE id = ?";
+
+    private static final String SUPERSEDED_SQL = "UPDATE email_outbox SET status = 'SUPERSEDED' WHERE id = ?";
+
+    private static final String EXPIRED_SQL = "UPDATE email_outbox SET status = 'FAILED', "
+            + "last_error = 'Expired before sending', " + BLANK_CRITICAL_BODY + " WHERE id = ?";
+
+    private static final String RETRY_SQL = "UPDATE email_outbox SET status = 'PENDING', attempts = ?, "
+            + "next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+    private static final String GIVE_UP_SQL = "UPDATE email_outbox SET status = 'FAILED', attempts = ?, "
+            + "last_error = ?, " + BLANK_CRITICAL_BODY + " WHERE id = ?";
+
+    private static final String PURGE_SQL = "DELETE FROM email_outbox "
+            + "WHERE status IN ('SENT', 'SUPERSEDED') AND created_at < ?";
+
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private static final class Claimed {
+        final long id;
+        final String recipient;
+        final String subject;
+        final String body;
+        final String coalesceKey;
+        final int attempts;
+        final LocalDateTime createdAt;
+        final LocalDateTime dueAt;
+
+        Claimed(long id, String recipient, String subject, String body, String coalesceKey, int attempts,
+                LocalDateTime createdAt, LocalDateTime dueAt) {
+            this.id = id;
+            this.recipient = recipient;
+            this.subject = subject;
+            this.body = body;
+            this.coalesceKey = coalesceKey;
+            this.attempts = attempts;
+            this.createdAt = createdAt;
+            this.dueAt = dueAt;
+        }
+    }
+
+    // A dispatcher thread with its own priorities, batch size and counters
+    private final class Lane {
+        final String name;
+        final EmailPriority lowest;
+        final EmailPriority highest;
+        final int batchSize;
+        final long maxAgeSeconds;
+        final Semaphore wakeUp = new Semaphore(0);
+        Thread worker;
+
+        final AtomicLong sent = new AtomicLong();
+        final AtomicLong superseded = new AtomicLong();
+        final AtomicLong retried = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong expired = new AtomicLong();
+        final AtomicLong batches = new AtomicLong();
+        // Due-to-sent delay of the most recent sends, in milliseconds
+        final long[] latencies = new long[LATENCY_SAMPLES];
+        final AtomicInteger latencyCount = new AtomicInteger();
+
+        Lane(String name, EmailPriority highest, EmailPriority lowest, int batchSize, long maxAgeSeconds) {
+            this.name = name;
+            this.highest = highest;
+            this.lowest = lowest;
+            this.batchSize = batchSize;
+            this.maxAgeSeconds = maxAgeSeconds;
+        }
+
+        boolean carries(EmailPriority priority) {
+            return priority.ordinal() >= highest.ordinal() && priority.ordinal() <= lowest.ordinal();
+        }
+
+        void recordLatency(long millis) {
+            latencies[Math.floorMod(latencyCount.getAndIncrement(), LATENCY_SAMPLES)] = millis;
+        }
+
+        Map<String, Object> metrics() {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("priorities", highest == lowest ? highest.name() : highest.name() + ".." + lowest.name());
+            metrics.put("alive", worker != null && worker.isAlive());
+            metrics.put("sent", sent.get());
+            metrics.put("superseded", superseded.get());
+            metrics.put("retried", retried.get());
+            metrics.put("failed", failed.get());
+            metrics.put("expired", expired.get());
+            metrics.put("batches", batches.get());
+            long[] recent = Arrays.copyOf(latencies, Math.min(latencyCount.get(), LATENCY_SAMPLES));
+            Arrays.sort(recent);
+            metrics.put("latencySamples", recent.length);
+            metrics.put("p50LatencyMs", recent.length > 0 ? recent[(recent.length - 1) / 2] : 0);
+            metrics.put("p99LatencyMs", recent.length > 0 ? recent[(int) Math.ceil(recent.length * 0.99) - 1] : 0);
+            metrics.put("maxLatencyMs", recent.length > 0 ? recent[recent.length - 1] : 0);
+            return metrics;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JavaMailSender emailSender;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${email.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${email.outbox.critical.batch-size:10}")
+    private int criticalBatchSize;
+
+    @Value("${email.outbox.critical.max-age-seconds:300}")
+    private long criticalMaxAgeSeconds;
+
+    @Value("${email.outbox.drain-timeout-seconds:30}")
+    private long drainTimeoutSeconds;
+
+    @Value("${email.outbox.poll-ms:2000}")
+    private long pollMs;
+
+    @Value("${email.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${email.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${email.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${email.outbox.retention-days:14}")
+    private long retentionDays;
+
+    private TransactionTemplate transaction;
+    private volatile boolean running;
+    private List<Lane> lanes = List.of();
+
+    @PostConstruct
+    void start() {
+        transaction = new TransactionTemplate(transactionManager);
+        lanes = List.of(
+                new Lane("critical", EmailPriority.CRITICAL, EmailPriority.CRITICAL, criticalBatchSize, criticalMaxAgeSeconds),
+                new Lane("standard", EmailPriority.NORMAL, EmailPriority.BULK, batchSize, 0));
+        if (!enabled) {
+            logger.info("Email outbox dispatcher disabled; emails stay queued");
+            return;
+        }
+        running = true;
+        for (Lane lane : lanes) {
+            lane.worker = new Thread(() -> dispatchLoop(lane), "email-outbox-" + lane.name);
+            lane.worker.setDaemon(true);
+            lane.worker.start();
+        }
+    }
+
+    // Lets in-flight batches finish and record their outcome; unclaimed rows stay queued
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+        for (Lane lane : lanes) {
+            lane.wakeUp.release();
+        }
+        for (Lane lane : lanes) {
+            if (lane.worker != null) {
+                lane.worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+                if (lane.worker.isAlive()) {
+                    logger.warn("Email outbox lane {} still sending after {} s; leaving it", lane.name, drainTimeoutSeconds);
+                }
+            }
+        }
+    }
+
+    // Lets freshly queued mail go out without waiting for the next poll
+    public void wakeUpAfterCommit(EmailPriority priority) {
+        Lane lane = laneFor(priority);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lane.wakeUp.release();
+                }
+            });
+        } else {
+            lane.wakeUp.release();
+        }
+    }
+
+    private Lane laneFor(EmailPriority priority) {
+        for (Lane lane : lanes) {
+            if (lane.carries(priority)) {
+                return lane;
+            }
+        }
+        throw new IllegalArgumentException("No outbox lane for priority " + priority);
+    }
+
+    private void dispatchLoop(Lane lane) {
+        while (running) {
+            try {
+                lane.wakeUp.tryAcquire(pollMs, TimeUnit.MILLISECONDS);
+                lane.wakeUp.drainPermits();
+                // Keep going while full batches come back
+                int claimed;
+                do {
+                    claimed = dispatchBatch(lane);
+                } while (running && claimed == lane.batchSize);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.error("Email outbox lane {} dispatch failed: {}", lane.name, e.getMessage());
+            }
+        }
+    }
+
+    // Runs one batch of every lane on the calling thread; returns the rows claimed
+    int dispatchOnce() {
+        int claimed = 0;
+        for (Lane lane : lanes) {
+            claimed += dispatchBatch(lane);
+        }
+        return claimed;
+    }
+
+    /**
+     * Claims, coalesces and sends one batch of the lane in a single transaction, so the
+     * row locks are held until the outcome of every email is recorded. Returns the rows claimed.
+     */
+    private int dispatchBatch(Lane lane) {
+        Integer claimed = transaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Claimed> batch = jdbcTemplate.query(CLAIM_SQL, (rs, i) -> new Claimed(rs.getLong(1),
+                    rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5), rs.getInt(6),
+                    rs.getTimestamp(7).toLocalDateTime(), rs.getTimestamp(8).toLocalDateTime()),
+                    lane.highest.ordinal(), lane.lowest.ordinal(), Timestamp.valueOf(now), lane.batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<Claimed> toSend = coalesce(lane, dropExpired(lane, batch, now));
+            send(lane, toSend, now);
+            lane.batches.incrementAndGet();
+            return batch.size();
+        });
+        return claimed != null ? claimed : 0;
+    }
+
+    // A code that reaches the user after it stopped working only confuses them
+    private List<Claimed> dropExpired(Lane lane, List<Claimed> batch, LocalDateTime now) {
+        if (lane.maxAgeSeconds <= 0) {
+            return batch;
+        }
+        LocalDateTime cutoff = now.minusSeconds(lane.maxAgeSeconds);
+        List<Claimed> fresh = new ArrayList<>(batch.size());
+        for (Claimed email : batch) {
+            if (email.createdAt.isBefore(cutoff)) {
+                jdbcTemplate.update(EXPIRED_SQL, email.id);
+                lane.expired.incrementAndGet();
+            } else {
+                fresh.add(email);
+            }
+        }
+        return fresh;
+    }
+
+    // Drops every claimed row that a newer pending row with the same key replaces
+    private List<Claimed> coalesce(Lane lane, List<Claimed> batch) {
+        List<String> keys = batch.stream()
+                .filter(c -> c.coalesceKey != null)
+                .map(c -> c.coalesceKey)
+                .distinct()
+                .toList();
+        if (keys.isEmpty()) {
+            return batch;
+        }
+        Map<String, Long> newest = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(NEWEST_BY_KEY_SQL);
+            ps.setArray(1, con.createArrayOf("text", keys.toArray()));
+            return ps;
+        }, rs -> {
+            newest.put(rs.getString(1), rs.getLong(2));
+        });
+        List<Claimed> toSend = new ArrayList<>(batch.size());
+        for (Claimed email : batch) {
+            Long newestId = email.coalesceKey != null ? newest.get(email.coalesceKey) : null;
+            if (newestId != null && newestId > email.id) {
+                jdbcTemplate.update(SUPERSEDED_SQL, email.id);
+                lane.superseded.incrementAndGet();
+            } else {
+                toSend.add(email);
+            }
+        }
+        return toSend;
+    }
+
+    private void send(Lane lane, List<Claimed> emails, LocalDateTime now) {
+        Map<MimeMessage, Claimed> byMessage = new LinkedHashMap<>();
+        for (Claimed email : emails) {
+            try {
+                MimeMessage message = emailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, true);
+                helper.setTo(email.recipient);
+                helper.setSubject(email.subject);
+                helper.setText(email.body, true);
+                byMessage.put(message, email);
+            } catch (MessagingException e) {
+                // A malformed address will not get better with retries
+                recordFailure(lane, email, e, now, true);
+            }
+        }
+        if (byMessage.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> failures = new HashMap<>();
+        try {
+            emailSender.send(byMessage.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failures.putAll(e.getFailedMessages());
+            if (failures.isEmpty()) {
+                byMessage.keySet().forEach(message -> failures.put(message, e));
+            }
+        } catch (MailException e) {
+            // Authentication or connection setup failed, nothing was sent
+            byMessage.keySet().forEach(message -> failures.put(message, e));
+        }
+
+        byMessage.forEach((message, email) -> {
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                LocalDateTime sentAt = LocalDateTime.now();
+                jdbcTemplate.update(SENT_SQL, Timestamp.valueOf(sentAt), email.id);
+                lane.sent.incrementAndGet();
+                lane.recordLatency(Math.max(0, Duration.between(email.dueAt, sentAt).toMillis()));
+            } else {
+                recordFailure(lane, email, failure, now, false);
+            }
+        });
+        if (!failures.isEmpty()) {
+            logger.warn("Failed to send {} of {} {} outbox emails: {}", failures.size(), byMessage.size(), lane.name,
+                    failures.values().iterator().next().getMessage());
+        }
+    }
+
+    private void recordFailure(Lane lane, Claimed email, Exception e, LocalDateTime now, boolean permanent) {
+        int attempts = email.attempts + 1;
+        boolean giveUp = permanent || attempts >= maxAttempts;
+        long backoff = Math.min(backoffMaxSeconds, backoffBaseSeconds << Math.min(attempts - 1, 20));
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        String lastError = error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (giveUp) {
+            jdbcTemplate.update(GIVE_UP_SQL, attempts, lastError, email.id);
+            lane.failed.incrementAndGet();
+            logger.error("Giving up on email {} to {} after {} attempts: {}", email.id, email.recipient, attempts, error);
+        } else {
+            jdbcTemplate.update(RETRY_SQL, attempts, Timestamp.valueOf(now.plusSeconds(backoff)),
+                    lastError, email.id);
+            lane.retried.incrementAndGet();
+        }
+    }
+
+    @Scheduled(cron = "${email.outbox.purge-cron:0 30 3 * * *}")
+    public void purge() {
+        int purged = jdbcTemplate.update(PURGE_SQL, Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays)));
+        if (purged > 0) {
+            logger.info("Purged {} delivered outbox emails", purged);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        Map<String, Long> rows = new LinkedHashMap<>();
+        for (Object[] row : emailOutboxRepository.countByStatus()) {
+            rows.put(String.valueOf(row[0]), ((Number) row[1]).longValue());
+        }
+        metrics.put("rows", rows);
+        // Queue depth and oldest wait of the rows that are due now
+        Map<String, Object> due = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.query(DUE_BY_PRIORITY_SQL, rs -> {
+            Map<String, Object> depth = new LinkedHashMap<>();
+            depth.put("count", rs.getLong(2));
+            depth.put("oldestWaitMs", Duration.between(rs.getTimestamp(3).toLocalDateTime(), now).toMillis());
+            due.put(EmailPriority.values()[rs.getInt(1)].name(), depth);
+        }, Timestamp.valueOf(now));
+        metrics.put("due", due);
+        for (Lane lane : lanes) {
+            metrics.put(lane.name, lane.metrics());
+        }
+        return metrics;
+    }
+}
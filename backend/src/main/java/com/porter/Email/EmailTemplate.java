@@ -0,0 +1,154 @@
+package com.porter.Email;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An email template compiled once into literal text and slot offsets. The source is an
+ * optional {@code Subject: ...} first line followed by the HTML body. Slots are written
+ * {@code {{name}}}, HTML-escaped in the body, or {@code {{{name}}}} for trusted markup.
+ * Rendering only copies literal ranges and slot values into the caller's buffer.
+ */
+public final class EmailTemplate {
+
+    private static final String SUBJECT_PREFIX = "Subject:";
+
+    // Literal text with the slots cut out; literal i ends at ends[i], slot i follows it
+    static final class Compiled {
+        private final String text;
+        private final int[] ends;
+        private final String[] slots;
+        private final boolean[] raw;
+
+        private Compiled(String text, int[] ends, String[] slots, boolean[] raw) {
+            this.text = text;
+            this.ends = ends;
+            this.slots = slots;
+            this.raw = raw;
+        }
+
+        void render(StringBuilder out, Map<String, ?> model, boolean escape) {
+            int start = 0;
+            for (int i = 0; i < ends.length; i++) {
+                out.append(text, start, ends[i]);
+                start = ends[i];
+                if (i < slots.length) {
+                    Object value = model.get(slots[i]);
+                    if (value != null) {
+                        if (escape && !raw[i]) {
+                            appendEscaped(out, value.toString());
+                        } else {
+                            out.append(value);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private final String name;
+    private final Compiled subject;
+    private final Compiled body;
+    private final Set<String> slotNames;
+
+    private EmailTemplate(String name, Compiled subject, Compiled body, Set<String> slotNames) {
+        this.name = name;
+        this.subject = subject;
+        this.body = body;
+        this.slotNames = slotNames;
+    }
+
+    public static EmailTemplate compile(String name, String source) {
+        String subjectSource = "";
+        String bodySource = source;
+        if (source.startsWith(SUBJECT_PREFIX)) {
+            int newline = source.indexOf('\n');
+            subjectSource = (newline >= 0 ? source.substring(SUBJECT_PREFIX.length(), newline)
+                    : source.substring(SUBJECT_PREFIX.length())).trim();
+            bodySource = newline >= 0 ? source.substring(newline + 1).stripLeading() : "";
+        }
+        Set<String> slotNames = new LinkedHashSet<>();
+        Compiled subject = parse(name, subjectSource, slotNames);
+        Compiled body = parse(name, bodySource, slotNames);
+        return new EmailTemplate(name, subject, body, slotNames);
+    }
+
+    private static Compiled parse(String name, String source, Set<String> slotNames) {
+        StringBuilder text = new StringBuilder(source.length());
+        List<Integer> ends = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        List<Boolean> raw = new ArrayList<>();
+        int cursor = 0;
+        while (true) {
+            int open = source.indexOf("{{", cursor);
+            if (open < 0) {
+                break;
+            }
+            boolean triple = source.startsWith("{{{", open);
+            String close = triple ? "}}}" : "}}";
+            int nameStart = open + (triple ? 3 : 2);
+            int end = source.indexOf(close, nameStart);
+            if (end < 0) {
+                throw new IllegalStateException("Unclosed slot in email template " + name + " at offset " + open);
+            }
+            String slot = source.substring(nameStart, end).trim();
+            if (slot.isEmpty() || !slot.chars().allMatch(c -> Character.isLetterOrDigit(c) || c == '_' || c == '.')) {
+                throw new IllegalStateException("Invalid slot '" + slot + "' in email template " + name);
+            }
+            text.append(source, cursor, open);
+            ends.add(text.length());
+            slots.add(slot);
+            raw.add(triple);
+            slotNames.add(slot);
+            cursor = end + close.length();
+        }
+        text.append(source, cursor, source.length());
+        ends.add(text.length());
+
+        boolean[] rawFlags = new boolean[raw.size()];
+        for (int i = 0; i < rawFlags.length; i++) {
+            rawFlags[i] = raw.get(i);
+        }
+        return new Compiled(text.toString(), ends.stream().mapToInt(Integer::intValue).toArray(),
+                slots.toArray(new String[0]), rawFlags);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Set<String> getSlotNames() {
+        return slotNames;
+    }
+
+    public void renderSubject(StringBuilder out, Map<String, ?> model) {
+        subject.render(out, model, false);
+    }
+
+    public void renderBody(StringBuilder out, Map<String, ?> model) {
+        body.render(out, model, true);
+    }
+
+    // Copies runs of safe characters in one append and only expands the markup characters
+    static void appendEscaped(StringBuilder out, String value) {
+        int run = 0;
+        for (int i = 0; i < value.length(); i++) {
+            String entity = switch (value.charAt(i)) {
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '&' -> "&amp;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (entity != null) {
+                out.append(value, run, i).append(entity);
+                run = i + 1;
+            }
+        }
+        out.append(value, run, value.length());
+    }
+}
@@ -0,0 +1,124 @@
+package com.porter.Email;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Compiled email templates, loaded from {@code classpath:templates/email/*.html} at
+ * startup. A localized variant is a file named like {@code delivery-status_hi.html} or
+ * {@code delivery-status_hi_IN.html}; lookup falls back from the most specific variant
+ * to the plain template, the same way resource bundles do.
+ */
+@Component
+public class EmailTemplates {
+    private static final Logger logger = LoggerFactory.getLogger(EmailTemplates.class);
+
+    private static final String LOCATION = "classpath*:templates/email/*.html";
+    private static final int MAX_POOLED_CAPACITY = 256 * 1024;
+
+    public static final class Rendered {
+        private final String subject;
+        private final String body;
+
+        private Rendered(String subject, String body) {
+            this.subject = subject;
+            this.body = body;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+
+    // Render buffers shared by all threads; rendering is CPU-bound, so one per core is enough.
+    // A per-thread buffer would be allocated afresh on every virtual thread.
+    private final BlockingQueue<StringBuilder> buffers =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    @Value("${email.default-locale:en}")
+    private String defaultLocaleTag;
+
+    private Locale defaultLocale;
+    private final Map<String, EmailTemplate> templates = new HashMap<>();
+
+    @PostConstruct
+    void load() throws IOException {
+        defaultLocale = Locale.forLanguageTag(defaultLocaleTag);
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(LOCATION);
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            String key = filename.substring(0, filename.length() - ".html".length());
+            try (InputStream in = resource.getInputStream()) {
+                templates.put(key, EmailTemplate.compile(key, new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+        logger.info("Compiled {} email templates", templates.size());
+    }
+
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    public EmailTemplate get(String name, Locale locale) {
+        Locale effective = locale != null ? locale : defaultLocale;
+        EmailTemplate template = null;
+        if (!effective.getLanguage().isEmpty()) {
+            if (!effective.getCountry().isEmpty()) {
+                template = templates.get(name + "_" + effective.getLanguage() + "_" + effective.getCountry());
+            }
+            if (template == null) {
+                template = templates.get(name + "_" + effective.getLanguage());
+            }
+        }
+        if (template == null) {
+            template = templates.get(name);
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown email template " + name);
+        }
+        return template;
+    }
+
+    public Rendered render(String name, Locale locale, Map<String, ?> model) {
+        EmailTemplate template = get(name, locale);
+        StringBuilder buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new StringBuilder(16 * 1024);
+        }
+        try {
+            template.renderSubject(buffer, model);
+            String subject = buffer.toString();
+            buffer.setLength(0);
+            template.renderBody(buffer, model);
+            return new Rendered(subject, buffer.toString());
+        } finally {
+            // Do not keep an unusually large buffer; when the pool is full the buffer is dropped
+            if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+                buffer.setLength(0);
+                buffers.offer(buffer);
+            }
+        }
+    }
+}
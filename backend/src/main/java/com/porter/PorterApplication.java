@@ -6,12 +6,14 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = "com.porter")
 @EntityScan(basePackages = "com.porter")
 @EnableJpaRepositories(basePackages = "com.porter")
 @EnableAsync
+@EnableScheduling
 public class PorterApplication {
 
     public static void main(String[] args) {
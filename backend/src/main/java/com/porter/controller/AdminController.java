@@ -1,11 +1,16 @@
 package com.porter.controller;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,20 +22,43 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.porter.DTO.AdminStatisticsDTO;
+import com.porter.DTO.AssignmentPlan;
+import com.porter.DTO.CursorPage;
 import com.porter.DTO.DeliveryDTO;
+import com.porter.DTO.LivePosition;
 import com.porter.DTO.UserDTO;
+import com.porter.Email.EmailDispatcher;
 import com.porter.Email.EmailService;
 import com.porter.model.Delivery;
 import com.porter.model.Porter;
 import com.porter.model.User;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.UserRole;
 import com.porter.repository.PorterRepository;
 import com.porter.repository.UserRepository;
+import com.porter.security.CustomUserDetailsService;
+import com.porter.service.AdminListingService;
+import com.porter.service.AssignmentPlanner;
+import com.porter.service.AdminStatisticsService;
+import com.porter.service.DeliveryClaimService;
 import com.porter.service.DeliveryService;
+import com.porter.service.DispatchService;
+import com.porter.service.LatestPositionStore;
+import com.porter.service.LocationStreamService;
+import com.porter.service.OtpService;
 import com.porter.service.PaymentService;
+import com.porter.service.PorterStatsService;
+import com.porter.service.RouteGateway;
+import com.porter.service.TrackingArchiveService;
+import com.porter.service.TrackingIngestService;
 import com.porter.service.UserService;
+import com.porter.service.VirtualThreadMonitor;
+import com.porter.util.GeoUtils;
 
 @CrossOrigin(origins = "${FRONTEND_URL}")
 @RestController
@@ -50,7 +78,45 @@ public class AdminController {
     @Autowired
     private EmailService emailService;
     @Autowired
+    private EmailDispatcher emailDispatcher;
+    @Autowired
+    private VirtualThreadMonitor virtualThreadMonitor;
+    @Autowired
+    private OtpService otpService;
+    @Autowired
     private PaymentService paymentService;
+    @Autowired
+    private DeliveryClaimService deliveryClaimService;
+    @Autowired
+    private TrackingIngestService trackingIngestService;
+
+    @Autowired
+    private TrackingArchiveService trackingArchiveService;
+    @Autowired
+    private LatestPositionStore latestPositionStore;
+    @Autowired
+    private LocationStreamService locationStreamService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private PorterStatsService porterStatsService;
+
+    @Autowired
+    private AdminStatisticsService adminStatisticsService;
+
+    @Autowired
+    private AdminListingService adminListingService;
+
+    @Autowired
+    private RouteGateway routeGateway;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private AssignmentPlanner assignmentPlanner;
 
     @Value("${FRONTEND_URL}")
     private String frontendUrl;
@@ -62,6 +128,30 @@ public class AdminController {
         return ResponseEntity.ok(users);
     }
 
+    // Keyset-paginated users, newest first
+    @GetMapping("/users/page")
+    public ResponseEntity<CursorPage<UserDTO>> getUsersPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) Boolean blocked,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(adminListingService.pageUsers(cursor, limit, role, blocked, from, to));
+    }
+
+    @GetMapping("/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) Boolean blocked,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        AdminListingService.ExportFormat exportFormat = AdminListingService.ExportFormat.parse(format);
+        return exportResponse("users", exportFormat,
+                out -> adminListingService.exportUsers(exportFormat, role, blocked, from, to, out));
+    }
+
     @PostMapping("/users")
     public ResponseEntity<UserDTO> createUser(@RequestBody User user) {
         User created = userService.createUser(user);
@@ -86,39 +176,20 @@ public class AdminController {
     }
 
     private void sendBlockUnblockEmail(String email, String name, String role, boolean blocked) {
-        String status = blocked ? "Blocked" : "Unblocked";
-        String statusColor = blocked ? "#dc3545" : "#28a745";
-        String iconUrl = blocked ? "https://img.icons8.com/emoji/48/no-entry.png" : "https://img.icons8.com/emoji/48/check-mark-emoji.png";
-        String subject;
-        if ("PORTER".equals(role)) {
-            subject = "Porter Account " + status + " Notification";
-        } else {
-            subject = "Account " + status + " Notification";
-        }
-        String mainText;
-        if (blocked) {
-            mainText = ("PORTER".equals(role))
-                ? "Your porter account has been <span style='color: " + statusColor + ";'><strong>blocked</strong></span> by the admin. You will not be able to access your account until it is unblocked."
-                : "Your account has been <span style='color: " + statusColor + ";'><strong>blocked</strong></span> by the admin. You will not be able to access your account until it is unblocked.";
-        } else {
-            mainText = ("PORTER".equals(role))
-                ? "Your porter account has been <span style='color: " + statusColor + ";'><strong>unblocked</strong></span> by the admin. You can now log in and use your account as usual."
-                : "Your account has been <span style='color: " + statusColor + ";'><strong>unblocked</strong></span> by the admin. You can now log in and use your account as usual.";
-        }
-        String content = String.format(
-            "<div style='font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto; padding: 30px; background-color: #fff; border-radius: 12px; box-shadow: 0 4px 12px rgba(0,0,0,0.1);'>"
-            + "<div style='text-align: center;'>"
-            + "<img src='%s' alt='%s' width='50' height='50' />"
-            + "<h2 style='color: %s; margin-bottom: 10px;'>%s Account %s</h2>"
-            + "</div>"
-            + "<p style='font-size: 16px; color: #333;'>Dear <strong>%s</strong>,</p>"
-            + "<p style='font-size: 15px; color: #555;'>%s</p>"
-            + "<p style='font-size: 14px; color: #666;'>If you have any questions, please contact support.</p>"
-            + "<p style='font-size: 14px; color: #333; margin-top: 30px;'>Best regards,<br><strong>Porter Team</strong></p>"
-            + "</div>",
-            iconUrl, status, statusColor, ("PORTER".equals(role) ? "Porter" : "User"), status, name, mainText
-        );
-        emailService.sendEmail(email, subject, content);
+        boolean porter = "PORTER".equals(role);
+        Map<String, Object> model = new HashMap<>();
+        model.put("name", name);
+        model.put("status", blocked ? "Blocked" : "Unblocked");
+        model.put("action", blocked ? "blocked" : "unblocked");
+        model.put("statusColor", blocked ? "#dc3545" : "#28a745");
+        model.put("iconUrl", blocked ? "https://img.icons8.com/emoji/48/no-entry.png" : "https://img.icons8.com/emoji/48/check-mark-emoji.png");
+        model.put("subjectPrefix", porter ? "Porter " : "");
+        model.put("accountType", porter ? "Porter" : "User");
+        model.put("accountLabel", porter ? "porter account" : "account");
+        model.put("consequence", blocked
+                ? "You will not be able to access your account until it is unblocked."
+                : "You can now log in and use your account as usual.");
+        emailService.sendTemplatedEmail(email, "account-status", model);
     }
 
     @PutMapping("/users/{id}/block")
@@ -165,6 +236,41 @@ public class AdminController {
         return ResponseEntity.ok(deliveries);
     }
 
+    // Keyset-paginated deliveries, newest first
+    @GetMapping("/deliveries/page")
+    public ResponseEntity<CursorPage<DeliveryDTO>> getDeliveriesPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) DeliveryStatus status,
+            @RequestParam(required = false) Long porterId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(adminListingService.pageDeliveries(cursor, limit, status, porterId, userId, from, to));
+    }
+
+    @GetMapping("/deliveries/export")
+    public ResponseEntity<StreamingResponseBody> exportDeliveries(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) DeliveryStatus status,
+            @RequestParam(required = false) Long porterId,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        AdminListingService.ExportFormat exportFormat = AdminListingService.ExportFormat.parse(format);
+        return exportResponse("deliveries", exportFormat,
+                out -> adminListingService.exportDeliveries(exportFormat, status, porterId, userId, from, to, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(String name, AdminListingService.ExportFormat format,
+                                                                 StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "." + format.getExtension() + "\"")
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .body(body);
+    }
+
     @PutMapping("/deliveries/{id}")
     public ResponseEntity<DeliveryDTO> updateDelivery(@PathVariable Long id, @RequestBody Delivery delivery) {
         delivery.setId(id);
@@ -200,10 +306,127 @@ public class AdminController {
     // Statistics
     @GetMapping("/statistics")
     public ResponseEntity<AdminStatisticsDTO> getStatistics() {
-        AdminStatisticsDTO stats = deliveryService.getAdminStatistics();
+        AdminStatisticsDTO stats = adminStatisticsService.getStatistics();
         return ResponseEntity.ok(stats);
     }
 
+    // Accept/claim contention counters
+    @GetMapping("/claims/metrics")
+    public ResponseEntity<Map<String, Object>> getClaimMetrics() {
+        return ResponseEntity.ok(deliveryClaimService.getMetrics());
+    }
+
+    // Tracking ingest buffer counters
+    @GetMapping("/tracking/ingest/metrics")
+    public ResponseEntity<Map<String, Object>> getTrackingIngestMetrics() {
+        return ResponseEntity.ok(trackingIngestService.getMetrics());
+    }
+
+    @GetMapping("/tracking/archive/metrics")
+    public ResponseEntity<Map<String, Object>> getTrackingArchiveMetrics() {
+        return ResponseEntity.ok(trackingArchiveService.getMetrics());
+    }
+
+    // Compacts finished deliveries now instead of waiting for the scheduled sweep
+    @PostMapping("/tracking/archive/sweep")
+    public ResponseEntity<Map<String, Object>> sweepTrackingArchive() {
+        return ResponseEntity.ok(trackingArchiveService.sweep());
+    }
+
+    // Live map: latest position of every active delivery inside the box, newest first
+    @GetMapping("/tracking/live")
+    public ResponseEntity<List<LivePosition>> getLivePositions(
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @RequestParam(defaultValue = "500") int limit) {
+        if (!GeoUtils.isValidCoordinate(minLat, minLng) || !GeoUtils.isValidCoordinate(maxLat, maxLng)
+                || minLat > maxLat || minLng > maxLng) {
+            throw new IllegalArgumentException("Invalid bounding box");
+        }
+        int capped = Math.max(1, Math.min(limit, 5000));
+        return ResponseEntity.ok(latestPositionStore.withinBox(minLat, minLng, maxLat, maxLng, capped));
+    }
+
+    @GetMapping("/tracking/porters/{porterName}/latest")
+    public ResponseEntity<LivePosition> getPorterLatestPosition(@PathVariable String porterName) {
+        LivePosition position = latestPositionStore.forPorter(porterName);
+        return position != null ? ResponseEntity.ok(position) : ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/tracking/latest/metrics")
+    public ResponseEntity<Map<String, Object>> getLatestPositionMetrics() {
+        return ResponseEntity.ok(latestPositionStore.getMetrics());
+    }
+
+    // Live location push: points offered, coalesced away and actually sent
+    @GetMapping("/tracking/stream/metrics")
+    public ResponseEntity<Map<String, Object>> getLocationStreamMetrics() {
+        return ResponseEntity.ok(locationStreamService.getMetrics());
+    }
+
+    // Email outbox rows by status and dispatcher counters
+    @GetMapping("/email/outbox/metrics")
+    public ResponseEntity<Map<String, Object>> getEmailOutboxMetrics() {
+        return ResponseEntity.ok(emailDispatcher.getMetrics());
+    }
+
+    // OTP sends, verify outcomes and rate-limit rejections, plus the store's size and expiries
+    @GetMapping("/otp/metrics")
+    public ResponseEntity<Map<String, Object>> getOtpMetrics() {
+        return ResponseEntity.ok(otpService.getMetrics());
+    }
+
+    // Thread model in use and pinned virtual threads seen so far
+    @GetMapping("/threads/metrics")
+    public ResponseEntity<Map<String, Object>> getThreadMetrics() {
+        return ResponseEntity.ok(virtualThreadMonitor.getMetrics());
+    }
+
+    // Routing proxy cache counters
+    @GetMapping("/routing/metrics")
+    public ResponseEntity<Map<String, Object>> getRoutingMetrics() {
+        return ResponseEntity.ok(routeGateway.getMetrics());
+    }
+
+    @GetMapping("/dispatch/metrics")
+    public ResponseEntity<Map<String, Object>> getDispatchMetrics() {
+        return ResponseEntity.ok(dispatchService.getMetrics());
+    }
+
+    // Latest proposed batch assignment for scheduled deliveries; 204 when none is pending
+    @GetMapping("/planning/plan")
+    public ResponseEntity<AssignmentPlan> getAssignmentPlan() {
+        AssignmentPlan plan = assignmentPlanner.getLatestPlan();
+        return plan != null ? ResponseEntity.ok(plan) : ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/planning/run")
+    public ResponseEntity<AssignmentPlan> runAssignmentPlan() {
+        return ResponseEntity.ok(assignmentPlanner.plan());
+    }
+
+    // Applies the whole plan, or only the delivery ids given in the body
+    @PostMapping("/planning/plan/{planId}/approve")
+    public ResponseEntity<Map<String, Object>> approveAssignmentPlan(
+            @PathVariable String planId,
+            @RequestBody(required = false) List<Long> deliveryIds) {
+        return ResponseEntity.ok(assignmentPlanner.approve(planId, deliveryIds));
+    }
+
+    @GetMapping("/planning/metrics")
+    public ResponseEntity<Map<String, Object>> getPlanningMetrics() {
+        return ResponseEntity.ok(assignmentPlanner.getMetrics());
+    }
+
+    // Rebuild porter dashboard stats from delivery history
+    @PostMapping("/porters/stats/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildPorterStats() {
+        int rebuilt = porterStatsService.rebuildAll();
+        return ResponseEntity.ok(Map.of("rebuilt", rebuilt));
+    }
+
     // Porter Approval
     @PutMapping("/porters/{id}/approve")
     public ResponseEntity<?> approvePorter(@PathVariable Long id) {
@@ -211,52 +434,11 @@ public class AdminController {
                 .orElseThrow(() -> new RuntimeException("Porter not found"));
         porter.setStatus("APPROVED");
         porterRepository.save(porter);
+        userDetailsService.evictUser(porter.getName());
+        dispatchService.refreshPorter(porter);
 
-        String subject = "Porter Approval Notification";
-        String content = String.format(
-                """
-                                                <div style="font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto; padding: 30px; background-color: #ffffff; border-radius: 12px; box-shadow: 0 4px 12px rgba(0,0,0,0.1);">
-                                                    <div style="text-align: center;">
-                                                         <img src="https://img.icons8.com/emoji/48/delivery-truck.png" alt="Delivery Truck" width="50" height="50" />
-                                                        <h2 style="color: #007bff; margin-bottom: 10px;">Porter Application Approved</h2>
-                                                    </div>
-
-                                                    <p style="font-size: 16px; color: #333;">Dear <strong>%s</strong>,</p>
-
-                                                    <p style="font-size: 15px; color: #555;">
-                                                       <img src="https://img.icons8.com/emoji/24/party-popper.png" alt="Celebration" width="24" height="24" style="vertical-align: middle; margin-right: 6px;" />
-                        <strong>Congratulations!</strong>
-                         Your application as a <strong>Porter</strong> has been <span style="color: green;"><strong>APPROVED</strong></span>.
-                                                    </p>
-
-                                                    <p style="font-size: 15px; color: #555;">
-                                                        You can now log in to your account and start accepting deliveries using the Porter system.
-                                                    </p>
-
-                                                   <div style="text-align: center; margin: 30px 0;">
-                            <a href="%s/login"
-                               style="background-color: #007bff; color: white; padding: 14px 28px; text-decoration: none; font-size: 16px; font-weight: bold; border-radius: 8px; display: inline-block;">
-                                <img src="https://img.icons8.com/ios-filled/20/ffffff/key.png"
-                                     alt="Key Icon"
-                                     style="vertical-align: middle; margin-right: 8px;" />
-                                Login Now
-                            </a>
-                        </div>
-
-
-                                                    <p style="font-size: 14px; color: #666;">
-                                                        If you have any questions or need help, feel free to contact our support team.
-                                                    </p>
-
-                                                    <p style="font-size: 14px; color: #333; margin-top: 30px;">
-                                                        Best regards,<br>
-                                                        <strong>Porter Team</strong>
-                                                    </p>
-                                                </div>
-                                                """,
-                porter.getName(), frontendUrl);
-
-        emailService.sendEmail(porter.getEmail(), subject, content);
+        emailService.sendTemplatedEmail(porter.getEmail(), "porter-approved",
+                Map.of("name", porter.getName(), "frontendUrl", frontendUrl));
         return ResponseEntity.ok().body("Porter approved successfully");
     }
 
@@ -265,11 +447,13 @@ public class AdminController {
     public ResponseEntity<?> editPorter(@PathVariable Long id, @RequestBody Porter update) {
         Porter porter = porterRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Porter not found"));
+        userDetailsService.evictUser(porter.getName());
         porter.setName(update.getName());
         porter.setPhone(update.getPhone());
         porter.setVehicleType(update.getVehicleType());
         porter.setLicenseNumber(update.getLicenseNumber());
         porterRepository.save(porter);
+        dispatchService.refreshPorter(porter);
         return ResponseEntity.ok(porter);
     }
 
@@ -282,6 +466,7 @@ public class AdminController {
         var user = userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found"));
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userDetailsService.evictUser(user.getUsername());
         return ResponseEntity.ok("Password reset successfully");
     }
 }
\ No newline at end of file
@@ -33,15 +33,19 @@ import com.porter.DTO.OtpVerificationRequest;
 import com.porter.DTO.RegisterRequest;
 import com.porter.DTO.UserDTO;
 import com.porter.Email.EmailService;
+import com.porter.exception.TooManyRequestsException;
 import com.porter.model.Porter;
 import com.porter.model.User;
 import com.porter.model.enums.UserRole;
 import com.porter.repository.PorterRepository;
 import com.porter.repository.UserRepository;
+import com.porter.security.CustomUserDetailsService;
 import com.porter.security.JwtTokenProvider;
+import com.porter.service.DispatchService;
 import com.porter.service.OtpService;
 import com.porter.service.UserService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @CrossOrigin(origins = "${FRONTEND_URL}")
@@ -74,6 +78,12 @@ public class AuthController {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private DispatchService dispatchService;
+
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@RequestBody RegisterRequest registerRequest) {
         try {
@@ -113,21 +123,8 @@ public class AuthController {
             }
 
             // Send welcome/registration email
-            String subject = "Welcome to PORTER▸XPRESSO!";
-            String content = String.format(
-                "<div style='font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto; padding: 30px; background-color: #fff; border-radius: 12px; box-shadow: 0 4px 12px rgba(0,0,0,0.1);'>"
-                + "<div style='text-align: center;'>"
-                + "<img src='https://img.icons8.com/emoji/48/delivery-truck.png' alt='Welcome' width='50' height='50' />"
-                + "<h2 style='color: #007bff; margin-bottom: 10px;'>Welcome to PORTER▸XPRESSO!</h2>"
-                + "</div>"
-                + "<p style='font-size: 16px; color: #333;'>Dear <strong>%s</strong>,</p>"
-                + "<p style='font-size: 15px; color: #555;'>Thank you for registering as a %s on PORTER▸XPRESSO. Please verify your email using the OTP sent to your inbox to activate your account.</p>"
-                + "<p style='font-size: 14px; color: #666;'>If you have any questions, feel free to contact our support team.</p>"
-                + "<p style='font-size: 14px; color: #333; margin-top: 30px;'>Best regards,<br><strong>PORTER▸XPRESSO Team</strong></p>"
-                + "</div>",
-                user.getUsername(), user.getRole().name().toLowerCase()
-            );
-            emailService.sendEmail(user.getEmail(), subject, content);
+            emailService.sendTemplatedEmail(user.getEmail(), "welcome",
+                    Map.of("username", user.getUsername(), "role", user.getRole().name().toLowerCase()));
 
             UserDTO userDTO = new UserDTO(user);
             Map<String, Object> response = new HashMap<>();
@@ -143,7 +140,7 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest loginRequest, HttpServletRequest httpRequest) {
         try {
             // Find user by username
             User user = userService.findByUsername(loginRequest.getUsername())
@@ -168,7 +165,7 @@ public class AuthController {
             }
 
             // Generate and send OTP
-            otpService.generateAndSendOtp(user.getUsername(), user.getEmail());
+            otpService.generateAndSendOtp(user.getUsername(), user.getEmail(), httpRequest.getRemoteAddr());
             UserDTO userDTO = UserDTO.fromEntity(user);
 
             return ResponseEntity.ok(AuthResponse.builder()
@@ -178,6 +175,12 @@ public class AuthController {
                     .user(userDTO)
                     .build());
 
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(AuthResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .requiresOtp(false)
+                    .build());
         } catch (Exception e) {
             logger.error("Login error: ", e);
             return ResponseEntity.ok(AuthResponse.builder()
@@ -189,13 +192,15 @@ public class AuthController {
     }
 
     @PostMapping("/verify-otp")
-    public ResponseEntity<AuthResponse> verifyOtp(@RequestBody OtpVerificationRequest request) {
+    public ResponseEntity<AuthResponse> verifyOtp(@RequestBody OtpVerificationRequest request,
+            HttpServletRequest httpRequest) {
         try {
-            if (otpService.verifyOtp(request.getUsername(), request.getOtp())) {
+            if (otpService.verifyOtp(request.getUsername(), request.getOtp(), httpRequest.getRemoteAddr())) {
                 User user = userService.findByUsername(request.getUsername())
                         .orElseThrow(() -> new RuntimeException("User not found"));
                 user.setVerified(true);
                 userRepository.save(user);
+                userDetailsService.evictUser(user.getUsername());
                 // If porter, also set porter.verified=true
                 if (user.getRole() == UserRole.PORTER) {
                     Optional<Porter> porterOpt = porterRepository.findByName(user.getUsername());
@@ -203,6 +208,7 @@ public class AuthController {
                         Porter porter = porterOpt.get();
                         porter.setVerified(true);
                         porterRepository.save(porter);
+                        dispatchService.refreshPorter(porter);
                         if (!"APPROVED".equalsIgnoreCase(porter.getStatus())) {
                             return ResponseEntity.ok(AuthResponse.builder()
                                     .success(false)
@@ -230,6 +236,12 @@ public class AuthController {
                         .requiresOtp(true)
                         .build());
             }
+        } catch (TooManyRequestsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(AuthResponse.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .requiresOtp(true)
+                    .build());
         } catch (Exception e) {
             return ResponseEntity.ok(AuthResponse.builder()
                     .success(false)
@@ -240,7 +252,7 @@ public class AuthController {
     }
 
     @PostMapping("/forget-password")
-    public ResponseEntity<?> sendResetOTP(@RequestBody ForgetPasswordRequest request) {
+    public ResponseEntity<?> sendResetOTP(@RequestBody ForgetPasswordRequest request, HttpServletRequest httpRequest) {
         String usernameOrEmail = request.getUserName();
 
         if (usernameOrEmail == null || usernameOrEmail.isEmpty()) {
@@ -253,12 +265,12 @@ public class AuthController {
         if (user == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "User not found"));
         }
-        otpService.generateAndSendOtp(user.getUsername(), user.getEmail());
+        otpService.generateAndSendOtp(user.getUsername(), user.getEmail(), httpRequest.getRemoteAddr());
         return ResponseEntity.ok(Map.of("message", "OTP sent to your email"));
     }
 
     @PostMapping("/reset-password")
-    public ResponseEntity<?> resetPassword(@RequestBody ForgetPasswordRequest request) {
+    public ResponseEntity<?> resetPassword(@RequestBody ForgetPasswordRequest request, HttpServletRequest httpRequest) {
         String username = request.getUserName();
         String otp = request.getOtp();
         String newPassword = request.getNewPassword();
@@ -275,7 +287,7 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(Map.of("message", "OTP is required!"));
             }
 
-            boolean validOtp = otpService.verifyOtp(username, otp);
+            boolean validOtp = otpService.verifyOtp(username, otp, httpRequest.getRemoteAddr());
             if (!validOtp) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("message", "Invalid or expired OTP"));
@@ -315,6 +327,7 @@ public class AuthController {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userDetailsService.evictUser(user.getUsername());
 
         return ResponseEntity.ok(Map.of("message", "Password reset successfully"));
     }
@@ -361,6 +374,7 @@ public class AuthController {
             // Update password
             user.setPassword(passwordEncoder.encode(request.getNewPassword()));
             userRepository.save(user);
+            userDetailsService.evictUser(username);
 
             return ResponseEntity.ok(Map.of("message", "Password changed successfully"));
         } catch (Exception e) {
@@ -386,49 +400,8 @@ public class AuthController {
         user.setResetTokenUsed(false);
         userRepository.save(user);
         String resetLink = frontendUrl + "/reset-password?token=" + token;
-        String subject = "Reset Your Password";
-        String content = String.format(
-                """
-                            <div style="font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto; padding: 30px; background-color: #ffffff; border-radius: 12px; box-shadow: 0 4px 12px rgba(0,0,0,0.1);">
-                                <div style="text-align: center;">
-                                        <div style="text-align: center;">
-                                            <img src="https://img.icons8.com/emoji/48/delivery-truck.png" alt="Delivery Truck" width="50" height="50" />
-                                </div>
-
-                                    <h2 style="color: #007bff; margin-bottom: 10px;">𝑃𝑜𝑟𝑡𝑒𝑟𝑊𝑎𝑎𝑙𝑒 - Password Reset</h2>
-                                </div>
-
-                                <p style="font-size: 16px; color: #333;">Hi <strong>%s</strong>,</p>
-
-                                <p style="font-size: 15px; color: #555;">
-                                    We received a request to reset your password for your 𝑃𝑜𝑟𝑡𝑒𝑟𝑊𝑎𝑎𝑙𝑒 account. Click the button below to choose a new password.
-                                </p>
-
-                                <div style="text-align: center; margin: 30px 0;">
-                                    <a href="%s"
-                                       style="background-color: #007bff; color: white; padding: 14px 28px; text-decoration: none; font-size: 16px; font-weight: bold; border-radius: 8px; display: inline-block;">
-                                         Reset Password
-                                    </a>
-                                </div>
-
-                                                       <p style="font-size: 14px; color: #888; text-align: center;">
-                            <img src="https://img.icons8.com/ios-filled/16/888888/hourglass.png" alt="Hourglass Icon" style="vertical-align: middle; margin-right: 6px;" />
-                            This link will expire in <strong>5 minutes</strong> for your security.
-                        </p>
-
-                                <p style="font-size: 14px; color: #666;">
-                                    If you did not request this, please ignore this email. No changes will be made to your account.
-                                </p>
-
-                                <p style="font-size: 14px; color: #333; margin-top: 30px;">
-                                    Thanks,<br>
-                                    <strong>𝑃𝑜𝑟𝑡𝑒𝑟𝑊𝑎𝑎𝑙𝑒 Support Team</strong>
-                                </p>
-                            </div>
-                        """,
-                user.getUsername(), resetLink);
-
-        emailService.sendEmail(user.getEmail(), subject, content);
+        emailService.sendTemplatedEmail(user.getEmail(), "password-reset",
+                Map.of("username", user.getUsername(), "resetLink", resetLink));
         return ResponseEntity.ok("Password reset link sent successfully");
     }
 
@@ -1,5 +1,6 @@
 package com.porter.controller;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -9,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
@@ -20,13 +22,22 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import com.porter.DTO.BulkCreateResult;
+import com.porter.DTO.BulkDeliveryRow;
 import com.porter.DTO.DeliveryDTO;
+import com.porter.DTO.FareQuote;
+import com.porter.DTO.QuoteRequest;
+import com.porter.exception.DeliveryAlreadyClaimedException;
 import com.porter.model.Delivery;
 import com.porter.model.Tracking;
 import com.porter.model.enums.DeliveryStatus;
+import com.porter.service.BulkDeliveryService;
 import com.porter.service.PorterService;
+import com.porter.service.PricingService;
 import com.porter.service.TrackingService;
 import com.porter.service.impl.DeliveryServiceImpl;
 
@@ -43,20 +54,41 @@ public class DeliveryController {
     private TrackingService trackingService;
 
     @Autowired
-    private com.porter.Email.EmailService emailService;
+    private PorterService porterService;
 
     @Autowired
-    private PorterService porterService;
+    private PricingService pricingService;
+
+    @Autowired
+    private BulkDeliveryService bulkDeliveryService;
 
     @PostMapping("/delivery")
     public ResponseEntity<DeliveryDTO> createDelivery(@RequestBody Delivery delivery, Authentication authentication) {
         String username = authentication.getName();
         Delivery createdDelivery = deliveryService.createDelivery(delivery, username);
-        // Send confirmation email
-        emailService.sendDeliveryBookedEmail(createdDelivery);
         return ResponseEntity.ok(DeliveryDTO.fromEntity(createdDelivery));
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkCreateResult> createDeliveries(@RequestBody List<BulkDeliveryRow> rows, Authentication authentication) {
+        return ResponseEntity.ok(bulkDeliveryService.create(rows, authentication.getName()));
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BulkCreateResult> uploadDeliveries(@RequestParam("file") MultipartFile file, Authentication authentication) throws IOException {
+        return ResponseEntity.ok(bulkDeliveryService.createFromCsv(file.getInputStream(), authentication.getName()));
+    }
+
+    @PostMapping("/quote")
+    public ResponseEntity<FareQuote> quote(@RequestBody QuoteRequest request) {
+        return ResponseEntity.ok(pricingService.quote(request));
+    }
+
+    @PostMapping("/quote/batch")
+    public ResponseEntity<List<FareQuote>> quoteBatch(@RequestBody List<QuoteRequest> requests) {
+        return ResponseEntity.ok(pricingService.quoteBatch(requests));
+    }
+
     @GetMapping
     public ResponseEntity<List<DeliveryDTO>> getUserDeliveries(Authentication authentication) {
         String username = authentication.getName();
@@ -160,9 +192,7 @@ public class DeliveryController {
                 String username = authentication.getName();
                 deliveryService.assignPorterAndAccept(delivery, username);
             } else {
-                delivery.setStatus(DeliveryStatus.valueOf(request.getStatus()));
-                delivery.setUpdatedAt(LocalDateTime.now());
-                deliveryService.updateDelivery(delivery);
+                delivery = deliveryService.transitionStatus(id, DeliveryStatus.valueOf(request.getStatus()));
             }
             Tracking tracking = new Tracking();
             tracking.setDelivery(delivery);
@@ -171,12 +201,10 @@ public class DeliveryController {
             tracking.setLatitude(request.getLatitude());
             tracking.setLongitude(request.getLongitude());
             trackingService.addTracking(tracking);
-            emailService.sendDeliveryStatusEmail(delivery, delivery.getStatus().name());
-            if (delivery.getStatus() == DeliveryStatus.DELIVERED &&
-                delivery.getPaymentStatus() != com.porter.model.PaymentStatus.COMPLETED) {
-                emailService.sendUnpaidBillEmail(delivery, delivery.getAmount() != null ? delivery.getAmount().toString() : "");
-            }
             return ResponseEntity.ok(DeliveryDTO.fromEntity(delivery));
+        } catch (DeliveryAlreadyClaimedException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("message", ex.getMessage()));
         } catch (Exception ex) {
             return ResponseEntity.badRequest()
                     .body(Map.of("message", ex.getMessage()));
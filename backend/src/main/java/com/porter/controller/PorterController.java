@@ -4,19 +4,30 @@ import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.porter.DTO.DeliveryDTO;
 import com.porter.DTO.PorterDTO;
+import com.porter.DTO.TripDTO;
+import com.porter.DTO.TripRequest;
 import com.porter.model.Porter;
 import com.porter.repository.PorterRepository;
+import com.porter.service.DispatchService;
 import com.porter.service.PorterService;
+import com.porter.service.TripService;
+import com.porter.util.GeoUtils;
 
 @CrossOrigin(origins = "${FRONTEND_URL}")
 @RestController
@@ -30,6 +41,18 @@ public class PorterController {
     @Autowired
     private PorterRepository porterRepository;
 
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private TripService tripService;
+
+    @Value("${delivery.geo-index.default-radius-km:5}")
+    private double defaultRadiusKm;
+
+    @Value("${delivery.geo-index.max-results:50}")
+    private int maxResults;
+
     @GetMapping("/profile")
     public ResponseEntity<PorterDTO> getPorterProfile(Authentication authentication) {
         String username = authentication.getName();
@@ -53,11 +76,37 @@ public class PorterController {
     }
 
     @GetMapping("/available-deliveries")
-    public ResponseEntity<List<DeliveryDTO>> getAvailableDeliveries() {
-        List<DeliveryDTO> availableDeliveries = porterService.getAvailableDeliveries();
+    public ResponseEntity<List<DeliveryDTO>> getAvailableDeliveries(
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer limit) {
+        if (latitude == null || longitude == null) {
+            return ResponseEntity.ok(porterService.getAvailableDeliveries());
+        }
+        if (!GeoUtils.isValidCoordinate(latitude, longitude)) {
+            throw new IllegalArgumentException("Invalid latitude/longitude");
+        }
+        double radius = radiusKm != null && radiusKm > 0 ? radiusKm : defaultRadiusKm;
+        int max = limit != null && limit > 0 ? Math.min(limit, maxResults) : maxResults;
+        List<DeliveryDTO> availableDeliveries = porterService.getNearbyAvailableDeliveries(latitude, longitude, radius, max);
         return ResponseEntity.ok(availableDeliveries);
     }
 
+    @GetMapping("/offers/current")
+    public ResponseEntity<?> getCurrentOffer(Authentication authentication) {
+        Map<String, Object> offer = dispatchService.currentOffer(authentication.getName());
+        return offer != null ? ResponseEntity.ok(offer) : ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/offers/{deliveryId}/decline")
+    public ResponseEntity<?> declineOffer(@PathVariable Long deliveryId, Authentication authentication) {
+        if (!dispatchService.decline(deliveryId, authentication.getName())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "No live offer for this delivery"));
+        }
+        return ResponseEntity.ok(Map.of("message", "Offer declined"));
+    }
+
     @GetMapping("/active-deliveries")
     public ResponseEntity<List<DeliveryDTO>> getActiveDeliveries(Authentication authentication) {
         String username = authentication.getName();
@@ -65,6 +114,46 @@ public class PorterController {
         return ResponseEntity.ok(activeDeliveries);
     }
 
+    // Multi-stop trips over the porter's own accepted deliveries
+    @PostMapping("/trips")
+    public ResponseEntity<TripDTO> createTrip(@RequestBody TripRequest request, Authentication authentication) {
+        return ResponseEntity.ok(tripService.createTrip(authentication.getName(), request));
+    }
+
+    @GetMapping("/trips")
+    public ResponseEntity<List<TripDTO>> getOpenTrips(Authentication authentication) {
+        return ResponseEntity.ok(tripService.getOpenTrips(authentication.getName()));
+    }
+
+    @GetMapping("/trips/{tripId}")
+    public ResponseEntity<TripDTO> getTrip(@PathVariable Long tripId, Authentication authentication) {
+        return ResponseEntity.ok(tripService.getTrip(tripId, authentication.getName()));
+    }
+
+    @PostMapping("/trips/{tripId}/stops/{stopId}/complete")
+    public ResponseEntity<TripDTO> completeStop(
+            @PathVariable Long tripId,
+            @PathVariable Long stopId,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            Authentication authentication) {
+        return ResponseEntity.ok(tripService.completeStop(tripId, stopId, authentication.getName(), latitude, longitude));
+    }
+
+    @PostMapping("/trips/{tripId}/resequence")
+    public ResponseEntity<TripDTO> resequenceTrip(
+            @PathVariable Long tripId,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            Authentication authentication) {
+        return ResponseEntity.ok(tripService.resequence(tripId, authentication.getName(), latitude, longitude));
+    }
+
+    @PostMapping("/trips/{tripId}/cancel")
+    public ResponseEntity<TripDTO> cancelTrip(@PathVariable Long tripId, Authentication authentication) {
+        return ResponseEntity.ok(tripService.cancelTrip(tripId, authentication.getName()));
+    }
+
     @GetMapping("/delivery-history")
     public ResponseEntity<List<DeliveryDTO>> getDeliveryHistory(Authentication authentication) {
         String username = authentication.getName();
@@ -1,38 +1,50 @@
 package com.porter.controller;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
+
+import com.porter.service.RouteGateway;
 
 import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 public class RouteProxyController {
-    
+    private static final Logger logger = LoggerFactory.getLogger(RouteProxyController.class);
+
+    private static final String PREFIX = "/api/proxy/osrm/";
+
     @Value("${FRONTEND_URL}")
     private String frontendUrl;
+
+    @Autowired
+    private RouteGateway routeGateway;
     
     @CrossOrigin(origins = "${FRONTEND_URL}") // Allow frontend origin
     @RequestMapping("/api/proxy/osrm/**")
-    public ResponseEntity<String> proxyRoute(HttpServletRequest request) {
+    public CompletableFuture<ResponseEntity<String>> proxyRoute(HttpServletRequest request) {
         String fullPath = request.getRequestURI();
-        String path = fullPath.substring(fullPath.indexOf("/api/proxy/osrm/") + "/api/proxy/osrm/".length());
-        StringBuilder url = new StringBuilder("https://router.project-osrm.org/" + path);
-        String queryString = request.getQueryString();
-        if (queryString != null && !queryString.isEmpty()) {
-            url.append("?").append(queryString);
-        }
-        System.out.println("Proxying to: " + url);
-        RestTemplate restTemplate = new RestTemplate();
-        try {
-            String response = restTemplate.getForObject(url.toString(), String.class);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            System.err.println("Error proxying to OSRM: " + e.getMessage());
-            return ResponseEntity.status(400).body("{\"error\":\"Failed to fetch route from OSRM.\"}");
+        String path = fullPath.substring(fullPath.indexOf(PREFIX) + PREFIX.length());
+        return routeGateway.fetch(path, request.getQueryString())
+                .thenApply(body -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body))
+                .exceptionally(this::toErrorResponse);
+    }
+
+    private ResponseEntity<String> toErrorResponse(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RouteGateway.UpstreamException upstream) {
+            return ResponseEntity.status(upstream.getStatus()).contentType(MediaType.APPLICATION_JSON).body(upstream.getBody());
         }
+        logger.error("Error proxying to OSRM: {}", cause.getMessage());
+        return ResponseEntity.status(400).body("{\"error\":\"Failed to fetch route from OSRM.\"}");
     }
-} 
\ No newline at end of file
+}
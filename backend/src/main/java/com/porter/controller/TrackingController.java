@@ -1,19 +1,35 @@
 package com.porter.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.porter.DTO.DeliveryDTO;
+import com.porter.DTO.LivePosition;
+import com.porter.DTO.LocationUpdateRequest;
 import com.porter.DTO.TrackingDTO;
 import com.porter.model.Tracking;
+import com.porter.service.DispatchService;
+import com.porter.service.LatestPositionStore;
+import com.porter.service.TrackingIngestService;
+import com.porter.service.TrackingPathService;
 import com.porter.service.TrackingService;
+import com.porter.util.GeoUtils;
 
 @RestController
 @RequestMapping("/api/tracking")
@@ -22,6 +38,37 @@ public class TrackingController {
     @Autowired
     private TrackingService trackingService;
 
+    @Autowired
+    private TrackingIngestService trackingIngestService;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private TrackingPathService trackingPathService;
+
+    @Autowired
+    private LatestPositionStore latestPositionStore;
+
+    // High-frequency GPS ingest; points are buffered and written in batches
+    @PostMapping("/location")
+    @PreAuthorize("hasRole('PORTER')")
+    public ResponseEntity<?> ingestLocation(@RequestBody LocationUpdateRequest request, Authentication authentication) {
+        if (request.getDeliveryId() == null
+                || !GeoUtils.isValidCoordinate(request.getLatitude(), request.getLongitude())) {
+            return ResponseEntity.badRequest().body(Map.of("message", "deliveryId, latitude and longitude are required"));
+        }
+        boolean accepted = trackingIngestService.enqueue(request.getDeliveryId(), request.getLatitude(),
+                request.getLongitude(), request.getTimestamp(), authentication.getName());
+        if (!accepted) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", "1")
+                    .body(Map.of("message", "Location buffer is full, retry shortly"));
+        }
+        dispatchService.updatePosition(authentication.getName(), request.getLatitude(), request.getLongitude());
+        return ResponseEntity.accepted().build();
+    }
+
     @GetMapping("/{deliveryId}")
     public ResponseEntity<?> getTrackingByDeliveryId(@PathVariable Long deliveryId) {
         List<Tracking> trackingList = trackingService.getTrackingByDeliveryId(deliveryId);
@@ -47,4 +94,27 @@ public class TrackingController {
             )
         );
     }
+
+    // Current position from memory; 204 until the first point of an active delivery is flushed
+    @GetMapping("/{deliveryId}/latest")
+    public ResponseEntity<LivePosition> getLatestPosition(@PathVariable Long deliveryId) {
+        LivePosition position = latestPositionStore.forDelivery(deliveryId);
+        return position != null ? ResponseEntity.ok(position) : ResponseEntity.noContent().build();
+    }
+
+    // Simplified path for maps: delivery once, then compact points thinned by time window and tolerance or zoom
+    @GetMapping("/{deliveryId}/path")
+    public ResponseEntity<StreamingResponseBody> getTrackingPath(
+            @PathVariable Long deliveryId,
+            @RequestParam(required = false) Double tolerance,
+            @RequestParam(required = false) Integer zoom,
+            @RequestParam(required = false) Long intervalSeconds) {
+        if (zoom != null && (zoom < 0 || zoom > 22)) {
+            throw new IllegalArgumentException("zoom must be between 0 and 22");
+        }
+        TrackingPathService.SimplifiedPath path = trackingPathService.load(deliveryId, tolerance, zoom, intervalSeconds);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> trackingPathService.write(path, out));
+    }
 }
@@ -0,0 +1,9 @@
+package com.porter.exception;
+
+public class DeliveryAlreadyClaimedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public DeliveryAlreadyClaimedException(String message) {
+        super(message);
+    }
+}
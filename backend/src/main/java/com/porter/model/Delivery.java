@@ -93,6 +93,10 @@ public class Delivery {
     @Column(name = "scheduled_time")
     private LocalDateTime scheduledTime;
 
+    // Set the first time the delivery reaches DELIVERED and never moved by later saves
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+
     // Default constructor
     public Delivery() {
     }
@@ -144,6 +148,9 @@ public class Delivery {
 
     public void setStatus(DeliveryStatus status) {
         this.status = status;
+        if (status == DeliveryStatus.DELIVERED && deliveredAt == null) {
+            deliveredAt = LocalDateTime.now();
+        }
     }
 
     public PackageType getPackageType() {
@@ -225,6 +232,14 @@ public class Delivery {
         this.scheduledTime = scheduledTime;
     }
 
+    public LocalDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+
+    public void setDeliveredAt(LocalDateTime deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
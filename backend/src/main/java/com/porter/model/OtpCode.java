@@ -0,0 +1,69 @@
+package com.porter.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * The current one-time code of a user, shared by every node when {@code otp.store=jdbc}.
+ * Only a hash of the code is stored. Written and read through
+ * {@link com.porter.service.impl.JdbcOtpStore}; expired rows are swept periodically.
+ */
+@Entity
+@Table(name = "otp_code", indexes = {
+        @Index(name = "idx_otp_code_expires_at", columnList = "expires_at")
+})
+public class OtpCode {
+    @Id
+    private String username;
+
+    @Column(name = "code_hash", nullable = false)
+    private byte[] codeHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Default constructor
+    public OtpCode() {
+    }
+
+    // Getters and Setters
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public byte[] getCodeHash() {
+        return codeHash;
+    }
+
+    public void setCodeHash(byte[] codeHash) {
+        this.codeHash = codeHash;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
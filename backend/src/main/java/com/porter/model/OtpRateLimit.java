@@ -0,0 +1,68 @@
+package com.porter.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Hit counter of one OTP rate-limit bucket (a user or client address) for the current
+ * fixed window, shared by every node when {@code otp.store=jdbc}.
+ */
+@Entity
+@Table(name = "otp_rate_limit", indexes = {
+        @Index(name = "idx_otp_rate_limit_window_end", columnList = "window_end")
+})
+public class OtpRateLimit {
+    @Id
+    private String bucket;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+
+    @Column(nullable = false)
+    private int hits;
+
+    // Default constructor
+    public OtpRateLimit() {
+    }
+
+    // Getters and Setters
+    public String getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(String bucket) {
+        this.bucket = bucket;
+    }
+
+    public LocalDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(LocalDateTime windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public LocalDateTime getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(LocalDateTime windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public void setHits(int hits) {
+        this.hits = hits;
+    }
+}
@@ -0,0 +1,172 @@
+package com.porter.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.Table;
+
+/**
+ * Running dashboard counters for one porter, kept up to date on every delivery transition.
+ */
+@Entity
+@Table(name = "porter_stats")
+public class PorterStats {
+    @Id
+    @Column(name = "porter_id")
+    private Long porterId;
+
+    @Column(name = "total_deliveries", nullable = false)
+    private long totalDeliveries;
+
+    @Column(name = "active_deliveries", nullable = false)
+    private long activeDeliveries;
+
+    @Column(name = "completed_deliveries", nullable = false)
+    private long completedDeliveries;
+
+    @Column(name = "cancelled_deliveries", nullable = false)
+    private long cancelledDeliveries;
+
+    @Column(name = "on_time_deliveries", nullable = false)
+    private long onTimeDeliveries;
+
+    @Column(name = "total_earnings", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalEarnings = BigDecimal.ZERO;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "porter_stats_by_type", joinColumns = @JoinColumn(name = "porter_id"))
+    @MapKeyColumn(name = "package_type")
+    @Column(name = "delivered_count")
+    private Map<String, Long> deliveriesByType = new HashMap<>();
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "porter_stats_earnings_by_day", joinColumns = @JoinColumn(name = "porter_id"))
+    @MapKeyColumn(name = "day")
+    @Column(name = "amount", precision = 14, scale = 2)
+    private Map<LocalDate, BigDecimal> earningsByDay = new HashMap<>();
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "rebuilt_at")
+    private LocalDateTime rebuiltAt;
+
+    // Default constructor
+    public PorterStats() {
+    }
+
+    public PorterStats(Long porterId) {
+        this.porterId = porterId;
+    }
+
+    public void reset() {
+        totalDeliveries = 0;
+        activeDeliveries = 0;
+        completedDeliveries = 0;
+        cancelledDeliveries = 0;
+        onTimeDeliveries = 0;
+        totalEarnings = BigDecimal.ZERO;
+        deliveriesByType.clear();
+        earningsByDay.clear();
+    }
+
+    // Getters and Setters
+    public Long getPorterId() {
+        return porterId;
+    }
+
+    public void setPorterId(Long porterId) {
+        this.porterId = porterId;
+    }
+
+    public long getTotalDeliveries() {
+        return totalDeliveries;
+    }
+
+    public void setTotalDeliveries(long totalDeliveries) {
+        this.totalDeliveries = totalDeliveries;
+    }
+
+    public long getActiveDeliveries() {
+        return activeDeliveries;
+    }
+
+    public void setActiveDeliveries(long activeDeliveries) {
+        this.activeDeliveries = activeDeliveries;
+    }
+
+    public long getCompletedDeliveries() {
+        return completedDeliveries;
+    }
+
+    public void setCompletedDeliveries(long completedDeliveries) {
+        this.completedDeliveries = completedDeliveries;
+    }
+
+    public long getCancelledDeliveries() {
+        return cancelledDeliveries;
+    }
+
+    public void setCancelledDeliveries(long cancelledDeliveries) {
+        this.cancelledDeliveries = cancelledDeliveries;
+    }
+
+    public long getOnTimeDeliveries() {
+        return onTimeDeliveries;
+    }
+
+    public void setOnTimeDeliveries(long onTimeDeliveries) {
+        this.onTimeDeliveries = onTimeDeliveries;
+    }
+
+    public BigDecimal getTotalEarnings() {
+        return totalEarnings;
+    }
+
+    public void setTotalEarnings(BigDecimal totalEarnings) {
+        this.totalEarnings = totalEarnings;
+    }
+
+    public Map<String, Long> getDeliveriesByType() {
+        return deliveriesByType;
+    }
+
+    public void setDeliveriesByType(Map<String, Long> deliveriesByType) {
+        this.deliveriesByType = deliveriesByType;
+    }
+
+    public Map<LocalDate, BigDecimal> getEarningsByDay() {
+        return earningsByDay;
+    }
+
+    public void setEarningsByDay(Map<LocalDate, BigDecimal> earningsByDay) {
+        this.earningsByDay = earningsByDay;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getRebuiltAt() {
+        return rebuiltAt;
+    }
+
+    public void setRebuiltAt(LocalDateTime rebuiltAt) {
+        this.rebuiltAt = rebuiltAt;
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -14,7 +15,7 @@ import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tracking")
+@Table(name = "tracking", indexes = @Index(name = "idx_tracking_delivery_id", columnList = "delivery_id"))
 public class Tracking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,8 @@
+package com.porter.model.enums;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    SUPERSEDED,
+    FAILED
+}
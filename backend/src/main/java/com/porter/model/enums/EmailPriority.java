@@ -0,0 +1,8 @@
+package com.porter.model.enums;
+
+// Stored by ordinal so the dispatcher can claim in priority order; append new values only
+public enum EmailPriority {
+    CRITICAL,
+    NORMAL,
+    BULK
+}
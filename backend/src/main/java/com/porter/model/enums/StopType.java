@@ -0,0 +1,6 @@
+package com.porter.model.enums;
+
+public enum StopType {
+    PICKUP,
+    DROP
+}
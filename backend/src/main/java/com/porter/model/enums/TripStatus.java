@@ -0,0 +1,8 @@
+package com.porter.model.enums;
+
+public enum TripStatus {
+    PLANNED,
+    IN_PROGRESS,
+    COMPLETED,
+    CANCELLED
+}
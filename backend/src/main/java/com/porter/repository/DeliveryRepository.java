@@ -1,37 +1,153 @@
 package com.porter.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.porter.DTO.DeliveryExportRow;
 import com.porter.model.Delivery;
 import com.porter.model.Porter;
 import com.porter.model.User;
 import com.porter.model.enums.DeliveryStatus;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
+    // Optional admin listing filters; a null parameter disables its condition
+    String ADMIN_FILTER = "(:status IS NULL OR d.status = :status) " +
+                          "AND (:porterId IS NULL OR p.id = :porterId) " +
+                          "AND (:userId IS NULL OR u.id = :userId) " +
+                          "AND (:from IS NULL OR d.createdAt >= :from) " +
+                          "AND (:to IS NULL OR d.createdAt < :to)";
+
+    // List reads feed DeliveryDTO.fromEntity, which needs user and porter; load them in the same query
+    @Override
+    @EntityGraph(attributePaths = {"user", "porter"})
+    List<Delivery> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"user", "porter"})
+    List<Delivery> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = {"user", "porter"})
     List<Delivery> findByUser(User user);
 
+    @EntityGraph(attributePaths = {"user", "porter"})
     List<Delivery> findByPorter(Porter porter);
 
+    List<Delivery> findByPorterId(Long porterId);
+
+    @EntityGraph(attributePaths = {"user", "porter"})
     List<Delivery> findByStatus(DeliveryStatus status);
 
+    @EntityGraph(attributePaths = {"user", "porter"})
     List<Delivery> findByUserAndStatus(User user, DeliveryStatus status);
 
+    @EntityGraph(attributePaths = {"user", "porter"})
     List<Delivery> findByPorterAndStatus(Porter porter, DeliveryStatus status);
 
+    @EntityGraph(attributePaths = {"user", "porter"})
     List<Delivery> findByPorterAndStatusIn(Porter porter, List<DeliveryStatus> statuses);
 
+    @EntityGraph(attributePaths = {"user", "porter"})
     List<Delivery> findByUserOrderByScheduledTimeDesc(User user);
 
+    @EntityGraph(attributePaths = {"user", "porter"})
     List<Delivery> findByPorterOrderByScheduledTimeDesc(Porter porter);
 
     long countByStatus(DeliveryStatus status);
 
+    @EntityGraph(attributePaths = {"user", "porter"})
     List<Delivery> findTop10ByOrderByCreatedAtDesc();
 
+    @EntityGraph(attributePaths = {"user", "porter"})
     List<Delivery> findByUserId(Long userId);
 
+    // Keyset page, newest first: rows with id below the cursor
+    @Query("SELECT d FROM Delivery d JOIN FETCH d.user u LEFT JOIN FETCH d.porter p " +
+           "WHERE (:cursor IS NULL OR d.id < :cursor) AND " + ADMIN_FILTER + " ORDER BY d.id DESC")
+    List<Delivery> findAdminPage(@Param("cursor") Long cursor,
+                                 @Param("status") DeliveryStatus status,
+                                 @Param("porterId") Long porterId,
+                                 @Param("userId") Long userId,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to,
+                                 Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.porter.DTO.DeliveryExportRow(d.id, d.status, d.paymentStatus, d.packageType, " +
+           "d.packageWeight, u.username, p.name, d.pickupLocation.address, d.deliveryLocation.address, " +
+           "d.deliveryFee, d.amount, d.distance, d.scheduledTime, d.createdAt, d.updatedAt) " +
+           "FROM Delivery d JOIN d.user u LEFT JOIN d.porter p WHERE " + ADMIN_FILTER + " ORDER BY d.id DESC")
+    Stream<DeliveryExportRow> streamForExport(@Param("status") DeliveryStatus status,
+                                              @Param("porterId") Long porterId,
+                                              @Param("userId") Long userId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    // One row per (status, package type, day) for the user's deliveries; day is null outside the recent window
+    @Query(value = "SELECT d.status, d.package_type, " +
+                   "CASE WHEN d.scheduled_time >= :since THEN CAST(d.scheduled_time AS DATE) END, COUNT(*) " +
+                   "FROM deliveries d WHERE d.user_id = :userId GROUP BY 1, 2, 3",
+           nativeQuery = true)
+    List<Object[]> countByStatusPackageTypeAndDay(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+
+    // Admin dashboard totals in one round trip: users, porters, deliveries, revenue, active, completed, cancelled
+    @Query(value = "SELECT (SELECT COUNT(*) FROM users), (SELECT COUNT(*) FROM porters), d.total, " +
+                   "(SELECT COALESCE(SUM(p.amount), 0) FROM payments p), d.active, d.completed, d.cancelled " +
+                   "FROM (SELECT COUNT(*) AS total, " +
+                   "COUNT(*) FILTER (WHERE status = 'ACCEPTED') AS active, " +
+                   "COUNT(*) FILTER (WHERE status = 'DELIVERED') AS completed, " +
+                   "COUNT(*) FILTER (WHERE status = 'CANCELLED') AS cancelled " +
+                   "FROM deliveries) d",
+           nativeQuery = true)
+    List<Object[]> aggregateAdminStatistics();
+
+    // Active delivery count per porter, for seeding the dispatch registry
+    @Query("SELECT d.porter.id, COUNT(d) FROM Delivery d WHERE d.porter IS NOT NULL AND d.status IN :statuses GROUP BY d.porter.id")
+    List<Object[]> countByPorterAndStatusIn(@Param("statuses") Collection<DeliveryStatus> statuses);
+
+    // Id and pickup point per delivery, for seeding the dispatch board without loading entities
+    @Query("SELECT d.id, d.pickupLocation.latitude, d.pickupLocation.longitude FROM Delivery d WHERE d.status = :status")
+    List<Object[]> findPickupsByStatus(@Param("status") DeliveryStatus status);
+
+    // Scheduled pickups still waiting for a porter, due before the planning horizon
+    @Query("SELECT d.id, d.pickupLocation.latitude, d.pickupLocation.longitude, d.scheduledTime FROM Delivery d " +
+           "WHERE d.status = :status AND d.scheduledTime IS NOT NULL AND d.scheduledTime <= :horizon")
+    List<Object[]> findSchedulingCandidates(@Param("status") DeliveryStatus status,
+                                            @Param("horizon") LocalDateTime horizon);
+
+    @Query("SELECT d.id, d.status, p.name FROM Delivery d LEFT JOIN d.porter p WHERE d.id IN :ids")
+    List<Object[]> findStatusAndPorterNameByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("SELECT u.username, p.name FROM Delivery d JOIN d.user u LEFT JOIN d.porter p WHERE d.id = :id")
+    List<Object[]> findParticipantNames(@Param("id") Long id);
+
+    // Conditional claim: only one caller can move a delivery out of the expected status
+    // Bulk update, so updatedAt is left alone
+    @Modifying
+    @Query("UPDATE Delivery d SET d.deliveredAt = d.updatedAt WHERE d.status = :status AND d.deliveredAt IS NULL")
+    int backfillDeliveredAt(@Param("status") DeliveryStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Delivery d SET d.porter = :porter, d.status = :newStatus, d.updatedAt = :now " +
+           "WHERE d.id = :id AND d.status = :expectedStatus")
+    int claim(@Param("id") Long id,
+              @Param("porter") Porter porter,
+              @Param("expectedStatus") DeliveryStatus expectedStatus,
+              @Param("newStatus") DeliveryStatus newStatus,
+              @Param("now") LocalDateTime now);
+
 }
\ No newline at end of file
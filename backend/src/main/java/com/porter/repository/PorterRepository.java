@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.porter.model.Porter;
@@ -14,4 +15,7 @@ public interface PorterRepository extends JpaRepository<Porter, Long> {
     Optional<Porter> findByEmail(String email);
     Optional<Porter> findByName(String name);
     List<Porter> findAllByStatus(String status);
+
+    @Query("SELECT p.id FROM Porter p")
+    List<Long> findAllIds();
 } 
\ No newline at end of file
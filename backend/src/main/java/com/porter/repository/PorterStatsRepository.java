@@ -0,0 +1,21 @@
+package com.porter.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.porter.model.PorterStats;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface PorterStatsRepository extends JpaRepository<PorterStats, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PorterStats s WHERE s.porterId = :porterId")
+    Optional<PorterStats> findByIdForUpdate(@Param("porterId") Long porterId);
+}
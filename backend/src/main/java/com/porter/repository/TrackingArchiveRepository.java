@@ -0,0 +1,10 @@
+package com.porter.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.porter.model.TrackingArchive;
+
+@Repository
+public interface TrackingArchiveRepository extends JpaRepository<TrackingArchive, Long> {
+}
@@ -1,8 +1,11 @@
 package com.porter.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.porter.model.Delivery;
@@ -11,6 +14,25 @@ import com.porter.model.Tracking;
 @Repository
 public interface TrackingRepository extends JpaRepository<Tracking, Long> {
     List<Tracking> findByDelivery(Delivery delivery);
+
+    // Latest point each porter reported since the cutoff: porter id, latitude, longitude, time
+    @Query(value = "SELECT DISTINCT ON (d.porter_id) d.porter_id, t.latitude, t.longitude, " +
+                   "COALESCE(t.timestamp, t.created_at) AS seen_at " +
+                   "FROM tracking t JOIN deliveries d ON d.id = t.delivery_id " +
+                   "WHERE d.porter_id IS NOT NULL AND COALESCE(t.timestamp, t.created_at) >= :since " +
+                   "ORDER BY d.porter_id, seen_at DESC",
+           nativeQuery = true)
+    List<Object[]> findLatestPorterPositionsSince(@Param("since") LocalDateTime since);
+
+    // Latest point of every in-progress delivery: delivery id, porter name, latitude, longitude, status, time
+    @Query(value = "SELECT DISTINCT ON (t.delivery_id) t.delivery_id, p.name, t.latitude, t.longitude, t.status, " +
+                   "COALESCE(t.timestamp, t.created_at) AS seen_at " +
+                   "FROM tracking t JOIN deliveries d ON d.id = t.delivery_id " +
+                   "LEFT JOIN porters p ON p.id = d.porter_id " +
+                   "WHERE d.status IN ('ACCEPTED', 'PICKED_UP', 'IN_TRANSIT') " +
+                   "ORDER BY t.delivery_id, seen_at DESC",
+           nativeQuery = true)
+    List<Object[]> findLatestPositionsOfActiveDeliveries();
     // List<Tracking> findByDeliveryOrderByTimestampDesc(Delivery delivery);
     // Tracking findFirstByDeliveryOrderByTimestampDesc(Delivery delivery);
 } 
\ No newline at end of file
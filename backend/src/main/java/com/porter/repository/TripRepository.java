@@ -0,0 +1,39 @@
+package com.porter.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.porter.model.Porter;
+import com.porter.model.Trip;
+import com.porter.model.enums.TripStatus;
+
+@Repository
+public interface TripRepository extends JpaRepository<Trip, Long> {
+
+    @Query("SELECT DISTINCT t FROM Trip t LEFT JOIN FETCH t.stops s LEFT JOIN FETCH s.delivery " +
+           "WHERE t.id = :id")
+    Optional<Trip> findWithStopsById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT t FROM Trip t LEFT JOIN FETCH t.stops s LEFT JOIN FETCH s.delivery " +
+           "WHERE t.porter = :porter AND t.status IN :statuses ORDER BY t.createdAt DESC")
+    List<Trip> findWithStopsByPorterAndStatusIn(@Param("porter") Porter porter,
+                                                @Param("statuses") Collection<TripStatus> statuses);
+
+    // Open trips carrying the delivery, with all of their stops
+    @Query("SELECT DISTINCT t FROM Trip t LEFT JOIN FETCH t.stops s LEFT JOIN FETCH s.delivery " +
+           "WHERE t.status IN :statuses " +
+           "AND EXISTS (SELECT 1 FROM TripStop x WHERE x.trip = t AND x.delivery.id = :deliveryId)")
+    List<Trip> findWithStopsByDeliveryIdAndStatusIn(@Param("deliveryId") Long deliveryId,
+                                                   @Param("statuses") Collection<TripStatus> statuses);
+
+    // Deliveries among the given ids that already belong to an open trip
+    @Query("SELECT DISTINCT s.delivery.id FROM TripStop s WHERE s.delivery.id IN :ids AND s.trip.status IN :statuses")
+    List<Long> findDeliveryIdsInTrips(@Param("ids") Collection<Long> ids,
+                                      @Param("statuses") Collection<TripStatus> statuses);
+}
@@ -1,16 +1,32 @@
 package com.porter.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.porter.DTO.UserDTO;
 import com.porter.model.User;
 import com.porter.model.enums.UserRole;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Optional admin listing filters; a null parameter disables its condition
+    String ADMIN_FILTER = "(:role IS NULL OR u.role = :role) " +
+                          "AND (:blocked IS NULL OR u.blocked = :blocked) " +
+                          "AND (:from IS NULL OR u.createdAt >= :from) " +
+                          "AND (:to IS NULL OR u.createdAt < :to)";
+
     Optional<User> findByUsername(String username);
 
     public boolean existsByEmail(String email);
@@ -22,4 +38,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     public Optional<User> findByEmail(String usernameOrEmail);
 
     public Optional<User> findByResetToken(String token);
+
+    // Keyset page, newest first: rows with id below the cursor
+    @Query("SELECT u FROM User u WHERE (:cursor IS NULL OR u.id < :cursor) AND " + ADMIN_FILTER + " ORDER BY u.id DESC")
+    List<User> findAdminPage(@Param("cursor") Long cursor,
+                             @Param("role") UserRole role,
+                             @Param("blocked") Boolean blocked,
+                             @Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to,
+                             Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.porter.DTO.UserDTO(u.id, u.username, u.email, u.role, u.createdAt, u.updatedAt, u.blocked) " +
+           "FROM User u WHERE " + ADMIN_FILTER + " ORDER BY u.id DESC")
+    Stream<UserDTO> streamForExport(@Param("role") UserRole role,
+                                    @Param("blocked") Boolean blocked,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
 } 
\ No newline at end of file
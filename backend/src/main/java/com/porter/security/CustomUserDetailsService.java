@@ -1,8 +1,10 @@
 package com.porter.security;
 
+import java.time.Duration;
 import java.util.Collections;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,11 +12,20 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.porter.model.Porter;
 import com.porter.model.User;
 import com.porter.repository.PorterRepository;
 import com.porter.repository.UserRepository;
 
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Loads users for authentication. Resolved accounts are kept in a bounded TTL cache so that
+ * token-authenticated requests do not hit the database; callers that change anything the
+ * lookup depends on (password, verification, porter approval, blocking) must evict the user.
+ */
 @Service
 @Primary
 public class CustomUserDetailsService implements UserDetailsService {
@@ -25,8 +36,45 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private PorterRepository porterRepository;
 
+    @Value("${auth.user-cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${auth.user-cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    private Cache<String, UserDetails> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Loaded outside the cache: a JDBC call inside Caffeine's compute would pin a virtual thread
+        UserDetails cached = cache.getIfPresent(username);
+        if (cached == null) {
+            cached = loadFromDatabase(username);
+            cache.put(username, cached);
+        }
+        // Hand out a copy: authentication erases credentials on the returned principal
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+    }
+
+    public void evictUser(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private UserDetails loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
@@ -48,4 +96,4 @@ public class CustomUserDetailsService implements UserDetailsService {
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
         );
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.porter.security;
+
+import org.springframework.security.web.firewall.FirewalledRequest;
+import org.springframework.security.web.firewall.HttpFirewall;
+import org.springframework.security.web.firewall.StrictHttpFirewall;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * The default {@link StrictHttpFirewall} for every request except the OSRM proxy. OSRM
+ * separates coordinates with {@code ;} in the path ({@code route/v1/driving/77.1,28.6;77.2,28.7}),
+ * which the strict firewall rejects, so only paths under {@link #PROXY_PREFIX} go through a
+ * copy that allows semicolons. All other checks still apply to them.
+ */
+public class RouteProxyFirewall implements HttpFirewall {
+
+    static final String PROXY_PREFIX = "/api/proxy/osrm/";
+
+    private final StrictHttpFirewall strict = new StrictHttpFirewall();
+    private final StrictHttpFirewall proxy = new StrictHttpFirewall();
+
+    public RouteProxyFirewall() {
+        proxy.setAllowSemicolon(true);
+    }
+
+    @Override
+    public FirewalledRequest getFirewalledRequest(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        boolean proxied = uri != null && uri.startsWith(contextPath + PROXY_PREFIX);
+        return (proxied ? proxy : strict).getFirewalledRequest(request);
+    }
+
+    @Override
+    public HttpServletResponse getFirewalledResponse(HttpServletResponse response) {
+        return strict.getFirewalledResponse(response);
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.firewall.HttpFirewall;
 
 @Configuration
 @EnableWebSecurity
@@ -43,6 +44,12 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // Lets the OSRM proxy receive semicolon-separated coordinates; everything else stays strict
+    @Bean
+    HttpFirewall httpFirewall() {
+        return new RouteProxyFirewall();
+    }
+
     @Bean
     AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
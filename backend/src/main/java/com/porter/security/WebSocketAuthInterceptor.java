@@ -0,0 +1,128 @@
+package com.porter.security;
+
+import java.security.Principal;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.porter.repository.DeliveryRepository;
+
+/**
+ * Authenticates STOMP sessions from the JWT sent in the CONNECT frame and guards
+ * subscriptions to per-delivery, porter and admin topics.
+ */
+@Component
+public class WebSocketAuthInterceptor implements ChannelInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketAuthInterceptor.class);
+
+    private static final String DELIVERY_TOPIC_PREFIX = "/topic/delivery/";
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+        if (accessor.getCommand() == StompCommand.CONNECT) {
+            authenticate(accessor);
+        } else if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+            authorizeSubscription(accessor.getUser(), accessor.getDestination());
+        }
+        return message;
+    }
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (!StringUtils.hasText(header) || !header.startsWith("Bearer ")) {
+            return;
+        }
+        String jwt = header.substring(7);
+        try {
+            String username = tokenProvider.parseUsername(jwt);
+            if (username != null) {
+                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                accessor.setUser(new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities()));
+            }
+        } catch (UsernameNotFoundException ex) {
+            logger.warn("Could not authenticate WebSocket session: {}", ex.getMessage());
+        }
+    }
+
+    private void authorizeSubscription(Principal principal, String destination) {
+        if (destination == null) {
+            return;
+        }
+        if (destination.equals("/topic/admin") || destination.startsWith("/topic/admin/")) {
+            require(hasRole(principal, "ROLE_ADMIN"), destination);
+        } else if (destination.startsWith("/topic/porters/")) {
+            require(hasRole(principal, "ROLE_PORTER") || hasRole(principal, "ROLE_ADMIN"), destination);
+        } else if (destination.startsWith(DELIVERY_TOPIC_PREFIX)) {
+            require(canWatchDelivery(principal, destination), destination);
+        }
+    }
+
+    // Owner, assigned porter and admins may follow a delivery; any porter may follow an unassigned one
+    private boolean canWatchDelivery(Principal principal, String destination) {
+        if (principal == null) {
+            return false;
+        }
+        if (hasRole(principal, "ROLE_ADMIN")) {
+            return true;
+        }
+        String rest = destination.substring(DELIVERY_TOPIC_PREFIX.length());
+        int slash = rest.indexOf('/');
+        Long deliveryId;
+        try {
+            deliveryId = Long.valueOf(slash >= 0 ? rest.substring(0, slash) : rest);
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+        List<Object[]> participants = deliveryRepository.findParticipantNames(deliveryId);
+        if (participants.isEmpty()) {
+            return false;
+        }
+        String owner = (String) participants.get(0)[0];
+        String porter = (String) participants.get(0)[1];
+        String name = principal.getName();
+        return name.equals(owner)
+                || name.equals(porter)
+                || (porter == null && hasRole(principal, "ROLE_PORTER"));
+    }
+
+    private static boolean hasRole(Principal principal, String role) {
+        return principal instanceof Authentication authentication
+                && authentication.getAuthorities().stream().anyMatch(a -> role.equals(a.getAuthority()));
+    }
+
+    private static void require(boolean allowed, String destination) {
+        if (!allowed) {
+            throw new AccessDeniedException("Not allowed to subscribe to " + destination);
+        }
+    }
+}
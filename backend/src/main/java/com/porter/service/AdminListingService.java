@@ -0,0 +1,208 @@
+package com.porter.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.porter.DTO.CursorPage;
+import com.porter.DTO.DeliveryDTO;
+import com.porter.DTO.DeliveryExportRow;
+import com.porter.DTO.UserDTO;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.UserRole;
+import com.porter.repository.DeliveryRepository;
+import com.porter.repository.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bounded admin listings: keyset pages on id (newest first) and constant-memory NDJSON/CSV exports
+ * streamed straight from a database cursor.
+ */
+@Service
+public class AdminListingService {
+
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ExportFormat parse(String value) {
+            try {
+                return valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private static final List<String> DELIVERY_COLUMNS = List.of(
+            "id", "status", "paymentStatus", "packageType", "packageWeight", "username", "porterName",
+            "pickupAddress", "deliveryAddress", "deliveryFee", "amount", "distance",
+            "scheduledTime", "createdAt", "updatedAt");
+
+    private static final List<String> USER_COLUMNS = List.of(
+            "id", "username", "email", "role", "blocked", "createdAt", "updatedAt");
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${admin.listing.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${admin.listing.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${admin.export.flush-every:1000}")
+    private int flushEvery;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<DeliveryDTO> pageDeliveries(Long cursor, Integer limit, DeliveryStatus status, Long porterId,
+                                                  Long userId, LocalDateTime from, LocalDateTime to) {
+        int pageSize = pageSize(limit);
+        List<DeliveryDTO> rows = deliveryRepository
+                .findAdminPage(cursor, status, porterId, userId, from, to, PageRequest.of(0, pageSize + 1))
+                .stream()
+                .map(DeliveryDTO::fromEntity)
+                .toList();
+        return CursorPage.of(rows, pageSize, DeliveryDTO::getId);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<UserDTO> pageUsers(Long cursor, Integer limit, UserRole role, Boolean blocked,
+                                         LocalDateTime from, LocalDateTime to) {
+        int pageSize = pageSize(limit);
+        List<UserDTO> rows = userRepository
+                .findAdminPage(cursor, role, blocked, from, to, PageRequest.of(0, pageSize + 1))
+                .stream()
+                .map(UserDTO::new)
+                .toList();
+        return CursorPage.of(rows, pageSize, UserDTO::getId);
+    }
+
+    public void exportDeliveries(ExportFormat format, DeliveryStatus status, Long porterId, Long userId,
+                                 LocalDateTime from, LocalDateTime to, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            try (Stream<DeliveryExportRow> rows = deliveryRepository.streamForExport(status, porterId, userId, from, to)) {
+                write(format, rows, DELIVERY_COLUMNS, row -> new Object[] {
+                        row.getId(), row.getStatus(), row.getPaymentStatus(), row.getPackageType(),
+                        row.getPackageWeight(), row.getUsername(), row.getPorterName(), row.getPickupAddress(),
+                        row.getDeliveryAddress(), row.getDeliveryFee(), row.getAmount(), row.getDistance(),
+                        row.getScheduledTime(), row.getCreatedAt(), row.getUpdatedAt() }, out);
+            }
+        });
+    }
+
+    public void exportUsers(ExportFormat format, UserRole role, Boolean blocked,
+                            LocalDateTime from, LocalDateTime to, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            try (Stream<UserDTO> rows = userRepository.streamForExport(role, blocked, from, to)) {
+                write(format, rows, USER_COLUMNS, row -> new Object[] {
+                        row.getId(), row.getUsername(), row.getEmail(), row.getRole(), row.isBlocked(),
+                        row.getCreatedAt(), row.getUpdatedAt() }, out);
+            }
+        });
+    }
+
+    private <T> void write(ExportFormat format, Stream<T> rows, List<String> columns,
+                           Function<T, Object[]> values, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.write(String.join(",", columns));
+                writer.write('\n');
+            }
+            int written = 0;
+            for (T row : (Iterable<T>) rows::iterator) {
+                if (format == ExportFormat.CSV) {
+                    writeCsvLine(writer, values.apply(row));
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                if (++written % flushEvery == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            String value = values[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write('\n');
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+}
@@ -0,0 +1,100 @@
+package com.porter.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.porter.DTO.AdminStatisticsDTO;
+
+/**
+ * Shares one admin statistics snapshot between /api/admin/statistics and the /topic/admin stream.
+ * The snapshot is recomputed at most once per TTL no matter how many dashboards ask for it, and
+ * the scheduled refresh only runs while an admin is subscribed to /topic/admin and only pushes
+ * when a number actually changed, so an idle server does not keep scanning deliveries and payments.
+ */
+@Service
+public class AdminStatisticsService {
+    private static final Logger logger = LoggerFactory.getLogger(AdminStatisticsService.class);
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private SimpUserRegistry simpUserRegistry;
+
+    @Value("${admin.statistics.cache-ttl-ms:5000}")
+    private long cacheTtlMs;
+
+    private volatile AdminStatisticsDTO snapshot;
+    private volatile long snapshotAt;
+    // A lock rather than synchronized: the query must not pin a virtual thread's carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    public AdminStatisticsDTO getStatistics() {
+        AdminStatisticsDTO current = snapshot;
+        if (current != null && System.currentTimeMillis() - snapshotAt < cacheTtlMs) {
+            return current;
+        }
+        return refresh(false);
+    }
+
+    @Scheduled(fixedDelayString = "${admin.statistics.push-interval-ms:10000}")
+    public void pushStatistics() {
+        if (!hasAdminSubscribers()) {
+            return;
+        }
+        try {
+            refresh(true);
+        } catch (RuntimeException e) {
+            logger.error("Failed to refresh admin statistics: {}", e.getMessage());
+        }
+    }
+
+    // Serialized so concurrent dashboard loads share one query
+    private AdminStatisticsDTO refresh(boolean force) {
+        refreshLock.lock();
+        try {
+            AdminStatisticsDTO previous = snapshot;
+            if (!force && previous != null && System.currentTimeMillis() - snapshotAt < cacheTtlMs) {
+                return previous;
+            }
+            AdminStatisticsDTO current = deliveryService.getAdminStatistics();
+            snapshot = current;
+            snapshotAt = System.currentTimeMillis();
+            if (force && !sameNumbers(previous, current)) {
+                webSocketService.sendAdminUpdate(current);
+            }
+            return current;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Only authenticated sessions can subscribe to /topic/admin, and those are all in the registry
+    private boolean hasAdminSubscribers() {
+        return !simpUserRegistry.findSubscriptions(
+                subscription -> "/topic/admin".equals(subscription.getDestination())).isEmpty();
+    }
+
+    private static boolean sameNumbers(AdminStatisticsDTO a, AdminStatisticsDTO b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.getTotalUsers() == b.getTotalUsers()
+                && a.getTotalPorters() == b.getTotalPorters()
+                && a.getTotalDeliveries() == b.getTotalDeliveries()
+                && Double.compare(a.getTotalRevenue(), b.getTotalRevenue()) == 0
+                && a.getActiveDeliveries() == b.getActiveDeliveries()
+                && a.getCompletedDeliveries() == b.getCompletedDeliveries()
+                && a.getCancelledDeliveries() == b.getCancelledDeliveries();
+    }
+}
@@ -0,0 +1,252 @@
+package com.porter.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.porter.DTO.AssignmentPlan;
+import com.porter.DTO.ProposedAssignment;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.repository.DeliveryRepository;
+import com.porter.util.AssignmentSolver;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Batch planner for scheduled deliveries. Periodically matches PENDING deliveries due
+ * within the planning horizon against the porters the dispatch registry holds as free,
+ * minimising travel distance plus lateness and load penalties with
+ * {@link AssignmentSolver} on a dedicated fork-join pool. The latest plan is kept for
+ * an admin to approve, or applied straight away when auto-apply is on. Approved
+ * assignments go through the normal claim path, so stale entries simply fail.
+ */
+@Service
+public class AssignmentPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentPlanner.class);
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Autowired
+    private PorterService porterService;
+
+    @Value("${planning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${planning.auto-apply:false}")
+    private boolean autoApply;
+
+    @Value("${planning.horizon-minutes:120}")
+    private long horizonMinutes;
+
+    @Value("${planning.max-distance-km:15}")
+    private double maxDistanceKm;
+
+    @Value("${planning.speed-kmh:20}")
+    private double speedKmh;
+
+    @Value("${planning.late-penalty-per-minute:0.5}")
+    private double latePenaltyPerMinute;
+
+    @Value("${planning.load-penalty:2}")
+    private double loadPenalty;
+
+    @Value("${planning.max-cells-per-partition:250000}")
+    private int maxCellsPerPartition;
+
+    // 0 uses every available core
+    @Value("${planning.parallelism:0}")
+    private int parallelism;
+
+    private AssignmentSolver.Settings settings;
+    private ForkJoinPool pool;
+
+    private volatile AssignmentPlan latestPlan;
+    // Guards planning and approval; a lock so the database work does not pin virtual threads
+    private final ReentrantLock planLock = new ReentrantLock();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong applyFailures = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        settings = new AssignmentSolver.Settings(maxDistanceKm, speedKmh, latePenaltyPerMinute,
+                loadPenalty, maxCellsPerPartition);
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdown();
+    }
+
+    @Scheduled(initialDelayString = "${planning.run-ms:60000}", fixedDelayString = "${planning.run-ms:60000}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        AssignmentPlan plan = plan();
+        if (autoApply && !plan.getAssignments().isEmpty()) {
+            Map<String, Object> outcome = approve(plan.getPlanId(), null);
+            logger.info("Auto-applied assignment plan {}: {}", plan.getPlanId(), outcome);
+        }
+    }
+
+    /**
+     * Builds a fresh plan from the current candidates and free porters and keeps it as
+     * the latest plan. Replaces any plan that was not yet approved.
+     */
+    public AssignmentPlan plan() {
+        planLock.lock();
+        try {
+            return buildPlan();
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    private AssignmentPlan buildPlan() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = deliveryRepository.findSchedulingCandidates(DeliveryStatus.PENDING,
+                now.plusMinutes(horizonMinutes));
+        List<AssignmentSolver.Job> jobs = new ArrayList<>(rows.size());
+        Map<Long, LocalDateTime> scheduled = new HashMap<>();
+        for (Object[] row : rows) {
+            if (row[1] == null || row[2] == null) {
+                continue;
+            }
+            long id = ((Number) row[0]).longValue();
+            LocalDateTime scheduledTime = (LocalDateTime) row[3];
+            scheduled.put(id, scheduledTime);
+            jobs.add(new AssignmentSolver.Job(id, ((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue(),
+                    Duration.between(now, scheduledTime).toSeconds() / 60.0));
+        }
+        List<AssignmentSolver.Worker> workers = dispatchService.availableWorkers();
+
+        long started = System.nanoTime();
+        AssignmentSolver.Result result = AssignmentSolver.solve(jobs, workers, settings, pool);
+        long solveMillis = (System.nanoTime() - started) / 1_000_000;
+
+        AssignmentPlan plan = new AssignmentPlan();
+        plan.setPlanId(UUID.randomUUID().toString());
+        plan.setCreatedAt(now);
+        plan.setCandidateDeliveries(jobs.size());
+        plan.setAvailablePorters(workers.size());
+        plan.setPartitions(result.getPartitions());
+        plan.setSolveMillis(solveMillis);
+        Set<Long> assigned = new HashSet<>();
+        for (AssignmentSolver.Match match : result.getMatches()) {
+            String porterName = dispatchService.porterName(match.getWorkerId());
+            if (porterName == null) {
+                continue;
+            }
+            ProposedAssignment assignment = new ProposedAssignment();
+            assignment.setDeliveryId(match.getJobId());
+            assignment.setPorterId(match.getWorkerId());
+            assignment.setPorterName(porterName);
+            assignment.setDistanceKm(Math.round(match.getDistanceKm() * 100) / 100.0);
+            assignment.setLateMinutes(Math.round(match.getLateMinutes() * 10) / 10.0);
+            assignment.setScheduledTime(scheduled.get(match.getJobId()));
+            assignment.setCost(Math.round(match.getCost() * 100) / 100.0);
+            plan.getAssignments().add(assignment);
+            assigned.add(match.getJobId());
+        }
+        for (AssignmentSolver.Job job : jobs) {
+            if (!assigned.contains(job.getId())) {
+                plan.getUnassigned().add(job.getId());
+            }
+        }
+
+        runs.incrementAndGet();
+        latestPlan = plan;
+        logger.info("Assignment plan {}: {} of {} deliveries matched to {} porters in {} ms over {} partitions",
+                plan.getPlanId(), plan.getAssignments().size(), jobs.size(), workers.size(), solveMillis,
+                result.getPartitions());
+        return plan;
+    }
+
+    public AssignmentPlan getLatestPlan() {
+        return latestPlan;
+    }
+
+    /**
+     * Applies the given plan, or only the listed deliveries from it. Each assignment is
+     * claimed on its own; ones already taken or cancelled since planning are skipped.
+     */
+    public Map<String, Object> approve(String planId, Collection<Long> deliveryIds) {
+        planLock.lock();
+        try {
+            return applyPlan(planId, deliveryIds);
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    private Map<String, Object> applyPlan(String planId, Collection<Long> deliveryIds) {
+        AssignmentPlan plan = latestPlan;
+        if (plan == null || !plan.getPlanId().equals(planId)) {
+            throw new IllegalStateException("Plan is no longer current");
+        }
+        Set<Long> selected = deliveryIds != null && !deliveryIds.isEmpty() ? new HashSet<>(deliveryIds) : null;
+        List<Long> appliedIds = new ArrayList<>();
+        Map<Long, String> failures = new LinkedHashMap<>();
+        for (ProposedAssignment assignment : plan.getAssignments()) {
+            if (selected != null && !selected.contains(assignment.getDeliveryId())) {
+                continue;
+            }
+            try {
+                porterService.acceptDelivery(assignment.getDeliveryId(), assignment.getPorterName());
+                appliedIds.add(assignment.getDeliveryId());
+            } catch (RuntimeException e) {
+                failures.put(assignment.getDeliveryId(), e.getMessage());
+            }
+        }
+        latestPlan = null;
+        applied.addAndGet(appliedIds.size());
+        applyFailures.addAndGet(failures.size());
+
+        Map<String, Object> outcome = new LinkedHashMap<>();
+        outcome.put("planId", planId);
+        outcome.put("applied", appliedIds.size());
+        outcome.put("failed", failures.size());
+        outcome.put("appliedIds", appliedIds);
+        outcome.put("failures", failures);
+        return outcome;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("autoApply", autoApply);
+        metrics.put("parallelism", pool.getParallelism());
+        metrics.put("runs", runs.get());
+        metrics.put("applied", applied.get());
+        metrics.put("applyFailures", applyFailures.get());
+        AssignmentPlan plan = latestPlan;
+        metrics.put("pendingPlanId", plan != null ? plan.getPlanId() : null);
+        return metrics;
+    }
+}
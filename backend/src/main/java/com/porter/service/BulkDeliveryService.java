@@ -0,0 +1,379 @@
+package com.porter.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.porter.DTO.BulkCreateResult;
+import com.porter.DTO.BulkDeliveryRow;
+import com.porter.DTO.FareQuote;
+import com.porter.DTO.LocationDTO;
+import com.porter.DTO.QuoteRequest;
+import com.porter.Email.EmailService;
+import com.porter.model.Delivery;
+import com.porter.model.Location;
+import com.porter.model.PaymentStatus;
+import com.porter.model.User;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.PackageType;
+import com.porter.repository.UserRepository;
+import com.porter.util.GeoUtils;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Books a merchant manifest of deliveries in one request. Rows are validated in parallel,
+ * priced with {@link PricingService#quoteBatch}, given ids from the deliveries id sequence
+ * in one round trip and written with JDBC batch inserts in a single transaction. Invalid
+ * rows are reported back and do not block the valid ones. Notifications are coalesced:
+ * one summary to the customer and admins, one message per porter shard, and one email.
+ */
+@Service
+public class BulkDeliveryService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkDeliveryService.class);
+
+    private static final String ALLOCATE_IDS_SQL = "SELECT nextval(pg_get_serial_sequence('deliveries', 'id')) "
+            + "FROM generate_series(1, ?)";
+
+    private static final String INSERT_SQL = "INSERT INTO deliveries "
+            + "(id, user_id, pickup_latitude, pickup_longitude, pickup_address, "
+            + "delivery_latitude, delivery_longitude, delivery_address, status, payment_status, "
+            + "package_type, package_weight, description, delivery_fee, amount, distance, "
+            + "created_at, updated_at, scheduled_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DeliveryGeoIndex deliveryGeoIndex;
+
+    @Autowired
+    private DeliveryService deliveryService;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Value("${delivery.bulk.max-rows:20000}")
+    private int maxRows;
+
+    @Value("${delivery.bulk.batch-size:1000}")
+    private int batchSize;
+
+    private TransactionTemplate transaction;
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    public BulkCreateResult createFromCsv(InputStream csv, String username) throws IOException {
+        return create(parseCsv(csv), username);
+    }
+
+    public BulkCreateResult create(List<BulkDeliveryRow> rows, String username) {
+        if (rows == null || rows.isEmpty()) {
+            throw new IllegalArgumentException("No deliveries supplied");
+        }
+        if (rows.size() > maxRows) {
+            throw new IllegalArgumentException("At most " + maxRows + " deliveries per upload");
+        }
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new AccessDeniedException("User not found"));
+
+        int n = rows.size();
+        Delivery[] parsed = new Delivery[n];
+        String[] rowErrors = new String[n];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            try {
+                parsed[i] = toDelivery(rows.get(i), user);
+            } catch (IllegalArgumentException e) {
+                rowErrors[i] = e.getMessage();
+            }
+        });
+
+        List<Delivery> valid = new ArrayList<>(n);
+        BulkCreateResult result = new BulkCreateResult();
+        result.setReceived(n);
+        for (int i = 0; i < n; i++) {
+            if (parsed[i] != null) {
+                valid.add(parsed[i]);
+            } else {
+                result.getErrors().add(new BulkCreateResult.RowError(i + 1, rows.get(i).getReference(), rowErrors[i]));
+            }
+        }
+
+        if (!valid.isEmpty()) {
+            price(valid);
+            transaction.executeWithoutResult(status -> insert(valid));
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Delivery delivery : valid) {
+            result.getDeliveryIds().add(delivery.getId());
+            total = total.add(delivery.getAmount());
+        }
+        result.setCreated(valid.size());
+        result.setFailed(result.getErrors().size());
+        result.setTotalAmount(total);
+
+        if (!valid.isEmpty()) {
+            valid.forEach(deliveryGeoIndex::sync);
+            deliveryService.evictDeliveryStats(username);
+            webSocketService.sendBulkDeliveryUpdate(user, valid);
+            emailService.sendBulkBookingSummaryEmail(user, result);
+        }
+        logger.info("Bulk upload by {}: {} created, {} rejected", username, result.getCreated(), result.getFailed());
+        return result;
+    }
+
+    private Delivery toDelivery(BulkDeliveryRow row, User user) {
+        if (row == null) {
+            throw new IllegalArgumentException("Empty row");
+        }
+        if (!GeoUtils.isValidCoordinate(row.getPickupLatitude(), row.getPickupLongitude())) {
+            throw new IllegalArgumentException("Invalid pickup coordinates");
+        }
+        if (!GeoUtils.isValidCoordinate(row.getDeliveryLatitude(), row.getDeliveryLongitude())) {
+            throw new IllegalArgumentException("Invalid delivery coordinates");
+        }
+        if (isBlank(row.getPickupAddress()) || isBlank(row.getDeliveryAddress())) {
+            throw new IllegalArgumentException("Pickup and delivery addresses are required");
+        }
+        if (isBlank(row.getPackageType())) {
+            throw new IllegalArgumentException("packageType is required");
+        }
+        PackageType packageType;
+        try {
+            packageType = PackageType.valueOf(row.getPackageType().trim().toUpperCase(Locale.ROOT).replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown packageType: " + row.getPackageType());
+        }
+        Double weight = row.getPackageWeight();
+        if (weight != null && (weight.isNaN() || weight < 0)) {
+            throw new IllegalArgumentException("packageWeight must not be negative");
+        }
+        LocalDateTime scheduledTime = null;
+        if (!isBlank(row.getScheduledTime())) {
+            try {
+                scheduledTime = LocalDateTime.parse(row.getScheduledTime().trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid scheduledTime: " + row.getScheduledTime());
+            }
+        }
+
+        Delivery delivery = new Delivery();
+        delivery.setUser(user);
+        delivery.setPickupLocation(location(row.getPickupLatitude(), row.getPickupLongitude(), row.getPickupAddress()));
+        delivery.setDeliveryLocation(location(row.getDeliveryLatitude(), row.getDeliveryLongitude(), row.getDeliveryAddress()));
+        delivery.setStatus(DeliveryStatus.PENDING);
+        delivery.setPaymentStatus(PaymentStatus.PENDING);
+        delivery.setPackageType(packageType);
+        delivery.setPackageWeight(weight);
+        delivery.setDescription(row.getDescription());
+        delivery.setScheduledTime(scheduledTime);
+        return delivery;
+    }
+
+    private void price(List<Delivery> deliveries) {
+        for (int from = 0; from < deliveries.size(); from += batchSize) {
+            List<Delivery> chunk = deliveries.subList(from, Math.min(from + batchSize, deliveries.size()));
+            List<QuoteRequest> requests = new ArrayList<>(chunk.size());
+            for (Delivery delivery : chunk) {
+                QuoteRequest request = new QuoteRequest();
+                request.setPickupLocation(LocationDTO.fromEntity(delivery.getPickupLocation()));
+                request.setDeliveryLocation(LocationDTO.fromEntity(delivery.getDeliveryLocation()));
+                request.setPackageType(delivery.getPackageType());
+                request.setPackageWeight(delivery.getPackageWeight());
+                request.setScheduledTime(delivery.getScheduledTime());
+                requests.add(request);
+            }
+            List<FareQuote> quotes = pricingService.quoteBatch(requests);
+            for (int i = 0; i < chunk.size(); i++) {
+                Delivery delivery = chunk.get(i);
+                delivery.setDistance(quotes.get(i).getDistanceKm());
+                delivery.setDeliveryFee(quotes.get(i).getAmount());
+                delivery.setAmount(quotes.get(i).getAmount());
+            }
+        }
+    }
+
+    private void insert(List<Delivery> deliveries) {
+        // Reserve every id up front so the inserts need no generated-key round trips
+        List<Long> ids = jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, deliveries.size());
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp createdAt = Timestamp.valueOf(now);
+        for (int i = 0; i < deliveries.size(); i++) {
+            Delivery delivery = deliveries.get(i);
+            delivery.setId(ids.get(i));
+            delivery.setCreatedAt(now);
+            delivery.setUpdatedAt(now);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, deliveries, batchSize, (ps, delivery) -> {
+            Location pickup = delivery.getPickupLocation();
+            Location drop = delivery.getDeliveryLocation();
+            ps.setLong(1, delivery.getId());
+            ps.setLong(2, delivery.getUser().getId());
+            ps.setDouble(3, pickup.getLatitude());
+            ps.setDouble(4, pickup.getLongitude());
+            ps.setString(5, pickup.getAddress());
+            ps.setDouble(6, drop.getLatitude());
+            ps.setDouble(7, drop.getLongitude());
+            ps.setString(8, drop.getAddress());
+            ps.setString(9, delivery.getStatus().name());
+            ps.setString(10, delivery.getPaymentStatus().name());
+            ps.setString(11, delivery.getPackageType().name());
+            if (delivery.getPackageWeight() != null) {
+                ps.setDouble(12, delivery.getPackageWeight());
+            } else {
+                ps.setNull(12, Types.DOUBLE);
+            }
+            ps.setString(13, delivery.getDescription());
+            ps.setBigDecimal(14, delivery.getDeliveryFee());
+            ps.setBigDecimal(15, delivery.getAmount());
+            ps.setDouble(16, delivery.getDistance());
+            ps.setTimestamp(17, createdAt);
+            ps.setTimestamp(18, createdAt);
+            ps.setTimestamp(19, delivery.getScheduledTime() != null ? Timestamp.valueOf(delivery.getScheduledTime()) : null);
+        });
+    }
+
+    // Header-mapped CSV: column names match the BulkDeliveryRow properties, in any order
+    private List<BulkDeliveryRow> parseCsv(InputStream csv) throws IOException {
+        List<BulkDeliveryRow> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
+            if (headerLine.startsWith("\uFEFF")) {
+                headerLine = headerLine.substring(1);
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> header = splitCsvLine(headerLine);
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (rows.size() >= maxRows) {
+                    throw new IllegalArgumentException("At most " + maxRows + " deliveries per upload");
+                }
+                List<String> values = splitCsvLine(line);
+                BulkDeliveryRow row = new BulkDeliveryRow();
+                row.setReference(column(values, columns, "reference"));
+                row.setPickupAddress(column(values, columns, "pickupaddress"));
+                row.setDeliveryAddress(column(values, columns, "deliveryaddress"));
+                row.setPackageType(column(values, columns, "packagetype"));
+                row.setDescription(column(values, columns, "description"));
+                row.setScheduledTime(column(values, columns, "scheduledtime"));
+                // Unparseable numbers are left null and reported by row validation
+                row.setPickupLatitude(number(column(values, columns, "pickuplatitude")));
+                row.setPickupLongitude(number(column(values, columns, "pickuplongitude")));
+                row.setDeliveryLatitude(number(column(values, columns, "deliverylatitude")));
+                row.setDeliveryLongitude(number(column(values, columns, "deliverylongitude")));
+                row.setPackageWeight(number(column(values, columns, "packageweight")));
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Double number(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Location location(Double latitude, Double longitude, String address) {
+        Location location = new Location();
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setAddress(address.trim());
+        return location;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
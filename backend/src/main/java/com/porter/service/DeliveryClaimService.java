@@ -0,0 +1,94 @@
+package com.porter.service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.porter.exception.DeliveryAlreadyClaimedException;
+import com.porter.model.Delivery;
+import com.porter.model.Porter;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.repository.DeliveryRepository;
+
+/**
+ * Assigns PENDING deliveries to porters with a single conditional UPDATE, so the
+ * first committed claim wins and every other claimer gets a fast rejection
+ * instead of overwriting the assignment.
+ */
+@Service
+public class DeliveryClaimService {
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryClaimService.class);
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private DeliveryGeoIndex deliveryGeoIndex;
+
+    @Autowired
+    private PorterStatsService porterStatsService;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    // Claims currently running on this node, so concurrent taps on one job skip the database
+    private final Map<Long, Long> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong rejectedInFlight = new AtomicLong();
+    private final AtomicLong rejectedTaken = new AtomicLong();
+
+    @Transactional
+    public Delivery claim(Long deliveryId, Porter porter) {
+        attempts.incrementAndGet();
+        dispatchService.checkClaim(deliveryId, porter.getId());
+        if (inFlight.putIfAbsent(deliveryId, porter.getId()) != null) {
+            rejectedInFlight.incrementAndGet();
+            throw new DeliveryAlreadyClaimedException("Delivery is already being accepted by another porter");
+        }
+        try {
+            int updated = deliveryRepository.claim(deliveryId, porter,
+                    DeliveryStatus.PENDING, DeliveryStatus.ACCEPTED, LocalDateTime.now());
+            if (updated == 0) {
+                if (!deliveryRepository.existsById(deliveryId)) {
+                    throw new RuntimeException("Delivery not found");
+                }
+                rejectedTaken.incrementAndGet();
+                deliveryGeoIndex.remove(deliveryId);
+                throw new DeliveryAlreadyClaimedException("Delivery is not available for acceptance");
+            }
+            successes.incrementAndGet();
+            dispatchService.onClaimed(deliveryId, porter.getId());
+            deliveryGeoIndex.remove(deliveryId);
+            logger.info("Delivery {} claimed by porter {}", deliveryId, porter.getId());
+            Delivery claimed = deliveryRepository.findById(deliveryId)
+                    .orElseThrow(() -> new RuntimeException("Delivery not found"));
+            porterStatsService.recordTransition(null, claimed);
+            return claimed;
+        } finally {
+            inFlight.remove(deliveryId);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        long total = attempts.get();
+        long contended = rejectedInFlight.get() + rejectedTaken.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("attempts", total);
+        metrics.put("successes", successes.get());
+        metrics.put("rejectedInFlight", rejectedInFlight.get());
+        metrics.put("rejectedAlreadyTaken", rejectedTaken.get());
+        metrics.put("contentionRate", total > 0 ? (double) contended / total : 0.0);
+        metrics.put("inFlight", inFlight.size());
+        return metrics;
+    }
+}
@@ -0,0 +1,110 @@
+package com.porter.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.porter.model.Delivery;
+import com.porter.model.Location;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.repository.DeliveryRepository;
+import com.porter.util.GeoUtils;
+import com.porter.util.GridIndex;
+
+/**
+ * In-memory spatial index of PENDING deliveries keyed on their pickup location.
+ * Kept in sync by the delivery services on create, accept, cancel and delete so
+ * porters can be served nearby jobs without scanning the deliveries table.
+ * Every change is also forwarded to the {@link DispatchService} queue. Changes made
+ * inside a transaction are applied after it commits, so neither the index nor the
+ * queue ever holds a delivery whose row other readers cannot see yet.
+ */
+@Component
+public class DeliveryGeoIndex {
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryGeoIndex.class);
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    private final GridIndex index;
+
+    public DeliveryGeoIndex(@Value("${delivery.geo-index.cell-size-degrees:0.05}") double cellSizeDegrees) {
+        this.index = new GridIndex(cellSizeDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        index.clear();
+        List<Delivery> pending = deliveryRepository.findByStatus(DeliveryStatus.PENDING);
+        pending.forEach(this::sync);
+        logger.info("Indexed {} pending deliveries", index.size());
+    }
+
+    // Adds the delivery while it is PENDING, otherwise drops it from the index
+    public void sync(Delivery delivery) {
+        if (delivery == null || delivery.getId() == null) {
+            return;
+        }
+        long id = delivery.getId();
+        Location pickup = delivery.getPickupLocation();
+        if (delivery.getStatus() == DeliveryStatus.PENDING && pickup != null
+                && GeoUtils.isValidCoordinate(pickup.getLatitude(), pickup.getLongitude())) {
+            double latitude = pickup.getLatitude();
+            double longitude = pickup.getLongitude();
+            afterCommit(() -> {
+                index.put(id, latitude, longitude);
+                dispatchService.onJobAvailable(id, latitude, longitude);
+            });
+        } else {
+            remove(id);
+        }
+    }
+
+    public void remove(Long deliveryId) {
+        if (deliveryId != null) {
+            afterCommit(() -> {
+                index.remove(deliveryId);
+                dispatchService.onJobGone(deliveryId);
+            });
+        }
+    }
+
+    // A tick before the commit would find no PENDING row and drop the job for good
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    public boolean contains(Long deliveryId) {
+        return deliveryId != null && index.contains(deliveryId);
+    }
+
+    public List<GridIndex.Hit> nearest(double latitude, double longitude, double radiusKm, int limit) {
+        return index.nearest(latitude, longitude, radiusKm, limit);
+    }
+
+    public int size() {
+        return index.size();
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import com.porter.DTO.AdminStatisticsDTO;
 import com.porter.model.Delivery;
+import com.porter.model.enums.DeliveryStatus;
 
 public interface DeliveryService {
     Delivery createDelivery(Delivery delivery, String username);
@@ -13,9 +14,12 @@ public interface DeliveryService {
     Delivery getDelivery(Long id, String username);
     Delivery cancelDelivery(Long id, String username);
     Map<String, Object> getDeliveryStats(String username);
+    // Drops the user's cached dashboard stats after deliveries are written outside this service
+    void evictDeliveryStats(String username);
     void deleteDelivery(Long id, String username);
     List<Delivery> getAllDeliveries();
     Delivery updateDelivery(Delivery delivery);
+    Delivery transitionStatus(Long id, DeliveryStatus newStatus);
     void deleteDeliveryByAdmin(Long id);
     AdminStatisticsDTO getAdminStatistics();
     List<Delivery> getRecentDeliveries();
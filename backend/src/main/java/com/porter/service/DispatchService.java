@@ -0,0 +1,411 @@
+package com.porter.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.porter.DTO.DeliveryDTO;
+import com.porter.exception.DeliveryAlreadyClaimedException;
+import com.porter.model.Delivery;
+import com.porter.model.Porter;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.repository.DeliveryRepository;
+import com.porter.repository.PorterRepository;
+import com.porter.repository.TrackingRepository;
+import com.porter.util.AssignmentSolver;
+import com.porter.util.DispatchBoard;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Push-based assignment. Keeps a {@link DispatchBoard} of approved porters (last known
+ * position and active load) and open PENDING deliveries, and on every tick offers each
+ * waiting delivery to the best nearby porter over {@code /user/queue/offers}. While an
+ * offer is live the delivery is reserved for that porter; expired or declined offers move
+ * on to the next candidate. Accepting still goes through {@link DeliveryClaimService}.
+ */
+@Service
+public class DispatchService {
+    private static final Logger logger = LoggerFactory.getLogger(DispatchService.class);
+
+    public static final List<DeliveryStatus> ACTIVE_STATUSES = List.of(
+            DeliveryStatus.ACCEPTED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT);
+
+    @Autowired
+    private PorterRepository porterRepository;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private TrackingRepository trackingRepository;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Value("${dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dispatch.search-radius-km:5}")
+    private double searchRadiusKm;
+
+    @Value("${dispatch.candidate-limit:20}")
+    private int candidateLimit;
+
+    @Value("${dispatch.max-load:3}")
+    private int maxLoad;
+
+    @Value("${dispatch.load-penalty-km:2}")
+    private double loadPenaltyKm;
+
+    @Value("${dispatch.offer-ttl-ms:20000}")
+    private long offerTtlMillis;
+
+    @Value("${dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${dispatch.retry-delay-ms:5000}")
+    private long retryDelayMillis;
+
+    @Value("${dispatch.position-max-age-ms:900000}")
+    private long positionMaxAgeMillis;
+
+    @Value("${dispatch.cell-size-degrees:0.05}")
+    private double cellSizeDegrees;
+
+    private DispatchBoard.Settings settings;
+    private DispatchBoard board;
+
+    // Porter usernames, for routing offers and resolving position reports
+    private final Map<Long, String> porterNames = new ConcurrentHashMap<>();
+    private final Map<String, Long> porterIds = new ConcurrentHashMap<>();
+
+    private final AtomicLong offersSent = new AtomicLong();
+    private final AtomicLong offersAccepted = new AtomicLong();
+    private final AtomicLong offersDeclined = new AtomicLong();
+    private final AtomicLong offersExpired = new AtomicLong();
+    private final AtomicLong jobsAbandoned = new AtomicLong();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong lastTickNanos = new AtomicLong();
+    private final AtomicLong maxTickNanos = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        settings = new DispatchBoard.Settings(searchRadiusKm, candidateLimit, maxLoad, loadPenaltyKm,
+                offerTtlMillis, maxAttempts, retryDelayMillis, positionMaxAgeMillis);
+        board = new DispatchBoard(settings, cellSizeDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        resync();
+    }
+
+    /**
+     * Reloads approved porters, their active loads and last tracked positions, and puts
+     * back any PENDING delivery missing from the board. Runs at startup and periodically
+     * to correct any drift from missed updates.
+     */
+    @Scheduled(initialDelayString = "${dispatch.resync-ms:300000}", fixedDelayString = "${dispatch.resync-ms:300000}")
+    public void resync() {
+        if (!enabled) {
+            return;
+        }
+        List<Porter> approved = porterRepository.findAllByStatus("APPROVED").stream()
+                .filter(Porter::isVerified)
+                .toList();
+        Map<Long, Integer> loads = new HashMap<>();
+        for (Object[] row : deliveryRepository.countByPorterAndStatusIn(ACTIVE_STATUSES)) {
+            loads.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        long now = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minusNanos(positionMaxAgeMillis * 1_000_000L);
+        List<Object[]> positions = trackingRepository.findLatestPorterPositionsSince(since);
+        List<Object[]> pending = deliveryRepository.findPickupsByStatus(DeliveryStatus.PENDING);
+
+        Set<Long> keep = new HashSet<>();
+        int restored = 0;
+        synchronized (board) {
+            for (Porter porter : approved) {
+                keep.add(porter.getId());
+                board.upsertPorter(porter.getId(), loads.getOrDefault(porter.getId(), 0));
+                rememberName(porter);
+            }
+            for (Long porterId : board.porterIds()) {
+                if (!keep.contains(porterId)) {
+                    board.removePorter(porterId, now);
+                    forgetName(porterId);
+                }
+            }
+            for (Object[] row : positions) {
+                long porterId = ((Number) row[0]).longValue();
+                long seenAt = toEpochMillis(row[3]);
+                if (board.hasPorter(porterId) && seenAt > 0) {
+                    board.updatePosition(porterId, ((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue(), seenAt);
+                }
+            }
+            // Only adds: a job claimed since the query is dropped again when it comes up for an offer
+            for (Object[] row : pending) {
+                long deliveryId = ((Number) row[0]).longValue();
+                if (row[1] != null && row[2] != null && !board.hasJob(deliveryId)) {
+                    board.addJob(deliveryId, ((Number) row[1]).doubleValue(), ((Number) row[2]).doubleValue(), now);
+                    restored++;
+                }
+            }
+        }
+        logger.info("Dispatch registry synced: {} approved porters, {} with recent positions, {} pending jobs restored",
+                keep.size(), positions.size(), restored);
+    }
+
+    @Scheduled(fixedDelayString = "${dispatch.tick-ms:250}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        DispatchBoard.TickResult result;
+        synchronized (board) {
+            result = board.tick(System.currentTimeMillis());
+        }
+        long elapsed = System.nanoTime() - started;
+        ticks.incrementAndGet();
+        lastTickNanos.set(elapsed);
+        maxTickNanos.accumulateAndGet(elapsed, Math::max);
+
+        offersExpired.addAndGet(result.getExpired().size());
+        jobsAbandoned.addAndGet(result.getAbandoned().size());
+        for (DispatchBoard.Offer offer : result.getExpired()) {
+            notifyPorter(offer, "OFFER_EXPIRED", null);
+        }
+        if (!result.getOffered().isEmpty()) {
+            sendOffers(result.getOffered());
+        }
+    }
+
+    // Called by the geo index whenever a delivery becomes PENDING
+    public void onJobAvailable(long deliveryId, double latitude, double longitude) {
+        synchronized (board) {
+            board.addJob(deliveryId, latitude, longitude, System.currentTimeMillis());
+        }
+    }
+
+    // Called by the geo index whenever a delivery stops being PENDING
+    public void onJobGone(long deliveryId) {
+        DispatchBoard.Offer withdrawn;
+        synchronized (board) {
+            withdrawn = board.removeJob(deliveryId);
+        }
+        if (withdrawn != null) {
+            notifyPorter(withdrawn, "OFFER_WITHDRAWN", null);
+        }
+    }
+
+    /**
+     * Rejects a claim while the delivery is offered exclusively to another porter.
+     */
+    public void checkClaim(long deliveryId, long porterId) {
+        boolean reserved;
+        synchronized (board) {
+            reserved = board.isReservedForOther(deliveryId, porterId, System.currentTimeMillis());
+        }
+        if (reserved) {
+            throw new DeliveryAlreadyClaimedException("Delivery is currently offered to another porter");
+        }
+    }
+
+    public void onClaimed(long deliveryId, long porterId) {
+        boolean viaOffer;
+        synchronized (board) {
+            viaOffer = board.accept(deliveryId, porterId, System.currentTimeMillis());
+            if (!viaOffer) {
+                board.removeJob(deliveryId);
+            }
+        }
+        if (viaOffer) {
+            offersAccepted.incrementAndGet();
+        }
+    }
+
+    public boolean decline(long deliveryId, String porterName) {
+        Long porterId = porterIds.get(porterName);
+        if (porterId == null) {
+            return false;
+        }
+        DispatchBoard.Offer offer;
+        synchronized (board) {
+            offer = board.decline(deliveryId, porterId, System.currentTimeMillis());
+        }
+        if (offer != null) {
+            offersDeclined.incrementAndGet();
+        }
+        return offer != null;
+    }
+
+    public Map<String, Object> currentOffer(String porterName) {
+        Long porterId = porterIds.get(porterName);
+        if (porterId == null) {
+            return null;
+        }
+        DispatchBoard.Offer offer;
+        synchronized (board) {
+            offer = board.currentOffer(porterId);
+        }
+        return offer != null ? offerPayload(offer, "OFFER", null) : null;
+    }
+
+    public void updatePosition(String porterName, double latitude, double longitude) {
+        Long porterId = porterIds.get(porterName);
+        if (porterId != null) {
+            updatePosition(porterId, latitude, longitude);
+        }
+    }
+
+    public void updatePosition(Long porterId, double latitude, double longitude) {
+        synchronized (board) {
+            board.updatePosition(porterId, latitude, longitude, System.currentTimeMillis());
+        }
+    }
+
+    public void adjustLoad(Long porterId, int delta) {
+        synchronized (board) {
+            board.adjustLoad(porterId, delta);
+        }
+    }
+
+    // Adds or drops a porter after an approval or profile change
+    public void refreshPorter(Porter porter) {
+        boolean dispatchable = porter.isVerified() && "APPROVED".equalsIgnoreCase(porter.getStatus());
+        DispatchBoard.Offer released = null;
+        synchronized (board) {
+            if (dispatchable) {
+                if (!board.hasPorter(porter.getId())) {
+                    board.upsertPorter(porter.getId(), 0);
+                }
+            } else {
+                released = board.removePorter(porter.getId(), System.currentTimeMillis());
+            }
+        }
+        if (dispatchable) {
+            forgetName(porter.getId());
+            rememberName(porter);
+        } else {
+            if (released != null) {
+                notifyPorter(released, "OFFER_WITHDRAWN", null);
+            }
+            forgetName(porter.getId());
+        }
+    }
+
+    public List<AssignmentSolver.Worker> availableWorkers() {
+        synchronized (board) {
+            return board.availableWorkers(System.currentTimeMillis());
+        }
+    }
+
+    public double[] lastPosition(long porterId) {
+        synchronized (board) {
+            return board.position(porterId);
+        }
+    }
+
+    public String porterName(long porterId) {
+        return porterNames.get(porterId);
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        synchronized (board) {
+            metrics.putAll(board.getCounts());
+        }
+        metrics.put("offersSent", offersSent.get());
+        metrics.put("offersAccepted", offersAccepted.get());
+        metrics.put("offersDeclined", offersDeclined.get());
+        metrics.put("offersExpired", offersExpired.get());
+        metrics.put("jobsAbandoned", jobsAbandoned.get());
+        metrics.put("ticks", ticks.get());
+        metrics.put("lastTickMicros", lastTickNanos.get() / 1000);
+        metrics.put("maxTickMicros", maxTickNanos.get() / 1000);
+        return metrics;
+    }
+
+    private void sendOffers(List<DispatchBoard.Offer> offers) {
+        List<Long> ids = offers.stream().map(DispatchBoard.Offer::getJobId).toList();
+        Map<Long, Delivery> deliveries = deliveryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Delivery::getId, Function.identity()));
+        for (DispatchBoard.Offer offer : offers) {
+            Delivery delivery = deliveries.get(offer.getJobId());
+            if (delivery == null || delivery.getStatus() != DeliveryStatus.PENDING) {
+                // Gone between the index update and this tick
+                onJobGone(offer.getJobId());
+                continue;
+            }
+            offersSent.incrementAndGet();
+            notifyPorter(offer, "OFFER", DeliveryDTO.fromEntity(delivery));
+        }
+    }
+
+    private void notifyPorter(DispatchBoard.Offer offer, String type, DeliveryDTO delivery) {
+        String porterName = porterNames.get(offer.getPorterId());
+        if (porterName != null) {
+            webSocketService.sendDispatchOffer(porterName, offerPayload(offer, type, delivery));
+        }
+    }
+
+    private Map<String, Object> offerPayload(DispatchBoard.Offer offer, String type, DeliveryDTO delivery) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("type", type);
+        payload.put("deliveryId", offer.getJobId());
+        payload.put("distanceKm", Math.round(offer.getDistanceKm() * 100) / 100.0);
+        payload.put("expiresAt", offer.getExpiresAtMillis());
+        if (delivery != null) {
+            payload.put("delivery", delivery);
+        }
+        return payload;
+    }
+
+    private void rememberName(Porter porter) {
+        porterNames.put(porter.getId(), porter.getName());
+        porterIds.put(porter.getName(), porter.getId());
+    }
+
+    private void forgetName(Long porterId) {
+        String name = porterNames.remove(porterId);
+        if (name != null) {
+            porterIds.remove(name, porterId);
+        }
+    }
+
+    private static long toEpochMillis(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.getTime();
+        }
+        if (value instanceof Instant instant) {
+            return instant.toEpochMilli();
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+        return 0;
+    }
+}
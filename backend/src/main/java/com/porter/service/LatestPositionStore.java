@@ -0,0 +1,173 @@
+package com.porter.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.porter.DTO.LivePosition;
+import com.porter.model.Delivery;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.repository.TrackingRepository;
+import com.porter.util.GeoUtils;
+import com.porter.util.GridIndex;
+
+/**
+ * Last known porter position for every active delivery, kept in memory so live maps
+ * never query the tracking table. Fed by the tracking ingest flusher, seeded from the
+ * latest tracking rows at startup, and indexed on a {@link GridIndex} for bounding-box
+ * queries. Entries are dropped when the delivery is delivered, cancelled or deleted,
+ * and as a safety net once they have been idle longer than the configured limit.
+ */
+@Component
+public class LatestPositionStore {
+    private static final Logger logger = LoggerFactory.getLogger(LatestPositionStore.class);
+
+    private static final Set<String> ACTIVE_STATUSES = Set.of(
+            DeliveryStatus.ACCEPTED.name(), DeliveryStatus.PICKED_UP.name(), DeliveryStatus.IN_TRANSIT.name());
+
+    @Autowired
+    private TrackingRepository trackingRepository;
+
+    @Value("${tracking.latest.idle-minutes:120}")
+    private long idleMinutes;
+
+    private final GridIndex index;
+    private final Map<Long, LivePosition> byDelivery = new ConcurrentHashMap<>();
+    private final Map<String, LivePosition> byPorter = new ConcurrentHashMap<>();
+
+    public LatestPositionStore(@Value("${tracking.latest.cell-size-degrees:0.05}") double cellSizeDegrees) {
+        this.index = new GridIndex(cellSizeDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Object[]> rows = trackingRepository.findLatestPositionsOfActiveDeliveries();
+        for (Object[] row : rows) {
+            Object seenAt = row[5];
+            record(((Number) row[0]).longValue(), (String) row[1], ((Number) row[2]).doubleValue(),
+                    ((Number) row[3]).doubleValue(), (String) row[4],
+                    seenAt instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) seenAt);
+        }
+        logger.info("Loaded latest positions for {} active deliveries", byDelivery.size());
+    }
+
+    /**
+     * Records a point unless a newer one is already held. A point carrying a terminal
+     * status removes the delivery instead. {@code porterName} may be null, in which case
+     * the name already known for the delivery is kept.
+     */
+    public void record(long deliveryId, String porterName, double latitude, double longitude,
+            String status, LocalDateTime timestamp) {
+        if (status != null && !ACTIVE_STATUSES.contains(status)) {
+            evict(deliveryId);
+            return;
+        }
+        if (!GeoUtils.isValidCoordinate(latitude, longitude)) {
+            return;
+        }
+        LocalDateTime at = timestamp != null ? timestamp : LocalDateTime.now();
+        byDelivery.compute(deliveryId, (id, current) -> {
+            if (current != null && current.getTimestamp() != null && current.getTimestamp().isAfter(at)) {
+                return current;
+            }
+            String name = porterName != null ? porterName : current != null ? current.getPorterName() : null;
+            LivePosition position = new LivePosition(id, name, latitude, longitude,
+                    status != null ? status : current != null ? current.getStatus() : null, at);
+            index.put(id, latitude, longitude);
+            if (name != null) {
+                byPorter.merge(name, position,
+                        (held, fresh) -> held.getTimestamp() != null && held.getTimestamp().isAfter(fresh.getTimestamp()) ? held : fresh);
+            }
+            return position;
+        });
+    }
+
+    // Drops the delivery when it is no longer in progress
+    public void sync(Delivery delivery) {
+        if (delivery != null && delivery.getId() != null && !ACTIVE_STATUSES.contains(String.valueOf(delivery.getStatus()))) {
+            evict(delivery.getId());
+        }
+    }
+
+    public void evict(Long deliveryId) {
+        if (deliveryId != null) {
+            evictIf(deliveryId, null);
+        }
+    }
+
+    public LivePosition forDelivery(Long deliveryId) {
+        return byDelivery.get(deliveryId);
+    }
+
+    public LivePosition forPorter(String porterName) {
+        return byPorter.get(porterName);
+    }
+
+    // Most recently updated first, capped at limit
+    public List<LivePosition> withinBox(double minLat, double minLng, double maxLat, double maxLng, int limit) {
+        List<LivePosition> positions = new ArrayList<>();
+        for (GridIndex.Entry entry : index.withinBox(minLat, minLng, maxLat, maxLng)) {
+            LivePosition position = byDelivery.get(entry.getId());
+            if (position != null) {
+                positions.add(position);
+            }
+        }
+        positions.sort(Comparator.comparing(LivePosition::getTimestamp, Comparator.reverseOrder()));
+        return positions.size() > limit ? new ArrayList<>(positions.subList(0, limit)) : positions;
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.latest.sweep-ms:300000}")
+    public void evictIdle() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(idleMinutes);
+        int evicted = 0;
+        for (Long deliveryId : byDelivery.keySet()) {
+            if (evictIf(deliveryId, cutoff)) {
+                evicted++;
+            }
+        }
+        byPorter.values().removeIf(position -> position.getTimestamp().isBefore(cutoff));
+        if (evicted > 0) {
+            logger.info("Evicted {} idle delivery positions", evicted);
+        }
+    }
+
+    // Removes the entry, or only when it was last updated before the cutoff if one is given
+    private boolean evictIf(long deliveryId, LocalDateTime idleBefore) {
+        boolean[] removed = {false};
+        byDelivery.computeIfPresent(deliveryId, (id, current) -> {
+            if (idleBefore != null && !current.getTimestamp().isBefore(idleBefore)) {
+                return current;
+            }
+            index.remove(id);
+            if (current.getPorterName() != null) {
+                byPorter.remove(current.getPorterName(), current);
+            }
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("deliveries", byDelivery.size());
+        metrics.put("porters", byPorter.size());
+        metrics.put("indexed", index.size());
+        return metrics;
+    }
+}
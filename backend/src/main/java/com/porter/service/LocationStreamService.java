@@ -0,0 +1,144 @@
+package com.porter.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.porter.DTO.LocationDelta;
+import com.porter.util.GeoUtils;
+
+/**
+ * Live location fan-out for tracking pages. Points are held per delivery with latest-wins
+ * semantics and pushed once per tick as a compact {@link LocationDelta} on
+ * {@code /topic/delivery/{id}/location}, so a porter reporting several times a second
+ * still costs subscribers one small message per tick. Unchanged positions are not resent.
+ */
+@Service
+public class LocationStreamService {
+
+    private static final class Fix {
+        final double latitude;
+        final double longitude;
+        final long epochMillis;
+
+        Fix(double latitude, double longitude, long epochMillis) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.epochMillis = epochMillis;
+        }
+    }
+
+    // Last pushed fix, plus the point the heading was last measured from; the anchor only
+    // moves with the heading, so slow steps below the threshold still add up to a turn
+    private static final class Sent {
+        final Fix fix;
+        final double anchorLatitude;
+        final double anchorLongitude;
+        final Integer heading;
+
+        Sent(Fix fix, double anchorLatitude, double anchorLongitude, Integer heading) {
+            this.fix = fix;
+            this.anchorLatitude = anchorLatitude;
+            this.anchorLongitude = anchorLongitude;
+            this.heading = heading;
+        }
+    }
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    @Value("${tracking.stream.enabled:true}")
+    private boolean enabled;
+
+    // Below this movement the previous heading is kept, so GPS jitter does not spin the marker
+    @Value("${tracking.stream.min-heading-meters:5}")
+    private double minHeadingMeters;
+
+    @Value("${tracking.stream.idle-minutes:30}")
+    private long idleMinutes;
+
+    private final Map<Long, Fix> pending = new ConcurrentHashMap<>();
+    // Only touched by the tick
+    private final Map<Long, Sent> lastSent = new ConcurrentHashMap<>();
+    private long lastIdleSweep = System.currentTimeMillis();
+
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+
+    public void publish(long deliveryId, double latitude, double longitude, LocalDateTime timestamp) {
+        if (!enabled || !GeoUtils.isValidCoordinate(latitude, longitude)) {
+            return;
+        }
+        offered.incrementAndGet();
+        long millis = (timestamp != null ? timestamp : LocalDateTime.now())
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Fix fix = new Fix(latitude, longitude, millis);
+        pending.merge(deliveryId, fix, (held, fresh) -> {
+            coalesced.incrementAndGet();
+            return fresh.epochMillis >= held.epochMillis ? fresh : held;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.stream.tick-ms:1000}")
+    public void tick() {
+        for (Long deliveryId : pending.keySet()) {
+            Fix fix = pending.remove(deliveryId);
+            if (fix == null) {
+                continue;
+            }
+            Sent last = lastSent.get(deliveryId);
+            if (last != null && fix.epochMillis < last.fix.epochMillis) {
+                continue;
+            }
+            if (last != null && last.fix.latitude == fix.latitude && last.fix.longitude == fix.longitude) {
+                unchanged.incrementAndGet();
+                continue;
+            }
+            Sent next = last == null ? new Sent(fix, fix.latitude, fix.longitude, null)
+                    : new Sent(fix, last.anchorLatitude, last.anchorLongitude, last.heading);
+            if (last != null && GeoUtils.haversineKm(last.anchorLatitude, last.anchorLongitude,
+                    fix.latitude, fix.longitude) * 1000 >= minHeadingMeters) {
+                int heading = (int) Math.round(GeoUtils.bearingDegrees(last.anchorLatitude, last.anchorLongitude,
+                        fix.latitude, fix.longitude)) % 360;
+                next = new Sent(fix, fix.latitude, fix.longitude, heading);
+            }
+            webSocketService.sendLocationUpdate(new LocationDelta(deliveryId, round6(fix.latitude),
+                    round6(fix.longitude), next.heading, fix.epochMillis));
+            lastSent.put(deliveryId, next);
+            sent.incrementAndGet();
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastIdleSweep >= 60_000) {
+            long cutoff = now - idleMinutes * 60_000;
+            lastSent.values().removeIf(last -> last.fix.epochMillis < cutoff);
+            lastIdleSweep = now;
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("pending", pending.size());
+        metrics.put("streams", lastSent.size());
+        metrics.put("offered", offered.get());
+        metrics.put("coalesced", coalesced.get());
+        metrics.put("unchanged", unchanged.get());
+        metrics.put("sent", sent.get());
+        return metrics;
+    }
+
+    private static double round6(double value) {
+        return Math.round(value * 1e6) / 1e6;
+    }
+}
@@ -1,96 +1,160 @@
 package com.porter.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.porter.Email.EmailService;
+import com.porter.exception.TooManyRequestsException;
+
+import jakarta.annotation.PostConstruct;
 
+/**
+ * Issues and checks login and password-reset codes. Codes live in the configured
+ * {@link OtpStore}, so any replica can verify a code another one sent. Sending is
+ * limited per user and per client address, verifying per client address, and each
+ * code accepts a fixed number of wrong guesses.
+ */
 @Service
 public class OtpService {
-    private static final Logger logger = LoggerFactory.getLogger(OtpService.class);
     private static final int OTP_LENGTH = 6;
     private static final int OTP_EXPIRY_MINUTES = 5;
 
-    private final Map<String, OtpData> otpStore = new ConcurrentHashMap<>();
+    // Thread-safe; seeding a new instance per code was the expensive part
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Autowired
+    private EmailService emailService;
 
     @Autowired
-    private JavaMailSender emailSender;
+    private OtpStore otpStore;
 
-    private static class OtpData {
-        String otp;
-        LocalDateTime expiryTime;
+    @Value("${otp.send.per-user-limit:3}")
+    private int sendPerUserLimit;
 
-        OtpData(String otp) {
-            this.otp = otp;
-            this.expiryTime = LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES);
-        }
+    @Value("${otp.send.per-ip-limit:20}")
+    private int sendPerIpLimit;
+
+    @Value("${otp.send.window-seconds:600}")
+    private long sendWindowSeconds;
+
+    @Value("${otp.verify.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${otp.verify.per-ip-limit:30}")
+    private int verifyPerIpLimit;
+
+    @Value("${otp.verify.window-seconds:600}")
+    private long verifyWindowSeconds;
+
+    // Keys the stored hashes, so a leaked otp_code table cannot be brute-forced offline
+    @Value("${otp.hmac-secret}")
+    private String hmacSecret;
+
+    private SecretKeySpec hmacKey;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong sendLimited = new AtomicLong();
+    private final AtomicLong verified = new AtomicLong();
+    private final AtomicLong wrong = new AtomicLong();
+    private final AtomicLong locked = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+    private final AtomicLong verifyLimited = new AtomicLong();
 
-        boolean isValid(String otpToVerify) {
-            return otp.equals(otpToVerify) && LocalDateTime.now().isBefore(expiryTime);
+    @PostConstruct
+    void init() {
+        if (hmacSecret == null || hmacSecret.isBlank()) {
+            throw new IllegalStateException("otp.hmac-secret must be set");
         }
+        hmacKey = new SecretKeySpec(hmacSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
     }
-    
-    @Async
-    public void generateAndSendOtp(String username, String email) {
-        String otp = generateOtp();
-        otpStore.put(username, new OtpData(otp));
-        
-        try {
-            MimeMessage message = emailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            
-            helper.setTo(email);
-            helper.setSubject("Porter - Your Login OTP");
-            
-            String emailContent = String.format("""
-                <div style="font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto;">
-                    <h2 style="color: #333;">Porter Login Verification</h2>
-                    <p>Hello,</p>
-                    <p>Your OTP for logging into Porter is:</p>
-                    <div style="background-color: #f5f5f5; padding: 15px; text-align: center; font-size: 24px; letter-spacing: 5px; margin: 20px 0;">
-                        <strong>%s</strong>
-                    </div>
-                    <p>This OTP will expire in %d minutes.</p>
-                    <p style="color: #666; font-size: 12px;">If you didn't request this OTP, please ignore this email.</p>
-                </div>
-            """, otp, OTP_EXPIRY_MINUTES);
-            
-            helper.setText(emailContent, true);
-            emailSender.send(message);
-            
-        } catch (MessagingException e) {
-            logger.error("Failed to send OTP email to {}: {}", email, e.getMessage());
-            throw new RuntimeException("Failed to send OTP email", e);
+
+    // clientIp may be null when the caller has no request, in which case only the user is limited
+    public void generateAndSendOtp(String username, String email, String clientIp) {
+        Instant now = Instant.now();
+        Duration window = Duration.ofSeconds(sendWindowSeconds);
+        if (!otpStore.tryAcquire("send:user:" + username, sendPerUserLimit, window, now)
+                || (clientIp != null && !otpStore.tryAcquire("send:ip:" + clientIp, sendPerIpLimit, window, now))) {
+            sendLimited.incrementAndGet();
+            throw new TooManyRequestsException("Too many OTP requests. Please try again later.");
         }
-        
+        String otp = generateOtp();
+        otpStore.put(username, hash(username, otp), now.plus(Duration.ofMinutes(OTP_EXPIRY_MINUTES)));
+        emailService.sendTemplatedEmail(email, "otp", Map.of("otp", otp, "expiryMinutes", OTP_EXPIRY_MINUTES));
+        sent.incrementAndGet();
     }
 
-    public boolean verifyOtp(String username, String otp) {
-        OtpData otpData = otpStore.get(username);
-        if (otpData != null && otpData.isValid(otp)) {
-            otpStore.remove(username);
-            return true;
+    public boolean verifyOtp(String username, String otp, String clientIp) {
+        Instant now = Instant.now();
+        if (clientIp != null && !otpStore.tryAcquire("verify:ip:" + clientIp, verifyPerIpLimit,
+                Duration.ofSeconds(verifyWindowSeconds), now)) {
+            verifyLimited.incrementAndGet();
+            throw new TooManyRequestsException("Too many OTP attempts. Please try again later.");
+        }
+        if (username == null || otp == null) {
+            missing.incrementAndGet();
+            return false;
+        }
+        switch (otpStore.verify(username, hash(username, otp), maxAttempts, now)) {
+            case VERIFIED:
+                verified.incrementAndGet();
+                return true;
+            case WRONG:
+                wrong.incrementAndGet();
+                return false;
+            case LOCKED:
+                locked.incrementAndGet();
+                return false;
+            default:
+                missing.incrementAndGet();
+                return false;
         }
-        return false;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("sent", sent.get());
+        metrics.put("sendRateLimited", sendLimited.get());
+        metrics.put("verified", verified.get());
+        metrics.put("wrong", wrong.get());
+        metrics.put("locked", locked.get());
+        metrics.put("missingOrExpired", missing.get());
+        metrics.put("verifyRateLimited", verifyLimited.get());
+        metrics.put("store", otpStore.getMetrics());
+        return metrics;
     }
 
     private String generateOtp() {
-        SecureRandom random = new SecureRandom();
-        StringBuilder otp = new StringBuilder();
+        StringBuilder otp = new StringBuilder(OTP_LENGTH);
         for (int i = 0; i < OTP_LENGTH; i++) {
-            otp.append(random.nextInt(10));
+            otp.append(RANDOM.nextInt(10));
         }
         return otp.toString();
     }
-}
\ No newline at end of file
+
+    // Bound to the username so equal codes of different users do not share a hash
+    private byte[] hash(String username, String otp) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hmacKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(otp.trim().getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.porter.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Storage for one-time codes and the counters that rate-limit them. Codes are kept as
+ * hashes, one per user, and every operation is atomic so concurrent requests on any
+ * node see the same attempt counts. Pick the implementation with {@code otp.store}:
+ * {@code memory} for a single node, {@code jdbc} when several replicas share the login.
+ */
+public interface OtpStore {
+
+    enum VerifyOutcome {
+        VERIFIED,
+        WRONG,
+        LOCKED,
+        MISSING
+    }
+
+    // Replaces any code the user already had and resets its attempt counter
+    void put(String username, byte[] codeHash, Instant expiresAt);
+
+    /**
+     * Checks a code and consumes it on success. A wrong guess counts as an attempt; once
+     * {@code maxAttempts} wrong guesses are used up the code stops working and further
+     * guesses are LOCKED until it expires or a new code is issued. Expired and unknown
+     * codes are MISSING.
+     */
+    VerifyOutcome verify(String username, byte[] codeHash, int maxAttempts, Instant now);
+
+    // Counts a hit in the current fixed window of the bucket; false once past the limit
+    boolean tryAcquire(String bucket, int limit, Duration window, Instant now);
+
+    Map<String, Object> getMetrics();
+}
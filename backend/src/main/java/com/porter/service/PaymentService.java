@@ -35,6 +35,9 @@ public class PaymentService {
     @Autowired
     private DeliveryRepository deliveryRepository;
 
+    @Autowired
+    private PricingService pricingService;
+
     @Value("${razorpay.currency}")
     private String currency;
 
@@ -49,8 +52,15 @@ public class PaymentService {
             Delivery delivery = deliveryRepository.findById(request.getDeliveryId())
                     .orElseThrow(() -> new RuntimeException("Delivery not found"));
 
+            // Charge the server-priced amount, not whatever the client sent; price older unpriced deliveries now
+            if (delivery.getAmount() == null) {
+                pricingService.applyTo(delivery);
+                delivery = deliveryRepository.save(delivery);
+            }
+            BigDecimal amount = delivery.getAmount();
+
             JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", request.getAmount().multiply(new BigDecimal("100")).intValue());
+            orderRequest.put("amount", amount.multiply(new BigDecimal("100")).intValue());
             orderRequest.put("currency", currency);
             orderRequest.put("receipt", "order_" + delivery.getId());
 
@@ -59,7 +69,7 @@ public class PaymentService {
             // Create a payment record
             Payment payment = new Payment();
             payment.setDelivery(delivery);
-            payment.setAmount(request.getAmount());
+            payment.setAmount(amount);
             payment.setStatus(PaymentStatus.PENDING);
             payment.setPaymentId(order.get("id"));
             payment.setCurrency(currency);
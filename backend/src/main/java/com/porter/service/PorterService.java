@@ -8,6 +8,7 @@ import com.porter.model.enums.DeliveryStatus;
 
 public interface PorterService {
     List<DeliveryDTO> getAvailableDeliveries();
+    List<DeliveryDTO> getNearbyAvailableDeliveries(double latitude, double longitude, double radiusKm, int limit);
     DeliveryDTO acceptDelivery(Long deliveryId, String porterUsername);
     DeliveryDTO updateDeliveryStatus(Long deliveryId, DeliveryStatus newStatus, String porterUsername);
     List<DeliveryDTO> getActiveDeliveries(String porterUsername);
@@ -0,0 +1,273 @@
+package com.porter.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.porter.model.Delivery;
+import com.porter.model.PorterStats;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.repository.DeliveryRepository;
+import com.porter.repository.PorterRepository;
+import com.porter.repository.PorterStatsRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Maintains {@link PorterStats} incrementally. Every change to a porter's delivery is recorded as
+ * "remove the old contribution, add the new one", so the dashboard read is a single-row lookup.
+ * A porter without a stats row is rebuilt from delivery history on first read, and a nightly job
+ * rebuilds everyone to repair any drift.
+ */
+@Service
+public class PorterStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(PorterStatsService.class);
+
+    @Autowired
+    private PorterStatsRepository porterStatsRepository;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private PorterRepository porterRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    private TransactionTemplate newTransaction;
+
+    @PostConstruct
+    void init() {
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * What a single delivery contributes to its porter's stats.
+     */
+    public static final class Snapshot {
+        private final Long porterId;
+        private final DeliveryStatus status;
+        private final String packageType;
+        private final BigDecimal fee;
+        private final LocalDate completedOn;
+        private final boolean onTime;
+
+        private Snapshot(Delivery delivery) {
+            this.porterId = delivery.getPorter() != null ? delivery.getPorter().getId() : null;
+            this.status = delivery.getStatus();
+            this.packageType = String.valueOf(delivery.getPackageType());
+            this.fee = delivery.getDeliveryFee() != null ? delivery.getDeliveryFee() : BigDecimal.ZERO;
+            // Keyed on the fixed delivery time: updatedAt moves on every save, e.g. a payment
+            this.completedOn = delivery.getDeliveredAt() != null ? delivery.getDeliveredAt().toLocalDate() : null;
+            this.onTime = isOnTime(delivery);
+        }
+
+        boolean counts() {
+            return porterId != null && status != null && status != DeliveryStatus.PENDING;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Snapshot other)) return false;
+            return onTime == other.onTime
+                    && Objects.equals(porterId, other.porterId)
+                    && status == other.status
+                    && Objects.equals(packageType, other.packageType)
+                    && fee.compareTo(other.fee) == 0
+                    && Objects.equals(completedOn, other.completedOn);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(porterId, status, packageType, completedOn, onTime);
+        }
+    }
+
+    // Keeps the dispatcher's per-porter active delivery count in step
+    private void recordLoadChange(Snapshot before, Snapshot after) {
+        Long beforePorter = before != null && DispatchService.ACTIVE_STATUSES.contains(before.status) ? before.porterId : null;
+        Long afterPorter = after != null && DispatchService.ACTIVE_STATUSES.contains(after.status) ? after.porterId : null;
+        if (Objects.equals(beforePorter, afterPorter)) {
+            return;
+        }
+        if (beforePorter != null) {
+            dispatchService.adjustLoad(beforePorter, -1);
+        }
+        if (afterPorter != null) {
+            dispatchService.adjustLoad(afterPorter, 1);
+        }
+    }
+
+    public Snapshot snapshot(Delivery delivery) {
+        return delivery != null ? new Snapshot(delivery) : null;
+    }
+
+    /**
+     * Applies a delivery change to the affected porters' stats. Either side may be null
+     * (delivery created or deleted). Must run in the transaction that changes the delivery.
+     */
+    @Transactional
+    public void recordTransition(Snapshot before, Delivery after) {
+        Snapshot current = snapshot(after);
+        if (Objects.equals(before, current)) {
+            return;
+        }
+        recordLoadChange(before, current);
+        if (before != null && before.counts()) {
+            apply(before, -1);
+        }
+        if (current != null && current.counts()) {
+            apply(current, 1);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStats(Long porterId) {
+        PorterStats stats = porterStatsRepository.findById(porterId).orElse(null);
+        if (stats != null) {
+            return toMap(stats);
+        }
+        try {
+            return rebuild(porterId);
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the row first
+            return toMap(porterStatsRepository.findById(porterId).orElseThrow(() -> e));
+        }
+    }
+
+    /**
+     * Recomputes one porter's stats from delivery history in its own transaction.
+     */
+    public Map<String, Object> rebuild(Long porterId) {
+        return newTransaction.execute(status -> {
+            PorterStats stats = porterStatsRepository.findByIdForUpdate(porterId)
+                    .orElseGet(() -> new PorterStats(porterId));
+            stats.reset();
+            for (Delivery delivery : deliveryRepository.findByPorterId(porterId)) {
+                Snapshot snapshot = new Snapshot(delivery);
+                if (snapshot.counts()) {
+                    add(stats, snapshot, 1);
+                }
+            }
+            stats.setRebuiltAt(LocalDateTime.now());
+            stats.setUpdatedAt(stats.getRebuiltAt());
+            return toMap(porterStatsRepository.save(stats));
+        });
+    }
+
+    public int rebuildAll() {
+        // Deliveries finished before delivered_at existed take their last update as the delivery time
+        Integer backfilled = newTransaction.execute(status -> deliveryRepository.backfillDeliveredAt(DeliveryStatus.DELIVERED));
+        if (backfilled != null && backfilled > 0) {
+            logger.info("Backfilled delivery time of {} deliveries", backfilled);
+        }
+        int rebuilt = 0;
+        for (Long porterId : porterRepository.findAllIds()) {
+            try {
+                rebuild(porterId);
+                rebuilt++;
+            } catch (RuntimeException e) {
+                logger.error("Failed to rebuild stats for porter {}: {}", porterId, e.getMessage());
+            }
+        }
+        return rebuilt;
+    }
+
+    @Scheduled(cron = "${porter.stats.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        int rebuilt = rebuildAll();
+        logger.info("Rebuilt porter stats for {} porters", rebuilt);
+    }
+
+    // Porters without a row are picked up by the lazy rebuild, so there is nothing to adjust
+    private void apply(Snapshot snapshot, int sign) {
+        porterStatsRepository.findByIdForUpdate(snapshot.porterId).ifPresent(stats -> {
+            add(stats, snapshot, sign);
+            stats.setUpdatedAt(LocalDateTime.now());
+            porterStatsRepository.save(stats);
+        });
+    }
+
+    private static void add(PorterStats stats, Snapshot snapshot, int sign) {
+        stats.setTotalDeliveries(stats.getTotalDeliveries() + sign);
+        switch (snapshot.status) {
+            case ACCEPTED, PICKED_UP, IN_TRANSIT -> stats.setActiveDeliveries(stats.getActiveDeliveries() + sign);
+            case CANCELLED -> stats.setCancelledDeliveries(stats.getCancelledDeliveries() + sign);
+            case DELIVERED -> {
+                stats.setCompletedDeliveries(stats.getCompletedDeliveries() + sign);
+                if (snapshot.onTime) {
+                    stats.setOnTimeDeliveries(stats.getOnTimeDeliveries() + sign);
+                }
+                BigDecimal amount = sign > 0 ? snapshot.fee : snapshot.fee.negate();
+                stats.setTotalEarnings(stats.getTotalEarnings().add(amount));
+                stats.getDeliveriesByType().merge(snapshot.packageType, (long) sign,
+                        (a, b) -> a + b == 0 ? null : a + b);
+                if (snapshot.completedOn != null) {
+                    stats.getEarningsByDay().merge(snapshot.completedOn, amount,
+                            (a, b) -> a.add(b).signum() == 0 ? null : a.add(b));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private static boolean isOnTime(Delivery delivery) {
+        if (delivery.getDeliveredAt() == null) {
+            return false;
+        }
+        LocalDateTime scheduledTime = delivery.getScheduledTime();
+        if (scheduledTime == null) {
+            if (delivery.getCreatedAt() == null) {
+                return false;
+            }
+            scheduledTime = delivery.getCreatedAt().plusHours(2);
+        }
+        return !delivery.getDeliveredAt().isAfter(scheduledTime);
+    }
+
+    private static Map<String, Object> toMap(PorterStats stats) {
+        long completed = stats.getCompletedDeliveries();
+        double onTimeRate = completed > 0 ? (double) stats.getOnTimeDeliveries() / completed : 0.0;
+
+        List<Map<String, Object>> earningsByDay = stats.getEarningsByDay().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(e -> Map.<String, Object>of("date", e.getKey().toString(), "amount", e.getValue().doubleValue()))
+                .collect(Collectors.toList());
+        Map<String, Long> deliveriesByType = Map.copyOf(stats.getDeliveriesByType());
+
+        return Map.of(
+            "totalDeliveries", stats.getTotalDeliveries(),
+            "completedDeliveries", completed,
+            "totalEarnings", stats.getTotalEarnings().doubleValue(),
+            "onTimeRate", onTimeRate,
+            // Average rating (placeholder)
+            "averageRating", 5.0,
+            "earningsByDay", earningsByDay,
+            "deliveriesByType", deliveriesByType,
+            "pendingDeliveries", stats.getActiveDeliveries(),
+            "packageTypeDistribution", deliveriesByType
+        );
+    }
+}
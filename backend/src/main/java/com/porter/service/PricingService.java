@@ -0,0 +1,230 @@
+package com.porter.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.porter.DTO.FareQuote;
+import com.porter.DTO.LocationDTO;
+import com.porter.DTO.QuoteRequest;
+import com.porter.model.Delivery;
+import com.porter.model.enums.PackageType;
+import com.porter.util.GeoUtils;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Server-side fare engine. The fare is
+ * {@code max(distanceKm * perKm, minimumFare) * packageMultiplier * surge + weightSurcharge}.
+ * Distance is the road distance of a route a client recently fetched through the routing proxy,
+ * or the straight-line distance times {@code pricing.road-factor} when no route is cached.
+ * Batches are computed column-wise over primitive arrays so thousands of pairs quote in one pass.
+ */
+@Service
+public class PricingService {
+
+    public static final String DISTANCE_ROUTED = "ROUTED";
+    public static final String DISTANCE_ESTIMATED = "ESTIMATED";
+
+    // A client-reported distance within this fraction of a routed alternative selects that alternative
+    private static final double ALTERNATIVE_MATCH_TOLERANCE = 0.02;
+
+    @Autowired
+    private RouteGateway routeGateway;
+
+    @Value("${pricing.per-km:20}")
+    private double perKm;
+
+    @Value("${pricing.minimum-fare:50}")
+    private double minimumFare;
+
+    @Value("${pricing.road-factor:1.3}")
+    private double roadFactor;
+
+    @Value("${pricing.multiplier.small:1.0}")
+    private double smallMultiplier;
+
+    @Value("${pricing.multiplier.medium:1.1}")
+    private double mediumMultiplier;
+
+    @Value("${pricing.multiplier.large:1.25}")
+    private double largeMultiplier;
+
+    @Value("${pricing.multiplier.extra-large:1.5}")
+    private double extraLargeMultiplier;
+
+    @Value("${pricing.weight.free-kg:5}")
+    private double freeWeightKg;
+
+    @Value("${pricing.weight.per-kg:5}")
+    private double perExtraKg;
+
+    @Value("${pricing.surge.peak-hours:8-10,17-20}")
+    private String peakHoursSpec;
+
+    @Value("${pricing.surge.multiplier:1.25}")
+    private double peakMultiplier;
+
+    @Value("${pricing.batch.max-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${routing.osrm.profile:driving}")
+    private String routingProfile;
+
+    private double[] packageMultipliers;
+    private final boolean[] peakHours = new boolean[24];
+
+    @PostConstruct
+    void init() {
+        packageMultipliers = new double[PackageType.values().length];
+        packageMultipliers[PackageType.SMALL.ordinal()] = smallMultiplier;
+        packageMultipliers[PackageType.MEDIUM.ordinal()] = mediumMultiplier;
+        packageMultipliers[PackageType.LARGE.ordinal()] = largeMultiplier;
+        packageMultipliers[PackageType.EXTRA_LARGE.ordinal()] = extraLargeMultiplier;
+
+        // "8-10,17-20" marks hours 8, 9, 17, 18 and 19 as peak; split overnight ranges as "22-24,0-6"
+        for (String range : peakHoursSpec.split(",")) {
+            if (range.isBlank()) {
+                continue;
+            }
+            int[] bounds = parseHourRange(range.trim());
+            for (int hour = bounds[0]; hour < bounds[1]; hour++) {
+                peakHours[hour] = true;
+            }
+        }
+    }
+
+    private static int[] parseHourRange(String range) {
+        String[] bounds = range.split("-");
+        try {
+            if (bounds.length == 2) {
+                int start = Integer.parseInt(bounds[0].trim());
+                int end = Integer.parseInt(bounds[1].trim());
+                if (start >= 0 && end <= 24 && start <= end) {
+                    return new int[] {start, end};
+                }
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid pricing.surge.peak-hours range '" + range
+                + "': expected start-end with 0 <= start <= end <= 24");
+    }
+
+    public FareQuote quote(QuoteRequest request) {
+        return quoteBatch(List.of(request)).get(0);
+    }
+
+    public List<FareQuote> quoteBatch(List<QuoteRequest> requests) {
+        int n = requests.size();
+        if (n > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " quotes per batch");
+        }
+
+        double[] pickupLat = new double[n];
+        double[] pickupLng = new double[n];
+        double[] dropLat = new double[n];
+        double[] dropLng = new double[n];
+        double[] multiplier = new double[n];
+        double[] weight = new double[n];
+        double[] surge = new double[n];
+        for (int i = 0; i < n; i++) {
+            QuoteRequest request = requests.get(i);
+            LocationDTO pickup = request.getPickupLocation();
+            LocationDTO drop = request.getDeliveryLocation();
+            if (pickup == null || drop == null
+                    || !GeoUtils.isValidCoordinate(pickup.getLatitude(), pickup.getLongitude())
+                    || !GeoUtils.isValidCoordinate(drop.getLatitude(), drop.getLongitude())) {
+                throw new IllegalArgumentException("Quote " + i + ": valid pickup and delivery coordinates are required");
+            }
+            if (request.getPackageType() == null) {
+                throw new IllegalArgumentException("Quote " + i + ": packageType is required");
+            }
+            pickupLat[i] = pickup.getLatitude();
+            pickupLng[i] = pickup.getLongitude();
+            dropLat[i] = drop.getLatitude();
+            dropLng[i] = drop.getLongitude();
+            multiplier[i] = packageMultipliers[request.getPackageType().ordinal()];
+            weight[i] = request.getPackageWeight() != null ? request.getPackageWeight() : 0.0;
+            LocalDateTime when = request.getScheduledTime() != null ? request.getScheduledTime() : LocalDateTime.now();
+            surge[i] = peakHours[when.getHour()] ? peakMultiplier : 1.0;
+        }
+
+        // Straight-line estimate for every pair, then overwrite with road distances we already know
+        double[] distance = new double[n];
+        for (int i = 0; i < n; i++) {
+            distance[i] = GeoUtils.haversineKm(pickupLat[i], pickupLng[i], dropLat[i], dropLng[i]) * roadFactor;
+        }
+        boolean[] routed = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            double[] alternatives = routeGateway.getCachedRouteDistancesKm(
+                    routingProfile, pickupLat[i], pickupLng[i], dropLat[i], dropLng[i]);
+            if (alternatives != null) {
+                distance[i] = pickAlternative(alternatives, requests.get(i).getDistance());
+                routed[i] = true;
+            }
+        }
+
+        double[] baseFare = new double[n];
+        double[] weightSurcharge = new double[n];
+        double[] amount = new double[n];
+        for (int i = 0; i < n; i++) {
+            baseFare[i] = Math.max(distance[i] * perKm, minimumFare);
+            weightSurcharge[i] = Math.max(0.0, weight[i] - freeWeightKg) * perExtraKg;
+            amount[i] = baseFare[i] * multiplier[i] * surge[i] + weightSurcharge[i];
+        }
+
+        List<FareQuote> quotes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            quotes.add(new FareQuote(
+                    round(distance[i]).doubleValue(),
+                    routed[i] ? DISTANCE_ROUTED : DISTANCE_ESTIMATED,
+                    round(baseFare[i]),
+                    multiplier[i],
+                    round(weightSurcharge[i]),
+                    surge[i],
+                    round(amount[i])));
+        }
+        return quotes;
+    }
+
+    /**
+     * Prices a delivery on the server, replacing any client-supplied distance, fee and amount.
+     */
+    public FareQuote applyTo(Delivery delivery) {
+        QuoteRequest request = new QuoteRequest();
+        request.setPickupLocation(LocationDTO.fromEntity(delivery.getPickupLocation()));
+        request.setDeliveryLocation(LocationDTO.fromEntity(delivery.getDeliveryLocation()));
+        request.setPackageType(delivery.getPackageType());
+        request.setPackageWeight(delivery.getPackageWeight());
+        request.setScheduledTime(delivery.getScheduledTime());
+        request.setDistance(delivery.getDistance());
+
+        FareQuote quote = quote(request);
+        delivery.setDistance(quote.getDistanceKm());
+        delivery.setDeliveryFee(quote.getAmount());
+        delivery.setAmount(quote.getAmount());
+        return quote;
+    }
+
+    private static double pickAlternative(double[] alternatives, Double hint) {
+        if (hint != null) {
+            for (double alternative : alternatives) {
+                if (Math.abs(alternative - hint) <= alternative * ALTERNATIVE_MATCH_TOLERANCE) {
+                    return alternative;
+                }
+            }
+        }
+        return alternatives[0];
+    }
+
+    private static BigDecimal round(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
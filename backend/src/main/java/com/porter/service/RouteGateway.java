@@ -0,0 +1,256 @@
+package com.porter.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.porter.util.VirtualThreads;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Caching gateway in front of an OSRM-compatible routing server.
+ * <p>
+ * Requests are keyed on the service path with coordinates snapped to {@code routing.osrm.snap-decimals}
+ * and the query parameters sorted, so map screens asking for the same pickup/drop pair share one
+ * cached response. Concurrent identical requests share a single upstream call, and only successful
+ * responses are cached. Point {@code routing.osrm.base-url} at a local stub for tests.
+ */
+@Service
+public class RouteGateway {
+    private static final Logger logger = LoggerFactory.getLogger(RouteGateway.class);
+
+    @Value("${routing.osrm.base-url:https://router.project-osrm.org}")
+    private String baseUrl;
+
+    @Value("${routing.osrm.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${routing.osrm.request-timeout-ms:5000}")
+    private long requestTimeoutMs;
+
+    @Value("${routing.osrm.snap-decimals:5}")
+    private int snapDecimals;
+
+    @Value("${routing.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${routing.cache.ttl-seconds:600}")
+    private long cacheTtlSeconds;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpClient httpClient;
+    private ExecutorService httpExecutor;
+    private AsyncCache<String, String> cache;
+    // Route distances (km, one per alternative) keyed on the snapped route path, for pricing
+    private Cache<String, double[]> routeDistances;
+    private final AtomicLong upstreamCalls = new AtomicLong();
+    private final AtomicLong upstreamFailures = new AtomicLong();
+
+    /**
+     * Non-2xx upstream answer; passed back to the caller and never cached.
+     */
+    public static class UpstreamException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+        private final String body;
+
+        public UpstreamException(int status, String body) {
+            super("Routing server responded with " + status);
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        if (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        // Response handling on virtual threads instead of the client's cached platform pool
+        httpExecutor = virtualThreads ? VirtualThreads.newThreadPerTaskExecutor("routing-http-") : null;
+        if (httpExecutor != null) {
+            builder.executor(httpExecutor);
+        }
+        httpClient = builder.build();
+        cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .buildAsync();
+        routeDistances = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (httpExecutor != null) {
+            httpExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Fetches {@code path?query} (e.g. {@code route/v1/driving/77.1,28.6;77.2,28.7?overview=full})
+     * from the routing server or the cache. Fails with {@link UpstreamException} for non-2xx answers.
+     */
+    public CompletableFuture<String> fetch(String path, String query) {
+        if (path == null || path.isEmpty() || path.contains("..")) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid routing path"));
+        }
+        String normalized = normalizePath(path) + normalizeQuery(query);
+        return cache.get(normalized, (key, executor) -> callUpstream(key));
+    }
+
+    /**
+     * Distances in km of the route alternatives a client already fetched between two points,
+     * or null when that pair has not been routed recently.
+     */
+    public double[] getCachedRouteDistancesKm(String profile, double fromLat, double fromLng, double toLat, double toLng) {
+        String path = normalizePath("route/v1/" + profile + "/" + fromLng + "," + fromLat + ";" + toLng + "," + toLat);
+        return routeDistances.getIfPresent(path);
+    }
+
+    public Map<String, Object> getMetrics() {
+        CacheStats stats = cache.synchronous().stats();
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("cachedRoutes", cache.synchronous().estimatedSize());
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("upstreamCalls", upstreamCalls.get());
+        metrics.put("upstreamFailures", upstreamFailures.get());
+        return metrics;
+    }
+
+    private CompletableFuture<String> callUpstream(String pathAndQuery) {
+        upstreamCalls.incrementAndGet();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + pathAndQuery))
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        upstreamFailures.incrementAndGet();
+                        logger.warn("Routing request {} failed: {}", pathAndQuery, error.getMessage());
+                        throw new CompletionException(error);
+                    }
+                    if (response.statusCode() / 100 != 2) {
+                        upstreamFailures.incrementAndGet();
+                        throw new UpstreamException(response.statusCode(), response.body());
+                    }
+                    if (pathAndQuery.startsWith("route/")) {
+                        recordRouteDistances(pathAndQuery, response.body());
+                    }
+                    return response.body();
+                });
+    }
+
+    private void recordRouteDistances(String pathAndQuery, String body) {
+        int query = pathAndQuery.indexOf('?');
+        String path = query >= 0 ? pathAndQuery.substring(0, query) : pathAndQuery;
+        if (path.endsWith(".json")) {
+            path = path.substring(0, path.length() - 5);
+        }
+        try {
+            JsonNode routes = objectMapper.readTree(body).path("routes");
+            if (!routes.isArray() || routes.isEmpty()) {
+                return;
+            }
+            double[] distances = new double[routes.size()];
+            for (int i = 0; i < distances.length; i++) {
+                distances[i] = routes.get(i).path("distance").asDouble() / 1000.0;
+            }
+            routeDistances.put(path, distances);
+        } catch (Exception e) {
+            logger.debug("Could not read route distances for {}: {}", path, e.getMessage());
+        }
+    }
+
+    // Snap "lng,lat;lng,lat[.json]" in the last path segment so nearby requests share a key
+    private String normalizePath(String path) {
+        int slash = path.lastIndexOf('/');
+        String head = path.substring(0, slash + 1);
+        String coordinates = path.substring(slash + 1);
+        String suffix = "";
+        int dot = coordinates.lastIndexOf(".json");
+        if (dot >= 0 && dot == coordinates.length() - 5) {
+            suffix = ".json";
+            coordinates = coordinates.substring(0, dot);
+        }
+        String[] points = coordinates.split(";");
+        StringBuilder snapped = new StringBuilder(head);
+        for (int i = 0; i < points.length; i++) {
+            String[] lngLat = points[i].split(",");
+            if (lngLat.length != 2) {
+                return path;
+            }
+            try {
+                if (i > 0) {
+                    snapped.append(';');
+                }
+                snapped.append(snap(Double.parseDouble(lngLat[0]))).append(',').append(snap(Double.parseDouble(lngLat[1])));
+            } catch (NumberFormatException e) {
+                return path;
+            }
+        }
+        return snapped.append(suffix).toString();
+    }
+
+    private String snap(double value) {
+        return String.format(Locale.ROOT, "%." + snapDecimals + "f", value);
+    }
+
+    private static String normalizeQuery(String query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        String[] params = query.split("&");
+        Arrays.sort(params);
+        return "?" + String.join("&", params);
+    }
+}
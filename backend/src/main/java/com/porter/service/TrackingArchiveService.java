@@ -0,0 +1,232 @@
+package com.porter.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.porter.model.Delivery;
+import com.porter.model.Tracking;
+import com.porter.model.TrackingArchive;
+import com.porter.repository.TrackingArchiveRepository;
+import com.porter.util.TrackCodec;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cold tier for tracking breadcrumbs. Once a delivery has been DELIVERED or CANCELLED
+ * for longer than the grace period, its tracking rows are encoded with
+ * {@link TrackCodec} into a single {@link TrackingArchive} row and deleted. Points
+ * that arrive after archiving are merged in by the next sweep. Reads combine both
+ * tiers, so callers never see the difference.
+ */
+@Service
+public class TrackingArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(TrackingArchiveService.class);
+
+    // Rows without coordinates (older schemas allowed them) stay in place rather than being archived as 0,0
+    private static final String CANDIDATES_SQL = "SELECT d.id FROM deliveries d "
+            + "WHERE d.status IN ('DELIVERED', 'CANCELLED') AND d.updated_at < ? "
+            + "AND EXISTS (SELECT 1 FROM tracking t WHERE t.delivery_id = d.id "
+            + "AND t.latitude IS NOT NULL AND t.longitude IS NOT NULL) "
+            + "LIMIT ?";
+
+    private static final String POINTS_SQL = "SELECT id, latitude, longitude, status, "
+            + "COALESCE(timestamp, created_at) AS seen_at FROM tracking WHERE delivery_id = ? "
+            + "AND latitude IS NOT NULL AND longitude IS NOT NULL "
+            + "ORDER BY seen_at, id";
+
+    // Only the rows that were read, so points written meanwhile survive for the next sweep
+    private static final String DELETE_SQL = "DELETE FROM tracking WHERE delivery_id = ? AND id = ANY (?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TrackingArchiveRepository trackingArchiveRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${tracking.archive.enabled:true}")
+    private boolean enabled;
+
+    // Leaves room for the ingest buffer to flush the last points of a finished delivery
+    @Value("${tracking.archive.grace-minutes:30}")
+    private long graceMinutes;
+
+    @Value("${tracking.archive.batch-size:200}")
+    private int batchSize;
+
+    private TransactionTemplate transaction;
+
+    private final AtomicLong deliveriesArchived = new AtomicLong();
+    private final AtomicLong rowsPurged = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${tracking.archive.sweep-ms:300000}", fixedDelayString = "${tracking.archive.sweep-ms:300000}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * Archives finished deliveries in batches until none are left. Each delivery is
+     * archived in its own transaction so one failure does not hold back the rest.
+     */
+    public Map<String, Object> sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+        int deliveries = 0;
+        long rows = 0;
+        int failures = 0;
+        List<Long> batch;
+        do {
+            batch = jdbcTemplate.queryForList(CANDIDATES_SQL, Long.class, cutoff, batchSize);
+            int archivedInBatch = 0;
+            for (Long deliveryId : batch) {
+                try {
+                    rows += archive(deliveryId);
+                    deliveries++;
+                    archivedInBatch++;
+                } catch (RuntimeException e) {
+                    failures++;
+                    logger.warn("Failed to archive tracking for delivery {}: {}", deliveryId, e.getMessage());
+                }
+            }
+            if (archivedInBatch == 0) {
+                break;
+            }
+        } while (batch.size() == batchSize);
+
+        if (deliveries > 0) {
+            logger.info("Archived tracking for {} deliveries, purged {} rows", deliveries, rows);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("deliveries", deliveries);
+        result.put("rowsPurged", rows);
+        result.put("failures", failures);
+        return result;
+    }
+
+    // Returns the number of tracking rows folded into the archive
+    public int archive(long deliveryId) {
+        Integer purged = transaction.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            List<TrackCodec.Point> points = new ArrayList<>();
+            jdbcTemplate.query(POINTS_SQL, rs -> {
+                ids.add(rs.getLong(1));
+                Timestamp seenAt = rs.getTimestamp(5);
+                points.add(new TrackCodec.Point(rs.getDouble(2), rs.getDouble(3),
+                        seenAt != null ? toEpochMillis(seenAt.toLocalDateTime()) : 0, rs.getString(4)));
+            }, deliveryId);
+            if (points.isEmpty()) {
+                return 0;
+            }
+
+            TrackingArchive archive = trackingArchiveRepository.findById(deliveryId).orElse(null);
+            List<TrackCodec.Point> merged = new ArrayList<>();
+            if (archive != null) {
+                merged.addAll(TrackCodec.decode(archive.getEncoded()));
+            } else {
+                archive = new TrackingArchive();
+                archive.setDeliveryId(deliveryId);
+            }
+            merged.addAll(points);
+            // Stable, so points sharing a timestamp keep their insertion order
+            merged.sort(Comparator.comparingLong(TrackCodec.Point::getEpochMillis));
+
+            byte[] encoded = TrackCodec.encode(merged);
+            archive.setEncoded(encoded);
+            archive.setPointCount(merged.size());
+            archive.setFirstTimestamp(toLocalDateTime(merged.get(0).getEpochMillis()));
+            archive.setLastTimestamp(toLocalDateTime(merged.get(merged.size() - 1).getEpochMillis()));
+            archive.setArchivedAt(LocalDateTime.now());
+            trackingArchiveRepository.save(archive);
+
+            int deleted = jdbcTemplate.update(DELETE_SQL, ps -> {
+                ps.setLong(1, deliveryId);
+                ps.setArray(2, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+            });
+            bytesWritten.addAndGet(encoded.length);
+            return deleted;
+        });
+        int count = purged != null ? purged : 0;
+        if (count > 0) {
+            deliveriesArchived.incrementAndGet();
+            rowsPurged.addAndGet(count);
+        }
+        return count;
+    }
+
+    /**
+     * Archived breadcrumbs of a delivery as detached {@link Tracking} objects (no id),
+     * oldest first. Empty when nothing has been archived.
+     */
+    public List<Tracking> getArchivedTracking(Delivery delivery) {
+        List<TrackCodec.Point> points = getArchivedPoints(delivery.getId());
+        List<Tracking> tracking = new ArrayList<>(points.size());
+        for (TrackCodec.Point point : points) {
+            LocalDateTime timestamp = toLocalDateTime(point.getEpochMillis());
+            Tracking row = new Tracking();
+            row.setDelivery(delivery);
+            row.setLatitude(point.getLatitude());
+            row.setLongitude(point.getLongitude());
+            row.setStatus(point.getStatus());
+            row.setTimestamp(timestamp);
+            row.setCreatedAt(timestamp);
+            row.setUpdatedAt(timestamp);
+            tracking.add(row);
+        }
+        return tracking;
+    }
+
+    /**
+     * Archived breadcrumbs of a delivery as decoded points, oldest first. Point times
+     * convert back to wall-clock time with {@link #toLocalDateTime(long)}.
+     */
+    public List<TrackCodec.Point> getArchivedPoints(long deliveryId) {
+        return trackingArchiveRepository.findById(deliveryId)
+                .map(archive -> TrackCodec.decode(archive.getEncoded()))
+                .orElse(List.of());
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("enabled", enabled);
+        metrics.put("deliveriesArchived", deliveriesArchived.get());
+        metrics.put("rowsPurged", rowsPurged.get());
+        metrics.put("bytesWritten", bytesWritten.get());
+        return metrics;
+    }
+
+    // Times are stored as wall-clock LocalDateTime; UTC here only fixes a reversible epoch
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,249 @@
+package com.porter.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.porter.repository.DeliveryRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer for tracking points. Points are queued in a bounded buffer
+ * and written by a single flusher thread with JDBC batch inserts once either the
+ * batch size or the flush interval is reached. When the buffer is full
+ * {@link #enqueue} returns false so callers can push back on the client. Status
+ * changes are not buffered; they are saved by the request that makes them.
+ */
+@Service
+public class TrackingIngestService {
+    private static final Logger logger = LoggerFactory.getLogger(TrackingIngestService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO tracking "
+            + "(delivery_id, latitude, longitude, status, created_at, updated_at, timestamp) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final class BufferedPoint {
+        final long deliveryId;
+        final double latitude;
+        final double longitude;
+        final LocalDateTime timestamp;
+        final String porterUsername;
+        String status;
+
+        BufferedPoint(long deliveryId, double latitude, double longitude, LocalDateTime timestamp,
+                String porterUsername) {
+            this.deliveryId = deliveryId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.timestamp = timestamp;
+            this.porterUsername = porterUsername;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private LatestPositionStore latestPositionStore;
+
+    @Autowired
+    private LocationStreamService locationStreamService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${tracking.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${tracking.ingest.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    private final BlockingQueue<BufferedPoint> buffer;
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    private final AtomicLong retried = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread flusher;
+    private TransactionTemplate transaction;
+
+    public TrackingIngestService(@Value("${tracking.ingest.buffer-capacity:20000}") int capacity) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @PostConstruct
+    void start() {
+        transaction = new TransactionTemplate(transactionManager);
+        running = true;
+        flusher = new Thread(this::flushLoop, "tracking-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues a point reported by a porter. Delivery ownership and the current
+     * delivery status are resolved in bulk when the batch is flushed.
+     */
+    public boolean enqueue(long deliveryId, double latitude, double longitude, LocalDateTime timestamp,
+            String porterUsername) {
+        BufferedPoint point = new BufferedPoint(deliveryId, latitude, longitude,
+                timestamp != null ? timestamp : LocalDateTime.now(), porterUsername);
+        if (running && buffer.offer(point)) {
+            accepted.incrementAndGet();
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("buffered", buffer.size());
+        metrics.put("remainingCapacity", buffer.remainingCapacity());
+        metrics.put("accepted", accepted.get());
+        metrics.put("rejected", rejected.get());
+        metrics.put("written", written.get());
+        metrics.put("discarded", discarded.get());
+        metrics.put("batches", batches.get());
+        metrics.put("retriedOneByOne", retried.get());
+        return metrics;
+    }
+
+    private void flushLoop() {
+        List<BufferedPoint> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                fillBatch(batch);
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                    batches.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException e) {
+                logger.warn("Failed to write {} tracking points, retrying one by one: {}", batch.size(), e.getMessage());
+                retryEach(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Blocks for the first point, then keeps collecting until the batch is full or the interval elapses
+    private void fillBatch(List<BufferedPoint> batch) throws InterruptedException {
+        BufferedPoint first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize && running) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            BufferedPoint next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        buffer.drainTo(batch, batchSize - batch.size());
+    }
+
+    // One bad row or a lost connection fails the whole batch; only the points that fail alone are dropped
+    private void retryEach(List<BufferedPoint> batch) {
+        retried.addAndGet(batch.size());
+        for (BufferedPoint point : batch) {
+            try {
+                flush(List.of(point));
+            } catch (RuntimeException e) {
+                discarded.incrementAndGet();
+                logger.error("Dropped tracking point for delivery {}: {}", point.deliveryId, e.getMessage());
+            }
+        }
+    }
+
+    private void flush(List<BufferedPoint> batch) {
+        List<BufferedPoint> valid = resolve(batch);
+        if (!valid.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            Timestamp createdAt = Timestamp.valueOf(now);
+            // All or nothing, so a retry never writes a point twice
+            transaction.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, valid, valid.size(), (ps, point) -> {
+                        ps.setLong(1, point.deliveryId);
+                        ps.setDouble(2, point.latitude);
+                        ps.setDouble(3, point.longitude);
+                        ps.setString(4, point.status);
+                        ps.setTimestamp(5, createdAt);
+                        ps.setTimestamp(6, createdAt);
+                        ps.setTimestamp(7, Timestamp.valueOf(point.timestamp));
+                    }));
+            written.addAndGet(valid.size());
+            for (BufferedPoint point : valid) {
+                latestPositionStore.record(point.deliveryId, point.porterUsername, point.latitude, point.longitude,
+                        point.status, point.timestamp);
+                locationStreamService.publish(point.deliveryId, point.latitude, point.longitude, point.timestamp);
+            }
+        }
+        discarded.addAndGet(batch.size() - valid.size());
+    }
+
+    // Looks up status and assigned porter for every delivery in the batch with one query
+    private List<BufferedPoint> resolve(List<BufferedPoint> batch) {
+        List<Long> ids = batch.stream()
+                .map(p -> p.deliveryId)
+                .distinct()
+                .toList();
+        Map<Long, Object[]> deliveries = new HashMap<>();
+        for (Object[] row : deliveryRepository.findStatusAndPorterNameByIdIn(ids)) {
+            deliveries.put((Long) row[0], row);
+        }
+        List<BufferedPoint> valid = new ArrayList<>(batch.size());
+        for (BufferedPoint point : batch) {
+            Object[] row = deliveries.get(point.deliveryId);
+            if (row == null || !Objects.equals(row[2], point.porterUsername)) {
+                continue;
+            }
+            point.status = String.valueOf(row[1]);
+            valid.add(point);
+        }
+        return valid;
+    }
+}
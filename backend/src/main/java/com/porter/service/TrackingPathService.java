@@ -0,0 +1,173 @@
+package com.porter.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.porter.DTO.DeliveryDTO;
+import com.porter.model.Delivery;
+import com.porter.repository.DeliveryRepository;
+import com.porter.util.PathSimplifier;
+import com.porter.util.TrackCodec;
+
+/**
+ * Map-ready tracking path: the delivery once, then the breadcrumbs thinned to the
+ * requested time window and simplified to the requested tolerance or map zoom, written
+ * as compact {@code [latitude, longitude, epochMillis, status]} arrays. Breadcrumbs are
+ * read as plain rows, never as {@link com.porter.model.Tracking} entities, and merged
+ * with the archived points.
+ */
+@Service
+public class TrackingPathService {
+
+    private static final String POINTS_SQL = "SELECT latitude, longitude, "
+            + "COALESCE(timestamp, created_at) AS seen_at, status FROM tracking WHERE delivery_id = ? "
+            + "AND latitude IS NOT NULL AND longitude IS NOT NULL "
+            + "ORDER BY seen_at NULLS FIRST, id";
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private TrackingArchiveService trackingArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${tracking.path.default-tolerance-m:5}")
+    private double defaultToleranceMeters;
+
+    public static final class SimplifiedPath {
+        private final DeliveryDTO delivery;
+        private final List<TrackCodec.Point> points;
+        private final int[] kept;
+        private final double toleranceMeters;
+
+        private SimplifiedPath(DeliveryDTO delivery, List<TrackCodec.Point> points, int[] kept, double toleranceMeters) {
+            this.delivery = delivery;
+            this.points = points;
+            this.kept = kept;
+            this.toleranceMeters = toleranceMeters;
+        }
+    }
+
+    /**
+     * Loads and simplifies the path. An explicit tolerance wins over a zoom level; with
+     * neither, the configured default tolerance applies.
+     */
+    @Transactional(readOnly = true)
+    public SimplifiedPath load(Long deliveryId, Double toleranceMeters, Integer zoom, Long intervalSeconds) {
+        Delivery delivery = deliveryRepository.findById(deliveryId)
+                .orElseThrow(() -> new RuntimeException("Delivery not found"));
+        List<TrackCodec.Point> points = merge(archivedPoints(deliveryId), livePoints(deliveryId));
+
+        int n = points.size();
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        long[] millis = new long[n];
+        boolean[] pinned = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            TrackCodec.Point point = points.get(i);
+            latitudes[i] = point.getLatitude();
+            longitudes[i] = point.getLongitude();
+            millis[i] = point.getEpochMillis();
+            pinned[i] = i > 0 && !Objects.equals(point.getStatus(), points.get(i - 1).getStatus());
+        }
+
+        double tolerance = defaultToleranceMeters;
+        if (toleranceMeters != null) {
+            tolerance = Math.max(0, toleranceMeters);
+        } else if (zoom != null && n > 0) {
+            tolerance = PathSimplifier.toleranceForZoom(zoom, latitudes[0]);
+        }
+        long windowMillis = intervalSeconds != null && intervalSeconds > 0 ? intervalSeconds * 1000 : 0;
+        int[] kept = PathSimplifier.simplify(latitudes, longitudes, millis, pinned, tolerance, windowMillis);
+        return new SimplifiedPath(DeliveryDTO.fromEntity(delivery), points, kept, tolerance);
+    }
+
+    public void write(SimplifiedPath path, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeFieldName("delivery");
+            objectMapper.writeValue(json, path.delivery);
+            json.writeNumberField("totalPoints", path.points.size());
+            json.writeNumberField("returnedPoints", path.kept.length);
+            json.writeNumberField("toleranceMeters", Math.round(path.toleranceMeters * 100) / 100.0);
+            json.writeArrayFieldStart("points");
+            for (int index : path.kept) {
+                TrackCodec.Point point = path.points.get(index);
+                json.writeStartArray();
+                json.writeNumber(round6(point.getLatitude()));
+                json.writeNumber(round6(point.getLongitude()));
+                json.writeNumber(point.getEpochMillis());
+                json.writeString(point.getStatus());
+                json.writeEndArray();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private List<TrackCodec.Point> livePoints(Long deliveryId) {
+        return jdbcTemplate.query(POINTS_SQL, (rs, i) -> {
+            Timestamp seenAt = rs.getTimestamp(3);
+            return new TrackCodec.Point(rs.getDouble(1), rs.getDouble(2),
+                    epochMillis(seenAt != null ? seenAt.toLocalDateTime() : null), rs.getString(4));
+        }, deliveryId);
+    }
+
+    // The archive keeps its own epoch; bring its points onto the same clock as the live rows
+    private List<TrackCodec.Point> archivedPoints(Long deliveryId) {
+        List<TrackCodec.Point> archived = trackingArchiveService.getArchivedPoints(deliveryId);
+        List<TrackCodec.Point> points = new ArrayList<>(archived.size());
+        for (TrackCodec.Point point : archived) {
+            points.add(new TrackCodec.Point(point.getLatitude(), point.getLongitude(),
+                    epochMillis(TrackingArchiveService.toLocalDateTime(point.getEpochMillis())), point.getStatus()));
+        }
+        return points;
+    }
+
+    // Both lists are in time order; on equal times the archived point goes first
+    private static List<TrackCodec.Point> merge(List<TrackCodec.Point> archived, List<TrackCodec.Point> live) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        List<TrackCodec.Point> merged = new ArrayList<>(archived.size() + live.size());
+        int a = 0;
+        int l = 0;
+        while (a < archived.size() || l < live.size()) {
+            if (l == live.size() || (a < archived.size()
+                    && archived.get(a).getEpochMillis() <= live.get(l).getEpochMillis())) {
+                merged.add(archived.get(a++));
+            } else {
+                merged.add(live.get(l++));
+            }
+        }
+        return merged;
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+    }
+
+    private static double round6(double value) {
+        return Math.round(value * 1e6) / 1e6;
+    }
+}
@@ -0,0 +1,274 @@
+package com.porter.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.porter.DTO.TripDTO;
+import com.porter.DTO.TripRequest;
+import com.porter.model.Delivery;
+import com.porter.model.Location;
+import com.porter.model.Porter;
+import com.porter.model.Tracking;
+import com.porter.model.Trip;
+import com.porter.model.TripStop;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.StopType;
+import com.porter.model.enums.TripStatus;
+import com.porter.repository.DeliveryRepository;
+import com.porter.repository.PorterRepository;
+import com.porter.repository.TripRepository;
+import com.porter.util.GeoUtils;
+import com.porter.util.StopSequencer;
+
+/**
+ * Multi-stop trips: a porter groups several of their accepted deliveries, the pickups
+ * and drops are sequenced with {@link StopSequencer}, and completing a stop advances
+ * that delivery through the usual status flow and records a tracking point there.
+ */
+@Service
+public class TripService {
+
+    public static final List<TripStatus> OPEN_STATUSES = List.of(TripStatus.PLANNED, TripStatus.IN_PROGRESS);
+
+    // Statuses a delivery on a trip moves through, in order
+    private static final List<DeliveryStatus> FLOW =
+            List.of(DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT, DeliveryStatus.DELIVERED);
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private PorterRepository porterRepository;
+
+    @Autowired
+    private PorterService porterService;
+
+    @Autowired
+    private TrackingService trackingService;
+
+    @Autowired
+    private DispatchService dispatchService;
+
+    @Value("${trip.max-deliveries:15}")
+    private int maxDeliveries;
+
+    @Transactional
+    public TripDTO createTrip(String porterName, TripRequest request) {
+        Porter porter = findPorter(porterName);
+        if (request.getDeliveryIds() == null || request.getDeliveryIds().isEmpty()) {
+            throw new IllegalArgumentException("At least one delivery is required");
+        }
+        Set<Long> ids = new LinkedHashSet<>(request.getDeliveryIds());
+        if (ids.size() > maxDeliveries) {
+            throw new IllegalArgumentException("A trip can carry at most " + maxDeliveries + " deliveries");
+        }
+        Map<Long, Delivery> deliveries = deliveryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Delivery::getId, Function.identity()));
+        for (Long id : ids) {
+            Delivery delivery = deliveries.get(id);
+            if (delivery == null) {
+                throw new RuntimeException("Delivery not found: " + id);
+            }
+            if (delivery.getPorter() == null || !delivery.getPorter().getId().equals(porter.getId())) {
+                throw new AccessDeniedException("Delivery " + id + " is not assigned to you");
+            }
+            if (!DispatchService.ACTIVE_STATUSES.contains(delivery.getStatus())) {
+                throw new IllegalStateException("Delivery " + id + " is " + delivery.getStatus());
+            }
+        }
+        List<Long> taken = tripRepository.findDeliveryIdsInTrips(ids, OPEN_STATUSES);
+        if (!taken.isEmpty()) {
+            throw new IllegalStateException("Deliveries already on another trip: " + taken);
+        }
+
+        Trip trip = new Trip();
+        trip.setPorter(porter);
+        trip.setStatus(TripStatus.PLANNED);
+        for (Long id : ids) {
+            Delivery delivery = deliveries.get(id);
+            // Parcels already on board only need their drop
+            if (delivery.getStatus() == DeliveryStatus.ACCEPTED) {
+                trip.getStops().add(newStop(trip, delivery, StopType.PICKUP, delivery.getPickupLocation()));
+            }
+            trip.getStops().add(newStop(trip, delivery, StopType.DROP, delivery.getDeliveryLocation()));
+        }
+        double[] start = startPosition(porter, request.getLatitude(), request.getLongitude(), trip.getStops());
+        sequence(trip, trip.getStops(), start);
+        return TripDTO.fromEntity(tripRepository.save(trip));
+    }
+
+    /**
+     * Marks a stop as done. A pickup moves the delivery to PICKED_UP and on to IN_TRANSIT;
+     * a drop finishes it as DELIVERED. Statuses the delivery has already reached are
+     * skipped, and a delivery that is already delivered or cancelled just closes its
+     * stops. Each transition is also written as a tracking point at the stop, or at the
+     * reported position when given.
+     */
+    @Transactional
+    public TripDTO completeStop(Long tripId, Long stopId, String porterName, Double latitude, Double longitude) {
+        Trip trip = findOwnTrip(tripId, porterName);
+        if (!OPEN_STATUSES.contains(trip.getStatus())) {
+            throw new IllegalStateException("Trip is " + trip.getStatus());
+        }
+        TripStop stop = trip.getStops().stream()
+                .filter(s -> s.getId().equals(stopId))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Stop not found"));
+        if (stop.isCompleted()) {
+            throw new IllegalStateException("Stop already completed");
+        }
+        Delivery delivery = stop.getDelivery();
+        boolean terminal = TripStopSync.TERMINAL_STATUSES.contains(delivery.getStatus());
+        if (stop.getType() == StopType.DROP && !terminal) {
+            boolean pickupPending = trip.getStops().stream()
+                    .anyMatch(s -> s.getType() == StopType.PICKUP && !s.isCompleted()
+                            && s.getDelivery().getId().equals(delivery.getId()));
+            if (pickupPending) {
+                throw new IllegalStateException("Parcel must be picked up before it is dropped");
+            }
+        }
+
+        if (!terminal) {
+            double lat = latitude != null ? latitude : stop.getLatitude();
+            double lng = longitude != null ? longitude : stop.getLongitude();
+            DeliveryStatus target = stop.getType() == StopType.PICKUP ? DeliveryStatus.IN_TRANSIT : DeliveryStatus.DELIVERED;
+            for (DeliveryStatus next : FLOW) {
+                if (next.compareTo(delivery.getStatus()) > 0 && next.compareTo(target) <= 0) {
+                    advance(delivery, next, porterName, lat, lng);
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        stop.setCompletedAt(now);
+        TripStopSync.closePassedStops(trip, delivery, now);
+        TripStopSync.updateStatus(trip, now);
+        return TripDTO.fromEntity(tripRepository.save(trip));
+    }
+
+    // Re-plans the remaining stops from where the porter is now
+    @Transactional
+    public TripDTO resequence(Long tripId, String porterName, Double latitude, Double longitude) {
+        Trip trip = findOwnTrip(tripId, porterName);
+        if (!OPEN_STATUSES.contains(trip.getStatus())) {
+            throw new IllegalStateException("Trip is " + trip.getStatus());
+        }
+        List<TripStop> remaining = trip.getStops().stream().filter(s -> !s.isCompleted()).toList();
+        sequence(trip, remaining, startPosition(trip.getPorter(), latitude, longitude, remaining));
+        return TripDTO.fromEntity(tripRepository.save(trip));
+    }
+
+    // Ends the trip; its deliveries stay with the porter and can be completed individually
+    @Transactional
+    public TripDTO cancelTrip(Long tripId, String porterName) {
+        Trip trip = findOwnTrip(tripId, porterName);
+        if (!OPEN_STATUSES.contains(trip.getStatus())) {
+            throw new IllegalStateException("Trip is " + trip.getStatus());
+        }
+        trip.setStatus(TripStatus.CANCELLED);
+        return TripDTO.fromEntity(tripRepository.save(trip));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TripDTO> getOpenTrips(String porterName) {
+        Porter porter = findPorter(porterName);
+        return tripRepository.findWithStopsByPorterAndStatusIn(porter, OPEN_STATUSES).stream()
+                .map(TripDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public TripDTO getTrip(Long tripId, String porterName) {
+        return TripDTO.fromEntity(findOwnTrip(tripId, porterName));
+    }
+
+    private void advance(Delivery delivery, DeliveryStatus status, String porterName, double latitude, double longitude) {
+        porterService.updateDeliveryStatus(delivery.getId(), status, porterName);
+        Tracking tracking = new Tracking();
+        tracking.setDelivery(delivery);
+        tracking.setLatitude(latitude);
+        tracking.setLongitude(longitude);
+        tracking.setStatus(status.name());
+        tracking.setTimestamp(LocalDateTime.now());
+        trackingService.addTracking(tracking);
+    }
+
+    // Orders the given stops after the trip's completed ones
+    private void sequence(Trip trip, List<TripStop> stops, double[] start) {
+        List<StopSequencer.Stop> input = new ArrayList<>(stops.size());
+        for (TripStop stop : stops) {
+            input.add(new StopSequencer.Stop(stop.getDelivery().getId(), stop.getType() == StopType.PICKUP,
+                    stop.getLatitude(), stop.getLongitude()));
+        }
+        StopSequencer.Route route = StopSequencer.sequence(start[0], start[1], input);
+        int base = (int) trip.getStops().stream().filter(TripStop::isCompleted).count();
+        int[] order = route.getOrder();
+        for (int position = 0; position < order.length; position++) {
+            stops.get(order[position]).setSequence(base + position);
+        }
+        trip.getStops().sort((a, b) -> Integer.compare(a.getSequence(), b.getSequence()));
+        trip.setPlannedDistanceKm(Math.round(route.getDistanceKm() * 100) / 100.0);
+    }
+
+    private double[] startPosition(Porter porter, Double latitude, Double longitude, List<TripStop> stops) {
+        if (latitude != null && longitude != null) {
+            if (!GeoUtils.isValidCoordinate(latitude, longitude)) {
+                throw new IllegalArgumentException("Invalid latitude/longitude");
+            }
+            return new double[] {latitude, longitude};
+        }
+        double[] last = dispatchService.lastPosition(porter.getId());
+        if (last != null) {
+            return last;
+        }
+        // No fix yet: start from the first stop that can be visited first
+        TripStop first = stops.stream()
+                .filter(s -> s.getType() == StopType.PICKUP)
+                .findFirst()
+                .orElse(stops.get(0));
+        return new double[] {first.getLatitude(), first.getLongitude()};
+    }
+
+    private TripStop newStop(Trip trip, Delivery delivery, StopType type, Location location) {
+        if (location == null || location.getLatitude() == null || location.getLongitude() == null) {
+            throw new IllegalStateException("Delivery " + delivery.getId() + " has no coordinates");
+        }
+        TripStop stop = new TripStop();
+        stop.setTrip(trip);
+        stop.setDelivery(delivery);
+        stop.setType(type);
+        stop.setLatitude(location.getLatitude());
+        stop.setLongitude(location.getLongitude());
+        stop.setAddress(location.getAddress());
+        return stop;
+    }
+
+    private Trip findOwnTrip(Long tripId, String porterName) {
+        Trip trip = tripRepository.findWithStopsById(tripId)
+                .orElseThrow(() -> new RuntimeException("Trip not found"));
+        if (!trip.getPorter().getName().equals(porterName)) {
+            throw new AccessDeniedException("Not authorized to access this trip");
+        }
+        return trip;
+    }
+
+    private Porter findPorter(String porterName) {
+        return porterRepository.findByName(porterName)
+                .orElseThrow(() -> new AccessDeniedException("Porter not found"));
+    }
+}
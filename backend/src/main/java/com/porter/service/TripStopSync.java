@@ -0,0 +1,69 @@
+package com.porter.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.porter.model.Delivery;
+import com.porter.model.Trip;
+import com.porter.model.TripStop;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.StopType;
+import com.porter.model.enums.TripStatus;
+import com.porter.repository.TripRepository;
+
+/**
+ * Keeps open trips in step with status changes made outside {@link TripService}: a
+ * delivery moved past its pickup, delivered or cancelled on its own has those stops
+ * closed, and a trip left with no open stops is completed.
+ */
+@Component
+public class TripStopSync {
+
+    static final List<DeliveryStatus> TERMINAL_STATUSES = List.of(DeliveryStatus.DELIVERED, DeliveryStatus.CANCELLED);
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    public void sync(Delivery delivery) {
+        if (delivery.getId() == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Trip trip : tripRepository.findWithStopsByDeliveryIdAndStatusIn(delivery.getId(), TripService.OPEN_STATUSES)) {
+            if (closePassedStops(trip, delivery, now)) {
+                updateStatus(trip, now);
+                tripRepository.save(trip);
+            }
+        }
+    }
+
+    // Closes the delivery's stops its current status has already passed
+    static boolean closePassedStops(Trip trip, Delivery delivery, LocalDateTime now) {
+        boolean terminal = TERMINAL_STATUSES.contains(delivery.getStatus());
+        boolean pickedUp = terminal || delivery.getStatus() == DeliveryStatus.PICKED_UP
+                || delivery.getStatus() == DeliveryStatus.IN_TRANSIT;
+        boolean changed = false;
+        for (TripStop stop : trip.getStops()) {
+            if (stop.isCompleted() || !stop.getDelivery().getId().equals(delivery.getId())) {
+                continue;
+            }
+            if (terminal || (pickedUp && stop.getType() == StopType.PICKUP)) {
+                stop.setCompletedAt(now);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    static void updateStatus(Trip trip, LocalDateTime now) {
+        if (trip.getStops().stream().allMatch(TripStop::isCompleted)) {
+            trip.setStatus(TripStatus.COMPLETED);
+            trip.setCompletedAt(now);
+        } else {
+            trip.setStatus(TripStatus.IN_PROGRESS);
+        }
+    }
+}
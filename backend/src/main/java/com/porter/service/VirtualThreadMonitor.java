@@ -0,0 +1,134 @@
+package com.porter.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.porter.util.VirtualThreads;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports which thread model the application runs on and watches for pinned virtual
+ * threads. With {@code spring.threads.virtual.enabled=true} on Java 21, Tomcat requests,
+ * {@code @Async} and {@code @Scheduled} tasks run on virtual threads; a virtual thread
+ * that blocks inside a {@code synchronized} block holds on to its carrier instead. The
+ * JFR {@code jdk.VirtualThreadPinned} event is streamed in-process and counted by the
+ * first application frame, so such sections show up in the metrics and the log.
+ */
+@Component
+public class VirtualThreadMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_SITES = 50;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualRequested;
+
+    @Value("${threads.virtual.pinning-monitor.enabled:true}")
+    private boolean monitorEnabled;
+
+    @Value("${threads.virtual.pinning-monitor.threshold-ms:20}")
+    private long thresholdMs;
+
+    private boolean virtualActive;
+    private RecordingStream pinningStream;
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void start() {
+        virtualActive = virtualRequested && VirtualThreads.isSupported();
+        if (virtualRequested && !virtualActive) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; staying on platform threads",
+                    Runtime.version().feature());
+            return;
+        }
+        logger.info("Request, @Async and @Scheduled execution on {} threads", virtualActive ? "virtual" : "platform");
+        if (!virtualActive || !monitorEnabled) {
+            return;
+        }
+        try {
+            pinningStream = new RecordingStream();
+            pinningStream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+            pinningStream.onEvent(PINNED_EVENT, this::onPinned);
+            pinningStream.startAsync();
+        } catch (RuntimeException e) {
+            // JFR can be missing from trimmed runtimes; the application runs the same without it
+            logger.warn("Virtual thread pinning monitor unavailable: {}", e.getMessage());
+            pinningStream = null;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pinningStream != null) {
+            pinningStream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        String site = applicationFrame(event);
+        LongAdder count = pinnedSites.get(site);
+        if (count == null && pinnedSites.size() < MAX_SITES) {
+            count = pinnedSites.computeIfAbsent(site, key -> new LongAdder());
+            logger.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+        }
+        if (count != null) {
+            count.increment();
+        }
+    }
+
+    // First frame outside the JDK, which is where the synchronized section usually is
+    private static String applicationFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        String first = null;
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            String site = type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            if (first == null) {
+                first = site;
+            }
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return site;
+            }
+        }
+        return first != null ? first : "unknown";
+    }
+
+    public boolean isVirtualActive() {
+        return virtualActive;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("javaVersion", Runtime.version().toString());
+        metrics.put("virtualRequested", virtualRequested);
+        metrics.put("virtualActive", virtualActive);
+        metrics.put("currentThreadVirtual", VirtualThreads.isVirtual(Thread.currentThread()));
+        metrics.put("pinningMonitor", pinningStream != null);
+        metrics.put("pinnedEvents", pinnedEvents.get());
+        Map<String, Long> sites = new LinkedHashMap<>();
+        pinnedSites.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .forEach(entry -> sites.put(entry.getKey(), entry.getValue().sum()));
+        metrics.put("pinnedSites", sites);
+        return metrics;
+    }
+}
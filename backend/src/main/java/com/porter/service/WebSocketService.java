@@ -1,35 +1,128 @@
 package com.porter.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.porter.DTO.DeliveryDTO;
+import com.porter.DTO.LocationDelta;
 import com.porter.DTO.PorterDTO;
 import com.porter.DTO.UserDTO;
 import com.porter.model.Delivery;
+import com.porter.model.Location;
 import com.porter.model.Porter;
 import com.porter.model.User;
+import com.porter.model.enums.DeliveryStatus;
 
+/**
+ * Routes change events only to the clients that care about them:
+ * <ul>
+ *   <li>{@code /topic/delivery/{id}} - anyone following one delivery</li>
+ *   <li>{@code /topic/delivery/{id}/location} - coalesced live position of that delivery</li>
+ *   <li>{@code /user/queue/deliveries} - the delivery's customer and assigned porter</li>
+ *   <li>{@code /user/queue/account} - the user or porter whose account changed</li>
+ *   <li>{@code /user/queue/offers} - the porter a delivery is being offered to</li>
+ *   <li>{@code /topic/porters/cell/{row}_{col}} - porters near an unassigned pickup</li>
+ *   <li>{@code /topic/admin} - admin dashboards</li>
+ * </ul>
+ * Each event is serialized once and the same payload is reused for every destination.
+ */
 @Service
 public class WebSocketService {
-    
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketService.class);
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
-    
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${websocket.porter-shard-size-degrees:0.2}")
+    private double porterShardSizeDegrees;
+
     public void sendDeliveryUpdate(Delivery delivery) {
         DeliveryDTO deliveryDTO = DeliveryDTO.fromEntity(delivery);
-        messagingTemplate.convertAndSend("/topic/deliveries", deliveryDTO);
-        messagingTemplate.convertAndSend("/topic/admin", deliveryDTO);
-        messagingTemplate.convertAndSend("/topic/porters", deliveryDTO);
+        Message<byte[]> message = toMessage(deliveryDTO);
+        if (message == null) {
+            return;
+        }
+        messagingTemplate.send("/topic/delivery/" + deliveryDTO.getId(), message);
+        messagingTemplate.send("/topic/admin", message);
+        if (deliveryDTO.getUser() != null) {
+            sendToUser(deliveryDTO.getUser().getUsername(), "/queue/deliveries", message);
+        }
+        if (deliveryDTO.getPorter() != null) {
+            sendToUser(deliveryDTO.getPorter().getName(), "/queue/deliveries", message);
+        }
+        // Nearby porters need to see jobs appear, and disappear once claimed or cancelled
+        DeliveryStatus status = deliveryDTO.getStatus();
+        if (status == DeliveryStatus.PENDING || status == DeliveryStatus.ACCEPTED || status == DeliveryStatus.CANCELLED) {
+            sendToPorterShard(delivery.getPickupLocation(), message);
+        }
     }
-    
+
+    /**
+     * Coalesced notification for a batch of new deliveries: one summary to the customer and
+     * admins, and one list of deliveries per porter shard instead of a message per delivery.
+     */
+    public void sendBulkDeliveryUpdate(User owner, List<Delivery> deliveries) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("type", "BULK_CREATED");
+        summary.put("count", deliveries.size());
+        Message<byte[]> summaryMessage = toMessage(summary);
+        if (summaryMessage != null) {
+            sendToUser(owner.getUsername(), "/queue/deliveries", summaryMessage);
+            messagingTemplate.send("/topic/admin", summaryMessage);
+        }
+
+        Map<String, List<DeliveryDTO>> byShard = new HashMap<>();
+        for (Delivery delivery : deliveries) {
+            Location pickup = delivery.getPickupLocation();
+            if (pickup == null || pickup.getLatitude() == null || pickup.getLongitude() == null) {
+                continue;
+            }
+            byShard.computeIfAbsent(porterShardTopic(pickup.getLatitude(), pickup.getLongitude()), k -> new ArrayList<>())
+                    .add(DeliveryDTO.fromEntity(delivery));
+        }
+        byShard.forEach((topic, shardDeliveries) -> {
+            Message<byte[]> message = toMessage(shardDeliveries);
+            if (message != null) {
+                messagingTemplate.send(topic, message);
+            }
+        });
+    }
+
+    public void sendLocationUpdate(LocationDelta delta) {
+        Message<byte[]> message = toMessage(delta);
+        if (message != null) {
+            messagingTemplate.send("/topic/delivery/" + delta.getDeliveryId() + "/location", message);
+        }
+    }
+
     public void sendUserUpdate(User user) {
-        UserDTO userDTO = new UserDTO(user);
-        messagingTemplate.convertAndSend("/topic/users", userDTO);
-        messagingTemplate.convertAndSend("/topic/admin", userDTO);
+        Message<byte[]> message = toMessage(new UserDTO(user));
+        if (message == null) {
+            return;
+        }
+        sendToUser(user.getUsername(), "/queue/account", message);
+        messagingTemplate.send("/topic/admin", message);
     }
-    
+
     public void sendPorterUpdate(Porter porter) {
         PorterDTO porterDTO = new PorterDTO(
             porter.getId(),
@@ -43,16 +136,61 @@ public class WebSocketService {
             porter.getCreatedAt(),
             porter.getUpdatedAt()
         );
-        messagingTemplate.convertAndSend("/topic/porters", porterDTO);
-        messagingTemplate.convertAndSend("/topic/admin", porterDTO);
+        Message<byte[]> message = toMessage(porterDTO);
+        if (message == null) {
+            return;
+        }
+        sendToUser(porter.getName(), "/queue/account", message);
+        messagingTemplate.send("/topic/admin", message);
     }
-    
+
+    public void sendDispatchOffer(String porterName, Object offer) {
+        Message<byte[]> message = toMessage(offer);
+        if (message != null) {
+            sendToUser(porterName, "/queue/offers", message);
+        }
+    }
+
     public void sendAdminUpdate(Object data) {
         messagingTemplate.convertAndSend("/topic/admin", data);
     }
 
     public void sendNewDeliveryToPorters(Delivery delivery) {
-        DeliveryDTO deliveryDTO = DeliveryDTO.fromEntity(delivery);
-        messagingTemplate.convertAndSend("/topic/porters", deliveryDTO);
+        Message<byte[]> message = toMessage(DeliveryDTO.fromEntity(delivery));
+        if (message != null) {
+            sendToPorterShard(delivery.getPickupLocation(), message);
+        }
+    }
+
+    public String porterShardTopic(double latitude, double longitude) {
+        long row = (long) Math.floor((latitude + 90.0) / porterShardSizeDegrees);
+        long col = (long) Math.floor((longitude + 180.0) / porterShardSizeDegrees);
+        return "/topic/porters/cell/" + row + "_" + col;
+    }
+
+    private void sendToPorterShard(Location pickup, Message<byte[]> message) {
+        if (pickup == null || pickup.getLatitude() == null || pickup.getLongitude() == null) {
+            return;
+        }
+        messagingTemplate.send(porterShardTopic(pickup.getLatitude(), pickup.getLongitude()), message);
+    }
+
+    private void sendToUser(String username, String destination, Message<byte[]> message) {
+        if (username == null) {
+            return;
+        }
+        String user = username.replace("/", "%2F");
+        messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + user + destination, message);
+    }
+
+    private Message<byte[]> toMessage(Object payload) {
+        try {
+            return MessageBuilder.withPayload(objectMapper.writeValueAsBytes(payload))
+                    .setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            logger.error("Failed to serialize WebSocket payload {}: {}", payload.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -1,32 +1,45 @@
 package com.porter.service.impl;
 
 import java.time.LocalDate;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.porter.DTO.AdminStatisticsDTO;
+import com.porter.Email.EmailService;
 import com.porter.model.Delivery;
 import com.porter.model.PaymentStatus;
 import com.porter.model.User;
 import com.porter.model.enums.DeliveryStatus;
 import com.porter.repository.DeliveryRepository;
-import com.porter.repository.PaymentRepository;
 import com.porter.repository.PorterRepository;
 import com.porter.repository.UserRepository;
+import com.porter.service.DeliveryClaimService;
+import com.porter.service.DeliveryGeoIndex;
+import com.porter.service.LatestPositionStore;
 import com.porter.service.DeliveryService;
+import com.porter.service.PorterStatsService;
+import com.porter.service.PricingService;
+import com.porter.service.TripStopSync;
 import com.porter.service.WebSocketService;
 
+import jakarta.annotation.PostConstruct;
+
 @Service
 public class DeliveryServiceImpl implements DeliveryService {
     private static final Logger logger = LoggerFactory.getLogger(DeliveryServiceImpl.class);
@@ -37,15 +50,50 @@ public class DeliveryServiceImpl implements DeliveryService {
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired
-    private PaymentRepository paymentRepository;
-
     @Autowired
     private PorterRepository porterRepository;
 
     @Autowired
     private WebSocketService webSocketService;
 
+    @Autowired
+    private DeliveryGeoIndex deliveryGeoIndex;
+
+    @Autowired
+    private LatestPositionStore latestPositionStore;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private DeliveryClaimService deliveryClaimService;
+
+    @Autowired
+    private PorterStatsService porterStatsService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private TripStopSync tripStopSync;
+
+    @Value("${delivery.stats.cache-ttl-seconds:30}")
+    private long statsCacheTtlSeconds;
+
+    @Value("${delivery.stats.cache-max-size:10000}")
+    private long statsCacheMaxSize;
+
+    // Per-user dashboard stats, evicted when the user's deliveries change here
+    private Cache<String, Map<String, Object>> deliveryStatsCache;
+
+    @PostConstruct
+    void initStatsCache() {
+        deliveryStatsCache = Caffeine.newBuilder()
+                .maximumSize(statsCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(statsCacheTtlSeconds))
+                .build();
+    }
+
     @Override
     @Transactional
     public Delivery createDelivery(Delivery delivery, String username) {
@@ -56,17 +104,14 @@ public class DeliveryServiceImpl implements DeliveryService {
         delivery.setStatus(DeliveryStatus.PENDING); 
         delivery.setPaymentStatus(PaymentStatus.PENDING);
         
-        // Set deliveryFee from amount if amount is provided
-        if (delivery.getAmount() != null && delivery.getDeliveryFee() == null) {
-            delivery.setDeliveryFee(delivery.getAmount());
-        }
-        
-        // If amount is not provided but deliveryFee is, set amount from deliveryFee
-        if (delivery.getAmount() == null && delivery.getDeliveryFee() != null) {
-            delivery.setAmount(delivery.getDeliveryFee());
-        }
+        // Price on the server; client-sent distance only picks among routed alternatives
+        pricingService.applyTo(delivery);
         
         Delivery savedDelivery = deliveryRepository.save(delivery);
+        deliveryGeoIndex.sync(savedDelivery);
+        latestPositionStore.sync(savedDelivery);
+        evictDeliveryStats(savedDelivery);
+        emailService.sendDeliveryBookedEmail(savedDelivery);
         webSocketService.sendDeliveryUpdate(savedDelivery);
         return savedDelivery;
     }
@@ -117,6 +162,9 @@ public class DeliveryServiceImpl implements DeliveryService {
             
             logger.info("Cancelling delivery with ID: {}", id);
             Delivery savedDelivery = deliveryRepository.save(delivery);
+            deliveryGeoIndex.remove(savedDelivery.getId());
+            latestPositionStore.sync(savedDelivery);
+            evictDeliveryStats(savedDelivery);
             webSocketService.sendDeliveryUpdate(savedDelivery);
             return savedDelivery;
         } catch (IllegalStateException e) {
@@ -140,76 +188,92 @@ public class DeliveryServiceImpl implements DeliveryService {
     @Override
     @Transactional(readOnly = true)
     public Map<String, Object> getDeliveryStats(String username) {
+        // Computed outside the cache: a JDBC call inside Caffeine's compute would pin a virtual thread
+        Map<String, Object> stats = deliveryStatsCache.getIfPresent(username);
+        if (stats == null) {
+            stats = computeDeliveryStats(username);
+            deliveryStatsCache.put(username, stats);
+        }
+        return stats;
+    }
+
+    private Map<String, Object> computeDeliveryStats(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new AccessDeniedException("User not found"));
-        
-        List<Delivery> userDeliveries = deliveryRepository.findByUserOrderByScheduledTimeDesc(user);
-        
+
+        LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusDays(6);
+        List<Object[]> rows = deliveryRepository.countByStatusPackageTypeAndDay(user.getId(), firstDay.atStartOfDay());
+
+        long total = 0;
+        Map<DeliveryStatus, Long> byStatus = new EnumMap<>(DeliveryStatus.class);
+        Map<String, Long> packageTypeDistribution = new HashMap<>();
+        // Per day of the last 7: completed, pending, cancelled
+        long[][] byDay = new long[7][3];
+
+        for (Object[] row : rows) {
+            DeliveryStatus status = DeliveryStatus.valueOf((String) row[0]);
+            String packageType = String.valueOf(row[1]);
+            LocalDate day = toLocalDate(row[2]);
+            long count = ((Number) row[3]).longValue();
+
+            total += count;
+            byStatus.merge(status, count, Long::sum);
+            packageTypeDistribution.merge(packageType, count, Long::sum);
+
+            if (day != null && !day.isAfter(today)) {
+                byDay[(int) ChronoUnit.DAYS.between(firstDay, day)][dayBucket(status)] += count;
+            }
+        }
+
         Map<String, Object> stats = new HashMap<>();
-        
+
         // Total counts
-        stats.put("totalDeliveries", userDeliveries.size());
-        stats.put("completedDeliveries", countByStatus(userDeliveries, DeliveryStatus.DELIVERED));
-        stats.put("pendingDeliveries", countByStatus(userDeliveries, DeliveryStatus.PENDING));
-        stats.put("cancelledDeliveries", countByStatus(userDeliveries, DeliveryStatus.CANCELLED));
-
-        // Package type distribution
-        Map<String, Long> packageTypeDistribution = userDeliveries.stream()
-                .collect(Collectors.groupingBy(
-                        delivery -> delivery.getPackageType().toString(),
-                        Collectors.counting()
-                ));
+        stats.put("totalDeliveries", total);
+        stats.put("completedDeliveries", byStatus.getOrDefault(DeliveryStatus.DELIVERED, 0L));
+        stats.put("pendingDeliveries", byStatus.getOrDefault(DeliveryStatus.PENDING, 0L));
+        stats.put("cancelledDeliveries", byStatus.getOrDefault(DeliveryStatus.CANCELLED, 0L));
         stats.put("packageTypeDistribution", packageTypeDistribution);
 
         // Deliveries by date (last 7 days)
         List<Map<String, Object>> deliveriesByDate = new ArrayList<>();
-        LocalDate today = LocalDate.now();
-        
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            final LocalDate finalDate = date;
-            
-            long completed = userDeliveries.stream()
-                    .filter(d -> isSameDay(d.getScheduledTime(), finalDate) && 
-                            d.getStatus() == DeliveryStatus.DELIVERED)
-                    .count();
-            
-            long pending = userDeliveries.stream()
-                    .filter(d -> isSameDay(d.getScheduledTime(), finalDate) && 
-                            (d.getStatus() == DeliveryStatus.PENDING ||
-                             d.getStatus() == DeliveryStatus.ACCEPTED ||
-                             d.getStatus() == DeliveryStatus.PICKED_UP ||
-                             d.getStatus() == DeliveryStatus.IN_TRANSIT))
-                    .count();
-            
-            long cancelled = userDeliveries.stream()
-                    .filter(d -> isSameDay(d.getScheduledTime(), finalDate) && 
-                            d.getStatus() == DeliveryStatus.CANCELLED)
-                    .count();
-
+        for (int i = 0; i < 7; i++) {
             Map<String, Object> dayStats = new HashMap<>();
-            dayStats.put("date", date);
-            dayStats.put("completed", completed);
-            dayStats.put("pending", pending);
-            dayStats.put("cancelled", cancelled);
-            
+            dayStats.put("date", firstDay.plusDays(i));
+            dayStats.put("completed", byDay[i][0]);
+            dayStats.put("pending", byDay[i][1]);
+            dayStats.put("cancelled", byDay[i][2]);
             deliveriesByDate.add(dayStats);
         }
-        
         stats.put("deliveriesByDate", deliveriesByDate);
-        
+
         return stats;
     }
 
-    private long countByStatus(List<Delivery> deliveries, DeliveryStatus status) {
-        return deliveries.stream()
-                .filter(d -> d.getStatus() == status)
-                .count();
+    private static int dayBucket(DeliveryStatus status) {
+        return switch (status) {
+            case DELIVERED -> 0;
+            case PENDING, ACCEPTED, PICKED_UP, IN_TRANSIT -> 1;
+            case CANCELLED -> 2;
+        };
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    private void evictDeliveryStats(Delivery delivery) {
+        if (delivery.getUser() != null) {
+            evictDeliveryStats(delivery.getUser().getUsername());
+        }
     }
 
-    private boolean isSameDay(LocalDateTime dateTime, LocalDate localDate) {
-        if (dateTime == null) return false;
-        return dateTime.toLocalDate().equals(localDate);
+    @Override
+    public void evictDeliveryStats(String username) {
+        deliveryStatsCache.invalidate(username);
     }
 
     @Override
@@ -222,6 +286,9 @@ public class DeliveryServiceImpl implements DeliveryService {
         }
         
         deliveryRepository.delete(delivery);
+        deliveryGeoIndex.remove(id);
+        latestPositionStore.evict(id);
+        evictDeliveryStats(delivery);
     }
 
     @Override
@@ -230,27 +297,74 @@ public class DeliveryServiceImpl implements DeliveryService {
     }
 
     @Override
+    @Transactional
     public Delivery updateDelivery(Delivery delivery) {
+        Delivery stored = delivery.getId() != null ? deliveryRepository.findById(delivery.getId()).orElse(null) : null;
+        PorterStatsService.Snapshot before = porterStatsService.snapshot(stored);
+        // An edit keeps the original delivery time, which the stats are keyed on
+        if (stored != null && stored.getDeliveredAt() != null) {
+            delivery.setDeliveredAt(stored.getDeliveredAt());
+        }
         Delivery savedDelivery = deliveryRepository.save(delivery);
+        porterStatsService.recordTransition(before, savedDelivery);
+        deliveryGeoIndex.sync(savedDelivery);
+        latestPositionStore.sync(savedDelivery);
+        tripStopSync.sync(savedDelivery);
+        evictDeliveryStats(savedDelivery);
         webSocketService.sendDeliveryUpdate(savedDelivery);
         return savedDelivery;
     }
 
     @Override
+    @Transactional
+    public Delivery transitionStatus(Long id, DeliveryStatus newStatus) {
+        Delivery delivery = deliveryRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Delivery not found"));
+        PorterStatsService.Snapshot before = porterStatsService.snapshot(delivery);
+
+        delivery.setStatus(newStatus);
+        delivery.setUpdatedAt(LocalDateTime.now());
+
+        Delivery savedDelivery = deliveryRepository.save(delivery);
+        porterStatsService.recordTransition(before, savedDelivery);
+        deliveryGeoIndex.sync(savedDelivery);
+        latestPositionStore.sync(savedDelivery);
+        tripStopSync.sync(savedDelivery);
+        evictDeliveryStats(savedDelivery);
+        // Queued in this transaction, so a rolled back transition never mails the customer
+        emailService.sendDeliveryStatusEmail(savedDelivery, newStatus.name());
+        if (newStatus == DeliveryStatus.DELIVERED && savedDelivery.getPaymentStatus() != PaymentStatus.COMPLETED) {
+            emailService.sendUnpaidBillEmail(savedDelivery,
+                    savedDelivery.getAmount() != null ? savedDelivery.getAmount().toString() : "");
+        }
+        webSocketService.sendDeliveryUpdate(savedDelivery);
+        return savedDelivery;
+    }
+
+    @Override
+    @Transactional
     public void deleteDeliveryByAdmin(Long id) {
+        deliveryRepository.findById(id).ifPresent(delivery -> {
+            evictDeliveryStats(delivery);
+            porterStatsService.recordTransition(porterStatsService.snapshot(delivery), null);
+        });
         deliveryRepository.deleteById(id);
+        deliveryGeoIndex.remove(id);
+        latestPositionStore.evict(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AdminStatisticsDTO getAdminStatistics() {
-        long totalUsers = userRepository.count();
-        long totalPorters = porterRepository.count();
-        long totalDeliveries = deliveryRepository.count();
-        double totalRevenue = paymentRepository.findAll().stream().mapToDouble(p -> p.getAmount().doubleValue()).sum();
-        long activeDeliveries = deliveryRepository.countByStatus(DeliveryStatus.ACCEPTED);
-        long completedDeliveries = deliveryRepository.countByStatus(DeliveryStatus.DELIVERED);
-        long cancelledDeliveries = deliveryRepository.countByStatus(DeliveryStatus.CANCELLED);
-        return new AdminStatisticsDTO(totalUsers, totalPorters, totalDeliveries, totalRevenue, activeDeliveries, completedDeliveries, cancelledDeliveries);
+        Object[] row = deliveryRepository.aggregateAdminStatistics().get(0);
+        return new AdminStatisticsDTO(
+                ((Number) row[0]).longValue(),
+                ((Number) row[1]).longValue(),
+                ((Number) row[2]).longValue(),
+                ((Number) row[3]).doubleValue(),
+                ((Number) row[4]).longValue(),
+                ((Number) row[5]).longValue(),
+                ((Number) row[6]).longValue());
     }
 
     @Override
@@ -268,9 +382,12 @@ public class DeliveryServiceImpl implements DeliveryService {
     public void assignPorterAndAccept(Delivery delivery, String porterUsername) {
         var porter = porterRepository.findByName(porterUsername)
             .orElseThrow(() -> new AccessDeniedException("Porter not found"));
-        delivery.setPorter(porter);
-        delivery.setStatus(DeliveryStatus.ACCEPTED);
-        delivery.setUpdatedAt(LocalDateTime.now());
-        deliveryRepository.save(delivery);
+        Delivery claimed = deliveryClaimService.claim(delivery.getId(), porter);
+        delivery.setPorter(claimed.getPorter());
+        delivery.setStatus(claimed.getStatus());
+        delivery.setUpdatedAt(claimed.getUpdatedAt());
+        evictDeliveryStats(claimed);
+        emailService.sendDeliveryStatusEmail(claimed, claimed.getStatus().name());
+        webSocketService.sendDeliveryUpdate(claimed);
     }
 } 
\ No newline at end of file
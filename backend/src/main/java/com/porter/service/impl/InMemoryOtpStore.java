@@ -0,0 +1,182 @@
+package com.porter.service.impl;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.porter.service.OtpStore;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Single-node {@link OtpStore} on two bounded Caffeine caches. Every entry expires at
+ * its own deadline through Caffeine's timer wheel, and the system scheduler removes it
+ * then even when no further requests arrive, so expired codes never pile up. Both
+ * caches are capped; under a spike beyond the cap the least recently used codes are
+ * evicted and those users ask for a new one, while the heap stays flat.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    // Keeps the first 128 bits of the hash inline, which saves a byte[] per user
+    private static final class Code {
+        final long hashHigh;
+        final long hashLow;
+        final long expiresAtMillis;
+        // Only changed inside compute, which holds the entry's lock
+        int attempts;
+
+        Code(byte[] hash, long expiresAtMillis) {
+            ByteBuffer bytes = ByteBuffer.wrap(hash);
+            this.hashHigh = bytes.getLong(0);
+            this.hashLow = bytes.getLong(8);
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        boolean matches(byte[] hash) {
+            ByteBuffer bytes = ByteBuffer.wrap(hash);
+            return hashHigh == bytes.getLong(0) & hashLow == bytes.getLong(8);
+        }
+    }
+
+    private static final class Window {
+        final long startMillis;
+        final long endMillis;
+        int hits;
+
+        Window(long startMillis, long endMillis) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+    }
+
+    @Value("${otp.memory.max-codes:1000000}")
+    private long maxCodes;
+
+    @Value("${otp.memory.max-rate-buckets:1000000}")
+    private long maxRateBuckets;
+
+    private Cache<String, Code> codes;
+    private Cache<String, Window> windows;
+
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        codes = Caffeine.newBuilder()
+                .maximumSize(maxCodes)
+                .expireAfter(untilDeadline((Code code) -> code.expiresAtMillis))
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String username, Code code, RemovalCause cause) -> {
+                    if (cause == RemovalCause.EXPIRED) {
+                        expired.incrementAndGet();
+                    } else if (cause == RemovalCause.SIZE) {
+                        evicted.incrementAndGet();
+                    }
+                })
+                .build();
+        windows = Caffeine.newBuilder()
+                .maximumSize(maxRateBuckets)
+                .expireAfter(untilDeadline((Window window) -> window.endMillis))
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+    }
+
+    private interface Deadline<V> {
+        long atMillis(V value);
+    }
+
+    // Expires each entry at its own deadline, also after it is updated in place
+    private static <V> Expiry<String, V> untilDeadline(Deadline<V> deadline) {
+        return new Expiry<String, V>() {
+            @Override
+            public long expireAfterCreate(String key, V value, long currentTime) {
+                return remaining(value);
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, V value, long currentTime, long currentDuration) {
+                return remaining(value);
+            }
+
+            @Override
+            public long expireAfterRead(String key, V value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+
+            private long remaining(V value) {
+                return TimeUnit.MILLISECONDS.toNanos(Math.max(0, deadline.atMillis(value) - System.currentTimeMillis()));
+            }
+        };
+    }
+
+    @Override
+    public void put(String username, byte[] codeHash, Instant expiresAt) {
+        codes.put(username, new Code(codeHash, expiresAt.toEpochMilli()));
+    }
+
+    @Override
+    public VerifyOutcome verify(String username, byte[] codeHash, int maxAttempts, Instant now) {
+        VerifyOutcome[] outcome = {VerifyOutcome.MISSING};
+        long nowMillis = now.toEpochMilli();
+        codes.asMap().computeIfPresent(username, (key, code) -> {
+            if (code.expiresAtMillis <= nowMillis) {
+                expired.incrementAndGet();
+                return null;
+            }
+            if (code.attempts >= maxAttempts) {
+                outcome[0] = VerifyOutcome.LOCKED;
+                return code;
+            }
+            if (code.matches(codeHash)) {
+                outcome[0] = VerifyOutcome.VERIFIED;
+                return null;
+            }
+            code.attempts++;
+            outcome[0] = VerifyOutcome.WRONG;
+            return code;
+        });
+        return outcome[0];
+    }
+
+    @Override
+    public boolean tryAcquire(String bucket, int limit, Duration window, Instant now) {
+        long nowMillis = now.toEpochMilli();
+        long windowMillis = window.toMillis();
+        long start = nowMillis - Math.floorMod(nowMillis, windowMillis);
+        int[] hits = {0};
+        windows.asMap().compute(bucket, (key, held) -> {
+            Window current = held != null && held.startMillis == start ? held : new Window(start, start + windowMillis);
+            hits[0] = ++current.hits;
+            return current;
+        });
+        return hits[0] <= limit;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("store", "memory");
+        metrics.put("codes", codes.estimatedSize());
+        metrics.put("maxCodes", maxCodes);
+        metrics.put("rateBuckets", windows.estimatedSize());
+        metrics.put("expired", expired.get());
+        metrics.put("evicted", evicted.get());
+        return metrics;
+    }
+}
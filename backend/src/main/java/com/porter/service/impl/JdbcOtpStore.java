@@ -0,0 +1,161 @@
+package com.porter.service.impl;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.porter.service.OtpStore;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * {@link OtpStore} on the shared database, for running several replicas. Every check
+ * is a conditional UPDATE or DELETE, so concurrent requests on different nodes cannot
+ * both consume a code or slip past an attempt or rate limit. Rows are created by a
+ * plain INSERT under a savepoint, and a node that loses the race to create one retries
+ * its UPDATE, so the SQL stays portable instead of relying on ON CONFLICT. Expired codes
+ * and finished rate windows are swept on a schedule so the tables only hold live state.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "jdbc")
+public class JdbcOtpStore implements OtpStore {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcOtpStore.class);
+
+    private static final String REPLACE_CODE_SQL = "UPDATE otp_code SET code_hash = ?, expires_at = ?, attempts = 0 "
+            + "WHERE username = ?";
+
+    private static final String INSERT_CODE_SQL = "INSERT INTO otp_code (username, code_hash, expires_at, attempts) "
+            + "VALUES (?, ?, ?, 0)";
+
+    private static final String CONSUME_SQL = "DELETE FROM otp_code WHERE username = ? AND code_hash = ? "
+            + "AND expires_at > ? AND attempts < ?";
+
+    private static final String COUNT_ATTEMPT_SQL = "UPDATE otp_code SET attempts = attempts + 1 "
+            + "WHERE username = ? AND expires_at > ? AND attempts < ?";
+
+    private static final String LIVE_SQL = "SELECT COUNT(*) FROM otp_code WHERE username = ? AND expires_at > ?";
+
+    private static final String HIT_SQL = "UPDATE otp_rate_limit SET hits = hits + 1 "
+            + "WHERE bucket = ? AND window_start = ? AND hits < ?";
+
+    private static final String NEW_WINDOW_SQL = "UPDATE otp_rate_limit SET hits = 1, window_start = ?, window_end = ? "
+            + "WHERE bucket = ? AND window_start < ?";
+
+    private static final String INSERT_WINDOW_SQL = "INSERT INTO otp_rate_limit (bucket, window_start, window_end, hits) "
+            + "VALUES (?, ?, ?, 1)";
+
+    private static final String SWEEP_CODES_SQL = "DELETE FROM otp_code WHERE expires_at <= ?";
+
+    private static final String SWEEP_WINDOWS_SQL = "DELETE FROM otp_rate_limit WHERE window_end <= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // A failed INSERT must not abort a caller's transaction, so it runs under a savepoint
+    private TransactionTemplate savepoint;
+
+    private final AtomicLong expired = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        savepoint = new TransactionTemplate(transactionManager);
+        savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    @Override
+    public void put(String username, byte[] codeHash, Instant expiresAt) {
+        Timestamp expires = Timestamp.from(expiresAt);
+        if (jdbcTemplate.update(REPLACE_CODE_SQL, codeHash, expires, username) == 0
+                && !insert(INSERT_CODE_SQL, username, codeHash, expires)) {
+            // Another node created the row in between
+            jdbcTemplate.update(REPLACE_CODE_SQL, codeHash, expires, username);
+        }
+    }
+
+    @Override
+    public VerifyOutcome verify(String username, byte[] codeHash, int maxAttempts, Instant now) {
+        Timestamp at = Timestamp.from(now);
+        if (jdbcTemplate.update(CONSUME_SQL, username, codeHash, at, maxAttempts) == 1) {
+            return VerifyOutcome.VERIFIED;
+        }
+        if (jdbcTemplate.update(COUNT_ATTEMPT_SQL, username, at, maxAttempts) == 1) {
+            return VerifyOutcome.WRONG;
+        }
+        // A live code that took no attempt has none left
+        Long live = jdbcTemplate.queryForObject(LIVE_SQL, Long.class, username, at);
+        return live != null && live > 0 ? VerifyOutcome.LOCKED : VerifyOutcome.MISSING;
+    }
+
+    @Override
+    public boolean tryAcquire(String bucket, int limit, Duration window, Instant now) {
+        if (limit < 1) {
+            return false;
+        }
+        long windowMillis = window.toMillis();
+        long start = now.toEpochMilli() - Math.floorMod(now.toEpochMilli(), windowMillis);
+        Timestamp windowStart = new Timestamp(start);
+        Timestamp windowEnd = new Timestamp(start + windowMillis);
+        if (jdbcTemplate.update(HIT_SQL, bucket, windowStart, limit) == 1) {
+            return true;
+        }
+        // Either the bucket is full, its window has ended, or it does not exist yet
+        if (jdbcTemplate.update(NEW_WINDOW_SQL, windowStart, windowEnd, bucket, windowStart) == 1) {
+            return true;
+        }
+        if (insert(INSERT_WINDOW_SQL, bucket, windowStart, windowEnd)) {
+            return true;
+        }
+        // Another node opened the window in between
+        return jdbcTemplate.update(HIT_SQL, bucket, windowStart, limit) == 1;
+    }
+
+    // False when the row already exists
+    private boolean insert(String sql, Object... args) {
+        try {
+            savepoint.executeWithoutResult(status -> jdbcTemplate.update(sql, args));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${otp.jdbc.sweep-ms:60000}")
+    public void sweep() {
+        Timestamp now = Timestamp.from(Instant.now());
+        int codes = jdbcTemplate.update(SWEEP_CODES_SQL, now);
+        int windows = jdbcTemplate.update(SWEEP_WINDOWS_SQL, now);
+        expired.addAndGet(codes);
+        if (codes + windows > 0) {
+            logger.debug("Swept {} expired OTP codes and {} rate windows", codes, windows);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("store", "jdbc");
+        metrics.put("codes", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM otp_code", Long.class));
+        metrics.put("rateBuckets", jdbcTemplate.queryForObject("SELECT COUNT(*) FROM otp_rate_limit", Long.class));
+        // Swept by this node only
+        metrics.put("expired", expired.get());
+        return metrics;
+    }
+}
@@ -1,9 +1,9 @@
 package com.porter.service.impl;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,8 +17,14 @@ import com.porter.model.Porter;
 import com.porter.model.enums.DeliveryStatus;
 import com.porter.repository.DeliveryRepository;
 import com.porter.repository.PorterRepository;
+import com.porter.service.DeliveryClaimService;
+import com.porter.service.DeliveryGeoIndex;
+import com.porter.service.LatestPositionStore;
 import com.porter.service.PorterService;
+import com.porter.service.PorterStatsService;
+import com.porter.service.TripStopSync;
 import com.porter.service.WebSocketService;
+import com.porter.util.GridIndex;
 
 @Service
 public class PorterServiceImpl implements PorterService {
@@ -32,6 +38,21 @@ public class PorterServiceImpl implements PorterService {
     @Autowired
     private WebSocketService webSocketService;
 
+    @Autowired
+    private DeliveryGeoIndex deliveryGeoIndex;
+
+    @Autowired
+    private LatestPositionStore latestPositionStore;
+
+    @Autowired
+    private DeliveryClaimService deliveryClaimService;
+
+    @Autowired
+    private PorterStatsService porterStatsService;
+
+    @Autowired
+    private TripStopSync tripStopSync;
+
     @Override
     @Transactional(readOnly = true)
     public List<DeliveryDTO> getAvailableDeliveries() {
@@ -41,24 +62,31 @@ public class PorterServiceImpl implements PorterService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<DeliveryDTO> getNearbyAvailableDeliveries(double latitude, double longitude, double radiusKm, int limit) {
+        List<GridIndex.Hit> hits = deliveryGeoIndex.nearest(latitude, longitude, radiusKm, limit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Delivery> byId = deliveryRepository.findAllById(hits.stream().map(GridIndex.Hit::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Delivery::getId, Function.identity()));
+        // Keep the nearest-first order from the index and skip anything claimed meanwhile
+        return hits.stream()
+                .map(hit -> byId.get(hit.getId()))
+                .filter(d -> d != null && d.getStatus() == DeliveryStatus.PENDING)
+                .map(DeliveryDTO::fromEntity)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public DeliveryDTO acceptDelivery(Long deliveryId, String porterUsername) {
         Porter porter = porterRepository.findByName(porterUsername)
                 .orElseThrow(() -> new AccessDeniedException("Porter not found"));
 
-        Delivery delivery = deliveryRepository.findById(deliveryId)
-                .orElseThrow(() -> new RuntimeException("Delivery not found"));
-
-        if (delivery.getStatus() != DeliveryStatus.PENDING) {
-            throw new IllegalStateException("Delivery is not available for acceptance");
-        }
-
-        delivery.setPorter(porter);
-        delivery.setStatus(DeliveryStatus.ACCEPTED);
-        delivery.setUpdatedAt(LocalDateTime.now());
-
-        Delivery savedDelivery = deliveryRepository.save(delivery);
+        Delivery savedDelivery = deliveryClaimService.claim(deliveryId, porter);
         webSocketService.sendDeliveryUpdate(savedDelivery);
         return DeliveryDTO.fromEntity(savedDelivery);
     }
@@ -78,10 +106,14 @@ public class PorterServiceImpl implements PorterService {
 
         validateStatusTransition(delivery.getStatus(), newStatus);
 
+        PorterStatsService.Snapshot before = porterStatsService.snapshot(delivery);
         delivery.setStatus(newStatus);
         delivery.setUpdatedAt(LocalDateTime.now());
 
         Delivery savedDelivery = deliveryRepository.save(delivery);
+        porterStatsService.recordTransition(before, savedDelivery);
+        latestPositionStore.sync(savedDelivery);
+        tripStopSync.sync(savedDelivery);
         webSocketService.sendDeliveryUpdate(savedDelivery);
         return DeliveryDTO.fromEntity(savedDelivery);
     }
@@ -122,80 +154,11 @@ public class PorterServiceImpl implements PorterService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public Map<String, Object> getPorterStats(String porterUsername) {
         Porter porter = porterRepository.findByName(porterUsername)
                 .orElseThrow(() -> new AccessDeniedException("Porter not found"));
 
-        List<Delivery> allDeliveries = deliveryRepository.findByPorterAndStatusIn(porter, 
-            List.of(DeliveryStatus.ACCEPTED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT, 
-                   DeliveryStatus.DELIVERED, DeliveryStatus.CANCELLED));
-        List<Delivery> delivered = allDeliveries.stream()
-                .filter(d -> d.getStatus() == DeliveryStatus.DELIVERED)
-                .collect(Collectors.toList());
-
-        // Calculate statistics
-        long completedDeliveries = delivered.size();
-
-        long pendingDeliveries = allDeliveries.stream()
-                                .filter(x -> x.getStatus() == DeliveryStatus.ACCEPTED || x.getStatus() == DeliveryStatus.PICKED_UP || x.getStatus() == DeliveryStatus.IN_TRANSIT)
-                                .count();
-
-        double totalEarnings = delivered.stream()
-                .mapToDouble(d -> d.getDeliveryFee().doubleValue())
-                .sum();
-
-        // Calculate on-time delivery rate
-        long onTimeDeliveries = delivered.stream()
-                .filter(d -> {
-                    LocalDateTime scheduledTime = d.getScheduledTime();
-                    if (scheduledTime == null) {
-                        scheduledTime = d.getCreatedAt().plusHours(2);
-                    }
-                    return !d.getUpdatedAt().isAfter(scheduledTime);
-                })
-                .count();
-        double onTimeRate = completedDeliveries > 0 
-                ? (double) onTimeDeliveries / completedDeliveries 
-                : 0.0;
-
-        // Earnings by day
-        Map<String, Double> earningsByDayMap = new HashMap<>();
-        for (Delivery d : delivered) {
-            String date = d.getUpdatedAt().toLocalDate().toString();
-            earningsByDayMap.put(date, earningsByDayMap.getOrDefault(date, 0.0) + d.getDeliveryFee().doubleValue());
-        }
-        List<Map<String, Object>> earningsByDay = earningsByDayMap.entrySet().stream()
-                .map(e -> Map.<String, Object>of("date", e.getKey(), "amount", e.getValue()))
-                .sorted((a, b) -> ((String)a.get("date")).compareTo((String)b.get("date")))
-                .collect(Collectors.toList());
-
-        // Deliveries by type
-        Map<String, Long> deliveriesByType = delivered.stream()
-                .collect(Collectors.groupingBy(
-                        d -> d.getPackageType().toString(), Collectors.counting()
-                ));
-
-        // Average rating (placeholder)
-        double averageRating = 5.0;
-
-        Map<String, Long> packageTypeDistribution = delivered.stream()
-                .collect(Collectors.groupingBy(
-                        delivery -> delivery.getPackageType().toString(),
-                        Collectors.counting()
-                ));
-
-        return Map.of(
-            "totalDeliveries", allDeliveries.size(),
-            "completedDeliveries", completedDeliveries,
-            "totalEarnings", totalEarnings,
-            "onTimeRate", onTimeRate,
-            "averageRating", averageRating,
-            "earningsByDay", earningsByDay,
-            "deliveriesByType", deliveriesByType,
-            "pendingDeliveries", pendingDeliveries,
-            "packageTypeDistribution", packageTypeDistribution
-        );
+        return porterStatsService.getStats(porter.getId());
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.porter.service.impl;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,8 +10,11 @@ import com.porter.model.Delivery;
 import com.porter.model.Tracking;
 import com.porter.repository.DeliveryRepository;
 import com.porter.repository.TrackingRepository;
+import com.porter.service.DispatchService;
+import com.porter.service.LatestPositionStore;
+import com.porter.service.LocationStreamService;
+import com.porter.service.TrackingArchiveService;
 import com.porter.service.TrackingService;
-import com.porter.service.WebSocketService;
 
 @Service
 public class TrackingServiceImpl implements TrackingService {
@@ -19,20 +23,45 @@ public class TrackingServiceImpl implements TrackingService {
     @Autowired
     private DeliveryRepository deliveryRepository;
     @Autowired
-    private WebSocketService webSocketService;
+    private LocationStreamService locationStreamService;
+    @Autowired
+    private LatestPositionStore latestPositionStore;
+    @Autowired
+    private DispatchService dispatchService;
+    @Autowired
+    private TrackingArchiveService trackingArchiveService;
 
     @Override
     public List<Tracking> getTrackingByDeliveryId(Long deliveryId) {
         Delivery delivery = deliveryRepository.findById(deliveryId)
                 .orElseThrow(() -> new RuntimeException("Delivery not found"));
-        return trackingRepository.findByDelivery(delivery);
+        List<Tracking> archived = trackingArchiveService.getArchivedTracking(delivery);
+        List<Tracking> live = trackingRepository.findByDelivery(delivery);
+        if (archived.isEmpty()) {
+            return live;
+        }
+        // Archived points come first; rows written after the archive was cut are newer
+        List<Tracking> combined = new ArrayList<>(archived.size() + live.size());
+        combined.addAll(archived);
+        combined.addAll(live);
+        return combined;
     }
 
     @Override
     public void addTracking(Tracking tracking) {
+        Delivery delivery = tracking.getDelivery();
+        // Status rows are saved right away; only the porter's GPS pings go through the ingest buffer
         trackingRepository.save(tracking);
-        if (tracking.getDelivery() != null) {
-            webSocketService.sendDeliveryUpdate(tracking.getDelivery());
+        if (delivery != null && delivery.getId() != null
+                && tracking.getLatitude() != null && tracking.getLongitude() != null) {
+            latestPositionStore.record(delivery.getId(), null, tracking.getLatitude(), tracking.getLongitude(),
+                    tracking.getStatus(), tracking.getTimestamp());
+            locationStreamService.publish(delivery.getId(), tracking.getLatitude(), tracking.getLongitude(),
+                    tracking.getTimestamp());
+        }
+        if (delivery != null && delivery.getPorter() != null
+                && tracking.getLatitude() != null && tracking.getLongitude() != null) {
+            dispatchService.updatePosition(delivery.getPorter().getId(), tracking.getLatitude(), tracking.getLongitude());
         }
     }
 } 
\ No newline at end of file
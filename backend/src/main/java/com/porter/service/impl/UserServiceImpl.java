@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.porter.model.User;
 import com.porter.model.enums.UserRole;
 import com.porter.repository.UserRepository;
+import com.porter.security.CustomUserDetailsService;
 import com.porter.service.UserService;
 import com.porter.service.WebSocketService;
 
@@ -29,6 +30,9 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private WebSocketService webSocketService;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
     @Override
     public User createUser(User user) {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
@@ -43,12 +47,15 @@ public class UserServiceImpl implements UserService {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
         User savedUser = userRepository.save(user);
+        // The username itself may have changed, so drop every cached login
+        userDetailsService.evictAll();
         webSocketService.sendUserUpdate(savedUser);
         return savedUser;
     }
 
     @Override
     public void deleteUser(Long id) {
+        userRepository.findById(id).ifPresent(user -> userDetailsService.evictUser(user.getUsername()));
         userRepository.deleteById(id);
     }
 
@@ -89,6 +96,7 @@ public class UserServiceImpl implements UserService {
             User user = userOpt.get();
             user.setBlocked(true);
             userRepository.save(user);
+            userDetailsService.evictUser(user.getUsername());
             webSocketService.sendUserUpdate(user);
             return true;
         }
@@ -102,6 +110,7 @@ public class UserServiceImpl implements UserService {
             User user = userOpt.get();
             user.setBlocked(false);
             userRepository.save(user);
+            userDetailsService.evictUser(user.getUsername());
             webSocketService.sendUserUpdate(user);
             return true;
         }
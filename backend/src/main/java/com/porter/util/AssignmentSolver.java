@@ -0,0 +1,335 @@
+package com.porter.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Min-cost assignment of jobs to workers (at most one job per worker per run).
+ * The problem is split recursively along its wider geographic axis until each
+ * partition's cost matrix fits {@code maxCellsPerPartition}; partitions are solved
+ * in parallel on a {@link ForkJoinPool} with the Hungarian algorithm. Splitting
+ * separates cities and districts naturally; pairs that straddle a split line are
+ * not considered, which trades a little optimality for bounded memory and time.
+ */
+public final class AssignmentSolver {
+
+    // Cost of a pair that must not be matched; finite so the Hungarian steps stay exact
+    private static final double FORBIDDEN = 1e9;
+
+    public static final class Job {
+        private final long id;
+        private final double latitude;
+        private final double longitude;
+        // Minutes from now until the pickup is due; negative when already overdue
+        private final double minutesUntilDue;
+
+        public Job(long id, double latitude, double longitude, double minutesUntilDue) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.minutesUntilDue = minutesUntilDue;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+
+    public static final class Worker {
+        private final long id;
+        private final double latitude;
+        private final double longitude;
+        private final int load;
+
+        public Worker(long id, double latitude, double longitude, int load) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.load = load;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+
+    public static final class Settings {
+        private final double maxDistanceKm;
+        private final double speedKmh;
+        private final double latePenaltyPerMinute;
+        private final double loadPenalty;
+        private final int maxCellsPerPartition;
+
+        public Settings(double maxDistanceKm, double speedKmh, double latePenaltyPerMinute,
+                double loadPenalty, int maxCellsPerPartition) {
+            this.maxDistanceKm = maxDistanceKm;
+            this.speedKmh = speedKmh;
+            this.latePenaltyPerMinute = latePenaltyPerMinute;
+            this.loadPenalty = loadPenalty;
+            this.maxCellsPerPartition = maxCellsPerPartition;
+        }
+    }
+
+    public static final class Match {
+        private final long jobId;
+        private final long workerId;
+        private final double distanceKm;
+        private final double lateMinutes;
+        private final double cost;
+
+        private Match(long jobId, long workerId, double distanceKm, double lateMinutes, double cost) {
+            this.jobId = jobId;
+            this.workerId = workerId;
+            this.distanceKm = distanceKm;
+            this.lateMinutes = lateMinutes;
+            this.cost = cost;
+        }
+
+        public long getJobId() {
+            return jobId;
+        }
+
+        public long getWorkerId() {
+            return workerId;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+
+        public double getLateMinutes() {
+            return lateMinutes;
+        }
+
+        public double getCost() {
+            return cost;
+        }
+    }
+
+    public static final class Result {
+        private final List<Match> matches;
+        private final int partitions;
+
+        private Result(List<Match> matches, int partitions) {
+            this.matches = matches;
+            this.partitions = partitions;
+        }
+
+        public List<Match> getMatches() {
+            return matches;
+        }
+
+        public int getPartitions() {
+            return partitions;
+        }
+    }
+
+    private AssignmentSolver() {
+    }
+
+    public static Result solve(List<Job> jobs, List<Worker> workers, Settings settings, ForkJoinPool pool) {
+        if (jobs.isEmpty() || workers.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+        PartitionTask root = new PartitionTask(jobs.toArray(new Job[0]), workers.toArray(new Worker[0]), settings);
+        PartitionResult result = pool.invoke(root);
+        return new Result(result.matches, result.partitions);
+    }
+
+    /**
+     * Hungarian algorithm (shortest augmenting paths with potentials) for a
+     * {@code rows x cols} row-major cost matrix with {@code rows <= cols}.
+     * Returns the column assigned to each row. O(rows^2 * cols).
+     */
+    public static int[] hungarian(double[] cost, int rows, int cols) {
+        if (rows > cols) {
+            throw new IllegalArgumentException("Rows must not exceed columns");
+        }
+        double[] u = new double[rows + 1];
+        double[] v = new double[cols + 1];
+        int[] owner = new int[cols + 1];
+        int[] way = new int[cols + 1];
+        double[] minv = new double[cols + 1];
+        boolean[] used = new boolean[cols + 1];
+
+        for (int i = 1; i <= rows; i++) {
+            owner[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.MAX_VALUE);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = owner[j0];
+                int rowOffset = (i0 - 1) * cols;
+                double delta = Double.MAX_VALUE;
+                int j1 = 0;
+                for (int j = 1; j <= cols; j++) {
+                    if (!used[j]) {
+                        double reduced = cost[rowOffset + j - 1] - u[i0] - v[j];
+                        if (reduced < minv[j]) {
+                            minv[j] = reduced;
+                            way[j] = j0;
+                        }
+                        if (minv[j] < delta) {
+                            delta = minv[j];
+                            j1 = j;
+                        }
+                    }
+                }
+                for (int j = 0; j <= cols; j++) {
+                    if (used[j]) {
+                        u[owner[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (owner[j0] != 0);
+            do {
+                int j1 = way[j0];
+                owner[j0] = owner[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] assignment = new int[rows];
+        for (int j = 1; j <= cols; j++) {
+            if (owner[j] != 0) {
+                assignment[owner[j] - 1] = j - 1;
+            }
+        }
+        return assignment;
+    }
+
+    private static final class PartitionResult {
+        final List<Match> matches;
+        final int partitions;
+
+        PartitionResult(List<Match> matches, int partitions) {
+            this.matches = matches;
+            this.partitions = partitions;
+        }
+    }
+
+    private static final class PartitionTask extends RecursiveTask<PartitionResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final Job[] jobs;
+        private final Worker[] workers;
+        private final Settings settings;
+
+        PartitionTask(Job[] jobs, Worker[] workers, Settings settings) {
+            this.jobs = jobs;
+            this.workers = workers;
+            this.settings = settings;
+        }
+
+        @Override
+        protected PartitionResult compute() {
+            if (jobs.length == 0 || workers.length == 0) {
+                return new PartitionResult(List.of(), 0);
+            }
+            if ((long) jobs.length * workers.length <= settings.maxCellsPerPartition
+                    || jobs.length == 1 || workers.length == 1) {
+                return new PartitionResult(solveLeaf(), 1);
+            }
+
+            // Split at the median job along the axis where jobs are spread widest
+            double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+            double minLng = Double.MAX_VALUE, maxLng = -Double.MAX_VALUE;
+            for (Job job : jobs) {
+                minLat = Math.min(minLat, job.latitude);
+                maxLat = Math.max(maxLat, job.latitude);
+                minLng = Math.min(minLng, job.longitude);
+                maxLng = Math.max(maxLng, job.longitude);
+            }
+            double midLat = (minLat + maxLat) / 2;
+            boolean byLatitude = (maxLat - minLat) >= (maxLng - minLng) * Math.cos(Math.toRadians(midLat));
+            double[] keys = new double[jobs.length];
+            for (int i = 0; i < jobs.length; i++) {
+                keys[i] = byLatitude ? jobs[i].latitude : jobs[i].longitude;
+            }
+            Arrays.sort(keys);
+            double median = keys[keys.length / 2];
+            boolean lowIncludesMedian = median == keys[0];
+
+            List<Job> lowJobs = new ArrayList<>();
+            List<Job> highJobs = new ArrayList<>();
+            List<Worker> lowWorkers = new ArrayList<>();
+            List<Worker> highWorkers = new ArrayList<>();
+            if (median == keys[keys.length - 1] && lowIncludesMedian) {
+                // Every job on one line; halve both sides arbitrarily to bound the matrix
+                lowJobs.addAll(Arrays.asList(jobs).subList(0, jobs.length / 2));
+                highJobs.addAll(Arrays.asList(jobs).subList(jobs.length / 2, jobs.length));
+                lowWorkers.addAll(Arrays.asList(workers).subList(0, workers.length / 2));
+                highWorkers.addAll(Arrays.asList(workers).subList(workers.length / 2, workers.length));
+            } else {
+                for (Job job : jobs) {
+                    (isLow(byLatitude ? job.latitude : job.longitude, median, lowIncludesMedian) ? lowJobs : highJobs).add(job);
+                }
+                for (Worker worker : workers) {
+                    (isLow(byLatitude ? worker.latitude : worker.longitude, median, lowIncludesMedian) ? lowWorkers : highWorkers).add(worker);
+                }
+            }
+
+            PartitionTask low = new PartitionTask(lowJobs.toArray(new Job[0]), lowWorkers.toArray(new Worker[0]), settings);
+            PartitionTask high = new PartitionTask(highJobs.toArray(new Job[0]), highWorkers.toArray(new Worker[0]), settings);
+            low.fork();
+            PartitionResult highResult = high.compute();
+            PartitionResult lowResult = low.join();
+            List<Match> matches = new ArrayList<>(lowResult.matches.size() + highResult.matches.size());
+            matches.addAll(lowResult.matches);
+            matches.addAll(highResult.matches);
+            return new PartitionResult(matches, lowResult.partitions + highResult.partitions);
+        }
+
+        private static boolean isLow(double key, double median, boolean inclusive) {
+            return inclusive ? key <= median : key < median;
+        }
+
+        private List<Match> solveLeaf() {
+            // Rows are the smaller side, as the Hungarian step requires
+            boolean workersAsRows = workers.length <= jobs.length;
+            int rows = workersAsRows ? workers.length : jobs.length;
+            int cols = workersAsRows ? jobs.length : workers.length;
+            double[] cost = new double[rows * cols];
+            double[] distance = new double[rows * cols];
+            for (int w = 0; w < workers.length; w++) {
+                Worker worker = workers[w];
+                for (int j = 0; j < jobs.length; j++) {
+                    Job job = jobs[j];
+                    int cell = workersAsRows ? w * cols + j : j * cols + w;
+                    double km = GeoUtils.haversineKm(worker.latitude, worker.longitude, job.latitude, job.longitude);
+                    distance[cell] = km;
+                    cost[cell] = km > settings.maxDistanceKm ? FORBIDDEN : pairCost(worker, job, km);
+                }
+            }
+
+            int[] assignment = hungarian(cost, rows, cols);
+            List<Match> matches = new ArrayList<>();
+            for (int r = 0; r < rows; r++) {
+                int cell = r * cols + assignment[r];
+                if (cost[cell] >= FORBIDDEN) {
+                    continue;
+                }
+                Worker worker = workersAsRows ? workers[r] : workers[assignment[r]];
+                Job job = workersAsRows ? jobs[assignment[r]] : jobs[r];
+                matches.add(new Match(job.id, worker.id, distance[cell], lateMinutes(job, distance[cell]), cost[cell]));
+            }
+            return matches;
+        }
+
+        private double pairCost(Worker worker, Job job, double km) {
+            return km + settings.latePenaltyPerMinute * lateMinutes(job, km) + settings.loadPenalty * worker.load;
+        }
+
+        private double lateMinutes(Job job, double km) {
+            double travelMinutes = km / settings.speedKmh * 60.0;
+            return Math.max(0.0, travelMinutes - job.minutesUntilDue);
+        }
+    }
+}
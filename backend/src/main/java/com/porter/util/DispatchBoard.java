@@ -0,0 +1,436 @@
+package com.porter.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Core of the dispatch engine: a registry of available porters and a queue of open
+ * jobs. Each job is offered to the best-scoring nearby porter for a limited time and
+ * re-offered to the next candidate when the offer is declined or expires. The board
+ * never reads the clock; every call takes the current time, so replaying the same
+ * calls always produces the same offers. Not thread-safe; callers serialize access.
+ */
+public class DispatchBoard {
+
+    public static final class Settings {
+        private final double searchRadiusKm;
+        private final int candidateLimit;
+        private final int maxLoad;
+        private final double loadPenaltyKm;
+        private final long offerTtlMillis;
+        private final int maxAttempts;
+        private final long retryDelayMillis;
+        private final long positionMaxAgeMillis;
+
+        public Settings(double searchRadiusKm, int candidateLimit, int maxLoad, double loadPenaltyKm,
+                long offerTtlMillis, int maxAttempts, long retryDelayMillis, long positionMaxAgeMillis) {
+            this.searchRadiusKm = searchRadiusKm;
+            this.candidateLimit = candidateLimit;
+            this.maxLoad = maxLoad;
+            this.loadPenaltyKm = loadPenaltyKm;
+            this.offerTtlMillis = offerTtlMillis;
+            this.maxAttempts = maxAttempts;
+            this.retryDelayMillis = retryDelayMillis;
+            this.positionMaxAgeMillis = positionMaxAgeMillis;
+        }
+
+        public long getOfferTtlMillis() {
+            return offerTtlMillis;
+        }
+    }
+
+    public static final class Offer {
+        private final long jobId;
+        private final long porterId;
+        private final double distanceKm;
+        private final long expiresAtMillis;
+        private final int attempt;
+
+        private Offer(long jobId, long porterId, double distanceKm, long expiresAtMillis, int attempt) {
+            this.jobId = jobId;
+            this.porterId = porterId;
+            this.distanceKm = distanceKm;
+            this.expiresAtMillis = expiresAtMillis;
+            this.attempt = attempt;
+        }
+
+        public long getJobId() {
+            return jobId;
+        }
+
+        public long getPorterId() {
+            return porterId;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        public int getAttempt() {
+            return attempt;
+        }
+    }
+
+    public static final class TickResult {
+        private final List<Offer> offered = new ArrayList<>();
+        private final List<Offer> expired = new ArrayList<>();
+        private final List<Long> abandoned = new ArrayList<>();
+
+        public List<Offer> getOffered() {
+            return offered;
+        }
+
+        public List<Offer> getExpired() {
+            return expired;
+        }
+
+        // Jobs that ran out of attempts; they stay open for porters to pick up themselves
+        public List<Long> getAbandoned() {
+            return abandoned;
+        }
+    }
+
+    private static final class PorterSlot {
+        final long id;
+        double latitude;
+        double longitude;
+        boolean positioned;
+        long seenAtMillis;
+        int load;
+        Offer offer;
+
+        PorterSlot(long id) {
+            this.id = id;
+        }
+    }
+
+    private static final class Job {
+        final long id;
+        double latitude;
+        double longitude;
+        int attempts;
+        final Set<Long> tried = new HashSet<>();
+        Offer offer;
+        long ticket;
+
+        Job(long id, double latitude, double longitude) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    // Queue entry; stale once the job is gone or rescheduled under a newer ticket
+    private static final class Due {
+        final long atMillis;
+        final long ticket;
+        final long jobId;
+
+        Due(long atMillis, long ticket, long jobId) {
+            this.atMillis = atMillis;
+            this.ticket = ticket;
+            this.jobId = jobId;
+        }
+    }
+
+    private final Settings settings;
+    // Only porters that can take an offer right now, so saturated periods stay cheap
+    private final GridIndex porterIndex;
+    private final Map<Long, PorterSlot> porters = new HashMap<>();
+    private final Map<Long, Job> jobs = new HashMap<>();
+    private final PriorityQueue<Due> queue = new PriorityQueue<>(
+            Comparator.comparingLong((Due d) -> d.atMillis).thenComparingLong(d -> d.ticket));
+    private final PriorityQueue<Offer> expiries = new PriorityQueue<>(
+            Comparator.comparingLong(Offer::getExpiresAtMillis).thenComparingLong(Offer::getJobId));
+    // Jobs abandoned outside a tick, reported by the next one
+    private final List<Long> abandoned = new ArrayList<>();
+    private long nextTicket;
+
+    public DispatchBoard(Settings settings, double cellSizeDegrees) {
+        this.settings = settings;
+        this.porterIndex = new GridIndex(cellSizeDegrees);
+    }
+
+    // Registers the porter if needed and sets its active delivery count
+    public void upsertPorter(long porterId, int load) {
+        PorterSlot slot = porters.computeIfAbsent(porterId, PorterSlot::new);
+        slot.load = Math.max(0, load);
+        reindex(slot);
+    }
+
+    public boolean hasPorter(long porterId) {
+        return porters.containsKey(porterId);
+    }
+
+    public Set<Long> porterIds() {
+        return new HashSet<>(porters.keySet());
+    }
+
+    // Reports older than the position already held are ignored
+    public void updatePosition(long porterId, double latitude, double longitude, long nowMillis) {
+        PorterSlot slot = porters.get(porterId);
+        if (slot == null || (slot.positioned && slot.seenAtMillis > nowMillis)) {
+            return;
+        }
+        slot.latitude = latitude;
+        slot.longitude = longitude;
+        slot.positioned = true;
+        slot.seenAtMillis = nowMillis;
+        reindex(slot);
+    }
+
+    // Last known {latitude, longitude}, or null when the porter has not reported yet
+    public double[] position(long porterId) {
+        PorterSlot slot = porters.get(porterId);
+        return slot != null && slot.positioned ? new double[] {slot.latitude, slot.longitude} : null;
+    }
+
+    // Marks a positioned porter as still at its last known location
+    public void touch(long porterId, long nowMillis) {
+        PorterSlot slot = porters.get(porterId);
+        if (slot != null && slot.positioned) {
+            slot.seenAtMillis = nowMillis;
+            reindex(slot);
+        }
+    }
+
+    public void adjustLoad(long porterId, int delta) {
+        PorterSlot slot = porters.get(porterId);
+        if (slot != null) {
+            slot.load = Math.max(0, slot.load + delta);
+            reindex(slot);
+        }
+    }
+
+    /**
+     * Drops a porter from the registry. Returns the offer it was holding, which goes
+     * back to the queue, or null.
+     */
+    public Offer removePorter(long porterId, long nowMillis) {
+        PorterSlot slot = porters.remove(porterId);
+        porterIndex.remove(porterId);
+        if (slot == null || slot.offer == null) {
+            return null;
+        }
+        Offer offer = slot.offer;
+        Job job = jobs.get(offer.jobId);
+        if (job != null && job.offer == offer) {
+            job.offer = null;
+            schedule(job, nowMillis);
+        }
+        return offer;
+    }
+
+    public void addJob(long jobId, double latitude, double longitude, long nowMillis) {
+        Job job = jobs.get(jobId);
+        if (job == null) {
+            job = new Job(jobId, latitude, longitude);
+            jobs.put(jobId, job);
+            schedule(job, nowMillis);
+        } else if (job.offer == null) {
+            job.latitude = latitude;
+            job.longitude = longitude;
+        }
+    }
+
+    public boolean hasJob(long jobId) {
+        return jobs.containsKey(jobId);
+    }
+
+    /**
+     * Removes a job that was claimed, cancelled or deleted. Returns the offer that was
+     * outstanding for it so the holder can be told, or null.
+     */
+    public Offer removeJob(long jobId) {
+        Job job = jobs.remove(jobId);
+        if (job == null || job.offer == null) {
+            return null;
+        }
+        Offer offer = job.offer;
+        releasePorter(offer);
+        return offer;
+    }
+
+    public Offer currentOffer(long porterId) {
+        PorterSlot slot = porters.get(porterId);
+        return slot != null ? slot.offer : null;
+    }
+
+    // True while the job is held by a live offer to a different porter
+    public boolean isReservedForOther(long jobId, long porterId, long nowMillis) {
+        Job job = jobs.get(jobId);
+        return job != null && job.offer != null && job.offer.porterId != porterId
+                && job.offer.expiresAtMillis > nowMillis;
+    }
+
+    /**
+     * Completes the job if the porter holds a live offer for it. The caller is expected
+     * to report the porter's new load separately once the assignment is stored.
+     */
+    public boolean accept(long jobId, long porterId, long nowMillis) {
+        Job job = jobs.get(jobId);
+        if (job == null || job.offer == null || job.offer.porterId != porterId
+                || job.offer.expiresAtMillis <= nowMillis) {
+            return false;
+        }
+        jobs.remove(jobId);
+        releasePorter(job.offer);
+        return true;
+    }
+
+    public Offer decline(long jobId, long porterId, long nowMillis) {
+        Job job = jobs.get(jobId);
+        if (job == null || job.offer == null || job.offer.porterId != porterId) {
+            return null;
+        }
+        Offer offer = job.offer;
+        job.offer = null;
+        job.tried.add(porterId);
+        releasePorter(offer);
+        if (job.attempts >= settings.maxAttempts) {
+            jobs.remove(jobId);
+            abandoned.add(jobId);
+        } else {
+            schedule(job, nowMillis);
+        }
+        return offer;
+    }
+
+    /**
+     * Expires overdue offers, then offers every job that is due to the best available
+     * porter. Jobs with no candidate are retried after {@code retryDelayMillis}.
+     */
+    public TickResult tick(long nowMillis) {
+        TickResult result = new TickResult();
+        result.abandoned.addAll(abandoned);
+        abandoned.clear();
+
+        // Porters that stopped reporting come back through updatePosition or touch
+        List<Long> stale = new ArrayList<>();
+        for (GridIndex.Entry entry : porterIndex.entries()) {
+            if (isStale(porters.get(entry.getId()), nowMillis)) {
+                stale.add(entry.getId());
+            }
+        }
+        stale.forEach(porterIndex::remove);
+
+        while (!expiries.isEmpty() && expiries.peek().expiresAtMillis <= nowMillis) {
+            Offer offer = expiries.poll();
+            Job job = jobs.get(offer.jobId);
+            if (job == null || job.offer != offer) {
+                continue;
+            }
+            job.offer = null;
+            job.tried.add(offer.porterId);
+            releasePorter(offer);
+            result.expired.add(offer);
+            if (job.attempts >= settings.maxAttempts) {
+                jobs.remove(job.id);
+                result.abandoned.add(job.id);
+            } else {
+                schedule(job, nowMillis);
+            }
+        }
+
+        while (!queue.isEmpty() && queue.peek().atMillis <= nowMillis) {
+            Due due = queue.poll();
+            Job job = jobs.get(due.jobId);
+            if (job == null || job.ticket != due.ticket || job.offer != null) {
+                continue;
+            }
+            PorterSlot best = null;
+            double bestScore = Double.MAX_VALUE;
+            double bestDistance = 0;
+            for (GridIndex.Hit hit : porterIndex.nearest(job.latitude, job.longitude, settings.searchRadiusKm,
+                    settings.candidateLimit, id -> !job.tried.contains(id) && !isStale(porters.get(id), nowMillis))) {
+                PorterSlot slot = porters.get(hit.getId());
+                double score = hit.getDistanceKm() + settings.loadPenaltyKm * slot.load;
+                if (score < bestScore) {
+                    best = slot;
+                    bestScore = score;
+                    bestDistance = hit.getDistanceKm();
+                }
+            }
+            if (best == null) {
+                schedule(job, nowMillis + settings.retryDelayMillis);
+                continue;
+            }
+            job.attempts++;
+            Offer offer = new Offer(job.id, best.id, bestDistance, nowMillis + settings.offerTtlMillis, job.attempts);
+            job.offer = offer;
+            best.offer = offer;
+            reindex(best);
+            expiries.add(offer);
+            result.offered.add(offer);
+        }
+        return result;
+    }
+
+    // Porters free to take more work, with a position fresh enough to plan around
+    public List<AssignmentSolver.Worker> availableWorkers(long nowMillis) {
+        List<AssignmentSolver.Worker> workers = new ArrayList<>();
+        for (PorterSlot slot : porters.values()) {
+            if (slot.positioned && slot.offer == null && slot.load < settings.maxLoad
+                    && nowMillis - slot.seenAtMillis <= settings.positionMaxAgeMillis) {
+                workers.add(new AssignmentSolver.Worker(slot.id, slot.latitude, slot.longitude, slot.load));
+            }
+        }
+        return workers;
+    }
+
+    public Map<String, Object> getCounts() {
+        int positioned = 0;
+        int offered = 0;
+        for (PorterSlot slot : porters.values()) {
+            if (slot.positioned) {
+                positioned++;
+            }
+            if (slot.offer != null) {
+                offered++;
+            }
+        }
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("porters", porters.size());
+        counts.put("positionedPorters", positioned);
+        counts.put("availablePorters", porterIndex.size());
+        counts.put("openJobs", jobs.size());
+        counts.put("outstandingOffers", offered);
+        return counts;
+    }
+
+    private void reindex(PorterSlot slot) {
+        if (slot.positioned && slot.offer == null && slot.load < settings.maxLoad) {
+            porterIndex.put(slot.id, slot.latitude, slot.longitude);
+        } else {
+            porterIndex.remove(slot.id);
+        }
+    }
+
+    private boolean isStale(PorterSlot slot, long nowMillis) {
+        return slot == null || nowMillis - slot.seenAtMillis > settings.positionMaxAgeMillis;
+    }
+
+    private void releasePorter(Offer offer) {
+        PorterSlot slot = porters.get(offer.porterId);
+        if (slot != null && slot.offer == offer) {
+            slot.offer = null;
+            reindex(slot);
+        }
+    }
+
+    private void schedule(Job job, long atMillis) {
+        job.ticket = nextTicket++;
+        queue.add(new Due(atMillis, job.ticket, job.id));
+    }
+}
@@ -0,0 +1,209 @@
+package com.porter.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+/**
+ * Thread-safe uniform lat/lng grid for point lookups by id. Points are bucketed
+ * into square cells of {@code cellSizeDegrees}; radius and bounding-box queries
+ * only visit the cells that overlap the search area.
+ */
+public class GridIndex {
+
+    public static final class Entry {
+        private final long id;
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+
+        private Entry(long id, double latitude, double longitude, long cell) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+    }
+
+    public static final class Hit {
+        private final long id;
+        private final double distanceKm;
+
+        private Hit(long id, double distanceKm) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    private final double cellSizeDegrees;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public GridIndex(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+
+    public void put(long id, double latitude, double longitude) {
+        long cell = cellOf(latitude, longitude);
+        Entry previous = entries.put(id, new Entry(id, latitude, longitude, cell));
+        if (previous != null && previous.cell != cell) {
+            removeFromCell(previous.cell, id);
+        }
+        if (previous == null || previous.cell != cell) {
+            cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    public boolean remove(long id) {
+        Entry previous = entries.remove(id);
+        if (previous == null) {
+            return false;
+        }
+        removeFromCell(previous.cell, id);
+        return true;
+    }
+
+    public boolean contains(long id) {
+        return entries.containsKey(id);
+    }
+
+    public Entry get(long id) {
+        return entries.get(id);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Collection<Entry> entries() {
+        return entries.values();
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    /**
+     * Returns up to {@code limit} ids within {@code radiusKm} of the given point,
+     * nearest first.
+     */
+    public List<Hit> nearest(double latitude, double longitude, double radiusKm, int limit) {
+        return nearest(latitude, longitude, radiusKm, limit, id -> true);
+    }
+
+    /**
+     * Like {@link #nearest(double, double, double, int)} but only counts ids the filter
+     * accepts, so rejected points never crowd eligible ones out of the limit.
+     */
+    public List<Hit> nearest(double latitude, double longitude, double radiusKm, int limit, LongPredicate filter) {
+        double latSpan = Math.toDegrees(radiusKm / GeoUtils.EARTH_RADIUS_KM);
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 0.01);
+        double lngSpan = Math.min(180.0, latSpan / cosLat);
+
+        List<Hit> hits = new ArrayList<>();
+        forEachInBox(latitude - latSpan, longitude - lngSpan, latitude + latSpan, longitude + lngSpan, entry -> {
+            double distance = GeoUtils.haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+            if (distance <= radiusKm && filter.test(entry.id)) {
+                hits.add(new Hit(entry.id, distance));
+            }
+        });
+        hits.sort(Comparator.comparingDouble(Hit::getDistanceKm).thenComparingLong(Hit::getId));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    public List<Entry> withinBox(double minLat, double minLng, double maxLat, double maxLng) {
+        List<Entry> result = new ArrayList<>();
+        forEachInBox(minLat, minLng, maxLat, maxLng, entry -> {
+            if (entry.latitude >= minLat && entry.latitude <= maxLat
+                    && entry.longitude >= minLng && entry.longitude <= maxLng) {
+                result.add(entry);
+            }
+        });
+        return result;
+    }
+
+    public long cellOf(double latitude, double longitude) {
+        return pack(row(latitude), column(longitude));
+    }
+
+    private void forEachInBox(double minLat, double minLng, double maxLat, double maxLng,
+            Consumer<Entry> consumer) {
+        int minRow = row(Math.max(minLat, -90));
+        int maxRow = row(Math.min(maxLat, 90));
+        int minCol = column(Math.max(minLng, -180));
+        int maxCol = column(Math.min(maxLng, 180));
+        long cellCount = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+
+        // Very large boxes touch more cells than there are points; scan entries instead
+        if (cellCount > cells.size()) {
+            for (Entry entry : entries.values()) {
+                consumer.accept(entry);
+            }
+            return;
+        }
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                long cell = pack(r, c);
+                Set<Long> ids = cells.get(cell);
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Entry entry = entries.get(id);
+                    if (entry != null && entry.cell == cell) {
+                        consumer.accept(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private void removeFromCell(long cell, long id) {
+        cells.computeIfPresent(cell, (c, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / cellSizeDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor((longitude + 180.0) / cellSizeDegrees);
+    }
+
+    private static long pack(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
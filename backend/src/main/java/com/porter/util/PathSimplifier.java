@@ -0,0 +1,124 @@
+package com.porter.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Reduces a GPS trajectory for display. Points are first thinned to at most one per
+ * time window, then Douglas-Peucker drops every point that lies within the tolerance
+ * of the line between its kept neighbours. Pinned points (ends, status changes) are
+ * always kept and split the path, so simplification never moves a status marker.
+ * Distances use a local equirectangular projection, which is accurate at city scale.
+ */
+public final class PathSimplifier {
+
+    // Meters per pixel at zoom 0 on the equator in Web Mercator
+    private static final double METERS_PER_PIXEL_Z0 = 156543.03392;
+
+    private PathSimplifier() {
+    }
+
+    // One screen pixel in meters at the given map zoom and latitude
+    public static double toleranceForZoom(int zoom, double latitude) {
+        return METERS_PER_PIXEL_Z0 * Math.cos(Math.toRadians(latitude)) / Math.pow(2, zoom);
+    }
+
+    /**
+     * Returns the indexes of the points to keep, in order. {@code windowMillis <= 0}
+     * disables time thinning and {@code toleranceMeters <= 0} disables Douglas-Peucker.
+     */
+    public static int[] simplify(double[] latitudes, double[] longitudes, long[] millis, boolean[] pinned,
+            double toleranceMeters, long windowMillis) {
+        int n = latitudes.length;
+        if (n <= 2) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        // Time thinning: first point of each window, plus pinned points and the last point
+        int[] candidates = new int[n];
+        int count = 0;
+        long lastWindow = Long.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            boolean keep = windowMillis <= 0 || i == 0 || i == n - 1 || pinned[i]
+                    || Math.floorDiv(millis[i], windowMillis) != lastWindow;
+            if (keep) {
+                candidates[count++] = i;
+                if (windowMillis > 0) {
+                    lastWindow = Math.floorDiv(millis[i], windowMillis);
+                }
+            }
+        }
+        if (toleranceMeters <= 0 || count <= 2) {
+            return Arrays.copyOf(candidates, count);
+        }
+
+        // Project to meters around the first point
+        double originLat = latitudes[0];
+        double originLng = longitudes[0];
+        double metersPerDegreeLat = Math.toRadians(GeoUtils.EARTH_RADIUS_KM * 1000);
+        double metersPerDegreeLng = metersPerDegreeLat * Math.cos(Math.toRadians(originLat));
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int c = 0; c < count; c++) {
+            x[c] = (longitudes[candidates[c]] - originLng) * metersPerDegreeLng;
+            y[c] = (latitudes[candidates[c]] - originLat) * metersPerDegreeLat;
+        }
+
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        double toleranceSquared = toleranceMeters * toleranceMeters;
+        Deque<int[]> stack = new ArrayDeque<>();
+        int segmentStart = 0;
+        for (int c = 1; c < count; c++) {
+            if (c == count - 1 || pinned[candidates[c]]) {
+                keep[c] = true;
+                stack.push(new int[] {segmentStart, c});
+                segmentStart = c;
+            }
+        }
+        while (!stack.isEmpty()) {
+            int[] segment = stack.pop();
+            int first = segment[0];
+            int last = segment[1];
+            double farthest = -1;
+            int farthestIndex = -1;
+            for (int c = first + 1; c < last; c++) {
+                double d = segmentDistanceSquared(x[c], y[c], x[first], y[first], x[last], y[last]);
+                if (d > farthest) {
+                    farthest = d;
+                    farthestIndex = c;
+                }
+            }
+            if (farthestIndex >= 0 && farthest > toleranceSquared) {
+                keep[farthestIndex] = true;
+                stack.push(new int[] {first, farthestIndex});
+                stack.push(new int[] {farthestIndex, last});
+            }
+        }
+
+        int kept = 0;
+        for (int c = 0; c < count; c++) {
+            if (keep[c]) {
+                candidates[kept++] = candidates[c];
+            }
+        }
+        return Arrays.copyOf(candidates, kept);
+    }
+
+    private static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+        double ex = ax + t * dx - px;
+        double ey = ay + t * dy - py;
+        return ex * ex + ey * ey;
+    }
+}
@@ -0,0 +1,216 @@
+package com.porter.util;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders the stops of a multi-parcel trip as an open path from the porter's position.
+ * A nearest-neighbour tour is built first, then improved with 2-opt segment reversals
+ * and single-stop relocations until neither shortens the path. Every move keeps each
+ * parcel's pickup ahead of its drop; a drop without a pickup in the list (parcel already
+ * on board) can go anywhere. Straight-line distances; 30 stops sequence in a few
+ * milliseconds at most.
+ */
+public final class StopSequencer {
+
+    private static final double EPSILON = 1e-9;
+
+    public static final class Stop {
+        private final long deliveryId;
+        private final boolean pickup;
+        private final double latitude;
+        private final double longitude;
+
+        public Stop(long deliveryId, boolean pickup, double latitude, double longitude) {
+            this.deliveryId = deliveryId;
+            this.pickup = pickup;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public long getDeliveryId() {
+            return deliveryId;
+        }
+
+        public boolean isPickup() {
+            return pickup;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+    }
+
+    public static final class Route {
+        private final int[] order;
+        private final double distanceKm;
+
+        private Route(int[] order, double distanceKm) {
+            this.order = order;
+            this.distanceKm = distanceKm;
+        }
+
+        // Indexes into the stop list, in visiting order
+        public int[] getOrder() {
+            return order;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    private StopSequencer() {
+    }
+
+    public static Route sequence(double startLatitude, double startLongitude, List<Stop> stops) {
+        int n = stops.size();
+        if (n == 0) {
+            return new Route(new int[0], 0);
+        }
+
+        // Node 0 is the start; stop i is node i + 1
+        double[][] distance = new double[n + 1][n + 1];
+        for (int a = 0; a <= n; a++) {
+            double latA = a == 0 ? startLatitude : stops.get(a - 1).latitude;
+            double lngA = a == 0 ? startLongitude : stops.get(a - 1).longitude;
+            for (int b = a + 1; b <= n; b++) {
+                double km = GeoUtils.haversineKm(latA, lngA, stops.get(b - 1).latitude, stops.get(b - 1).longitude);
+                distance[a][b] = km;
+                distance[b][a] = km;
+            }
+        }
+
+        // For each drop, the index of its pickup in the list, or -1 when it is already on board
+        int[] pickupOf = new int[n];
+        Map<Long, Integer> pickups = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            if (stops.get(i).pickup) {
+                pickups.put(stops.get(i).deliveryId, i);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            Integer pickup = stops.get(i).pickup ? null : pickups.get(stops.get(i).deliveryId);
+            pickupOf[i] = pickup != null ? pickup : -1;
+        }
+
+        int[] route = nearestNeighbour(distance, pickupOf, n);
+        int[] position = new int[n];
+        int[] candidate = new int[n];
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+
+            // 2-opt: reverse route[i..k]
+            for (int i = 0; i < n - 1; i++) {
+                for (int k = i + 1; k < n; k++) {
+                    int before = i == 0 ? 0 : route[i - 1] + 1;
+                    int first = route[i] + 1;
+                    int last = route[k] + 1;
+                    double delta = distance[before][last] - distance[before][first];
+                    if (k < n - 1) {
+                        int after = route[k + 1] + 1;
+                        delta += distance[first][after] - distance[last][after];
+                    }
+                    if (delta < -EPSILON) {
+                        System.arraycopy(route, 0, candidate, 0, n);
+                        for (int a = i, b = k; a < b; a++, b--) {
+                            int swap = candidate[a];
+                            candidate[a] = candidate[b];
+                            candidate[b] = swap;
+                        }
+                        if (feasible(candidate, pickupOf, position)) {
+                            System.arraycopy(candidate, 0, route, 0, n);
+                            improved = true;
+                        }
+                    }
+                }
+            }
+
+            // Relocation: move one stop elsewhere, which reversals cannot do around precedence pairs
+            double length = length(route, distance);
+            for (int from = 0; from < n; from++) {
+                for (int to = 0; to < n; to++) {
+                    if (to == from) {
+                        continue;
+                    }
+                    move(route, candidate, from, to);
+                    if (feasible(candidate, pickupOf, position)) {
+                        double candidateLength = length(candidate, distance);
+                        if (candidateLength < length - EPSILON) {
+                            System.arraycopy(candidate, 0, route, 0, n);
+                            length = candidateLength;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+        }
+        return new Route(route, length(route, distance));
+    }
+
+    private static int[] nearestNeighbour(double[][] distance, int[] pickupOf, int n) {
+        int[] route = new int[n];
+        boolean[] visited = new boolean[n];
+        int current = 0;
+        for (int step = 0; step < n; step++) {
+            int best = -1;
+            for (int i = 0; i < n; i++) {
+                if (visited[i] || (pickupOf[i] >= 0 && !visited[pickupOf[i]])) {
+                    continue;
+                }
+                if (best < 0 || distance[current][i + 1] < distance[current][best + 1]) {
+                    best = i;
+                }
+            }
+            visited[best] = true;
+            route[step] = best;
+            current = best + 1;
+        }
+        return route;
+    }
+
+    private static void move(int[] route, int[] target, int from, int to) {
+        int stop = route[from];
+        int write = 0;
+        for (int read = 0; read < route.length; read++) {
+            if (read == from) {
+                continue;
+            }
+            if (write == to) {
+                target[write++] = stop;
+            }
+            target[write++] = route[read];
+        }
+        if (write == to) {
+            target[write] = stop;
+        }
+    }
+
+    private static boolean feasible(int[] route, int[] pickupOf, int[] position) {
+        for (int p = 0; p < route.length; p++) {
+            position[route[p]] = p;
+        }
+        for (int i = 0; i < pickupOf.length; i++) {
+            if (pickupOf[i] >= 0 && position[pickupOf[i]] > position[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double length(int[] route, double[][] distance) {
+        double total = 0;
+        int previous = 0;
+        for (int stop : route) {
+            total += distance[previous][stop + 1];
+            previous = stop + 1;
+        }
+        return total;
+    }
+}
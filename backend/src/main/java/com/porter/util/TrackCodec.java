@@ -0,0 +1,171 @@
+package com.porter.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of a delivery's breadcrumbs. Coordinates are fixed-point at
+ * 1e-6 degrees (about 11 cm) and times are epoch milliseconds; each point is stored
+ * as the zigzag varint difference from the previous one, so a typical GPS point
+ * takes 5-9 bytes instead of a full table row. Status strings are written once in a
+ * table and referenced by index.
+ *
+ * <pre>
+ * version, count, statusCount, (length, utf8)*,
+ * then per point: dLat, dLng, dMillis, statusIndex
+ * </pre>
+ */
+public final class TrackCodec {
+
+    private static final int VERSION = 1;
+    private static final double SCALE = 1e6;
+
+    public static final class Point {
+        private final double latitude;
+        private final double longitude;
+        private final long epochMillis;
+        private final String status;
+
+        public Point(double latitude, double longitude, long epochMillis, String status) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.epochMillis = epochMillis;
+            this.status = status;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public long getEpochMillis() {
+            return epochMillis;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+    }
+
+    private TrackCodec() {
+    }
+
+    public static byte[] encode(List<Point> points) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + points.size() * 8);
+        writeVarint(out, VERSION);
+        writeVarint(out, points.size());
+
+        Map<String, Integer> statusIndex = new HashMap<>();
+        List<String> statuses = new ArrayList<>();
+        for (Point point : points) {
+            String status = point.status != null ? point.status : "";
+            if (!statusIndex.containsKey(status)) {
+                statusIndex.put(status, statuses.size());
+                statuses.add(status);
+            }
+        }
+        writeVarint(out, statuses.size());
+        for (String status : statuses) {
+            byte[] bytes = status.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        long lastLat = 0;
+        long lastLng = 0;
+        long lastMillis = 0;
+        for (Point point : points) {
+            long lat = Math.round(point.latitude * SCALE);
+            long lng = Math.round(point.longitude * SCALE);
+            writeVarint(out, zigzag(lat - lastLat));
+            writeVarint(out, zigzag(lng - lastLng));
+            writeVarint(out, zigzag(point.epochMillis - lastMillis));
+            writeVarint(out, statusIndex.get(point.status != null ? point.status : ""));
+            lastLat = lat;
+            lastLng = lng;
+            lastMillis = point.epochMillis;
+        }
+        return out.toByteArray();
+    }
+
+    public static List<Point> decode(byte[] data) {
+        int[] cursor = {0};
+        long version = readVarint(data, cursor);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported track encoding version " + version);
+        }
+        // Every point and status takes at least one byte, which bounds the counts
+        int count = readLength(data, cursor);
+        int statusCount = readLength(data, cursor);
+        String[] statuses = new String[statusCount];
+        for (int i = 0; i < statusCount; i++) {
+            int length = readLength(data, cursor);
+            statuses[i] = new String(data, cursor[0], length, StandardCharsets.UTF_8);
+            cursor[0] += length;
+        }
+
+        List<Point> points = new ArrayList<>(count);
+        long lat = 0;
+        long lng = 0;
+        long millis = 0;
+        for (int i = 0; i < count; i++) {
+            lat += unzigzag(readVarint(data, cursor));
+            lng += unzigzag(readVarint(data, cursor));
+            millis += unzigzag(readVarint(data, cursor));
+            long index = readVarint(data, cursor);
+            if (index >= statusCount) {
+                throw new IllegalArgumentException("Status index " + index + " out of range");
+            }
+            String status = statuses[(int) index];
+            points.add(new Point(lat / SCALE, lng / SCALE, millis, status.isEmpty() ? null : status));
+        }
+        return points;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static int readLength(byte[] data, int[] cursor) {
+        long length = readVarint(data, cursor);
+        if (length > data.length - cursor[0]) {
+            throw new IllegalArgumentException("Truncated track encoding");
+        }
+        return (int) length;
+    }
+
+    private static long readVarint(byte[] data, int[] cursor) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (cursor[0] >= data.length || shift > 63) {
+                throw new IllegalArgumentException("Truncated track encoding");
+            }
+            byte b = data[cursor[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.porter.Email;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.porter.config.EmailConfig;
+import com.porter.model.Delivery;
+import com.porter.model.User;
+import com.porter.testsupport.PersistenceTestConfig;
+
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Drives the outbox against H2 in PostgreSQL mode and a GreenMail SMTP server. The lane
+ * threads are off; each test runs the batches itself so the outcome is deterministic.
+ */
+@DataJpaTest(properties = {
+        "email.outbox.enabled=false",
+        "email.outbox.status-coalesce-seconds=0",
+        "email.outbox.max-attempts=2",
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.username=porter",
+        "spring.mail.password=secret",
+        "email.smtp.auth=false",
+        "email.smtp.starttls=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = PersistenceTestConfig.class)
+@Import({ EmailDispatcher.class, EmailService.class, EmailTemplates.class, EmailConfig.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailDispatcherTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("porter", "secret"));
+
+    @Autowired
+    private EmailDispatcher dispatcher;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private JavaMailSenderImpl mailSender;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        jdbcTemplate.update("DELETE FROM email_outbox");
+    }
+
+    @Test
+    void statusBurstSendsOnlyTheLatestStatus() throws Exception {
+        Delivery delivery = delivery();
+        emailService.sendDeliveryStatusEmail(delivery, "PICKED_UP");
+        emailService.sendDeliveryStatusEmail(delivery, "IN_TRANSIT");
+        emailService.sendDeliveryStatusEmail(delivery, "DELIVERED");
+
+        assertEquals(3, dispatcher.dispatchOnce());
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("Delivery Status Update: DELIVERED", received[0].getSubject());
+        assertEquals(List.of("SUPERSEDED", "SUPERSEDED", "SENT"), statuses());
+    }
+
+    @Test
+    void transientFailureIsRetriedAfterTheBackoff() throws Exception {
+        emailService.sendEmail("alice@example.com", "Hello", "<p>Hi</p>");
+        mailSender.setPort(closedPort());
+
+        dispatcher.dispatchOnce();
+
+        assertEquals(List.of("PENDING"), statuses());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT attempts FROM email_outbox", Integer.class));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT last_error FROM email_outbox", String.class));
+        // Not due again until the backoff has passed
+        assertEquals(0, dispatcher.dispatchOnce());
+
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        makeDue();
+        dispatcher.dispatchOnce();
+
+        assertEquals(List.of("SENT"), statuses());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT attempts FROM email_outbox", Integer.class));
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        assertTrue(GreenMailUtil.getBody(greenMail.getReceivedMessages()[0]).contains("<p>Hi</p>"));
+    }
+
+    @Test
+    void failureAtTheLastAttemptGivesUp() throws Exception {
+        emailService.sendEmail("alice@example.com", "Hello", "<p>Hi</p>");
+        mailSender.setPort(closedPort());
+
+        dispatcher.dispatchOnce();
+        makeDue();
+        dispatcher.dispatchOnce();
+
+        assertEquals(List.of("FAILED"), statuses());
+        assertEquals(0, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void rowsLockedByAnotherDispatcherAreSkipped() throws Exception {
+        emailService.sendEmail("alice@example.com", "Hello", "<p>Hi</p>");
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(
+                    status -> {
+                        jdbcTemplate.queryForList("SELECT id FROM email_outbox FOR UPDATE");
+                        locked.countDown();
+                        try {
+                            release.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            assertEquals(0, dispatcher.dispatchOnce());
+
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(1, dispatcher.dispatchOnce());
+        assertEquals(List.of("SENT"), statuses());
+    }
+
+    private List<String> statuses() {
+        return jdbcTemplate.queryForList("SELECT status FROM email_outbox ORDER BY id", String.class);
+    }
+
+    private void makeDue() {
+        jdbcTemplate.update("UPDATE email_outbox SET next_attempt_at = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)));
+    }
+
+    // A port nothing listens on, so the connection is refused
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Delivery delivery() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        Delivery delivery = new Delivery();
+        delivery.setId(42L);
+        delivery.setUser(user);
+        return delivery;
+    }
+}
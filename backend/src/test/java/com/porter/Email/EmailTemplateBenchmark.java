@@ -0,0 +1,93 @@
+package com.porter.Email;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Render time of the status-update email: the String.format body EmailService used to
+ * build on every send against the compiled template. Add {@code -prof gc} for the bytes
+ * allocated per render. Not run by surefire; run {@link #main} on the test classpath,
+ * e.g. from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private static final String LEGACY_STATUS_FORMAT =
+            "<div style='font-family: Arial, sans-serif; max-width: 600px; margin: 0 auto; padding: 30px; background-color: #f9f9f9; border-radius: 12px; box-shadow: 0 4px 12px rgba(0,0,0,0.08);'>"
+            + "<div style='text-align: center;'>"
+            + "<img src='https://cdn-icons-png.flaticon.com/512/2344/2344094.png' alt='Status' width='50' height='50' />"
+            + "<h2 style='color: #007bff; margin-bottom: 10px;'>Delivery Status Update</h2>"
+            + "</div>"
+            + "<p style='font-size: 16px; color: #333;'>Dear <strong>%s</strong>,</p>"
+            + "<p style='font-size: 15px; color: #555;'>Your delivery (ID: %d) status has changed to <strong>%s</strong>.</p>"
+            + "<table style='width:100%%;margin:20px 0;border-collapse:collapse;'>"
+            + "<tr><td style='padding:8px;border-bottom:1px solid #eee;'>Pickup Address:</td><td style='padding:8px;border-bottom:1px solid #eee;'>%s</td></tr>"
+            + "<tr><td style='padding:8px;border-bottom:1px solid #eee;'>Delivery Address:</td><td style='padding:8px;border-bottom:1px solid #eee;'>%s</td></tr>"
+            + "<tr><td style='padding:8px;border-bottom:1px solid #eee;'>Package Type:</td><td style='padding:8px;border-bottom:1px solid #eee;'>%s</td></tr>"
+            + "<tr><td style='padding:8px;border-bottom:1px solid #eee;'>Weight:</td><td style='padding:8px;border-bottom:1px solid #eee;'>%s kg</td></tr>"
+            + "<tr><td style='padding:8px;border-bottom:1px solid #eee;'>Scheduled Time:</td><td style='padding:8px;border-bottom:1px solid #eee;'>%s</td></tr>"
+            + "<tr><td style='padding:8px;border-bottom:1px solid #eee;'>Amount:</td><td style='padding:8px;border-bottom:1px solid #eee;'>₹%s</td></tr>"
+            + "</table>"
+            + "<p style='font-size: 14px; color: #666;'>Track your order for more details.</p>"
+            + "<p style='font-size: 14px; color: #666;'>Thank you for using PORTER▸XPRESSO!</p>"
+            + "</div>";
+
+    private EmailTemplates templates;
+    private Map<String, Object> model;
+
+    @Setup
+    public void setUp() throws Exception {
+        templates = new EmailTemplates();
+        ReflectionTestUtils.setField(templates, "defaultLocaleTag", "en");
+        templates.load();
+
+        model = new HashMap<>();
+        model.put("username", "priya.sharma");
+        model.put("deliveryId", 48213L);
+        model.put("status", "IN_TRANSIT");
+        model.put("pickupAddress", "14, 5th Cross, Indiranagar, Bengaluru 560038");
+        model.put("deliveryAddress", "221 MG Road, Ashok Nagar, Bengaluru 560001");
+        model.put("packageType", "DOCUMENTS");
+        model.put("packageWeight", "2.5");
+        model.put("scheduledTime", "2026-10-17T14:30");
+        model.put("amount", "349.00");
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(LEGACY_STATUS_FORMAT,
+                model.get("username"), model.get("deliveryId"), model.get("status"),
+                model.get("pickupAddress"), model.get("deliveryAddress"), model.get("packageType"),
+                model.get("packageWeight"), model.get("scheduledTime"), model.get("amount"));
+    }
+
+    @Benchmark
+    public EmailTemplates.Rendered compiledTemplate() {
+        return templates.render("delivery-status", null, model);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmailTemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
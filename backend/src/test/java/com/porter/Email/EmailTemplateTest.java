@@ -0,0 +1,131 @@
+package com.porter.Email;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class EmailTemplateTest {
+
+    @Test
+    void concurrentRendersDoNotShareBuffers() throws Exception {
+        EmailTemplates templates = new EmailTemplates();
+        ReflectionTestUtils.setField(templates, "defaultLocaleTag", "en");
+        templates.load();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> renders = new ArrayList<>();
+            for (int task = 0; task < 16; task++) {
+                String status = "STATUS_" + task;
+                renders.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        EmailTemplates.Rendered email = templates.render("delivery-status", null,
+                                Map.of("status", status, "username", "alice", "deliveryId", i));
+                        assertEquals("Delivery Status Update: " + status, email.getSubject());
+                        assertTrue(email.getBody().contains("(ID: " + i + ") status has changed to <strong>" + status + "</strong>"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> render : renders) {
+                render.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void escapesSlotValuesInTheBody() {
+        EmailTemplate template = EmailTemplate.compile("t", "<p>Hi {{name}}</p>");
+
+        assertEquals("<p>Hi &lt;script&gt;alert(&quot;x&quot;) &amp; &#39;y&#39;&lt;/script&gt;</p>",
+                body(template, Map.of("name", "<script>alert(\"x\") & 'y'</script>")));
+    }
+
+    @Test
+    void tripleBracesInsertTrustedMarkupUnescaped() {
+        EmailTemplate template = EmailTemplate.compile("t", "<div>{{{rows}}}</div>");
+
+        assertEquals("<div><tr><td>1</td></tr></div>", body(template, Map.of("rows", "<tr><td>1</td></tr>")));
+    }
+
+    @Test
+    void subjectLineIsSplitOffAndNotEscaped() {
+        EmailTemplate template = EmailTemplate.compile("t", "Subject: Order #{{id}} & {{name}}\n\n<p>{{name}}</p>");
+
+        StringBuilder subject = new StringBuilder();
+        template.renderSubject(subject, Map.of("id", 7, "name", "A&B"));
+
+        assertEquals("Order #7 & A&B", subject.toString());
+        assertEquals("<p>A&amp;B</p>", body(template, Map.of("id", 7, "name", "A&B")));
+        assertEquals(List.of("id", "name"), List.copyOf(template.getSlotNames()));
+    }
+
+    @Test
+    void missingValuesRenderEmpty() {
+        EmailTemplate template = EmailTemplate.compile("t", "{{a}}-{{ b }}-{{{c}}}");
+
+        Map<String, Object> model = new HashMap<>();
+        model.put("b", "x");
+        assertEquals("-x-", body(template, model));
+    }
+
+    @Test
+    void textWithoutSlotsIsCopiedAsIs() {
+        String html = "<p style='color: #333;'>Thanks & goodbye {</p>";
+
+        assertEquals(html, body(EmailTemplate.compile("t", html), Map.of()));
+    }
+
+    @Test
+    void escapingLeavesSafeTextUntouched() {
+        StringBuilder out = new StringBuilder();
+        EmailTemplate.appendEscaped(out, "नमस्ते, 14 MG Road");
+        assertEquals("नमस्ते, 14 MG Road", out.toString());
+    }
+
+    @Test
+    void unclosedSlotIsRejectedWithItsOffset() {
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> EmailTemplate.compile("welcome", "<p>Hi {{name</p>"));
+
+        assertTrue(error.getMessage().contains("welcome"), error.getMessage());
+        assertTrue(error.getMessage().contains("offset 6"), error.getMessage());
+    }
+
+    @Test
+    void unclosedTripleSlotIsRejected() {
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.compile("t", "{{{rows}}"));
+    }
+
+    @Test
+    void invalidSlotNamesAreRejected() {
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.compile("t", "{{}}"));
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.compile("t", "{{ }}"));
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.compile("t", "{{first name}}"));
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.compile("t", "{{name<b>}}"));
+    }
+
+    @Test
+    void errorsInTheSubjectAreReportedToo() {
+        assertThrows(IllegalStateException.class, () -> EmailTemplate.compile("t", "Subject: {{id\n<p></p>"));
+    }
+
+    private static String body(EmailTemplate template, Map<String, ?> model) {
+        StringBuilder out = new StringBuilder();
+        template.renderBody(out, model);
+        return out.toString();
+    }
+}
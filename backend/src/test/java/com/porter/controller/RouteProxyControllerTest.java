@@ -0,0 +1,84 @@
+package com.porter.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.web.DefaultSecurityFilterChain;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.util.matcher.AnyRequestMatcher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.porter.security.RouteProxyFirewall;
+import com.porter.service.RouteGateway;
+
+/**
+ * Sends OSRM-style requests through the application's firewall to the proxy controller.
+ */
+class RouteProxyControllerTest {
+
+    private final RouteGateway routeGateway = mock(RouteGateway.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        RouteProxyController controller = new RouteProxyController();
+        ReflectionTestUtils.setField(controller, "routeGateway", routeGateway);
+        FilterChainProxy security = new FilterChainProxy(new DefaultSecurityFilterChain(AnyRequestMatcher.INSTANCE, List.of()));
+        security.setFirewall(new RouteProxyFirewall());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addPlaceholderValue("FRONTEND_URL", "http://localhost:5173")
+                .addFilters(security)
+                .build();
+    }
+
+    @Test
+    void semicolonSeparatedCoordinatesReachTheGateway() throws Exception {
+        when(routeGateway.fetch(any(), any())).thenReturn(CompletableFuture.completedFuture("{\"code\":\"Ok\"}"));
+
+        MvcResult result = mockMvc.perform(get("/api/proxy/osrm/route/v1/driving/77.1,28.6;77.2,28.7")
+                        .queryParam("overview", "false"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"code\":\"Ok\"}"));
+
+        verify(routeGateway).fetch(eq("route/v1/driving/77.1,28.6;77.2,28.7"), eq("overview=false"));
+    }
+
+    @Test
+    void upstreamErrorsArePassedThrough() throws Exception {
+        when(routeGateway.fetch(any(), any())).thenReturn(
+                CompletableFuture.failedFuture(new RouteGateway.UpstreamException(400, "{\"code\":\"InvalidQuery\"}")));
+
+        MvcResult result = mockMvc.perform(get("/api/proxy/osrm/route/v1/driving/77.1,28.6;77.2,28.7"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json("{\"code\":\"InvalidQuery\"}"));
+    }
+
+    @Test
+    void semicolonsStayBlockedOutsideTheProxy() throws Exception {
+        mockMvc.perform(get("/api/deliveries;jsessionid=abc"))
+                .andExpect(status().isBadRequest());
+        verify(routeGateway, never()).fetch(any(), any());
+    }
+}
@@ -0,0 +1,147 @@
+package com.porter.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.porter.DTO.DeliveryDTO;
+import com.porter.model.Delivery;
+import com.porter.model.PaymentStatus;
+import com.porter.model.Porter;
+import com.porter.model.User;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.PackageType;
+import com.porter.model.enums.UserRole;
+import com.porter.testsupport.PersistenceTestConfig;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards the list finders against N+1 selects: mapping every delivery of a list to a
+ * DTO touches its user and porter, which must already be loaded by the finder's
+ * entity graph, so each list costs exactly one statement.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = PersistenceTestConfig.class)
+class DeliveryRepositoryStatementCountTest {
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User customer;
+    private Porter porter;
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        customer = entityManager.persist(user("alice"));
+        User other = entityManager.persist(user("bob"));
+        porter = entityManager.persist(porter("ravi"));
+        Porter otherPorter = entityManager.persist(porter("sunil"));
+        ids = List.of(
+                entityManager.persist(delivery(customer, porter, DeliveryStatus.ACCEPTED)).getId(),
+                entityManager.persist(delivery(customer, otherPorter, DeliveryStatus.DELIVERED)).getId(),
+                entityManager.persist(delivery(customer, null, DeliveryStatus.PENDING)).getId(),
+                entityManager.persist(delivery(other, porter, DeliveryStatus.ACCEPTED)).getId(),
+                entityManager.persist(delivery(other, otherPorter, DeliveryStatus.PICKED_UP)).getId());
+        entityManager.flush();
+    }
+
+    @Test
+    void findAllLoadsUsersAndPortersInOneStatement() {
+        assertSingleStatement(() -> deliveryRepository.findAll());
+    }
+
+    @Test
+    void findAllByIdLoadsUsersAndPortersInOneStatement() {
+        assertSingleStatement(() -> deliveryRepository.findAllById(ids));
+    }
+
+    @Test
+    void userFindersLoadUsersAndPortersInOneStatement() {
+        assertSingleStatement(() -> deliveryRepository.findByUser(customer));
+        assertSingleStatement(() -> deliveryRepository.findByUserId(customer.getId()));
+        assertSingleStatement(() -> deliveryRepository.findByUserAndStatus(customer, DeliveryStatus.ACCEPTED));
+        assertSingleStatement(() -> deliveryRepository.findByUserOrderByScheduledTimeDesc(customer));
+    }
+
+    @Test
+    void porterFindersLoadUsersAndPortersInOneStatement() {
+        assertSingleStatement(() -> deliveryRepository.findByPorter(porter));
+        assertSingleStatement(() -> deliveryRepository.findByPorterAndStatus(porter, DeliveryStatus.ACCEPTED));
+        assertSingleStatement(() -> deliveryRepository.findByPorterAndStatusIn(porter,
+                List.of(DeliveryStatus.ACCEPTED, DeliveryStatus.PICKED_UP)));
+        assertSingleStatement(() -> deliveryRepository.findByPorterOrderByScheduledTimeDesc(porter));
+    }
+
+    @Test
+    void statusFindersLoadUsersAndPortersInOneStatement() {
+        assertSingleStatement(() -> deliveryRepository.findByStatus(DeliveryStatus.ACCEPTED));
+        assertSingleStatement(() -> deliveryRepository.findTop10ByOrderByCreatedAtDesc());
+    }
+
+    // Starts from an empty persistence context so nothing is served from the first-level cache
+    private void assertSingleStatement(Supplier<List<Delivery>> finder) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<DeliveryDTO> dtos = finder.get().stream().map(DeliveryDTO::fromEntity).toList();
+
+        assertFalse(dtos.isEmpty());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private static User user(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("secret");
+        user.setRole(UserRole.USER);
+        return user;
+    }
+
+    private static Porter porter(String name) {
+        Porter porter = new Porter();
+        porter.setName(name);
+        porter.setEmail(name + "@example.com");
+        porter.setPhone("9000000000");
+        porter.setStatus("APPROVED");
+        return porter;
+    }
+
+    private static Delivery delivery(User user, Porter porter, DeliveryStatus status) {
+        Delivery delivery = new Delivery();
+        delivery.setUser(user);
+        delivery.setPorter(porter);
+        delivery.setStatus(status);
+        delivery.setPaymentStatus(PaymentStatus.PENDING);
+        delivery.setPackageType(PackageType.SMALL);
+        delivery.setDeliveryFee(BigDecimal.valueOf(100));
+        delivery.setScheduledTime(LocalDateTime.now());
+        return delivery;
+    }
+}
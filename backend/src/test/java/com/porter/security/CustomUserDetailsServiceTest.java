@@ -0,0 +1,66 @@
+package com.porter.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.porter.model.User;
+import com.porter.model.enums.UserRole;
+import com.porter.repository.PorterRepository;
+import com.porter.repository.UserRepository;
+
+class CustomUserDetailsServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CustomUserDetailsService service = new CustomUserDetailsService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "porterRepository", mock(PorterRepository.class));
+        ReflectionTestUtils.setField(service, "cacheMaxSize", 100L);
+        ReflectionTestUtils.setField(service, "cacheTtlSeconds", 300L);
+        service.init();
+    }
+
+    @Test
+    void loadsEachUserOnceUntilEvicted() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user("alice", true)));
+
+        service.loadUserByUsername("alice");
+        assertEquals("alice", service.loadUserByUsername("alice").getUsername());
+        verify(userRepository, times(1)).findByUsername("alice");
+
+        service.evictUser("alice");
+        service.loadUserByUsername("alice");
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void rejectedLookupsAreNotCached() {
+        when(userRepository.findByUsername("bob")).thenReturn(Optional.of(user("bob", false)));
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("bob"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("bob"));
+        verify(userRepository, times(2)).findByUsername("bob");
+    }
+
+    private static User user(String name, boolean verified) {
+        User user = new User();
+        user.setUsername(name);
+        user.setPassword("secret");
+        user.setRole(UserRole.USER);
+        user.setVerified(verified);
+        return user;
+    }
+}
@@ -0,0 +1,57 @@
+package com.porter.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.porter.DTO.AdminStatisticsDTO;
+
+class AdminStatisticsServiceTest {
+
+    private final DeliveryService deliveryService = mock(DeliveryService.class);
+    private final WebSocketService webSocketService = mock(WebSocketService.class);
+    private final SimpUserRegistry simpUserRegistry = mock(SimpUserRegistry.class);
+    private final AdminStatisticsService service = new AdminStatisticsService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "deliveryService", deliveryService);
+        ReflectionTestUtils.setField(service, "webSocketService", webSocketService);
+        ReflectionTestUtils.setField(service, "simpUserRegistry", simpUserRegistry);
+        ReflectionTestUtils.setField(service, "cacheTtlMs", 5000L);
+        when(deliveryService.getAdminStatistics())
+                .thenReturn(new AdminStatisticsDTO(10, 3, 40, 1250.0, 2, 30, 8));
+    }
+
+    @Test
+    void skipsTheQueryWhileNoAdminIsSubscribed() {
+        when(simpUserRegistry.findSubscriptions(any())).thenReturn(Set.of());
+
+        service.pushStatistics();
+
+        verify(deliveryService, never()).getAdminStatistics();
+        verify(webSocketService, never()).sendAdminUpdate(any());
+    }
+
+    @Test
+    void pushesOnlyChangedNumbersToSubscribedAdmins() {
+        when(simpUserRegistry.findSubscriptions(any())).thenReturn(Set.of(mock(SimpSubscription.class)));
+
+        service.pushStatistics();
+        service.pushStatistics();
+
+        verify(deliveryService, times(2)).getAdminStatistics();
+        verify(webSocketService, times(1)).sendAdminUpdate(any());
+    }
+}
@@ -0,0 +1,192 @@
+package com.porter.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.porter.exception.DeliveryAlreadyClaimedException;
+import com.porter.model.Delivery;
+import com.porter.model.PaymentStatus;
+import com.porter.model.Porter;
+import com.porter.model.User;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.PackageType;
+import com.porter.model.enums.UserRole;
+import com.porter.repository.DeliveryRepository;
+import com.porter.repository.PorterRepository;
+import com.porter.repository.UserRepository;
+import com.porter.testsupport.PersistenceTestConfig;
+
+/**
+ * Races many porters for one PENDING delivery against a real database. Claimers run
+ * without a surrounding test transaction so each one commits on its own, as it would
+ * behind separate requests.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = PersistenceTestConfig.class)
+@Import(DeliveryClaimService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DeliveryClaimServiceTest {
+    private static final int CLAIMERS = 500;
+
+    @Autowired
+    private DeliveryClaimService deliveryClaimService;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private PorterRepository porterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private DeliveryGeoIndex deliveryGeoIndex;
+
+    @MockBean
+    private PorterStatsService porterStatsService;
+
+    @MockBean
+    private DispatchService dispatchService;
+
+    private Long deliveryId;
+    private List<Porter> porters;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("customer");
+        user.setEmail("customer@example.com");
+        user.setPassword("secret");
+        user.setRole(UserRole.USER);
+        user = userRepository.save(user);
+
+        Delivery delivery = new Delivery();
+        delivery.setUser(user);
+        delivery.setStatus(DeliveryStatus.PENDING);
+        delivery.setPaymentStatus(PaymentStatus.PENDING);
+        delivery.setPackageType(PackageType.SMALL);
+        delivery.setDeliveryFee(BigDecimal.valueOf(100));
+        deliveryId = deliveryRepository.save(delivery).getId();
+
+        List<Porter> created = new ArrayList<>();
+        for (int i = 0; i < CLAIMERS; i++) {
+            Porter porter = new Porter();
+            porter.setName("Porter " + i);
+            porter.setEmail("porter" + i + "@example.com");
+            porter.setPhone("90000" + i);
+            porter.setStatus("APPROVED");
+            created.add(porter);
+        }
+        porters = porterRepository.saveAll(created);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deliveryRepository.deleteAll();
+        porterRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void exactlyOneOfManyConcurrentClaimsWins() throws Exception {
+        AtomicInteger rejected = new AtomicInteger();
+        List<Porter> winners = race(index -> {
+            try {
+                deliveryClaimService.claim(deliveryId, porters.get(index));
+                return true;
+            } catch (DeliveryAlreadyClaimedException e) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        });
+
+        assertEquals(1, winners.size());
+        assertEquals(CLAIMERS - 1, rejected.get());
+        assertAssignedTo(winners.get(0));
+    }
+
+    @Test
+    void conditionalUpdateAloneLetsOneClaimThrough() throws Exception {
+        // Bypasses the service's in-flight guard so every claimer reaches the database
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now();
+        List<Porter> winners = race(index -> transaction.execute(status ->
+                deliveryRepository.claim(deliveryId, porters.get(index),
+                        DeliveryStatus.PENDING, DeliveryStatus.ACCEPTED, now) == 1));
+
+        assertEquals(1, winners.size());
+        assertAssignedTo(winners.get(0));
+    }
+
+    private interface Claimer {
+        boolean claim(int index);
+    }
+
+    // Releases all claimers at once and returns the porters whose claim succeeded
+    private List<Porter> race(Claimer claimer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < CLAIMERS; i++) {
+                int index = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return claimer.claim(index);
+                }));
+            }
+            start.countDown();
+            List<Porter> winners = new ArrayList<>();
+            for (int i = 0; i < CLAIMERS; i++) {
+                if (results.get(i).get(60, TimeUnit.SECONDS)) {
+                    winners.add(porters.get(i));
+                }
+            }
+            return winners;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertAssignedTo(Porter winner) {
+        Delivery claimed = deliveryRepository.findById(deliveryId).orElseThrow();
+        assertEquals(DeliveryStatus.ACCEPTED, claimed.getStatus());
+        assertEquals(winner.getId(), porterOf(deliveryId));
+    }
+
+    private Long porterOf(Long id) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                deliveryRepository.findById(id).orElseThrow().getPorter().getId());
+    }
+}
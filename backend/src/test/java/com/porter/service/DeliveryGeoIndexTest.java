@@ -0,0 +1,90 @@
+package com.porter.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.porter.model.Delivery;
+import com.porter.model.Location;
+import com.porter.model.enums.DeliveryStatus;
+
+class DeliveryGeoIndexTest {
+
+    private final DispatchService dispatchService = mock(DispatchService.class);
+    private final DeliveryGeoIndex index = new DeliveryGeoIndex(0.05);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "dispatchService", dispatchService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void pendingDeliveryReachesTheBoardOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.sync(pending(7L));
+
+        assertFalse(index.contains(7L));
+        verify(dispatchService, never()).onJobAvailable(anyLong(), anyDouble(),
+                anyDouble());
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+
+        assertTrue(index.contains(7L));
+        verify(dispatchService).onJobAvailable(7L, 12.97, 77.59);
+    }
+
+    @Test
+    void rolledBackChangesNeverReachTheBoard() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.sync(pending(8L));
+        index.remove(9L);
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertFalse(index.contains(8L));
+        verify(dispatchService, never()).onJobAvailable(anyLong(), anyDouble(),
+                anyDouble());
+        verify(dispatchService, never()).onJobGone(anyLong());
+    }
+
+    @Test
+    void changesOutsideATransactionApplyImmediately() {
+        index.sync(pending(10L));
+        assertTrue(index.contains(10L));
+
+        index.remove(10L);
+        assertFalse(index.contains(10L));
+        verify(dispatchService).onJobGone(10L);
+    }
+
+    private static Delivery pending(Long id) {
+        Location pickup = new Location();
+        pickup.setLatitude(12.97);
+        pickup.setLongitude(77.59);
+        Delivery delivery = new Delivery();
+        delivery.setId(id);
+        delivery.setStatus(DeliveryStatus.PENDING);
+        delivery.setPickupLocation(pickup);
+        return delivery;
+    }
+}
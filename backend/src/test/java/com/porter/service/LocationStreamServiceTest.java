@@ -0,0 +1,70 @@
+package com.porter.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.porter.DTO.LocationDelta;
+
+class LocationStreamServiceTest {
+
+    // About 2 m of longitude at this latitude
+    private static final double STEP = 0.0000185;
+
+    private final WebSocketService webSocketService = mock(WebSocketService.class);
+    private final LocationStreamService service = new LocationStreamService();
+    private final LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "webSocketService", webSocketService);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "minHeadingMeters", 5.0);
+        ReflectionTestUtils.setField(service, "idleMinutes", 30L);
+    }
+
+    @Test
+    void slowStepsAccumulateIntoAHeading() {
+        for (int i = 0; i <= 3; i++) {
+            service.publish(1L, 12.97, 77.59 + i * STEP, start.plusSeconds(i));
+            service.tick();
+        }
+
+        List<LocationDelta> deltas = sentDeltas(4);
+        assertNull(deltas.get(0).getHeading());
+        // 2 m and 4 m from the anchor are jitter; 6 m is movement due east
+        assertNull(deltas.get(1).getHeading());
+        assertNull(deltas.get(2).getHeading());
+        assertEquals(90, deltas.get(3).getHeading());
+    }
+
+    @Test
+    void headingIsKeptWhileTheMarkerJitters() {
+        service.publish(1L, 12.97, 77.59, start);
+        service.tick();
+        service.publish(1L, 12.97 + 10 * STEP, 77.59, start.plusSeconds(1));
+        service.tick();
+        service.publish(1L, 12.97 + 10 * STEP, 77.59 + STEP, start.plusSeconds(2));
+        service.tick();
+
+        List<LocationDelta> deltas = sentDeltas(3);
+        assertEquals(0, deltas.get(1).getHeading());
+        assertEquals(0, deltas.get(2).getHeading());
+    }
+
+    private List<LocationDelta> sentDeltas(int count) {
+        ArgumentCaptor<LocationDelta> captor = ArgumentCaptor.forClass(LocationDelta.class);
+        verify(webSocketService, times(count)).sendLocationUpdate(captor.capture());
+        return captor.getAllValues();
+    }
+}
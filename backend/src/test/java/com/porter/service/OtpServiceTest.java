@@ -0,0 +1,77 @@
+package com.porter.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.porter.Email.EmailService;
+import com.porter.service.impl.InMemoryOtpStore;
+
+class OtpServiceTest {
+
+    private final EmailService emailService = mock(EmailService.class);
+    private final InMemoryOtpStore store = new InMemoryOtpStore();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "maxCodes", 100L);
+        ReflectionTestUtils.setField(store, "maxRateBuckets", 100L);
+        ReflectionTestUtils.invokeMethod(store, "init");
+    }
+
+    @Test
+    void sentCodeVerifiesOnce() {
+        OtpService service = otpService("server-secret");
+
+        String otp = sendCode(service);
+
+        assertTrue(service.verifyOtp("alice", otp, "10.0.0.1"));
+        assertFalse(service.verifyOtp("alice", otp, "10.0.0.1"));
+    }
+
+    @Test
+    void storedHashDependsOnTheServerSecret() {
+        String otp = sendCode(otpService("server-secret"));
+
+        // A node keyed differently cannot match the stored hash, so neither can an offline guess
+        assertFalse(otpService("other-secret").verifyOtp("alice", otp, "10.0.0.1"));
+    }
+
+    @Test
+    void refusesToStartWithoutASecret() {
+        assertThrows(IllegalStateException.class, () -> otpService(" "));
+    }
+
+    private String sendCode(OtpService service) {
+        service.generateAndSendOtp("alice", "alice@example.com", "10.0.0.1");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> model = ArgumentCaptor.forClass(Map.class);
+        verify(emailService).sendTemplatedEmail(eq("alice@example.com"), eq("otp"), model.capture());
+        return (String) model.getValue().get("otp");
+    }
+
+    private OtpService otpService(String secret) {
+        OtpService service = new OtpService();
+        ReflectionTestUtils.setField(service, "emailService", emailService);
+        ReflectionTestUtils.setField(service, "otpStore", store);
+        ReflectionTestUtils.setField(service, "sendPerUserLimit", 3);
+        ReflectionTestUtils.setField(service, "sendPerIpLimit", 20);
+        ReflectionTestUtils.setField(service, "sendWindowSeconds", 600L);
+        ReflectionTestUtils.setField(service, "maxAttempts", 5);
+        ReflectionTestUtils.setField(service, "verifyPerIpLimit", 30);
+        ReflectionTestUtils.setField(service, "verifyWindowSeconds", 600L);
+        ReflectionTestUtils.setField(service, "hmacSecret", secret);
+        service.init();
+        return service;
+    }
+}
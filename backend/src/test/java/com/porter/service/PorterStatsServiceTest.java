@@ -0,0 +1,102 @@
+package com.porter.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.porter.model.Delivery;
+import com.porter.model.PaymentStatus;
+import com.porter.model.Porter;
+import com.porter.model.PorterStats;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.PackageType;
+import com.porter.repository.PorterStatsRepository;
+
+class PorterStatsServiceTest {
+
+    private final PorterStatsRepository porterStatsRepository = mock(PorterStatsRepository.class);
+    private final DispatchService dispatchService = mock(DispatchService.class);
+    private final PorterStatsService service = new PorterStatsService();
+    private final PorterStats stats = new PorterStats(7L);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "porterStatsRepository", porterStatsRepository);
+        ReflectionTestUtils.setField(service, "dispatchService", dispatchService);
+        when(porterStatsRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(stats));
+    }
+
+    @Test
+    void deliveryTimeIsSetOnceAndKeptByLaterStatusWrites() {
+        Delivery delivery = delivery(DeliveryStatus.IN_TRANSIT);
+        assertNull(delivery.getDeliveredAt());
+
+        delivery.setStatus(DeliveryStatus.DELIVERED);
+        LocalDateTime deliveredAt = delivery.getDeliveredAt();
+        delivery.setDeliveredAt(deliveredAt.minusDays(1));
+        delivery.setStatus(DeliveryStatus.DELIVERED);
+
+        assertEquals(deliveredAt.minusDays(1), delivery.getDeliveredAt());
+    }
+
+    @Test
+    void laterSavesOfADeliveredDeliveryDoNotMoveItsEarnings() {
+        Delivery delivery = delivery(DeliveryStatus.IN_TRANSIT);
+        PorterStatsService.Snapshot before = service.snapshot(delivery);
+        delivery.setStatus(DeliveryStatus.DELIVERED);
+        delivery.setDeliveredAt(LocalDateTime.of(2024, 3, 1, 18, 0));
+        service.recordTransition(before, delivery);
+        assertEquals(0, new BigDecimal("120").compareTo(stats.getEarningsByDay().get(LocalDate.of(2024, 3, 1))));
+
+        // A payment the next morning bumps updatedAt without going through recordTransition
+        PorterStatsService.Snapshot paid = service.snapshot(delivery);
+        delivery.setPaymentStatus(PaymentStatus.COMPLETED);
+        delivery.setUpdatedAt(LocalDateTime.of(2024, 3, 2, 9, 0));
+        PorterStatsService.Snapshot afterPayment = service.snapshot(delivery);
+
+        assertEquals(paid, afterPayment);
+        service.recordTransition(afterPayment, delivery);
+        assertEquals(1, stats.getEarningsByDay().size());
+        assertEquals(1, stats.getCompletedDeliveries());
+    }
+
+    @Test
+    void unchangedContributionTouchesNothing() {
+        Delivery delivery = delivery(DeliveryStatus.DELIVERED);
+
+        service.recordTransition(service.snapshot(delivery), delivery);
+
+        verify(porterStatsRepository, never()).findByIdForUpdate(anyLong());
+        verify(porterStatsRepository, never()).save(any());
+        verifyNoInteractions(dispatchService);
+    }
+
+    private static Delivery delivery(DeliveryStatus status) {
+        Porter porter = new Porter();
+        porter.setId(7L);
+        Delivery delivery = new Delivery();
+        delivery.setId(1L);
+        delivery.setPorter(porter);
+        delivery.setPackageType(PackageType.SMALL);
+        delivery.setDeliveryFee(new BigDecimal("120"));
+        delivery.setScheduledTime(LocalDateTime.of(2024, 3, 1, 20, 0));
+        delivery.setUpdatedAt(LocalDateTime.of(2024, 3, 1, 17, 0));
+        delivery.setStatus(status);
+        return delivery;
+    }
+}
@@ -0,0 +1,68 @@
+package com.porter.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.porter.DTO.FareQuote;
+import com.porter.DTO.QuoteRequest;
+
+/**
+ * Batch quoting throughput with no cached routes, i.e. the straight-line path every
+ * fresh pickup/drop pair takes. Not run by surefire; run {@link #main} on the test
+ * classpath, e.g. from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingServiceBenchmark {
+
+    @Param({"1", "100", "5000"})
+    private int batchSize;
+
+    private PricingService pricing;
+    private List<QuoteRequest> requests;
+
+    @Setup
+    public void setUp() {
+        pricing = PricingServiceTest.pricingService("8-10,17-20");
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        requests = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            requests.add(PricingServiceTest.request(
+                    28.4 + random.nextDouble() * 0.5, 76.9 + random.nextDouble() * 0.5,
+                    28.4 + random.nextDouble() * 0.5, 76.9 + random.nextDouble() * 0.5,
+                    now.plusHours(random.nextInt(24))));
+        }
+    }
+
+    @Benchmark
+    public List<FareQuote> quoteBatch() {
+        return pricing.quoteBatch(requests);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PricingServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.porter.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.porter.DTO.FareQuote;
+import com.porter.DTO.LocationDTO;
+import com.porter.DTO.QuoteRequest;
+import com.porter.model.enums.PackageType;
+
+class PricingServiceTest {
+
+    @Test
+    void peakRangesIncludeStartAndExcludeEnd() {
+        PricingService pricing = pricingService("8-10,22-24,0-2");
+
+        assertEquals(1.25, surgeAt(pricing, 8));
+        assertEquals(1.25, surgeAt(pricing, 9));
+        assertEquals(1.0, surgeAt(pricing, 10));
+        assertEquals(1.25, surgeAt(pricing, 23));
+        assertEquals(1.25, surgeAt(pricing, 0));
+        assertEquals(1.0, surgeAt(pricing, 2));
+    }
+
+    @Test
+    void blankPeakHoursDisableSurge() {
+        PricingService pricing = pricingService("");
+
+        assertEquals(1.0, surgeAt(pricing, 9));
+    }
+
+    @Test
+    void outOfRangeOrReversedPeakHoursFailAtStartup() {
+        assertThrows(IllegalArgumentException.class, () -> pricingService("20-25"));
+        assertThrows(IllegalArgumentException.class, () -> pricingService("24-26"));
+        assertThrows(IllegalArgumentException.class, () -> pricingService("-1-3"));
+        assertThrows(IllegalArgumentException.class, () -> pricingService("22-2"));
+        assertThrows(IllegalArgumentException.class, () -> pricingService("8to10"));
+    }
+
+    static PricingService pricingService(String peakHours) {
+        PricingService pricing = new PricingService();
+        ReflectionTestUtils.setField(pricing, "routeGateway", new RouteGateway() {
+            @Override
+            public double[] getCachedRouteDistancesKm(String profile, double fromLat, double fromLng,
+                    double toLat, double toLng) {
+                return null;
+            }
+        });
+        ReflectionTestUtils.setField(pricing, "perKm", 20.0);
+        ReflectionTestUtils.setField(pricing, "minimumFare", 50.0);
+        ReflectionTestUtils.setField(pricing, "roadFactor", 1.3);
+        ReflectionTestUtils.setField(pricing, "smallMultiplier", 1.0);
+        ReflectionTestUtils.setField(pricing, "mediumMultiplier", 1.1);
+        ReflectionTestUtils.setField(pricing, "largeMultiplier", 1.25);
+        ReflectionTestUtils.setField(pricing, "extraLargeMultiplier", 1.5);
+        ReflectionTestUtils.setField(pricing, "freeWeightKg", 5.0);
+        ReflectionTestUtils.setField(pricing, "perExtraKg", 5.0);
+        ReflectionTestUtils.setField(pricing, "peakHoursSpec", peakHours);
+        ReflectionTestUtils.setField(pricing, "peakMultiplier", 1.25);
+        ReflectionTestUtils.setField(pricing, "maxBatchSize", 5000);
+        ReflectionTestUtils.setField(pricing, "routingProfile", "driving");
+        pricing.init();
+        return pricing;
+    }
+
+    static QuoteRequest request(double fromLat, double fromLng, double toLat, double toLng, LocalDateTime at) {
+        QuoteRequest request = new QuoteRequest();
+        request.setPickupLocation(new LocationDTO(fromLat, fromLng, null));
+        request.setDeliveryLocation(new LocationDTO(toLat, toLng, null));
+        request.setPackageType(PackageType.SMALL);
+        request.setScheduledTime(at);
+        return request;
+    }
+
+    private static double surgeAt(PricingService pricing, int hour) {
+        FareQuote quote = pricing.quote(request(28.61, 77.20, 28.70, 77.10,
+                LocalDateTime.of(2026, 1, 5, hour, 30)));
+        return quote.getSurgeMultiplier();
+    }
+}
@@ -0,0 +1,155 @@
+package com.porter.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.porter.model.Delivery;
+import com.porter.model.PaymentStatus;
+import com.porter.model.Tracking;
+import com.porter.model.TrackingArchive;
+import com.porter.model.User;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.PackageType;
+import com.porter.model.enums.UserRole;
+import com.porter.testsupport.PersistenceTestConfig;
+import com.porter.util.TrackCodec;
+
+/**
+ * The path is read as plain rows and merged with the archive by time, so archived
+ * points and rows written after the archive was cut interleave correctly.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = PersistenceTestConfig.class)
+@Import({ TrackingPathService.class, TrackingArchiveService.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class TrackingPathServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Autowired
+    private TrackingPathService trackingPathService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Delivery delivery;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setPassword("secret");
+        user.setRole(UserRole.USER);
+        entityManager.persist(user);
+        delivery = new Delivery();
+        delivery.setUser(user);
+        delivery.setStatus(DeliveryStatus.IN_TRANSIT);
+        delivery.setPaymentStatus(PaymentStatus.PENDING);
+        delivery.setPackageType(PackageType.SMALL);
+        delivery.setDeliveryFee(BigDecimal.valueOf(100));
+        entityManager.persist(delivery);
+    }
+
+    @Test
+    void liveRowsAndArchivedPointsComeBackInTimeOrder() throws Exception {
+        // Written out of order, as late GPS batches are
+        tracking(30, 12.9730, 77.5930, "IN_TRANSIT");
+        tracking(10, 12.9710, 77.5915, "PICKED_UP");
+        tracking(20, 12.9725, 77.5912, "IN_TRANSIT");
+        archive(point(0, 12.9700, 77.5900, "ACCEPTED"), point(25, 12.9728, 77.5922, "IN_TRANSIT"));
+        entityManager.flush();
+        entityManager.clear();
+
+        JsonNode path = load();
+
+        assertEquals(delivery.getId().longValue(), path.get("delivery").get("id").asLong());
+        assertEquals(5, path.get("totalPoints").asInt());
+        assertEquals(List.of(0L, 10L, 20L, 25L, 30L), secondsOf(path));
+        JsonNode first = path.get("points").get(0);
+        assertEquals(12.97, first.get(0).asDouble(), 1e-9);
+        assertEquals(77.59, first.get(1).asDouble(), 1e-9);
+        assertEquals("ACCEPTED", first.get(3).asText());
+    }
+
+    @Test
+    void deliveryWithoutArchiveUsesLiveRowsOnly() throws Exception {
+        tracking(20, 12.9725, 77.5912, "IN_TRANSIT");
+        tracking(10, 12.9710, 77.5915, "PICKED_UP");
+        entityManager.flush();
+        entityManager.clear();
+
+        JsonNode path = load();
+
+        assertEquals(2, path.get("totalPoints").asInt());
+        assertEquals(List.of(10L, 20L), secondsOf(path));
+    }
+
+    private JsonNode load() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trackingPathService.write(trackingPathService.load(delivery.getId(), 0.0, null, null), out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+
+    private static List<Long> secondsOf(JsonNode path) {
+        long start = START.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<Long> seconds = new ArrayList<>();
+        for (JsonNode point : path.get("points")) {
+            seconds.add((point.get(2).asLong() - start) / 1000);
+        }
+        return seconds;
+    }
+
+    private void tracking(int second, double latitude, double longitude, String status) {
+        Tracking tracking = new Tracking();
+        tracking.setDelivery(delivery);
+        tracking.setLatitude(latitude);
+        tracking.setLongitude(longitude);
+        tracking.setStatus(status);
+        tracking.setTimestamp(START.plusSeconds(second));
+        entityManager.persist(tracking);
+    }
+
+    private void archive(TrackCodec.Point... points) {
+        TrackingArchive archive = new TrackingArchive();
+        archive.setDeliveryId(delivery.getId());
+        archive.setEncoded(TrackCodec.encode(List.of(points)));
+        archive.setPointCount(points.length);
+        archive.setFirstTimestamp(START);
+        archive.setLastTimestamp(START);
+        archive.setArchivedAt(START);
+        entityManager.persist(archive);
+    }
+
+    // The archive stores wall-clock times read as UTC
+    private static TrackCodec.Point point(int second, double latitude, double longitude, String status) {
+        return new TrackCodec.Point(latitude, longitude,
+                START.plusSeconds(second).toInstant(ZoneOffset.UTC).toEpochMilli(), status);
+    }
+}
@@ -0,0 +1,148 @@
+package com.porter.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.porter.model.Delivery;
+import com.porter.model.Porter;
+import com.porter.model.Trip;
+import com.porter.model.TripStop;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.StopType;
+import com.porter.model.enums.TripStatus;
+import com.porter.repository.TripRepository;
+
+class TripServiceTest {
+
+    private final TripRepository tripRepository = mock(TripRepository.class);
+    private final PorterService porterService = mock(PorterService.class);
+    private final TrackingService trackingService = mock(TrackingService.class);
+    private final TripService service = new TripService();
+
+    private final Map<Long, Delivery> deliveries = new HashMap<>();
+    private Trip trip;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "tripRepository", tripRepository);
+        ReflectionTestUtils.setField(service, "porterService", porterService);
+        ReflectionTestUtils.setField(service, "trackingService", trackingService);
+
+        Porter porter = new Porter();
+        porter.setName("ravi");
+        trip = new Trip();
+        trip.setId(1L);
+        trip.setPorter(porter);
+        trip.setStatus(TripStatus.PLANNED);
+        when(tripRepository.findWithStopsById(1L)).thenReturn(Optional.of(trip));
+        when(tripRepository.save(any(Trip.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // Applies the transition the way the porter service would
+        when(porterService.updateDeliveryStatus(anyLong(), any(DeliveryStatus.class), anyString())).thenAnswer(invocation -> {
+            deliveries.get(invocation.<Long>getArgument(0)).setStatus(invocation.getArgument(1));
+            return null;
+        });
+    }
+
+    @Test
+    void pickupMovesAnAcceptedDeliveryInTransit() {
+        Delivery delivery = delivery(10L, DeliveryStatus.ACCEPTED);
+        stop(100L, delivery, StopType.PICKUP);
+        stop(101L, delivery, StopType.DROP);
+
+        service.completeStop(1L, 100L, "ravi", null, null);
+
+        InOrder order = Mockito.inOrder(porterService);
+        order.verify(porterService).updateDeliveryStatus(10L, DeliveryStatus.PICKED_UP, "ravi");
+        order.verify(porterService).updateDeliveryStatus(10L, DeliveryStatus.IN_TRANSIT, "ravi");
+        assertEquals(DeliveryStatus.IN_TRANSIT, delivery.getStatus());
+        assertEquals(TripStatus.IN_PROGRESS, trip.getStatus());
+    }
+
+    @Test
+    void pickupSkipsStatusesTheDeliveryHasAlreadyPassed() {
+        Delivery delivery = delivery(10L, DeliveryStatus.IN_TRANSIT);
+        stop(100L, delivery, StopType.PICKUP);
+        stop(101L, delivery, StopType.DROP);
+
+        service.completeStop(1L, 100L, "ravi", null, null);
+
+        verify(porterService, never()).updateDeliveryStatus(anyLong(), any(), anyString());
+        assertNotNull(trip.getStops().get(0).getCompletedAt());
+        assertNull(trip.getStops().get(1).getCompletedAt());
+    }
+
+    @Test
+    void dropOnlyDeliversADeliveryAlreadyInTransit() {
+        Delivery delivery = delivery(10L, DeliveryStatus.IN_TRANSIT);
+        stop(101L, delivery, StopType.DROP);
+
+        service.completeStop(1L, 101L, "ravi", null, null);
+
+        verify(porterService).updateDeliveryStatus(10L, DeliveryStatus.DELIVERED, "ravi");
+        verify(porterService, never()).updateDeliveryStatus(eq(10L), eq(DeliveryStatus.IN_TRANSIT), anyString());
+        assertEquals(TripStatus.COMPLETED, trip.getStatus());
+    }
+
+    @Test
+    void cancelledDeliveryClosesAllItsStopsWithoutTransitions() {
+        Delivery cancelled = delivery(10L, DeliveryStatus.CANCELLED);
+        Delivery other = delivery(11L, DeliveryStatus.IN_TRANSIT);
+        stop(100L, cancelled, StopType.PICKUP);
+        stop(101L, cancelled, StopType.DROP);
+        stop(102L, other, StopType.DROP);
+
+        service.completeStop(1L, 101L, "ravi", null, null);
+
+        verify(porterService, never()).updateDeliveryStatus(anyLong(), any(), anyString());
+        verify(trackingService, never()).addTracking(any());
+        List<TripStop> stops = trip.getStops();
+        assertNotNull(stops.get(0).getCompletedAt());
+        assertNotNull(stops.get(1).getCompletedAt());
+        assertNull(stops.get(2).getCompletedAt());
+        assertEquals(TripStatus.IN_PROGRESS, trip.getStatus());
+
+        service.completeStop(1L, 102L, "ravi", null, null);
+
+        assertEquals(TripStatus.COMPLETED, trip.getStatus());
+    }
+
+    private Delivery delivery(Long id, DeliveryStatus status) {
+        Delivery delivery = new Delivery();
+        delivery.setId(id);
+        delivery.setStatus(status);
+        deliveries.put(id, delivery);
+        return delivery;
+    }
+
+    private void stop(Long id, Delivery delivery, StopType type) {
+        TripStop stop = new TripStop();
+        stop.setId(id);
+        stop.setTrip(trip);
+        stop.setDelivery(delivery);
+        stop.setType(type);
+        stop.setSequence(trip.getStops().size());
+        stop.setLatitude(12.97);
+        stop.setLongitude(77.59);
+        trip.getStops().add(stop);
+    }
+}
@@ -0,0 +1,159 @@
+package com.porter.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.porter.model.Delivery;
+import com.porter.model.PaymentStatus;
+import com.porter.model.Porter;
+import com.porter.model.Trip;
+import com.porter.model.TripStop;
+import com.porter.model.User;
+import com.porter.model.enums.DeliveryStatus;
+import com.porter.model.enums.PackageType;
+import com.porter.model.enums.StopType;
+import com.porter.model.enums.TripStatus;
+import com.porter.model.enums.UserRole;
+import com.porter.testsupport.PersistenceTestConfig;
+
+/**
+ * Status changes made outside a trip, e.g. from the single-delivery endpoints, must
+ * close the stops they make moot so the trip neither replays them nor stays open.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = PersistenceTestConfig.class)
+@Import(TripStopSync.class)
+class TripStopSyncTest {
+
+    @Autowired
+    private TripStopSync tripStopSync;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Delivery first;
+    private Delivery second;
+    private Long tripId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setPassword("secret");
+        user.setRole(UserRole.USER);
+        entityManager.persist(user);
+        Porter porter = new Porter();
+        porter.setName("ravi");
+        porter.setEmail("ravi@example.com");
+        porter.setPhone("9000000000");
+        porter.setStatus("APPROVED");
+        entityManager.persist(porter);
+        first = entityManager.persist(delivery(user, porter));
+        second = entityManager.persist(delivery(user, porter));
+
+        Trip trip = new Trip();
+        trip.setPorter(porter);
+        trip.setStatus(TripStatus.PLANNED);
+        addStop(trip, first, StopType.PICKUP);
+        addStop(trip, second, StopType.PICKUP);
+        addStop(trip, first, StopType.DROP);
+        addStop(trip, second, StopType.DROP);
+        tripId = entityManager.persist(trip).getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pickedUpOutsideTheTripClosesOnlyThePickup() {
+        changeStatus(first, DeliveryStatus.PICKED_UP);
+
+        Trip trip = reload();
+        assertEquals(TripStatus.IN_PROGRESS, trip.getStatus());
+        assertNotNull(stop(trip, first, StopType.PICKUP).getCompletedAt());
+        assertNull(stop(trip, first, StopType.DROP).getCompletedAt());
+        assertNull(stop(trip, second, StopType.PICKUP).getCompletedAt());
+    }
+
+    @Test
+    void tripCompletesOnceEveryDeliveryIsDeliveredOrCancelled() {
+        changeStatus(first, DeliveryStatus.DELIVERED);
+        assertEquals(TripStatus.IN_PROGRESS, reload().getStatus());
+
+        changeStatus(second, DeliveryStatus.CANCELLED);
+
+        Trip trip = reload();
+        assertEquals(TripStatus.COMPLETED, trip.getStatus());
+        assertNotNull(trip.getCompletedAt());
+    }
+
+    @Test
+    void leavesTripsThatAreNoLongerOpenAlone() {
+        Trip trip = reload();
+        trip.setStatus(TripStatus.CANCELLED);
+        entityManager.flush();
+        entityManager.clear();
+
+        changeStatus(first, DeliveryStatus.DELIVERED);
+
+        assertNull(stop(reload(), first, StopType.DROP).getCompletedAt());
+    }
+
+    private void changeStatus(Delivery delivery, DeliveryStatus status) {
+        Delivery managed = entityManager.find(Delivery.class, delivery.getId());
+        managed.setStatus(status);
+        tripStopSync.sync(managed);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Trip reload() {
+        return entityManager.find(Trip.class, tripId);
+    }
+
+    private static TripStop stop(Trip trip, Delivery delivery, StopType type) {
+        return trip.getStops().stream()
+                .filter(s -> s.getDelivery().getId().equals(delivery.getId()) && s.getType() == type)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static void addStop(Trip trip, Delivery delivery, StopType type) {
+        TripStop stop = new TripStop();
+        stop.setTrip(trip);
+        stop.setDelivery(delivery);
+        stop.setType(type);
+        stop.setSequence(trip.getStops().size());
+        stop.setLatitude(12.97);
+        stop.setLongitude(77.59);
+        trip.getStops().add(stop);
+    }
+
+    private static Delivery delivery(User user, Porter porter) {
+        Delivery delivery = new Delivery();
+        delivery.setUser(user);
+        delivery.setPorter(porter);
+        delivery.setStatus(DeliveryStatus.ACCEPTED);
+        delivery.setPaymentStatus(PaymentStatus.PENDING);
+        delivery.setPackageType(PackageType.SMALL);
+        delivery.setDeliveryFee(BigDecimal.valueOf(100));
+        delivery.setScheduledTime(LocalDateTime.now());
+        return delivery;
+    }
+}
@@ -0,0 +1,159 @@
+package com.porter.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.porter.service.OtpStore.VerifyOutcome;
+import com.porter.testsupport.PersistenceTestConfig;
+
+/**
+ * Runs the store's SQL against H2 in PostgreSQL mode. Calls are made without a test
+ * transaction so each statement commits on its own, as it does behind a request.
+ */
+@DataJpaTest(properties = "otp.store=jdbc")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = PersistenceTestConfig.class)
+@Import(JdbcOtpStore.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcOtpStoreTest {
+    private static final Duration WINDOW = Duration.ofMinutes(10);
+    private static final int THREADS = 32;
+
+    @Autowired
+    private JdbcOtpStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Instant now = Instant.parse("2024-01-01T09:03:00Z");
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM otp_code");
+        jdbcTemplate.update("DELETE FROM otp_rate_limit");
+    }
+
+    @Test
+    void verifyConsumesTheRightCodeOnce() {
+        store.put("alice", hash("123456"), now.plusSeconds(300));
+
+        assertEquals(VerifyOutcome.VERIFIED, store.verify("alice", hash("123456"), 5, now));
+        assertEquals(VerifyOutcome.MISSING, store.verify("alice", hash("123456"), 5, now));
+    }
+
+    @Test
+    void wrongGuessesLockTheCodeUntilANewOneIsIssued() {
+        store.put("alice", hash("123456"), now.plusSeconds(300));
+
+        assertEquals(VerifyOutcome.WRONG, store.verify("alice", hash("000000"), 2, now));
+        assertEquals(VerifyOutcome.WRONG, store.verify("alice", hash("000001"), 2, now));
+        assertEquals(VerifyOutcome.LOCKED, store.verify("alice", hash("123456"), 2, now));
+
+        store.put("alice", hash("654321"), now.plusSeconds(300));
+        assertEquals(VerifyOutcome.VERIFIED, store.verify("alice", hash("654321"), 2, now));
+    }
+
+    @Test
+    void expiredCodesAreMissing() {
+        store.put("alice", hash("123456"), now.plusSeconds(300));
+
+        assertEquals(VerifyOutcome.MISSING, store.verify("alice", hash("123456"), 5, now.plusSeconds(300)));
+        assertEquals(VerifyOutcome.MISSING, store.verify("bob", hash("123456"), 5, now));
+    }
+
+    @Test
+    void tryAcquireCountsHitsPerFixedWindow() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(store.tryAcquire("send:user:alice", 3, WINDOW, now));
+        }
+        assertFalse(store.tryAcquire("send:user:alice", 3, WINDOW, now.plusSeconds(60)));
+        assertTrue(store.tryAcquire("send:user:bob", 3, WINDOW, now));
+
+        // 09:10 starts the next ten-minute window
+        assertTrue(store.tryAcquire("send:user:alice", 3, WINDOW, now.plus(Duration.ofMinutes(7))));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT hits FROM otp_rate_limit WHERE bucket = 'send:user:alice'", Integer.class));
+    }
+
+    @Test
+    void concurrentHitsNeverExceedTheLimit() throws Exception {
+        List<Boolean> results = race(() -> store.tryAcquire("verify:ip:10.0.0.1", 5, WINDOW, now));
+
+        assertEquals(5, results.stream().filter(Boolean::booleanValue).count());
+    }
+
+    @Test
+    void concurrentVerifiesConsumeTheCodeOnce() throws Exception {
+        store.put("alice", hash("123456"), now.plusSeconds(300));
+
+        List<VerifyOutcome> results = race(() -> store.verify("alice", hash("123456"), 5, now));
+
+        assertEquals(1, results.stream().filter(VerifyOutcome.VERIFIED::equals).count());
+    }
+
+    @Test
+    void concurrentPutsLeaveOneCode() throws Exception {
+        race(() -> {
+            store.put("alice", hash("123456"), now.plusSeconds(300));
+            return null;
+        });
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM otp_code", Integer.class));
+        assertEquals(VerifyOutcome.VERIFIED, store.verify("alice", hash("123456"), 5, now));
+    }
+
+    private static <T> List<T> race(Callable<T> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] hash(String code) {
+        byte[] hash = new byte[32];
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(bytes, 0, hash, 0, bytes.length);
+        return hash;
+    }
+}
@@ -0,0 +1,19 @@
+package com.porter.testsupport;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Entities and repositories only, for {@code @DataJpaTest} slices. The application
+ * class scans every component explicitly, which would pull the whole web layer into
+ * a repository test; tests name this class in {@code @ContextConfiguration} instead
+ * and import the services they exercise.
+ * <p>
+ * Deliberately not a {@code @Configuration}: the application's component scan covers
+ * every package under {@code com.porter}, test classes included, and would register
+ * the repositories a second time in {@code @SpringBootTest} contexts.
+ */
+@EntityScan(basePackages = "com.porter.model")
+@EnableJpaRepositories(basePackages = "com.porter.repository")
+public class PersistenceTestConfig {
+}
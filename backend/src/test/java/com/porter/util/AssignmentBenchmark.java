@@ -0,0 +1,108 @@
+package com.porter.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Solve time of {@link AssignmentSolver} on a seeded synthetic instance: jobs and
+ * workers clustered around a handful of city centres with pickups due over the coming
+ * hours, solved with the default planner settings on every core. The same seed always
+ * builds the same instance. Not run by surefire; run {@link #main} on the test
+ * classpath, e.g. from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AssignmentBenchmark {
+
+    // Bengaluru, Mumbai, Delhi, Hyderabad, Chennai, Pune
+    private static final double[][] CITIES = {
+            {12.9716, 77.5946}, {19.0760, 72.8777}, {28.6139, 77.2090},
+            {17.3850, 78.4867}, {13.0827, 80.2707}, {18.5204, 73.8567}
+    };
+
+    static final AssignmentSolver.Settings DEFAULT_SETTINGS = new AssignmentSolver.Settings(15, 20, 0.5, 2, 250_000);
+
+    private static final double SPREAD_DEGREES = 0.12;
+    private static final int DUE_WITHIN_MINUTES = 120;
+    private static final int MAX_LOAD = 3;
+
+    @Param({"1000:200", "10000:2000"})
+    private String jobsAndWorkers;
+
+    @Param({"4"})
+    private int cities;
+
+    private List<AssignmentSolver.Job> jobs;
+    private List<AssignmentSolver.Worker> workers;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        String[] sizes = jobsAndWorkers.split(":");
+        Random random = new Random(42);
+        jobs = jobs(random, Integer.parseInt(sizes[0]), cities);
+        workers = workers(random, Integer.parseInt(sizes[1]), cities);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public AssignmentSolver.Result solve() {
+        return AssignmentSolver.solve(jobs, workers, DEFAULT_SETTINGS, pool);
+    }
+
+    static List<AssignmentSolver.Job> jobs(Random random, int count, int cities) {
+        List<AssignmentSolver.Job> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] city = CITIES[random.nextInt(cities)];
+            jobs.add(new AssignmentSolver.Job(i,
+                    city[0] + random.nextGaussian() * SPREAD_DEGREES,
+                    city[1] + random.nextGaussian() * SPREAD_DEGREES,
+                    random.nextInt(DUE_WITHIN_MINUTES + 1)));
+        }
+        return jobs;
+    }
+
+    static List<AssignmentSolver.Worker> workers(Random random, int count, int cities) {
+        List<AssignmentSolver.Worker> workers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] city = CITIES[random.nextInt(cities)];
+            workers.add(new AssignmentSolver.Worker(i,
+                    city[0] + random.nextGaussian() * SPREAD_DEGREES,
+                    city[1] + random.nextGaussian() * SPREAD_DEGREES,
+                    random.nextInt(MAX_LOAD)));
+        }
+        return workers;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AssignmentBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,145 @@
+package com.porter.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AssignmentSolverTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void hungarianMatchesBruteForceOnSmallMatrices() {
+        Random random = new Random(1);
+        for (int round = 0; round < 500; round++) {
+            int rows = 1 + random.nextInt(5);
+            int cols = rows + random.nextInt(3);
+            double[] cost = new double[rows * cols];
+            for (int i = 0; i < cost.length; i++) {
+                cost[i] = random.nextInt(4) == 0 ? random.nextInt(3) : random.nextDouble() * 100;
+            }
+
+            int[] assignment = AssignmentSolver.hungarian(cost, rows, cols);
+
+            assertEquals(rows, new HashSet<>(toList(assignment)).size(), "columns must be distinct");
+            assertEquals(bruteForce(cost, rows, cols), total(cost, cols, assignment), 1e-9);
+        }
+    }
+
+    @Test
+    void hungarianRejectsMoreRowsThanColumns() {
+        assertThrows(IllegalArgumentException.class, () -> AssignmentSolver.hungarian(new double[6], 3, 2));
+    }
+
+    @Test
+    void solveFindsTheShortestTotalDistanceWhereGreedyWouldNot() {
+        // Greedy gives worker 10 its nearest job 2 and leaves worker 20 with a long trip to job 1
+        AssignmentSolver.Settings byDistance = new AssignmentSolver.Settings(100, 20, 0, 0, 250_000);
+        List<AssignmentSolver.Job> jobs = List.of(
+                new AssignmentSolver.Job(1, 12.90, 77.50, 600),
+                new AssignmentSolver.Job(2, 12.90, 77.56, 600));
+        List<AssignmentSolver.Worker> workers = List.of(
+                new AssignmentSolver.Worker(10, 12.90, 77.54, 0),
+                new AssignmentSolver.Worker(20, 12.90, 77.62, 0));
+
+        AssignmentSolver.Result result = AssignmentSolver.solve(jobs, workers, byDistance, pool);
+
+        assertEquals(1, result.getPartitions());
+        assertEquals(2, result.getMatches().size());
+        for (AssignmentSolver.Match match : result.getMatches()) {
+            assertEquals(match.getJobId() == 1 ? 10 : 20, match.getWorkerId());
+        }
+    }
+
+    @Test
+    void workersBeyondTheMaximumDistanceStayUnmatched() {
+        AssignmentSolver.Settings settings = new AssignmentSolver.Settings(5, 20, 0.5, 2, 250_000);
+        List<AssignmentSolver.Job> jobs = List.of(new AssignmentSolver.Job(1, 12.97, 77.59, 60));
+        List<AssignmentSolver.Worker> workers = List.of(new AssignmentSolver.Worker(10, 13.20, 77.59, 0));
+
+        assertTrue(AssignmentSolver.solve(jobs, workers, settings, pool).getMatches().isEmpty());
+    }
+
+    @Test
+    void largeInstancesSplitIntoPartitionsThatStayWithinACity() {
+        Random random = new Random(42);
+        List<AssignmentSolver.Job> jobs = AssignmentBenchmark.jobs(random, 400, 2);
+        List<AssignmentSolver.Worker> workers = AssignmentBenchmark.workers(random, 300, 2);
+        AssignmentSolver.Settings small = new AssignmentSolver.Settings(100, 20, 0.5, 2, 2_000);
+
+        AssignmentSolver.Result result = AssignmentSolver.solve(jobs, workers, small, pool);
+
+        assertTrue(result.getPartitions() > 1, "partitions " + result.getPartitions());
+        Set<Long> jobIds = new HashSet<>();
+        Set<Long> workerIds = new HashSet<>();
+        for (AssignmentSolver.Match match : result.getMatches()) {
+            assertTrue(jobIds.add(match.getJobId()), "job matched twice");
+            assertTrue(workerIds.add(match.getWorkerId()), "worker matched twice");
+            // Bengaluru and Mumbai are ~840 km apart; no pair may straddle them
+            assertTrue(match.getDistanceKm() < 100, "distance " + match.getDistanceKm());
+        }
+        // Splitting trades a little optimality but still matches most of the smaller side
+        assertTrue(result.getMatches().size() > workers.size() * 0.8, "matched " + result.getMatches().size());
+    }
+
+    @Test
+    void oneLeafWhenTheMatrixFits() {
+        Random random = new Random(7);
+        List<AssignmentSolver.Job> jobs = AssignmentBenchmark.jobs(random, 50, 1);
+        List<AssignmentSolver.Worker> workers = AssignmentBenchmark.workers(random, 40, 1);
+
+        AssignmentSolver.Result result = AssignmentSolver.solve(jobs, workers, AssignmentBenchmark.DEFAULT_SETTINGS, pool);
+
+        assertEquals(1, result.getPartitions());
+    }
+
+    private static double bruteForce(double[] cost, int rows, int cols) {
+        return bruteForce(cost, rows, cols, 0, new boolean[cols]);
+    }
+
+    private static double bruteForce(double[] cost, int rows, int cols, int row, boolean[] taken) {
+        if (row == rows) {
+            return 0;
+        }
+        double best = Double.MAX_VALUE;
+        for (int col = 0; col < cols; col++) {
+            if (!taken[col]) {
+                taken[col] = true;
+                best = Math.min(best, cost[row * cols + col] + bruteForce(cost, rows, cols, row + 1, taken));
+                taken[col] = false;
+            }
+        }
+        return best;
+    }
+
+    private static double total(double[] cost, int cols, int[] assignment) {
+        double sum = 0;
+        for (int row = 0; row < assignment.length; row++) {
+            sum += cost[row * cols + assignment[row]];
+        }
+        return sum;
+    }
+
+    private static List<Integer> toList(int[] values) {
+        List<Integer> list = new ArrayList<>(values.length);
+        for (int value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
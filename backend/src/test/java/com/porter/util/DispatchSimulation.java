@@ -0,0 +1,181 @@
+package com.porter.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Deterministic load simulation for {@link DispatchBoard}. Porters and jobs are
+ * scattered over a square area from a seeded {@link Random}, time advances in fixed
+ * ticks on a virtual clock, and each offer is accepted after a random delay or left
+ * to expire. The same seed and parameters always yield the same matching figures;
+ * only the reported tick timings depend on the machine.
+ */
+public final class DispatchSimulation {
+
+    public static final class Scenario {
+        private long seed = 42;
+        private int porters = 500;
+        private int jobsPerMinute = 1000;
+        private int minutes = 10;
+        private double acceptProbability = 0.7;
+        private long tickMillis = 250;
+        private double centerLatitude = 12.9716;
+        private double centerLongitude = 77.5946;
+        private double spanDegrees = 0.3;
+        private int minServiceMinutes = 10;
+        private int maxServiceMinutes = 40;
+
+        public void setSeed(long seed) { this.seed = seed; }
+        public void setPorters(int porters) { this.porters = porters; }
+        public void setJobsPerMinute(int jobsPerMinute) { this.jobsPerMinute = jobsPerMinute; }
+        public void setMinutes(int minutes) { this.minutes = minutes; }
+        public void setAcceptProbability(double acceptProbability) { this.acceptProbability = acceptProbability; }
+        public void setTickMillis(long tickMillis) { this.tickMillis = tickMillis; }
+    }
+
+    private static final int EVENT_ACCEPT = 0;
+    private static final int EVENT_COMPLETE = 1;
+
+    // Porter reaction scheduled on the virtual clock
+    private static final class Event {
+        final long atMillis;
+        final long sequence;
+        final int type;
+        final long jobId;
+        final long porterId;
+
+        Event(long atMillis, long sequence, int type, long jobId, long porterId) {
+            this.atMillis = atMillis;
+            this.sequence = sequence;
+            this.type = type;
+            this.jobId = jobId;
+            this.porterId = porterId;
+        }
+    }
+
+    private DispatchSimulation() {
+    }
+
+    public static Map<String, Object> run(DispatchBoard.Settings settings, double cellSizeDegrees, Scenario scenario) {
+        Random random = new Random(scenario.seed);
+        DispatchBoard board = new DispatchBoard(settings, cellSizeDegrees);
+        double half = scenario.spanDegrees / 2;
+
+        for (long porterId = 1; porterId <= scenario.porters; porterId++) {
+            board.upsertPorter(porterId, 0);
+            board.updatePosition(porterId,
+                    scenario.centerLatitude + (random.nextDouble() * 2 - 1) * half,
+                    scenario.centerLongitude + (random.nextDouble() * 2 - 1) * half, 0);
+        }
+
+        long durationMillis = scenario.minutes * 60_000L;
+        int jobCount = (int) Math.min(Integer.MAX_VALUE, (long) scenario.jobsPerMinute * scenario.minutes);
+        long[] arrivals = new long[jobCount];
+        for (int i = 0; i < jobCount; i++) {
+            arrivals[i] = (long) (random.nextDouble() * durationMillis);
+        }
+        Arrays.sort(arrivals);
+        double[] jobLat = new double[jobCount];
+        double[] jobLng = new double[jobCount];
+        for (int i = 0; i < jobCount; i++) {
+            jobLat[i] = scenario.centerLatitude + (random.nextDouble() * 2 - 1) * half;
+            jobLng[i] = scenario.centerLongitude + (random.nextDouble() * 2 - 1) * half;
+        }
+
+        PriorityQueue<Event> events = new PriorityQueue<>(
+                Comparator.comparingLong((Event e) -> e.atMillis).thenComparingLong(e -> e.sequence));
+        long eventSequence = 0;
+        long matched = 0;
+        long lastTouch = 0;
+        List<Long> waits = new ArrayList<>();
+        long offers = 0;
+        long expired = 0;
+        long abandoned = 0;
+        long maxTickNanos = 0;
+        long totalTickNanos = 0;
+        long ticks = 0;
+
+        int nextArrival = 0;
+        long lastTick = durationMillis + settings.getOfferTtlMillis() * 2;
+        for (long now = 0; now <= lastTick; now += scenario.tickMillis) {
+            while (nextArrival < jobCount && arrivals[nextArrival] <= now) {
+                board.addJob(nextArrival, jobLat[nextArrival], jobLng[nextArrival], now);
+                nextArrival++;
+            }
+            while (!events.isEmpty() && events.peek().atMillis <= now) {
+                Event event = events.poll();
+                if (event.type == EVENT_ACCEPT) {
+                    if (board.accept(event.jobId, event.porterId, now)) {
+                        board.adjustLoad(event.porterId, 1);
+                        board.updatePosition(event.porterId, jobLat[(int) event.jobId], jobLng[(int) event.jobId], now);
+                        matched++;
+                        waits.add(now - arrivals[(int) event.jobId]);
+                        long serviceMillis = (scenario.minServiceMinutes
+                                + random.nextInt(Math.max(1, scenario.maxServiceMinutes - scenario.minServiceMinutes + 1))) * 60_000L;
+                        events.add(new Event(now + serviceMillis, eventSequence++, EVENT_COMPLETE, event.jobId, event.porterId));
+                    }
+                } else {
+                    board.adjustLoad(event.porterId, -1);
+                    board.updatePosition(event.porterId, jobLat[(int) event.jobId], jobLng[(int) event.jobId], now);
+                }
+            }
+
+            long started = System.nanoTime();
+            DispatchBoard.TickResult result = board.tick(now);
+            long elapsed = System.nanoTime() - started;
+            totalTickNanos += elapsed;
+            maxTickNanos = Math.max(maxTickNanos, elapsed);
+            ticks++;
+
+            offers += result.getOffered().size();
+            expired += result.getExpired().size();
+            abandoned += result.getAbandoned().size();
+            for (DispatchBoard.Offer offer : result.getOffered()) {
+                if (random.nextDouble() < scenario.acceptProbability) {
+                    long delay = 1 + (long) (random.nextDouble() * settings.getOfferTtlMillis() / 2);
+                    events.add(new Event(now + delay, eventSequence++, EVENT_ACCEPT, offer.getJobId(), offer.getPorterId()));
+                }
+            }
+            // Keep porters' positions fresh, as live tracking would
+            if (now - lastTouch >= 60_000) {
+                lastTouch = now;
+                for (Long porterId : board.porterIds()) {
+                    board.touch(porterId, now);
+                }
+            }
+        }
+
+        Collections.sort(waits);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("seed", scenario.seed);
+        report.put("porters", scenario.porters);
+        report.put("jobs", jobCount);
+        report.put("matched", matched);
+        report.put("abandoned", abandoned);
+        report.put("stillOpen", board.getCounts().get("openJobs"));
+        report.put("offers", offers);
+        report.put("expiredOffers", expired);
+        report.put("matchRate", jobCount > 0 ? (double) matched / jobCount : 0.0);
+        report.put("medianWaitMs", percentile(waits, 0.5));
+        report.put("p95WaitMs", percentile(waits, 0.95));
+        report.put("ticks", ticks);
+        report.put("meanTickMicros", ticks > 0 ? totalTickNanos / ticks / 1000 : 0);
+        report.put("maxTickMicros", maxTickNanos / 1000);
+        return report;
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1);
+        return sorted.get(Math.max(0, index));
+    }
+}
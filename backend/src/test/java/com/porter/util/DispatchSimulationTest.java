@@ -0,0 +1,94 @@
+package com.porter.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class DispatchSimulationTest {
+
+    private static final DispatchBoard.Settings SETTINGS =
+            new DispatchBoard.Settings(5, 20, 3, 2, 20_000, 5, 5_000, 900_000);
+
+    @Test
+    void sameSeedGivesSameMatching() {
+        Map<String, Object> first = DispatchSimulation.run(SETTINGS, 0.05, scenario(7));
+        Map<String, Object> second = DispatchSimulation.run(SETTINGS, 0.05, scenario(7));
+
+        for (String key : new String[] {"jobs", "matched", "abandoned", "stillOpen", "offers", "expiredOffers",
+                "medianWaitMs", "p95WaitMs"}) {
+            assertEquals(first.get(key), second.get(key), key);
+        }
+    }
+
+    @Test
+    void enoughPortersMatchMostJobs() {
+        Map<String, Object> report = DispatchSimulation.run(SETTINGS, 0.05, scenario(42));
+
+        long jobs = ((Number) report.get("jobs")).longValue();
+        long matched = ((Number) report.get("matched")).longValue();
+        long abandoned = ((Number) report.get("abandoned")).longValue();
+        assertTrue((double) matched / jobs > 0.9, "matchRate " + report.get("matchRate"));
+        assertEquals(jobs, matched + abandoned + ((Number) report.get("stillOpen")).longValue());
+    }
+
+    @Test
+    void jobIsOfferedPastStaleAndTriedPortersNearerThanTheCandidateLimit() {
+        DispatchBoard.Settings settings = new DispatchBoard.Settings(5, 20, 3, 2, 20_000, 50, 5_000, 60_000);
+        DispatchBoard board = new DispatchBoard(settings, 0.05);
+        // 15 porters right on top of the job stop reporting, 15 more decline it
+        for (long porterId = 1; porterId <= 30; porterId++) {
+            board.upsertPorter(porterId, 0);
+            board.updatePosition(porterId, 12.97 + porterId * 1e-4, 77.59, porterId <= 15 ? 0 : 100_000);
+        }
+        board.upsertPorter(99, 0);
+        board.updatePosition(99, 12.99, 77.59, 100_000);
+        board.addJob(1, 12.97, 77.59, 100_000);
+
+        long now = 100_000;
+        for (long porterId = 16; porterId <= 30; porterId++) {
+            DispatchBoard.Offer offer = board.tick(now).getOffered().get(0);
+            assertEquals(porterId, offer.getPorterId());
+            assertNotNull(board.decline(1, porterId, now));
+        }
+
+        List<DispatchBoard.Offer> offered = board.tick(now).getOffered();
+        assertEquals(1, offered.size());
+        assertEquals(99, offered.get(0).getPorterId());
+        // Stale porters left the index; the decliners remain free for other jobs
+        assertEquals(15, board.getCounts().get("availablePorters"));
+    }
+
+    @Test
+    void declinesCountTowardsMaxAttempts() {
+        DispatchBoard.Settings settings = new DispatchBoard.Settings(5, 20, 3, 2, 20_000, 2, 5_000, 900_000);
+        DispatchBoard board = new DispatchBoard(settings, 0.05);
+        for (long porterId = 1; porterId <= 3; porterId++) {
+            board.upsertPorter(porterId, 0);
+            board.updatePosition(porterId, 12.97 + porterId * 1e-3, 77.59, 0);
+        }
+        board.addJob(1, 12.97, 77.59, 0);
+
+        board.decline(1, board.tick(0).getOffered().get(0).getPorterId(), 0);
+        board.decline(1, board.tick(0).getOffered().get(0).getPorterId(), 0);
+        DispatchBoard.TickResult result = board.tick(0);
+
+        assertTrue(result.getOffered().isEmpty());
+        assertEquals(List.of(1L), result.getAbandoned());
+        assertFalse(board.hasJob(1));
+    }
+
+    private static DispatchSimulation.Scenario scenario(long seed) {
+        DispatchSimulation.Scenario scenario = new DispatchSimulation.Scenario();
+        scenario.setSeed(seed);
+        scenario.setPorters(200);
+        scenario.setJobsPerMinute(60);
+        scenario.setMinutes(5);
+        return scenario;
+    }
+}
@@ -0,0 +1,195 @@
+package com.porter.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class StopSequencerTest {
+
+    private static final double START_LAT = 12.9716;
+    private static final double START_LNG = 77.5946;
+
+    @Test
+    void pickupsStayAheadOfTheirDropsOnRandomInstances() {
+        Random random = new Random(11);
+        for (int round = 0; round < 300; round++) {
+            List<StopSequencer.Stop> stops = randomStops(random, 1 + random.nextInt(8), random.nextInt(3));
+
+            StopSequencer.Route route = StopSequencer.sequence(START_LAT, START_LNG, stops);
+
+            assertPermutation(route.getOrder(), stops.size());
+            assertPrecedence(stops, route.getOrder());
+            assertEquals(length(stops, route.getOrder()), route.getDistanceKm(), 1e-9);
+        }
+    }
+
+    @Test
+    void smallInstancesComeCloseToTheBestFeasibleOrder() {
+        Random random = new Random(19);
+        for (int round = 0; round < 100; round++) {
+            List<StopSequencer.Stop> stops = randomStops(random, 1 + random.nextInt(3), random.nextInt(2));
+
+            StopSequencer.Route route = StopSequencer.sequence(START_LAT, START_LNG, stops);
+
+            double best = bestFeasible(stops);
+            assertTrue(route.getDistanceKm() <= best * 1.25 + 1e-9,
+                    "route " + route.getDistanceKm() + " km, best " + best + " km");
+        }
+    }
+
+    @Test
+    void dropFarAheadOfItsPickupWaitsForThePickup() {
+        // Visiting the drop first would be shorter, but the parcel is not on board yet
+        List<StopSequencer.Stop> stops = List.of(
+                new StopSequencer.Stop(1, false, START_LAT, START_LNG + 0.01),
+                new StopSequencer.Stop(1, true, START_LAT, START_LNG + 0.05));
+
+        int[] order = StopSequencer.sequence(START_LAT, START_LNG, stops).getOrder();
+
+        assertArrayEquals(new int[] {1, 0}, order);
+    }
+
+    @Test
+    void dropsAlreadyOnBoardArePlacedFreely() {
+        // Parcel 7 is on board; its drop sits on the way out and again at the far end
+        List<StopSequencer.Stop> onTheWay = List.of(
+                new StopSequencer.Stop(1, true, START_LAT, START_LNG + 0.02),
+                new StopSequencer.Stop(1, false, START_LAT, START_LNG + 0.03),
+                new StopSequencer.Stop(7, false, START_LAT, START_LNG + 0.01));
+        List<StopSequencer.Stop> atTheEnd = List.of(
+                new StopSequencer.Stop(7, false, START_LAT, START_LNG + 0.04),
+                new StopSequencer.Stop(1, true, START_LAT, START_LNG + 0.02),
+                new StopSequencer.Stop(1, false, START_LAT, START_LNG + 0.03));
+
+        assertArrayEquals(new int[] {2, 0, 1}, StopSequencer.sequence(START_LAT, START_LNG, onTheWay).getOrder());
+        assertArrayEquals(new int[] {1, 2, 0}, StopSequencer.sequence(START_LAT, START_LNG, atTheEnd).getOrder());
+    }
+
+    @Test
+    void thirtyStopsSequenceQuickly() {
+        Random random = new Random(23);
+        List<StopSequencer.Stop> stops = randomStops(random, 14, 2);
+        assertEquals(30, stops.size());
+
+        StopSequencer.Route route = assertTimeout(Duration.ofMillis(500),
+                () -> StopSequencer.sequence(START_LAT, START_LNG, stops));
+
+        assertPermutation(route.getOrder(), stops.size());
+        assertPrecedence(stops, route.getOrder());
+    }
+
+    @Test
+    void noStops() {
+        StopSequencer.Route route = StopSequencer.sequence(START_LAT, START_LNG, List.of());
+
+        assertEquals(0, route.getOrder().length);
+        assertEquals(0, route.getDistanceKm());
+    }
+
+    // Pickup/drop pairs plus drops of parcels already on board, shuffled, within ~10 km of the start
+    private static List<StopSequencer.Stop> randomStops(Random random, int pairs, int onBoard) {
+        List<StopSequencer.Stop> stops = new ArrayList<>();
+        long deliveryId = 1;
+        for (int i = 0; i < pairs; i++, deliveryId++) {
+            stops.add(new StopSequencer.Stop(deliveryId, true, randomLat(random), randomLng(random)));
+            stops.add(new StopSequencer.Stop(deliveryId, false, randomLat(random), randomLng(random)));
+        }
+        for (int i = 0; i < onBoard; i++, deliveryId++) {
+            stops.add(new StopSequencer.Stop(deliveryId, false, randomLat(random), randomLng(random)));
+        }
+        Collections.shuffle(stops, random);
+        return stops;
+    }
+
+    private static double randomLat(Random random) {
+        return START_LAT + (random.nextDouble() * 2 - 1) * 0.09;
+    }
+
+    private static double randomLng(Random random) {
+        return START_LNG + (random.nextDouble() * 2 - 1) * 0.09;
+    }
+
+    private static void assertPermutation(int[] order, int size) {
+        assertEquals(size, order.length);
+        boolean[] seen = new boolean[size];
+        for (int index : order) {
+            assertFalse(seen[index], "stop " + index + " visited twice");
+            seen[index] = true;
+        }
+    }
+
+    private static void assertPrecedence(List<StopSequencer.Stop> stops, int[] order) {
+        Map<Long, Integer> pickedUpAt = new HashMap<>();
+        for (int p = 0; p < order.length; p++) {
+            StopSequencer.Stop stop = stops.get(order[p]);
+            if (stop.isPickup()) {
+                pickedUpAt.put(stop.getDeliveryId(), p);
+            }
+        }
+        for (int p = 0; p < order.length; p++) {
+            StopSequencer.Stop stop = stops.get(order[p]);
+            Integer pickup = pickedUpAt.get(stop.getDeliveryId());
+            if (!stop.isPickup() && pickup != null) {
+                assertTrue(pickup < p, "drop of " + stop.getDeliveryId() + " before its pickup");
+            }
+        }
+    }
+
+    private static double length(List<StopSequencer.Stop> stops, int[] order) {
+        double total = 0;
+        double lat = START_LAT;
+        double lng = START_LNG;
+        for (int index : order) {
+            StopSequencer.Stop stop = stops.get(index);
+            total += GeoUtils.haversineKm(lat, lng, stop.getLatitude(), stop.getLongitude());
+            lat = stop.getLatitude();
+            lng = stop.getLongitude();
+        }
+        return total;
+    }
+
+    private static double bestFeasible(List<StopSequencer.Stop> stops) {
+        return bestFeasible(stops, new int[stops.size()], new boolean[stops.size()], 0);
+    }
+
+    private static double bestFeasible(List<StopSequencer.Stop> stops, int[] order, boolean[] used, int depth) {
+        if (depth == order.length) {
+            return length(stops, order);
+        }
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < order.length; i++) {
+            if (used[i] || !pickupDone(stops, i, used)) {
+                continue;
+            }
+            used[i] = true;
+            order[depth] = i;
+            best = Math.min(best, bestFeasible(stops, order, used, depth + 1));
+            used[i] = false;
+        }
+        return best;
+    }
+
+    private static boolean pickupDone(List<StopSequencer.Stop> stops, int drop, boolean[] used) {
+        if (stops.get(drop).isPickup()) {
+            return true;
+        }
+        for (int i = 0; i < stops.size(); i++) {
+            if (stops.get(i).isPickup() && stops.get(i).getDeliveryId() == stops.get(drop).getDeliveryId()) {
+                return used[i];
+            }
+        }
+        return true;
+    }
+}
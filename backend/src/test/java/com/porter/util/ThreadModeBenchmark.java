@@ -0,0 +1,184 @@
+package com.porter.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Burst load comparison of the request thread models. Every request does a little CPU
+ * work and then blocks for a fixed time, standing in for a JDBC round trip or an
+ * outbound HTTP call. All requests are submitted at once and latency is measured from
+ * submission, so queueing behind a bounded platform pool shows up in the percentiles
+ * the same way it does for requests waiting on Tomcat's worker threads.
+ * <p>
+ * Two extra virtual-thread runs wrap the blocking call in a lock: one in a
+ * {@code synchronized} block, which pins the carrier thread on Java 21, and one in a
+ * {@link ReentrantLock}, which does not. The pinned run is capped at twenty waves of
+ * carrier threads because it degrades to one request per carrier at a time. Not run by
+ * surefire; run {@link #main} on the test classpath, e.g. from the IDE.
+ */
+public final class ThreadModeBenchmark {
+
+    public static final class Scenario {
+        private int requests = 5000;
+        private long blockingMillis = 50;
+        private long cpuMicros = 50;
+        private int platformThreads = 200;
+        private boolean includeLocking = true;
+
+        public void setRequests(int requests) { this.requests = requests; }
+        public void setBlockingMillis(long blockingMillis) { this.blockingMillis = blockingMillis; }
+        public void setCpuMicros(long cpuMicros) { this.cpuMicros = cpuMicros; }
+        public void setPlatformThreads(int platformThreads) { this.platformThreads = platformThreads; }
+        public void setIncludeLocking(boolean includeLocking) { this.includeLocking = includeLocking; }
+    }
+
+    private static final int LOCK_STRIPES = 64;
+
+    private ThreadModeBenchmark() {
+    }
+
+    public static Map<String, Object> run(Scenario scenario) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("javaVersion", Runtime.version().toString());
+        report.put("processors", Runtime.getRuntime().availableProcessors());
+        report.put("requests", scenario.requests);
+        report.put("blockingMillis", scenario.blockingMillis);
+        report.put("cpuMicros", scenario.cpuMicros);
+
+        Object[] monitors = new Object[LOCK_STRIPES];
+        ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            monitors[i] = new Object();
+            locks[i] = new ReentrantLock();
+        }
+        Request plain = i -> work(scenario);
+        Request pinned = i -> {
+            synchronized (monitors[i % LOCK_STRIPES]) {
+                work(scenario);
+            }
+        };
+        Request locked = i -> {
+            ReentrantLock lock = locks[i % LOCK_STRIPES];
+            lock.lock();
+            try {
+                work(scenario);
+            } finally {
+                lock.unlock();
+            }
+        };
+
+        report.put("platform" + scenario.platformThreads,
+                measure(() -> Executors.newFixedThreadPool(scenario.platformThreads), plain, scenario.requests));
+        if (!VirtualThreads.isSupported()) {
+            report.put("virtual", "unsupported on this runtime; run on Java 21 or later");
+            return report;
+        }
+        report.put("virtual", measure(() -> VirtualThreads.newThreadPerTaskExecutor("thread-mode-"), plain, scenario.requests));
+        if (scenario.includeLocking) {
+            // With one request per stripe at a time, a lock only serializes requests that share a stripe
+            int lockedRequests = Math.min(scenario.requests, LOCK_STRIPES * 20);
+            int carriers = Integer.getInteger("jdk.virtualThreadScheduler.parallelism",
+                    Runtime.getRuntime().availableProcessors());
+            int pinnedRequests = Math.min(lockedRequests, Math.min(carriers, LOCK_STRIPES) * 20);
+            report.put("virtualReentrantLock",
+                    measure(() -> VirtualThreads.newThreadPerTaskExecutor("thread-mode-"), locked, lockedRequests));
+            report.put("virtualSynchronized",
+                    measure(() -> VirtualThreads.newThreadPerTaskExecutor("thread-mode-"), pinned, pinnedRequests));
+        }
+        return report;
+    }
+
+    public static void main(String[] args) {
+        run(new Scenario()).forEach((key, value) -> System.out.println(key + ": " + value));
+    }
+
+    private interface Request {
+        void handle(int index) throws InterruptedException;
+    }
+
+    private interface ExecutorFactory {
+        ExecutorService create();
+    }
+
+    private static void work(Scenario scenario) throws InterruptedException {
+        long until = System.nanoTime() + scenario.cpuMicros * 1000;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(scenario.blockingMillis);
+    }
+
+    private static Map<String, Object> measure(ExecutorFactory executors, Request request, int requests) {
+        // Warm-up burst so thread creation and JIT do not land in the measured run
+        burst(executors, request, Math.min(requests, 500));
+        long[] latencies = new long[requests];
+        long started = System.nanoTime();
+        int failed = burst(executors, request, latencies);
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", requests);
+        result.put("failed", failed);
+        result.put("wallMillis", elapsed / 1_000_000);
+        result.put("requestsPerSecond", Math.round(requests / (elapsed / 1e9)));
+        result.put("p50Millis", percentile(latencies, 0.50));
+        result.put("p99Millis", percentile(latencies, 0.99));
+        result.put("maxMillis", millis(latencies[latencies.length - 1]));
+        return result;
+    }
+
+    private static void burst(ExecutorFactory executors, Request request, int requests) {
+        burst(executors, request, new long[requests]);
+    }
+
+    private static int burst(ExecutorFactory executors, Request request, long[] latencies) {
+        CountDownLatch done = new CountDownLatch(latencies.length);
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = executors.create();
+        try {
+            for (int i = 0; i < latencies.length; i++) {
+                int index = i;
+                long submitted = System.nanoTime();
+                executor.execute(() -> {
+                    try {
+                        request.handle(index);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failed.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        latencies[index] = System.nanoTime() - submitted;
+                        done.countDown();
+                    }
+                });
+            }
+            if (!done.await(10, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Load test did not finish within 10 minutes");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Load test interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return failed.get();
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return millis(sorted[Math.max(0, index)]);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e4) / 100.0;
+    }
+}
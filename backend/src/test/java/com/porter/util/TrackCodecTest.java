@@ -0,0 +1,109 @@
+package com.porter.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TrackCodecTest {
+
+    private static final String[] STATUSES = {"ACCEPTED", "PICKED_UP", "IN_TRANSIT", "DELIVERED", null};
+
+    @Test
+    void randomTracksRoundTripWithinAMicrodegree() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            List<TrackCodec.Point> points = randomWalk(random, random.nextInt(300));
+
+            List<TrackCodec.Point> decoded = TrackCodec.decode(TrackCodec.encode(points));
+
+            assertEquals(points.size(), decoded.size());
+            for (int i = 0; i < points.size(); i++) {
+                assertSame(points.get(i), decoded.get(i));
+            }
+        }
+    }
+
+    @Test
+    void negativeDeltasAndCoordinatesSurvive() {
+        // Heading south-west across both the equator and the prime meridian, with a clock step back
+        List<TrackCodec.Point> points = List.of(
+                new TrackCodec.Point(0.000005, 0.000003, 1_700_000_000_000L, "IN_TRANSIT"),
+                new TrackCodec.Point(-0.5, -0.25, 1_700_000_060_000L, "IN_TRANSIT"),
+                new TrackCodec.Point(-33.868820, -151.209296, 1_700_000_030_000L, "IN_TRANSIT"),
+                new TrackCodec.Point(-89.999999, -179.999999, 0L, "DELIVERED"));
+
+        List<TrackCodec.Point> decoded = TrackCodec.decode(TrackCodec.encode(points));
+
+        for (int i = 0; i < points.size(); i++) {
+            assertSame(points.get(i), decoded.get(i));
+        }
+    }
+
+    @Test
+    void nullStatusStaysNull() {
+        List<TrackCodec.Point> points = List.of(
+                new TrackCodec.Point(12.97, 77.59, 1000, null),
+                new TrackCodec.Point(12.98, 77.60, 2000, "PICKED_UP"),
+                new TrackCodec.Point(12.99, 77.61, 3000, null));
+
+        List<TrackCodec.Point> decoded = TrackCodec.decode(TrackCodec.encode(points));
+
+        assertNull(decoded.get(0).getStatus());
+        assertEquals("PICKED_UP", decoded.get(1).getStatus());
+        assertNull(decoded.get(2).getStatus());
+    }
+
+    @Test
+    void emptyTrack() {
+        assertTrue(TrackCodec.decode(TrackCodec.encode(List.of())).isEmpty());
+    }
+
+    @Test
+    void truncatedInputIsRejected() {
+        byte[] encoded = TrackCodec.encode(randomWalk(new Random(5), 20));
+
+        for (int length = 0; length < encoded.length; length++) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> TrackCodec.decode(truncated), "length " + length);
+        }
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        byte[] encoded = TrackCodec.encode(List.of(new TrackCodec.Point(12.97, 77.59, 1000, "ACCEPTED")));
+        encoded[0] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> TrackCodec.decode(encoded));
+    }
+
+    private static void assertSame(TrackCodec.Point expected, TrackCodec.Point actual) {
+        assertEquals(expected.getLatitude(), actual.getLatitude(), 1e-6);
+        assertEquals(expected.getLongitude(), actual.getLongitude(), 1e-6);
+        assertEquals(expected.getEpochMillis(), actual.getEpochMillis());
+        assertEquals(expected.getStatus(), actual.getStatus());
+    }
+
+    // GPS-like walk: small steps in every direction, the odd jump, mostly increasing time
+    private static List<TrackCodec.Point> randomWalk(Random random, int size) {
+        List<TrackCodec.Point> points = new ArrayList<>(size);
+        double lat = -60 + random.nextDouble() * 120;
+        double lng = -170 + random.nextDouble() * 340;
+        long millis = 1_700_000_000_000L + random.nextInt(1_000_000);
+        for (int i = 0; i < size; i++) {
+            double step = random.nextInt(20) == 0 ? 0.5 : 0.0005;
+            lat += (random.nextDouble() * 2 - 1) * step;
+            lng += (random.nextDouble() * 2 - 1) * step;
+            millis += random.nextInt(10) == 0 ? -random.nextInt(5_000) : random.nextInt(30_000);
+            points.add(new TrackCodec.Point(lat, lng, millis, STATUSES[random.nextInt(STATUSES.length)]));
+        }
+        return points;
+    }
+}
@@ -3,6 +3,7 @@ import L from 'leaflet';
 import 'leaflet-routing-machine';
 import 'leaflet-routing-machine/dist/leaflet-routing-machine.css';
 import { Box, Typography, Paper, List, ListItem, ListItemText, Radio, TextField } from '@mui/material';
+import API from '../../config';
 
 const RouteMap = ({ pickupLocation, deliveryLocation, onRouteCalculated, pricePerKm: initialPricePerKm = 20 }) => {
   const mapRef = useRef(null);
@@ -53,7 +54,8 @@ const RouteMap = ({ pickupLocation, deliveryLocation, onRouteCalculated, pricePe
         L.latLng(deliveryLocation.lat, deliveryLocation.lng)
       ],
       router: L.Routing.osrmv1({
-        serviceUrl: 'https://router.project-osrm.org/route/v1',
+        // Routed through the backend so repeated pickup/drop pairs hit its route cache
+        serviceUrl: `${API}/proxy/osrm/route/v1`,
         profile: 'driving'
       }),
       lineOptions: {
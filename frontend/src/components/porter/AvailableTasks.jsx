@@ -27,7 +27,7 @@ import { toast } from 'react-toastify';
 import porterService from '../../services/porterService';
 import Swal from 'sweetalert2';
 import { DeliveryEventContext } from '../../contexts/DeliveryEventContext';
-import { connectWebSocket } from '../../services/websocketService';
+import { connectWebSocket, setOfferHandler } from '../../services/websocketService';
 
 const AvailableTasks = ({ onTaskAccepted }) => {
   const { reloadFlag } = useContext(DeliveryEventContext);
@@ -51,7 +51,7 @@ const AvailableTasks = ({ onTaskAccepted }) => {
       if (delivery.status === 'PENDING') {
         setBannerDeliveries((prev) => {
           if (prev.some((b) => b.delivery.id === delivery.id)) return prev;
-          return [...prev, { delivery, timer: 8 }];
+          return [...prev, { delivery, timer: 8, duration: 8 }];
         });
       }
     };
@@ -59,6 +59,29 @@ const AvailableTasks = ({ onTaskAccepted }) => {
     return () => {};
   }, []);
 
+  useEffect(() => {
+    setOfferHandler((offer) => {
+      if (offer.type === 'OFFER' && offer.delivery) {
+        const seconds = Math.max(1, Math.round((offer.expiresAt - Date.now()) / 1000));
+        setBannerDeliveries((prev) => [
+          ...prev.filter((b) => b.delivery.id !== offer.deliveryId),
+          { delivery: offer.delivery, timer: seconds, duration: seconds, offered: true }
+        ]);
+      } else {
+        // Expired or withdrawn
+        setBannerDeliveries((prev) => prev.filter((b) => b.delivery.id !== offer.deliveryId));
+      }
+    });
+    return () => setOfferHandler(null);
+  }, []);
+
+  const handleDismissBanners = () => {
+    bannerDeliveries
+      .filter((b) => b.offered)
+      .forEach((b) => porterService.declineOffer(b.delivery.id).catch(() => {}));
+    setBannerDeliveries([]);
+  };
+
   useEffect(() => {
     if (bannerDeliveries.length === 0) {
        fetchAvailableDeliveries();
@@ -190,7 +213,7 @@ const AvailableTasks = ({ onTaskAccepted }) => {
             <Paper key={b.delivery.id} sx={{ p: 2, mb: 2, background: '#fffbe6', border: '2px solid #ffd700', position: 'relative' }} elevation={4}>
               <Box sx={{ display: 'flex', alignItems: 'center', justifyContent: 'space-between' }}>
                 <Box>
-                  <Typography variant="subtitle1" color="warning.main">Delivery</Typography>
+                  <Typography variant="subtitle1" color="warning.main">{b.offered ? 'Offered to you' : 'Delivery'}</Typography>
                   <Typography variant="body1"><strong>From:</strong> {b.delivery.pickupLocation?.address}</Typography>
                   <Typography variant="body1"><strong>To:</strong> {b.delivery.deliveryLocation?.address}</Typography>
                   <Typography variant="body2">Scheduled: {b.delivery.scheduledTime && new Date(b.delivery.scheduledTime).toLocaleDateString('en-US', {
@@ -205,7 +228,7 @@ const AvailableTasks = ({ onTaskAccepted }) => {
                 </Box>
                 <Box sx={{ display: 'flex', flexDirection: 'column', alignItems: 'center', minWidth: 120 }}>
                   <Button variant="contained" color="primary" onClick={() => handleAcceptBannerDelivery(b.delivery.id)} sx={{ mb: 1 }}>Accept</Button>
-                  <LinearProgress variant="determinate" value={(b.timer / 10) * 100} sx={{ width: '100%', height: 8, borderRadius: 4, background: '#ffe082' }} />
+                  <LinearProgress variant="determinate" value={(b.timer / (b.duration || 10)) * 100} sx={{ width: '100%', height: 8, borderRadius: 4, background: '#ffe082' }} />
                   <Typography variant="caption" color="warning.main">{b.timer}s</Typography>
                 </Box>
               </Box>
@@ -213,7 +236,7 @@ const AvailableTasks = ({ onTaskAccepted }) => {
           ))}
         </DialogContent>
         <DialogActions>
-          <Button onClick={() => setBannerDeliveries([])} color="secondary">Dismiss All</Button>
+          <Button onClick={handleDismissBanners} color="secondary">Dismiss All</Button>
         </DialogActions>
       </Dialog>
       <Paper sx={{ p: 2 }}>
@@ -1,6 +1,7 @@
 import React, { createContext, useState, useContext, useEffect } from 'react';
 import axios from 'axios';
 import API from '../config';
+import { refreshWebSocketSession } from '../services/websocketService';
 
 const AuthContext = createContext(null);
 
@@ -76,6 +77,7 @@ export const AuthProvider = ({ children }) => {
         localStorage.setItem('user', JSON.stringify(userData));
         setUser(userData);
         setTempToken(null);
+        refreshWebSocketSession();
       }
       
       return response.data;
@@ -112,6 +114,7 @@ export const AuthProvider = ({ children }) => {
     localStorage.removeItem('user');
     setUser(null);
     setTempToken(null);
+    refreshWebSocketSession();
   };
 
   // Add a handler for WebSocket user/porter updates
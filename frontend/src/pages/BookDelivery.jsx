@@ -38,6 +38,8 @@ const BookDelivery = () => {
   const [error, setError] = useState('');
   const [showPayment, setShowPayment] = useState(false);
   const [deliveryId, setDeliveryId] = useState(null);
+  // Fare priced by the server when the delivery was created
+  const [quotedAmount, setQuotedAmount] = useState(null);
   const [formData, setFormData] = useState({
     pickupLocation: null,
     deliveryLocation: null,
@@ -183,6 +185,7 @@ const BookDelivery = () => {
       );
 
       setDeliveryId(response.data.id);
+      setQuotedAmount(response.data.amount);
       setShowPayment(true);
       toast.success('Delivery details saved! Please proceed with payment.');
     } catch (err) {
@@ -350,7 +353,7 @@ const BookDelivery = () => {
             Complete Payment
           </Typography>
           <Payment
-            amount={calculatePrice(availableRoutes[formData.selectedRouteIndex].distance)}
+            amount={quotedAmount ?? calculatePrice(availableRoutes[formData.selectedRouteIndex].distance)}
             onPaymentSuccess={handlePaymentSuccess}
             onPaymentError={handlePaymentError}
             deliveryId={deliveryId}
@@ -6,6 +6,7 @@ import 'leaflet/dist/leaflet.css';
 import { Container, Typography, Paper, Box, CircularProgress, Alert, Chip, Modal, Button } from '@mui/material';
 import Rating from '@mui/material/Rating';
 import API from '../config';
+import { watchDeliveryLocation } from '../services/websocketService';
 
 
 const OrderTracking = () => {
@@ -23,8 +24,21 @@ const OrderTracking = () => {
 
   useEffect(() => {
     fetchTracking();
-    const interval = setInterval(fetchTracking, 10000);
-    return () => clearInterval(interval);
+    // Live positions arrive over the socket; polling only refreshes the full path and status
+    const interval = setInterval(fetchTracking, 30000);
+    const unwatch = watchDeliveryLocation(deliveryId, ({ lat, lng, ts }) => {
+      setTracking(prev => {
+        const last = prev[prev.length - 1];
+        if (last && last.timestamp >= ts) {
+          return prev;
+        }
+        return [...prev, { latitude: lat, longitude: lng, timestamp: ts, status: last ? last.status : null }];
+      });
+    });
+    return () => {
+      clearInterval(interval);
+      unwatch();
+    };
   }, [deliveryId]);
 
   const fetchTracking = async () => {
@@ -32,10 +46,18 @@ const OrderTracking = () => {
     setError('');
     try {
       const token = localStorage.getItem('token');
-      const trackingRes = await axios.get(`${API}/tracking/${deliveryId}`, {
-        headers: { Authorization: `Bearer ${token}` }
+      // Simplified path at the map's zoom; points come as [lat, lng, epochMillis, status]
+      const trackingRes = await axios.get(`${API}/tracking/${deliveryId}/path`, {
+        headers: { Authorization: `Bearer ${token}` },
+        params: { zoom: 14 }
       });
-      const { tracking: newTracking, delivery: newDelivery } = trackingRes.data;
+      const { points, delivery: newDelivery } = trackingRes.data;
+      if (!points.length) {
+        throw new Error('No tracking yet');
+      }
+      const newTracking = points.map(([latitude, longitude, timestamp, status]) => ({
+        latitude, longitude, timestamp, status
+      }));
 
       setTracking(prev => {
         const last = prev[prev.length - 1];
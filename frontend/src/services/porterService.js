@@ -52,6 +52,20 @@ const porterService = {
         }
     },
 
+    // Pass on a delivery the dispatcher offered to us
+    declineOffer: async (deliveryId) => {
+        try {
+            const response = await axios.post(
+                `${API}/porter/offers/${deliveryId}/decline`,
+                {},
+                getAuthHeader()
+            );
+            return response.data;
+        } catch (error) {
+            handleError(error);
+        }
+    },
+
     // Accept a delivery with location
     acceptDeliveryWithLocation: async (deliveryId, latitude, longitude) => {
         try {
@@ -122,6 +136,42 @@ const porterService = {
         } catch (error) {
             handleError(error);
         }
+    },
+
+    // Group accepted deliveries into one sequenced multi-stop trip
+    createTrip: async (deliveryIds, latitude, longitude) => {
+        try {
+            const response = await axios.post(
+                `${API}/porter/trips`,
+                { deliveryIds, latitude, longitude },
+                getAuthHeader()
+            );
+            return response.data;
+        } catch (error) {
+            handleError(error);
+        }
+    },
+
+    getOpenTrips: async () => {
+        try {
+            const response = await axios.get(`${API}/porter/trips`, getAuthHeader());
+            return response.data;
+        } catch (error) {
+            handleError(error);
+        }
+    },
+
+    completeTripStop: async (tripId, stopId, latitude, longitude) => {
+        try {
+            const response = await axios.post(
+                `${API}/porter/trips/${tripId}/stops/${stopId}/complete`,
+                {},
+                { ...getAuthHeader(), params: { latitude, longitude } }
+            );
+            return response.data;
+        } catch (error) {
+            handleError(error);
+        }
     }
 };
 
@@ -5,9 +5,99 @@ let messageHandlers = {
   deliveries: null,
   users: null,
   porters: null,
-  admin: null
+  admin: null,
+  offers: null
 };
 
+// Live location streams by delivery id; resubscribed after every reconnect
+const locationHandlers = new Map();
+const locationSubscriptions = new Map();
+
+// Must match websocket.porter-shard-size-degrees on the backend
+const PORTER_SHARD_SIZE_DEGREES = 0.2;
+
+function currentUser() {
+  const storedUser = localStorage.getItem('user');
+  if (!storedUser || storedUser === 'null' || storedUser === 'undefined') {
+    return null;
+  }
+  try {
+    return JSON.parse(storedUser);
+  } catch (err) {
+    return null;
+  }
+}
+
+function authHeaders() {
+  const token = localStorage.getItem('token');
+  return token && token !== 'null' && token !== 'undefined'
+    ? { Authorization: `Bearer ${token}` }
+    : {};
+}
+
+function subscribeJson(destination, handlerKey, label) {
+  stompClient.subscribe(destination, (message) => {
+    if (messageHandlers[handlerKey]) {
+      try {
+        const payload = JSON.parse(message.body);
+        // Bulk bookings arrive as one list per porter cell
+        if (Array.isArray(payload)) {
+          payload.forEach((item) => messageHandlers[handlerKey](item));
+        } else {
+          messageHandlers[handlerKey](payload);
+        }
+      } catch (err) {
+        console.error(`Error parsing ${label} message:`, err, message.body);
+      }
+    }
+  });
+}
+
+function subscribeLocation(deliveryId) {
+  const subscription = stompClient.subscribe(`/topic/delivery/${deliveryId}/location`, (message) => {
+    const handler = locationHandlers.get(deliveryId);
+    if (handler) {
+      try {
+        handler(JSON.parse(message.body));
+      } catch (err) {
+        console.error('Error parsing location message:', err, message.body);
+      }
+    }
+  });
+  locationSubscriptions.set(deliveryId, subscription);
+}
+
+function porterShardTopic(latitude, longitude) {
+  const row = Math.floor((latitude + 90) / PORTER_SHARD_SIZE_DEGREES);
+  const col = Math.floor((longitude + 180) / PORTER_SHARD_SIZE_DEGREES);
+  return `/topic/porters/cell/${row}_${col}`;
+}
+
+// New jobs are published per pickup cell; listen to our cell and its neighbours
+function subscribeNearbyPorterCells() {
+  if (!navigator.geolocation) {
+    return;
+  }
+  navigator.geolocation.getCurrentPosition(
+    (position) => {
+      if (!stompClient || !stompClient.connected) {
+        return;
+      }
+      const { latitude, longitude } = position.coords;
+      for (let dLat = -1; dLat <= 1; dLat++) {
+        for (let dLng = -1; dLng <= 1; dLng++) {
+          subscribeJson(
+            porterShardTopic(latitude + dLat * PORTER_SHARD_SIZE_DEGREES, longitude + dLng * PORTER_SHARD_SIZE_DEGREES),
+            'deliveries',
+            'delivery'
+          );
+        }
+      }
+    },
+    (error) => console.warn('Could not get location for nearby deliveries:', error)
+  );
+}
+
 export function connectWebSocket(onDeliveryMessage, onUserMessage, onPorterMessage, onAdminMessage) {
   messageHandlers.deliveries = onDeliveryMessage;
   messageHandlers.users = onUserMessage;
@@ -24,49 +114,32 @@ export function connectWebSocket(onDeliveryMessage, onUserMessage, onPorterMessa
     reconnectDelay: 5000,
     heartbeatIncoming: 4000,
     heartbeatOutgoing: 4000,
+    connectHeaders: authHeaders(),
+    beforeConnect: () => {
+      // Pick up a token obtained after the client was created (e.g. login)
+      stompClient.connectHeaders = authHeaders();
+    },
     onConnect: () => {
-      
-      stompClient.subscribe('/topic/deliveries', (message) => {
-        if (messageHandlers.deliveries) {
-          try {
-            messageHandlers.deliveries(JSON.parse(message.body));
-          } catch (err) {
-            console.error('Error parsing delivery message:', err, message.body);
-          }
-        }
-      });
-
-      stompClient.subscribe('/topic/users', (message) => {
-        if (messageHandlers.users) {
-          try {
-            messageHandlers.users(JSON.parse(message.body));
-          } catch (err) {
-            console.error('Error parsing user message:', err, message.body);
-          }
-        }
-      });
-
-      stompClient.subscribe('/topic/porters', (message) => {
-        if (messageHandlers.porters) {
-          try {
-            messageHandlers.porters(JSON.parse(message.body));
-          } catch (err) {
-            console.error('Error parsing porter message:', err, message.body);
-          }
-        }
-      });
-
-      stompClient.subscribe('/topic/admin', (message) => {
-        if (messageHandlers.admin) {
-          try {
-            messageHandlers.admin(JSON.parse(message.body));
-          } catch (err) {
-            console.error('Error parsing admin message:', err, message.body);
-          }
-        }
-      });
+      const user = currentUser();
+
+      // Updates for deliveries we own or carry, and for our own account
+      subscribeJson('/user/queue/deliveries', 'deliveries', 'delivery');
+      subscribeJson('/user/queue/account', 'users', 'user');
+      subscribeJson('/user/queue/account', 'porters', 'porter');
+
+      locationHandlers.forEach((_, deliveryId) => subscribeLocation(deliveryId));
+
+      if (user && user.role === 'ADMIN') {
+        subscribeJson('/topic/admin', 'admin', 'admin');
+      }
+
+      if (user && user.role === 'PORTER') {
+        subscribeJson('/user/queue/offers', 'offers', 'offer');
+        subscribeNearbyPorterCells();
+      }
     },
     onDisconnect: () => {
+      locationSubscriptions.clear();
     },
     onStompError: (frame) => {
       console.error('WebSocket STOMP error:', frame);
@@ -75,6 +148,7 @@ export function connectWebSocket(onDeliveryMessage, onUserMessage, onPorterMessa
       console.error('WebSocket error:', error);
     },
     onWebSocketClose: (event) => {
+      locationSubscriptions.clear();
       console.warn('WebSocket closed:', event);
     },
     onUnhandledFrame: (frame) => {
@@ -96,6 +170,28 @@ export function connectWebSocket(onDeliveryMessage, onUserMessage, onPorterMessa
   stompClient.activate();
 }
 
+// Dispatch offers are handled by whichever porter screen is open
+export function setOfferHandler(handler) {
+  messageHandlers.offers = handler;
+}
+
+// Coalesced live position of one delivery: { deliveryId, lat, lng, heading, ts }; returns an unsubscribe function
+export function watchDeliveryLocation(deliveryId, handler) {
+  const key = String(deliveryId);
+  locationHandlers.set(key, handler);
+  if (stompClient && stompClient.connected && !locationSubscriptions.has(key)) {
+    subscribeLocation(key);
+  }
+  return () => {
+    locationHandlers.delete(key);
+    const subscription = locationSubscriptions.get(key);
+    locationSubscriptions.delete(key);
+    if (subscription && stompClient && stompClient.connected) {
+      subscription.unsubscribe();
+    }
+  };
+}
+
 export function disconnectWebSocket() {
   if (stompClient) {
     stompClient.deactivate();
@@ -103,6 +199,14 @@ export function disconnectWebSocket() {
   }
 }
 
+// Reconnect so the STOMP session picks up the current login (or lack of one)
+export async function refreshWebSocketSession() {
+  if (stompClient) {
+    await stompClient.deactivate();
+    stompClient.activate();
+  }
+}
+
 export function isConnected() {
   return stompClient && stompClient.connected;
 } 
\ No newline at end of file